@@ -2,21 +2,18 @@ package Finance;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import Finance.gui.Panels.MainPanel;
 import Finance.gui.Panels.ExpensesPanel;
 import Finance.gui.Panels.BalancePanel;
 import Finance.gui.Panels.SavingGoalsPanel;
 import Finance.gui.Panels.InvestmentPanel;
 import Finance.gui.components.UIComponents;
+import Finance.data.ExpenseStorage;
+import Finance.data.ExpenseStore;
 
 public class FinanceTracker {
 
-    private final Map<String, List<String>> monthlyExpenses = new HashMap<>();  // Store expenses per month
-    private final Map<String, Map<String, String>> monthlyNetSavings = new HashMap<>();  // Store net savings info per month
-    private final Map<String, Map<String, String>> monthlyDebts = new HashMap<>();  // Store debts info per month
+    private final ExpenseStore expenseStore = new ExpenseStore(new ExpenseStorage().loadExpenses());  // Expenses ordered by date
     private final CardLayout cardLayout = new CardLayout();   // CardLayout allows switching between different "screens" in the app
     private final JPanel cardPanel = new JPanel(cardLayout); // This panel holds all other panels and switches between them with cardLayout
     private MainPanel mainPanel; // These are the main panels in the app, saved here so we can update them later
@@ -34,8 +31,8 @@ public class FinanceTracker {
         // Create the main panel (dashboard/home screen)
         mainPanel = new MainPanel(cardLayout, cardPanel);
         // Create other panels with their data
-        ExpensesPanel expensesPanel = new ExpensesPanel(monthlyExpenses);
-        BalancePanel balancePanel = new BalancePanel(monthlyNetSavings, monthlyDebts);
+        ExpensesPanel expensesPanel = new ExpensesPanel(expenseStore);
+        BalancePanel balancePanel = new BalancePanel(expenseStore);
         SavingGoalsPanel savingGoalsPanel = new SavingGoalsPanel();
         InvestmentPanel investmentPanel = new InvestmentPanel(cardLayout, cardPanel);
 
@@ -1,72 +1,126 @@
 package Finance.api;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import org.json.JSONObject;
-
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+import shared.FxRateProvider;
+
+/**
+ * Converts amounts between currencies for the Finance application.
+ * <p>
+ * Today's rates come from the {@link FxRateProvider} shared with Investify, which keeps
+ * one table of ECB reference rates in memory and refreshes it in the background, so a
+ * conversion never waits for the network. Until the first download succeeds, the
+ * provider only knows its built-in EUR, USD and CHF rates, which covers the currencies
+ * offered by the expenses panel. Rates of past dates come from {@link HistoricalRates}.
+ * <p>
+ * The shared converter is created on first use, so loading this class neither reads
+ * the rate file nor starts the refresh.
+ */
 public class CurrencyConverter {
+
+    private static CurrencyConverter shared; // Created on first use
+
+    private final FxRateProvider rates; // Today's rates, kept in memory
+
+    /**
+     * Creates a converter reading today's rates from a provider.
+     *
+     * @param rates The provider of today's rates
+     */
+    public CurrencyConverter(FxRateProvider rates) {
+        this.rates = rates;
+    }
+
+    /**
+     * Gets the converter used by the static methods, creating it on first use.
+     *
+     * @return The converter over the shared rate provider
+     */
+    private static synchronized CurrencyConverter getShared() {
+        if (shared == null) {
+            shared = new CurrencyConverter(FxRateProvider.getShared());
+        }
+        return shared;
+    }
+
     /**
-     * Fetches the current exchange rate between two currencies using the Frankfurter API
+     * Gets the current exchange rate between two currencies
      * @param fromCurrency The currency code to convert from (e.g., "USD")
      * @param toCurrency The currency code to convert to (e.g., "EUR")
      * @return The current exchange rate as a double
-     * @throws RuntimeException if the API request fails or the response is invalid
+     * @throws RuntimeException if no rate is available, online or cached
      */
     public static double getExchangeRate(String fromCurrency, String toCurrency) {
-        try {
-            // Construct the API URL with the specified currencies
-            String urlStr = String.format(
-                    "https://api.frankfurter.app/latest?from=%s&to=%s",
-                    fromCurrency, toCurrency);
-
-            System.out.println("Requesting URL: " + urlStr); // Log the URL being requested for debugging
-
-            // Create URL object and open HTTP connection
-            URL url = new URL(urlStr);
-            HttpURLConnection con = (HttpURLConnection) url.openConnection();
-
-            con.setRequestMethod("GET"); // Set the HTTP request method to GET
-
-            int responseCode = con.getResponseCode(); // Get the HTTP response code
-
-            // Check if the response code indicates success (200)
-            if (responseCode != 200) {
-                throw new RuntimeException("HTTP error code: " + responseCode); // Throw exception for non-successful responses
-            }
-
-            // Set up a reader to process the API response
-            BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()));
-            StringBuilder response = new StringBuilder();
-            String inputLine;
-
-            // Read the response line by line and build the complete response string
-            while ((inputLine = in.readLine()) != null) {
-                response.append(inputLine);
-            }
-
-            in.close(); // Close the input stream
-
-            System.out.println("Response JSON: " + response); // Log the complete JSON response for debugging
-
-            JSONObject json = new JSONObject(response.toString()); // Parse the JSON response into a JSONObject
-            JSONObject rates = json.getJSONObject("rates"); // Extract the "rates" object from the JSON response
-
-            if (!rates.has(toCurrency)) { // Verify the target currency exists in the rates
-                throw new RuntimeException("Currency not found in response");
-            }
+        return getShared().getRate(fromCurrency, toCurrency);
+    }
 
-            double rate = rates.getDouble(toCurrency); // Get the specific exchange rate for the target currency
+    /**
+     * Gets the exchange rate between two currencies on the date of an amount.
+     * Meant for display: amounts that are stored should use {@link #getExchangeRateAsync},
+     * which reports a missing rate instead of silently using today's.
+     * @param fromCurrency The currency code to convert from (e.g., "USD")
+     * @param toCurrency The currency code to convert to (e.g., "CHF")
+     * @param date The date of the amount
+     * @return The exchange rate of that date, or the current rate if historical rates are unavailable
+     * @throws RuntimeException if no rate is available at all
+     */
+    public static double getExchangeRate(String fromCurrency, String toCurrency, LocalDate date) {
+        try {
+            return HistoricalRates.getShared().getRate(fromCurrency, toCurrency, date);
+        } catch (Exception e) {
+            System.err.println("Historical exchange rate unavailable, using the current rate: " + e.getMessage());
+            return getExchangeRate(fromCurrency, toCurrency);
+        }
+    }
 
-            System.out.println("Exchange rate from " + fromCurrency + " to " + toCurrency + ": " + rate); // Log the retrieved exchange rate for debugging
+    /**
+     * Gets the exchange rate between two currencies on the date of an amount, loading
+     * missing rates on the historical rates' background thread. Unlike
+     * {@link #getExchangeRate(String, String, LocalDate)}, a rate that cannot be loaded
+     * fails the future, so the caller can decide whether today's rate is acceptable.
+     * @param fromCurrency The currency code to convert from (e.g., "USD")
+     * @param toCurrency The currency code to convert to (e.g., "CHF")
+     * @param date The date of the amount
+     * @return A future completed with the rate of that date, or exceptionally if it is unavailable
+     */
+    public static CompletableFuture<Double> getExchangeRateAsync(String fromCurrency, String toCurrency,
+                                                                 LocalDate date) {
+        return HistoricalRates.getShared().getRateAsync(fromCurrency, toCurrency, date);
+    }
 
-            return rate; // Return the exchange rate
+    /**
+     * Makes sure today's rates are downloaded in the background, so a later conversion
+     * on the EDT uses them.
+     */
+    public static void prefetch() {
+        getShared().rates.refreshIfStale();
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace(); // Print the stack trace for debugging purposes
+    /**
+     * Loads the historical rates from a date up to today on a background thread, so a
+     * later conversion of an amount in that range doesn't wait for the network.
+     * @param from The oldest date likely to be converted
+     */
+    public static void prefetchHistory(LocalDate from) {
+        HistoricalRates.getShared().preloadAsync(from).exceptionally(e -> {
+            System.err.println("Could not load historical exchange rates: " + e.getMessage());
+            return null;
+        });
+    }
 
-            throw new RuntimeException("Currency conversion failed: " + e.getMessage()); // Wrap any exceptions in a RuntimeException with a descriptive message
+    /**
+     * Gets the exchange rate between two currencies from today's table.
+     * @param fromCurrency The currency code to convert from
+     * @param toCurrency The currency code to convert to
+     * @return The exchange rate
+     * @throws RuntimeException if a currency is not in the table
+     */
+    public double getRate(String fromCurrency, String toCurrency) {
+        try {
+            return rates.getRate(fromCurrency, toCurrency);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Currency conversion failed: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,412 @@
+package Finance.api;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.json.JSONObject;
+
+/**
+ * Daily exchange rates over a range of dates, for converting amounts at the rate of
+ * their own date.
+ * <p>
+ * Rates are loaded in bulk from the Frankfurter time series endpoint, which returns
+ * the ECB reference rates of every currency against the euro for a whole date range
+ * in one request. Each currency is stored as one {@code double[]} of units per euro,
+ * indexed by the number of days since the first loaded date; weekends and holidays
+ * carry the previous business day's rate. Converting an amount for any loaded date is
+ * therefore two array lookups. The range grows on demand towards older dates and up
+ * to today, and is saved to the user's home directory for offline use.
+ * <p>
+ * Days after the last published rate carry it only provisionally: until the ECB
+ * publishes the rate of such a weekday, it is requested again at most once per
+ * {@link #RECHECK_MILLIS}. Downloads are serialized and run without holding the
+ * table's monitor, so lookups of loaded days never wait for the network. Loading may
+ * still block its caller; the EDT should {@link #preloadAsync preload} instead.
+ */
+public class HistoricalRates {
+
+    /** Frankfurter API root */
+    private static final String DEFAULT_API_URL = "https://api.frankfurter.app";
+
+    /** First date with ECB reference rates */
+    private static final LocalDate FIRST_RATE_DATE = LocalDate.of(1999, 1, 4);
+
+    /** Extra days requested before a range, so its first day has a preceding business day */
+    private static final int LOOKBACK_DAYS = 7;
+
+    /** Version of the saved file format */
+    private static final int FILE_VERSION = 1;
+
+    /** Minimum time between two requests for provisional days */
+    private static final long RECHECK_MILLIS = 60 * 60 * 1000L;
+
+    /** Marks that no loaded day is provisional */
+    private static final long NONE = Long.MAX_VALUE;
+
+    private static HistoricalRates shared; // Instance used by the Finance application
+
+    private final String apiUrl; // API root, replaceable for a local server
+    private final Path file; // Saved rate table
+    private final Object downloads = new Object(); // Serializes downloads, never held by lookups
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "historical-rates");
+        thread.setDaemon(true); // Never keeps the application alive
+        return thread;
+    });
+
+    // Loaded table, guarded by this object's monitor
+    private long firstDay; // Epoch day of index 0
+    private int length; // Number of loaded days
+    private final Map<String, double[]> unitsPerEuro = new HashMap<>(); // Daily rates per currency, the euro excluded
+    private long provisionalFrom = NONE; // First weekday carrying an older rate, requested again later
+    private long checkedAt; // Time of the last request for provisional days
+
+    /**
+     * Creates a rate table using the given API and file.
+     *
+     * @param apiUrl The API root, without a trailing slash
+     * @param file   The file persisting the loaded rates
+     */
+    public HistoricalRates(String apiUrl, Path file) {
+        this.apiUrl = apiUrl;
+        this.file = file;
+        load();
+    }
+
+    /**
+     * Gets the rate table shared by the Finance application.
+     *
+     * @return The shared rate table
+     */
+    public static synchronized HistoricalRates getShared() {
+        if (shared == null) {
+            shared = new HistoricalRates(DEFAULT_API_URL,
+                    Paths.get(System.getProperty("user.home"), "FinanceTracker", "rates", "historicalRates.bin"));
+        }
+        return shared;
+    }
+
+    /**
+     * Gets the exchange rate between two currencies on a date.
+     * Dates after today use today's rate; missing dates are loaded first, which
+     * blocks until they are downloaded.
+     *
+     * @param fromCurrency The currency code to convert from
+     * @param toCurrency   The currency code to convert to
+     * @param date         The date of the amount
+     * @return The amount of {@code toCurrency} per unit of {@code fromCurrency}
+     * @throws IOException If the rates cannot be loaded
+     */
+    public double getRate(String fromCurrency, String toCurrency, LocalDate date) throws IOException {
+        if (fromCurrency.equals(toCurrency)) return 1.0;
+        LocalDate today = LocalDate.now();
+        if (date.isAfter(today)) date = today;
+        if (date.isBefore(FIRST_RATE_DATE)) {
+            throw new IOException("No exchange rates before " + FIRST_RATE_DATE);
+        }
+        try {
+            ensureLoaded(date, today);
+        } catch (IOException e) {
+            synchronized (this) {
+                long day = date.toEpochDay();
+                if (length == 0 || day < firstDay || day >= firstDay + length) throw e;
+                checkedAt = System.currentTimeMillis(); // Provisional days are requested again later
+            }
+            System.err.println("Exchange rates not refreshed, using the loaded ones: " + e.getMessage());
+        }
+
+        synchronized (this) {
+            int index = (int) (date.toEpochDay() - firstDay);
+            double from = unitsPerEuro(fromCurrency, index);
+            double to = unitsPerEuro(toCurrency, index);
+            return to / from;
+        }
+    }
+
+    /**
+     * Gets the exchange rate between two currencies on a date on a background thread.
+     * Lookups queue behind preloads on the same thread, so a lookup in a range being
+     * preloaded uses that download instead of starting another one.
+     *
+     * @param fromCurrency The currency code to convert from
+     * @param toCurrency   The currency code to convert to
+     * @param date         The date of the amount
+     * @return A future completed with the rate, or exceptionally if the rates cannot be loaded
+     */
+    public CompletableFuture<Double> getRateAsync(String fromCurrency, String toCurrency, LocalDate date) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return getRate(fromCurrency, toCurrency, date);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, worker);
+    }
+
+    /**
+     * Loads every date from the given date up to today in at most two requests.
+     * Lets a caller converting many amounts fetch their whole range up front.
+     *
+     * @param from The oldest date needed
+     * @throws IOException If the rates cannot be loaded
+     */
+    public void preload(LocalDate from) throws IOException {
+        LocalDate today = LocalDate.now();
+        ensureLoaded(from.isBefore(FIRST_RATE_DATE) ? FIRST_RATE_DATE : from, today);
+    }
+
+    /**
+     * Loads every date from the given date up to today on a background thread.
+     *
+     * @param from The oldest date needed
+     * @return A future completed once the dates are loaded or the download failed
+     */
+    public CompletableFuture<Void> preloadAsync(LocalDate from) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                preload(from);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, worker);
+    }
+
+    /**
+     * Looks up the units of a currency per euro on a loaded day.
+     *
+     * @throws IOException If the currency is unknown or has no rate on that day
+     */
+    private double unitsPerEuro(String currency, int index) throws IOException {
+        if (currency.equals("EUR")) return 1.0;
+        double[] rates = unitsPerEuro.get(currency);
+        double rate = rates == null ? Double.NaN : rates[index];
+        if (Double.isNaN(rate)) {
+            throw new IOException("No exchange rate for " + currency + " on " + LocalDate.ofEpochDay(firstDay + index));
+        }
+        return rate;
+    }
+
+    /**
+     * Extends the loaded range so it covers a date and reaches today, and requests
+     * provisional days again once their recheck time has passed.
+     */
+    private void ensureLoaded(LocalDate date, LocalDate today) throws IOException {
+        long day = date.toEpochDay();
+        long todayDay = today.toEpochDay();
+        if (!needsDownload(day, todayDay)) return; // Answered from memory, no lock taken
+
+        synchronized (downloads) { // One download at a time; lookups of loaded days go on
+            boolean changed = false;
+            long loadedFirst;
+            long newer;
+            synchronized (this) { // Only downloads change the range, and they hold this lock
+                if (length == 0) {
+                    loadedFirst = day;
+                    newer = day; // Everything from the date on
+                } else {
+                    loadedFirst = firstDay;
+                    newer = firstDay + length; // First day not loaded
+                    if (provisionalFrom != NONE
+                            && (newer <= todayDay || System.currentTimeMillis() - checkedAt >= RECHECK_MILLIS)) {
+                        newer = Math.min(newer, provisionalFrom); // Requested again with the new days
+                    }
+                }
+            }
+            if (day < loadedFirst) {
+                fetchRange(day, loadedFirst - 1); // Older dates
+                changed = true;
+            }
+            if (newer <= todayDay) {
+                fetchRange(newer, todayDay); // Days since the last load and provisional days
+                changed = true;
+            }
+            if (changed) save();
+        }
+    }
+
+    /**
+     * Checks whether a lookup needs a download first.
+     */
+    private synchronized boolean needsDownload(long day, long todayDay) {
+        if (length == 0 || day < firstDay || firstDay + length - 1 < todayDay) return true;
+        return provisionalFrom <= day && System.currentTimeMillis() - checkedAt >= RECHECK_MILLIS;
+    }
+
+    /**
+     * Fetches the rates of a range of days in one request and merges them into the table.
+     * The request runs without holding the table's monitor.
+     */
+    private void fetchRange(long fromDay, long toDay) throws IOException {
+        LocalDate requestStart = LocalDate.ofEpochDay(fromDay).minusDays(LOOKBACK_DAYS);
+        if (requestStart.isBefore(FIRST_RATE_DATE)) requestStart = FIRST_RATE_DATE;
+        JSONObject json = request(apiUrl + "/" + requestStart + ".." + LocalDate.ofEpochDay(toDay));
+        JSONObject rates = json.getJSONObject("rates");
+
+        // Parses the business days of the response, the lookback days included
+        Map<Long, JSONObject> byDay = new HashMap<>();
+        long lastPublished = Long.MIN_VALUE;
+        for (String date : rates.keySet()) {
+            long day = LocalDate.parse(date).toEpochDay();
+            byDay.put(day, rates.getJSONObject(date));
+            lastPublished = Math.max(lastPublished, day);
+        }
+
+        synchronized (this) {
+            long newFirst = length == 0 ? fromDay : Math.min(firstDay, fromDay);
+            long newLast = length == 0 ? toDay : Math.max(firstDay + length - 1, toDay);
+            resize(newFirst, (int) (newLast - newFirst + 1));
+
+            JSONObject carried = null; // Rates of the last business day seen
+            for (long day = requestStart.toEpochDay(); day <= toDay; day++) {
+                JSONObject dayRates = byDay.get(day);
+                if (dayRates != null) carried = dayRates;
+                if (day < fromDay || carried == null) continue;
+                int index = (int) (day - firstDay);
+                for (String currency : carried.keySet()) {
+                    double[] series = unitsPerEuro.computeIfAbsent(currency, c -> filled(length));
+                    series[index] = carried.getDouble(currency);
+                }
+            }
+
+            if (toDay == newLast) { // The request reached the end of the table
+                provisionalFrom = firstWeekdayAfter(lastPublished, toDay);
+                checkedAt = System.currentTimeMillis();
+            }
+        }
+    }
+
+    /**
+     * Finds the first weekday after the last published rate, a day whose rate may still come.
+     *
+     * @return Its epoch day, or {@link #NONE} if every later day up to the last one is a weekend
+     */
+    private static long firstWeekdayAfter(long lastPublished, long lastDay) {
+        for (long day = lastPublished == Long.MIN_VALUE ? lastDay : lastPublished + 1; day <= lastDay; day++) {
+            DayOfWeek weekday = LocalDate.ofEpochDay(day).getDayOfWeek();
+            if (weekday != DayOfWeek.SATURDAY && weekday != DayOfWeek.SUNDAY) return day;
+        }
+        return NONE;
+    }
+
+    /**
+     * Moves the loaded rates into arrays covering a new range.
+     */
+    private void resize(long newFirst, int newLength) {
+        int offset = (int) (firstDay - newFirst);
+        for (Map.Entry<String, double[]> entry : unitsPerEuro.entrySet()) {
+            double[] resized = filled(newLength);
+            System.arraycopy(entry.getValue(), 0, resized, offset, length);
+            entry.setValue(resized);
+        }
+        firstDay = newFirst;
+        length = newLength;
+    }
+
+    /**
+     * Creates an array of unknown rates.
+     */
+    private static double[] filled(int length) {
+        double[] rates = new double[length];
+        Arrays.fill(rates, Double.NaN);
+        return rates;
+    }
+
+    /**
+     * Requests a JSON document from the API.
+     */
+    private static JSONObject request(String urlStr) throws IOException {
+        HttpURLConnection con = (HttpURLConnection) URI.create(urlStr).toURL().openConnection();
+        con.setRequestMethod("GET");
+        con.setConnectTimeout(10_000);
+        con.setReadTimeout(30_000); // Long ranges return large documents
+
+        int responseCode = con.getResponseCode();
+        if (responseCode != 200) {
+            throw new IOException("HTTP error code: " + responseCode);
+        }
+
+        StringBuilder response = new StringBuilder();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream(), StandardCharsets.UTF_8))) {
+            String inputLine;
+            while ((inputLine = in.readLine()) != null) {
+                response.append(inputLine);
+            }
+        }
+        return new JSONObject(response.toString());
+    }
+
+    /**
+     * Loads the saved rates, if any.
+     */
+    private void load() {
+        if (!Files.exists(file)) return;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            if (in.readInt() != FILE_VERSION) return; // Older formats are simply reloaded
+            long savedFirst = in.readLong();
+            int savedLength = in.readInt();
+            int currencies = in.readInt();
+            Map<String, double[]> saved = new HashMap<>();
+            for (int c = 0; c < currencies; c++) {
+                String currency = in.readUTF();
+                double[] rates = new double[savedLength];
+                for (int i = 0; i < savedLength; i++) {
+                    rates[i] = in.readDouble();
+                }
+                saved.put(currency, rates);
+            }
+            firstDay = savedFirst;
+            length = savedLength;
+            unitsPerEuro.putAll(saved);
+            provisionalFrom = savedLength > 0 ? savedFirst + savedLength - 1 : NONE; // The last day is requested again once
+            checkedAt = 0;
+        } catch (IOException e) {
+            System.err.println("Error loading historical exchange rates: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Saves the rates next to the file and moves them over it in one step.
+     * Called while downloading, so the table only changes under this object's monitor.
+     */
+    private synchronized void save() {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(FILE_VERSION);
+                out.writeLong(firstDay);
+                out.writeInt(length);
+                out.writeInt(unitsPerEuro.size());
+                for (Map.Entry<String, double[]> entry : unitsPerEuro.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    for (double rate : entry.getValue()) {
+                        out.writeDouble(rate);
+                    }
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error saving historical exchange rates: " + e.getMessage());
+        }
+    }
+}
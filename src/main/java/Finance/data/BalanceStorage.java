@@ -2,18 +2,26 @@ package Finance.data;
 
 import com.google.gson.*;
 import com.google.gson.reflect.TypeToken;
+import Finance.model.MonthlyBalance;
 import java.io.*;
 import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
-import java.util.Map;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Supplier;
 
-// Class for storing and loading balance data (net savings and debts)
+// Class for storing and loading balance data (net savings and debts per month)
 public class BalanceStorage {
     // Gson instance for JSON serialization/deserialization
     private final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(YearMonth.class, new YearMonthAdapter())
             .setPrettyPrinting()  // Makes JSON output more readable
             .create();
 
@@ -22,46 +30,139 @@ public class BalanceStorage {
             + File.separator + "FinanceTracker" + File.separator + "balance";
     private final Path BASE_PATH = Paths.get(BASE_DIR);
 
-    // File paths for different types of balance data
+    // Typed file holding every month
+    private final Path BALANCES_FILE = BASE_PATH.resolve("balances.json");
+
+    // Files of the former format, kept unchanged after migration
     private final Path NET_SAVINGS_FILE = BASE_PATH.resolve("net_savings.json");
     private final Path DEBTS_FILE = BASE_PATH.resolve("debts.json");
 
+    // Version of the typed file format; version 2 did not record whether the full year savings were entered
+    private static final int FORMAT_VERSION = 3;
+
+    // Month keys of the former format, e.g. "March 2025"
+    private static final DateTimeFormatter LEGACY_MONTH = DateTimeFormatter.ofPattern("MMMM yyyy", Locale.ENGLISH);
+
+    // Typed file content: a version and the list of months
+    private static class BalanceFile {
+        private int version = FORMAT_VERSION;
+        private List<MonthlyBalance> months = new ArrayList<>();
+    }
+
     // Constructor creates the storage directory if it doesn't exist
     public BalanceStorage() {
         new File(BASE_DIR).mkdirs();
     }
 
-    // Saves net savings data to JSON file
-    public void saveNetSavings(Map<String, Map<String, String>> data) {
-        saveData(NET_SAVINGS_FILE, data);
+    // Marks the balances as changed; they are read and written once the edits pause
+    public void saveBalances(Supplier<? extends Collection<MonthlyBalance>> balances) {
+        WriteBehindStore.getShared().markDirty(BALANCES_FILE, () -> {
+            BalanceFile content = new BalanceFile();
+            content.months.addAll(balances.get());
+            return gson.toJson(content);
+        });
     }
 
-    // Saves debts data to JSON file
-    public void saveDebts(Map<String, Map<String, String>> data) {
-        saveData(DEBTS_FILE, data);
+    // Loads all months, converting the files of the former format on first use
+    public List<MonthlyBalance> loadBalances() {
+        if (!Files.exists(BALANCES_FILE)) {
+            if (!Files.exists(NET_SAVINGS_FILE) && !Files.exists(DEBTS_FILE)) return new ArrayList<>();
+            List<MonthlyBalance> migrated = migrate(loadData(NET_SAVINGS_FILE), loadData(DEBTS_FILE));
+            List<MonthlyBalance> snapshot = new ArrayList<>(migrated);
+            saveBalances(() -> snapshot);
+            System.out.println("Migrated " + migrated.size() + " balance months to the typed format");
+            return migrated;
+        }
+
+        try (Reader reader = new InputStreamReader(
+                new FileInputStream(BALANCES_FILE.toFile()), StandardCharsets.UTF_8)) {
+            BalanceFile content = gson.fromJson(reader, BalanceFile.class);
+            if (content == null || content.months == null) return new ArrayList<>();
+            if (content.version < 3) {
+                // Previous-month entries never set a full year value, so a non-zero one was entered
+                for (MonthlyBalance balance : content.months) {
+                    if (balance.hasSavings() && balance.getYearSavingsCents() != 0) {
+                        balance.setSavings(balance.getCurrentSavingsCents(), balance.getYearSavingsCents());
+                    }
+                }
+            }
+            return new ArrayList<>(content.months);
+        } catch (IOException | JsonParseException e) {
+            System.err.println("Error loading from " + BALANCES_FILE + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
     }
 
-    // Loads net savings data from JSON file
-    public Map<String, Map<String, String>> loadNetSavings() {
-        return loadData(NET_SAVINGS_FILE);
+    /**
+     * Converts the nested string maps of the former format.
+     * Net savings held "current", "year" and, under three-letter names such as "mar",
+     * the net savings of preceding months. Those fill the matching earlier month
+     * unless it has savings of its own.
+     * @param netSavings Net savings fields by month key
+     * @param debts Debt fields ("credit", "loan") by month key
+     * @return The converted months in month order
+     */
+    private List<MonthlyBalance> migrate(Map<String, Map<String, String>> netSavings,
+                                         Map<String, Map<String, String>> debts) {
+        NavigableMap<YearMonth, MonthlyBalance> months = new TreeMap<>();
+        Map<YearMonth, Map<String, String>> trailing = new TreeMap<>(); // Preceding months' values by month entered
+
+        for (Map.Entry<String, Map<String, String>> entry : netSavings.entrySet()) {
+            YearMonth month = parseLegacyMonth(entry.getKey());
+            if (month == null || entry.getValue() == null) continue;
+            Map<String, String> fields = entry.getValue();
+            months.computeIfAbsent(month, MonthlyBalance::new)
+                    .setSavings(toCents(fields.get("current")), toCents(fields.get("year")));
+            trailing.put(month, fields);
+        }
+        for (Map.Entry<String, Map<String, String>> entry : debts.entrySet()) {
+            YearMonth month = parseLegacyMonth(entry.getKey());
+            if (month == null || entry.getValue() == null) continue;
+            Map<String, String> fields = entry.getValue();
+            months.computeIfAbsent(month, MonthlyBalance::new)
+                    .setDebts(toCents(fields.get("credit")), toCents(fields.get("loan")));
+        }
+
+        // Fills months without savings from the latest entry mentioning them
+        Map<YearMonth, Long> filled = new HashMap<>();
+        for (Map.Entry<YearMonth, Map<String, String>> entry : trailing.entrySet()) {
+            for (int back = 1; back <= 12; back++) {
+                YearMonth earlier = entry.getKey().minusMonths(back);
+                String value = entry.getValue().get(earlier.getMonth().name().substring(0, 3).toLowerCase());
+                if (value == null || value.isBlank()) continue;
+                MonthlyBalance own = months.get(earlier);
+                if (own == null || !own.hasSavings()) {
+                    filled.put(earlier, toCents(value)); // Later entries replace earlier ones
+                }
+            }
+        }
+        for (Map.Entry<YearMonth, Long> entry : filled.entrySet()) {
+            months.computeIfAbsent(entry.getKey(), MonthlyBalance::new).setCurrentSavings(entry.getValue());
+        }
+        return new ArrayList<>(months.values());
     }
 
-    // Loads debts data from JSON file
-    public Map<String, Map<String, String>> loadDebts() {
-        return loadData(DEBTS_FILE);
+    // Parses a month key of the former format, or null if it is not one
+    private static YearMonth parseLegacyMonth(String key) {
+        try {
+            return YearMonth.parse(key, LEGACY_MONTH);
+        } catch (DateTimeParseException e) {
+            System.err.println("Skipping balance entry with invalid month: " + key);
+            return null;
+        }
     }
 
-    // Generic method to save data to a JSON file
-    private void saveData(Path path, Map<String, Map<String, String>> data) {
-        try (Writer writer = new OutputStreamWriter(
-                new FileOutputStream(path.toFile()), StandardCharsets.UTF_8)) {
-            gson.toJson(data, writer);
-        } catch (IOException e) {
-            System.err.println("Error saving to " + path + ": " + e.getMessage());
+    // Converts a typed amount to CHF cents, treating empty or invalid text as zero like the former display did
+    private static long toCents(String value) {
+        if (value == null || value.isBlank()) return 0;
+        try {
+            return new BigDecimal(value.trim().replace(",", ".")).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            return 0;
         }
     }
 
-    // Generic method to load data from a JSON file
+    // Generic method to load data of the former format from a JSON file
     private Map<String, Map<String, String>> loadData(Path path) {
         File file = path.toFile();
         // Return empty map if file doesn't exist
@@ -79,4 +180,4 @@ public class BalanceStorage {
             return new HashMap<>();
         }
     }
-}
\ No newline at end of file
+}
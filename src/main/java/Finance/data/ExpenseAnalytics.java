@@ -0,0 +1,288 @@
+package Finance.data;
+
+import Finance.model.Expense;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Spending statistics over an {@link ExpenseStore}: category breakdowns, rolling
+ * monthly averages, month-over-month changes and the most expensive days.
+ * <p>
+ * Every statistic is combined from one summary per month: its total, its totals per
+ * category and its daily totals. Summaries are cached together with the store's
+ * version of their month, so adding or removing an expense only recomputes that
+ * month. Months missing from the cache are computed together: their expenses are
+ * copied into primitive columns on the calling thread, then summarized in parallel,
+ * one month per task, which keeps the first load of several years of data short.
+ * <p>
+ * Not thread-safe; used on the EDT like the store.
+ */
+public class ExpenseAnalytics {
+
+    /** Lengths in months of the rolling averages shown on the dashboard */
+    public static final int[] ROLLING_WINDOWS = {3, 6, 12};
+
+    private final ExpenseStore store; // Expenses the statistics are computed from
+    private final Map<YearMonth, MonthSummary> cache = new HashMap<>(); // Summaries by month
+
+    /**
+     * Creates the statistics of a store.
+     *
+     * @param store The expenses
+     */
+    public ExpenseAnalytics(ExpenseStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Gets the summary of a month.
+     *
+     * @param month The month
+     * @return The month's totals
+     */
+    public MonthSummary getMonth(YearMonth month) {
+        summarize(month, month);
+        return cache.get(month);
+    }
+
+    /**
+     * Gets the total of each category over a range of months.
+     *
+     * @param from The first month, inclusive
+     * @param to   The last month, inclusive
+     * @return The non-zero totals in CHF cents, largest first
+     */
+    public Map<String, Long> getCategoryBreakdown(YearMonth from, YearMonth to) {
+        Map<String, Long> totals = new HashMap<>();
+        for (MonthSummary summary : summarize(from, to)) {
+            summary.categoryCents.forEach((category, cents) -> totals.merge(category, cents, Long::sum));
+        }
+        totals.values().removeIf(cents -> cents == 0);
+
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(totals.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : entries) {
+            sorted.put(entry.getKey(), entry.getValue());
+        }
+        return sorted;
+    }
+
+    /**
+     * Gets the average monthly spending over the months ending with a given month.
+     * Months without expenses count as zero.
+     *
+     * @param end    The last month of the window, inclusive
+     * @param months The number of months in the window
+     * @return The average in CHF cents, rounded to the nearest cent
+     */
+    public long getRollingAverageCents(YearMonth end, int months) {
+        long total = 0;
+        for (MonthSummary summary : summarize(end.minusMonths(months - 1), end)) {
+            total += summary.totalCents;
+        }
+        return Math.round(total / (double) months);
+    }
+
+    /**
+     * Gets the change in spending from the previous month.
+     *
+     * @param month The month
+     * @return The month's total minus the previous month's total, in CHF cents
+     */
+    public long getMonthOverMonthDeltaCents(YearMonth month) {
+        List<MonthSummary> summaries = summarize(month.minusMonths(1), month);
+        return summaries.get(1).totalCents - summaries.get(0).totalCents;
+    }
+
+    /**
+     * Gets the relative change in spending from the previous month.
+     *
+     * @param month The month
+     * @return The change in percent, or NaN if nothing was spent in the previous month
+     */
+    public double getMonthOverMonthPercent(YearMonth month) {
+        List<MonthSummary> summaries = summarize(month.minusMonths(1), month);
+        long previous = summaries.get(0).totalCents;
+        if (previous == 0) return Double.NaN;
+        return (summaries.get(1).totalCents - previous) * 100.0 / previous;
+    }
+
+    /**
+     * Gets the days with the highest spending over a range of months.
+     *
+     * @param from  The first month, inclusive
+     * @param to    The last month, inclusive
+     * @param limit The maximum number of days returned
+     * @return The days, highest total first
+     */
+    public List<DayTotal> getTopDays(YearMonth from, YearMonth to, int limit) {
+        PriorityQueue<DayTotal> top = new PriorityQueue<>(Comparator.comparingLong(DayTotal::getCents));
+        for (MonthSummary summary : summarize(from, to)) {
+            long[] daily = summary.dailyCents;
+            for (int day = 0; day < daily.length; day++) {
+                if (daily[day] <= 0) continue;
+                if (top.size() < limit) {
+                    top.add(new DayTotal(summary.month.atDay(day + 1), daily[day]));
+                } else if (limit > 0 && daily[day] > top.peek().cents) {
+                    top.poll();
+                    top.add(new DayTotal(summary.month.atDay(day + 1), daily[day]));
+                }
+            }
+        }
+        List<DayTotal> result = new ArrayList<>(top);
+        result.sort(Comparator.comparingLong(DayTotal::getCents).reversed());
+        return result;
+    }
+
+    /**
+     * Gets the summaries of a range of months, computing the missing or outdated ones.
+     *
+     * @return One summary per month, in month order
+     */
+    private List<MonthSummary> summarize(YearMonth from, YearMonth to) {
+        List<YearMonth> stale = new ArrayList<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            MonthSummary cached = cache.get(month);
+            if (cached == null || cached.version != store.getMonthVersion(month)) {
+                stale.add(month);
+            }
+        }
+        if (!stale.isEmpty()) {
+            for (MonthSummary summary : computeAll(stale)) {
+                cache.put(summary.month, summary);
+            }
+        }
+
+        List<MonthSummary> summaries = new ArrayList<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            summaries.add(cache.get(month));
+        }
+        return summaries;
+    }
+
+    /**
+     * Computes the summaries of several months in parallel.
+     */
+    private List<MonthSummary> computeAll(List<YearMonth> months) {
+        // Reads the store on this thread into columns; rows of month i are starts[i] to starts[i + 1]
+        int[] starts = new int[months.size() + 1];
+        int[] versions = new int[months.size()];
+        List<List<Expense>> expenses = new ArrayList<>(months.size());
+        for (int i = 0; i < months.size(); i++) {
+            List<Expense> monthExpenses = store.getExpenses(months.get(i));
+            expenses.add(monthExpenses);
+            versions[i] = store.getMonthVersion(months.get(i));
+            starts[i + 1] = starts[i] + monthExpenses.size();
+        }
+        int rows = starts[months.size()];
+        byte[] dayOfMonth = new byte[rows];
+        long[] cents = new long[rows];
+        int[] categoryIndex = new int[rows];
+        List<String> categories = new ArrayList<>();
+        Map<String, Integer> categoryIndexes = new HashMap<>();
+        int row = 0;
+        for (List<Expense> monthExpenses : expenses) {
+            for (Expense expense : monthExpenses) {
+                dayOfMonth[row] = (byte) expense.getDate().getDayOfMonth();
+                cents[row] = expense.getAmountCents();
+                categoryIndex[row] = categoryIndexes.computeIfAbsent(expense.getCategory(), c -> {
+                    categories.add(c);
+                    return categories.size() - 1;
+                });
+                row++;
+            }
+        }
+
+        // Summarizes each month from the columns only
+        return IntStream.range(0, months.size()).parallel()
+                .mapToObj(i -> {
+                    YearMonth month = months.get(i);
+                    long[] daily = new long[month.lengthOfMonth()];
+                    long[] byCategory = new long[categories.size()];
+                    long total = 0;
+                    for (int r = starts[i]; r < starts[i + 1]; r++) {
+                        daily[dayOfMonth[r] - 1] += cents[r];
+                        byCategory[categoryIndex[r]] += cents[r];
+                        total += cents[r];
+                    }
+                    Map<String, Long> categoryCents = new HashMap<>();
+                    for (int c = 0; c < byCategory.length; c++) {
+                        if (byCategory[c] != 0) categoryCents.put(categories.get(c), byCategory[c]);
+                    }
+                    return new MonthSummary(month, versions[i], total, starts[i + 1] - starts[i], daily, categoryCents);
+                })
+                .toList();
+    }
+
+    /**
+     * Totals of one month.
+     */
+    public static final class MonthSummary {
+        private final YearMonth month; // The summarized month
+        private final int version; // Store version of the month when summarized
+        private final long totalCents; // Total in CHF cents
+        private final int count; // Number of expenses
+        private final long[] dailyCents; // Total of each day, index 0 is the 1st
+        private final Map<String, Long> categoryCents; // Non-zero totals by category
+
+        private MonthSummary(YearMonth month, int version, long totalCents, int count,
+                             long[] dailyCents, Map<String, Long> categoryCents) {
+            this.month = month;
+            this.version = version;
+            this.totalCents = totalCents;
+            this.count = count;
+            this.dailyCents = dailyCents;
+            this.categoryCents = Collections.unmodifiableMap(categoryCents);
+        }
+
+        /** @return The summarized month */
+        public YearMonth getMonth() { return month; }
+
+        /** @return The total in CHF cents */
+        public long getTotalCents() { return totalCents; }
+
+        /** @return The number of expenses */
+        public int getCount() { return count; }
+
+        /**
+         * Gets the total of one day of the month.
+         *
+         * @param dayOfMonth The day, from 1
+         * @return The day's total in CHF cents
+         */
+        public long getDayCents(int dayOfMonth) { return dailyCents[dayOfMonth - 1]; }
+
+        /** @return The non-zero totals by category in CHF cents */
+        public Map<String, Long> getCategoryCents() { return categoryCents; }
+    }
+
+    /**
+     * Total spent on one day.
+     */
+    public static final class DayTotal {
+        private final LocalDate date; // The day
+        private final long cents; // Total in CHF cents
+
+        private DayTotal(LocalDate date, long cents) {
+            this.date = date;
+            this.cents = cents;
+        }
+
+        /** @return The day */
+        public LocalDate getDate() { return date; }
+
+        /** @return The total in CHF cents */
+        public long getCents() { return cents; }
+    }
+}
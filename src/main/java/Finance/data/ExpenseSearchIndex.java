@@ -0,0 +1,266 @@
+package Finance.data;
+
+import Finance.model.Expense;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Full-text index of expense descriptions and categories.
+ * <p>
+ * Every expense gets an integer id when it is added. The index maps each lower-case
+ * word to the sorted ids of the expenses containing it, and keeps the words in a
+ * {@link TreeMap}, so all words starting with a typed prefix are one sub-map away.
+ * A query takes the union of the id lists of each prefix and intersects the
+ * prefixes, then applies the amount and date filters to the few remaining expenses;
+ * typing a letter never scans every description. Adding and removing an expense
+ * only touches the id lists of its own words.
+ * <p>
+ * Ids of removed expenses are not reused. Not thread-safe; used on the EDT.
+ */
+public class ExpenseSearchIndex {
+
+    private final List<Expense> byId = new ArrayList<>(); // Expense of each id, null once removed
+    private final Map<Expense, Integer> ids = new IdentityHashMap<>(); // Id of each indexed expense
+    private final NavigableMap<String, Postings> postings = new TreeMap<>(); // Ids containing each word
+    private final BitSet live = new BitSet(); // Ids of the indexed expenses
+
+    /**
+     * Indexes an expense.
+     *
+     * @param expense The expense to add
+     */
+    public void add(Expense expense) {
+        if (ids.containsKey(expense)) return;
+        int id = byId.size();
+        byId.add(expense);
+        ids.put(expense, id);
+        live.set(id);
+        for (String word : words(expense)) {
+            postings.computeIfAbsent(word, w -> new Postings()).append(id);
+        }
+    }
+
+    /**
+     * Removes an expense from the index.
+     *
+     * @param expense The exact expense instance to remove
+     * @return true if the expense was indexed
+     */
+    public boolean remove(Expense expense) {
+        Integer id = ids.remove(expense);
+        if (id == null) return false;
+        byId.set(id, null);
+        live.clear(id);
+        for (String word : words(expense)) {
+            Postings list = postings.get(word);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(word);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the expenses matching a query.
+     *
+     * @param query The words and filters to match
+     * @return The matching expenses in date order
+     */
+    public List<Expense> search(Query query) {
+        BitSet matches = null;
+        for (String prefix : query.terms) {
+            BitSet prefixMatches = new BitSet();
+            for (Postings list : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                list.addTo(prefixMatches);
+            }
+            if (matches == null) {
+                matches = prefixMatches;
+            } else {
+                matches.and(prefixMatches);
+            }
+            if (matches.isEmpty()) break;
+        }
+        if (matches == null) matches = live; // Filters only
+
+        List<Expense> result = new ArrayList<>();
+        for (int id = matches.nextSetBit(0); id >= 0; id = matches.nextSetBit(id + 1)) {
+            Expense expense = byId.get(id);
+            if (query.accepts(expense)) result.add(expense);
+        }
+        result.sort(Comparator.comparing(Expense::getDate)); // Stable, so same-day expenses keep their order
+        return result;
+    }
+
+    /** @return The number of distinct indexed words */
+    public int getWordCount() { return postings.size(); }
+
+    /**
+     * Splits a text into lower-case words of letters and digits.
+     *
+     * @param text The text
+     * @return The words, without duplicates
+     */
+    public static Set<String> tokenize(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Gets the indexed words of an expense: those of its description and category.
+     */
+    private static Set<String> words(Expense expense) {
+        Set<String> words = tokenize(expense.getDescription());
+        words.addAll(tokenize(expense.getCategory()));
+        return words;
+    }
+
+    /**
+     * Sorted ids of the expenses containing one word.
+     */
+    private static class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        /** Adds an id larger than every id in the list */
+        private void append(int id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+
+        private boolean remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) return false;
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        private void addTo(BitSet set) {
+            for (int i = 0; i < size; i++) {
+                set.set(ids[i]);
+            }
+        }
+    }
+
+    /**
+     * Words and filters of a search. Every word is matched as a prefix of a word of the
+     * description or category, and all of them must match.
+     */
+    public static final class Query {
+
+        /** An amount filter in CHF such as {@code >50} or {@code <=12.50} */
+        private static final Pattern AMOUNT_FILTER = Pattern.compile("([<>]=?)(\\d+(?:[.,]\\d{1,2})?)");
+
+        private final List<String> terms; // Lower-case word prefixes
+        private final LocalDate from; // First day, or null
+        private final LocalDate to; // Last day, or null
+        private final long minCents; // Smallest amount in CHF cents
+        private final long maxCents; // Largest amount in CHF cents
+
+        /**
+         * Creates a query.
+         *
+         * @param text     Words to match as prefixes
+         * @param from     The first day, inclusive, or null
+         * @param to       The last day, inclusive, or null
+         * @param minCents The smallest amount in CHF cents, inclusive
+         * @param maxCents The largest amount in CHF cents, inclusive
+         */
+        public Query(String text, LocalDate from, LocalDate to, long minCents, long maxCents) {
+            this.terms = new ArrayList<>(tokenize(text));
+            this.from = from;
+            this.to = to;
+            this.minCents = minCents;
+            this.maxCents = maxCents;
+        }
+
+        /**
+         * Parses the text typed in the search field. Besides words it understands
+         * amount filters in CHF ({@code >50}, {@code <=100}), a day ({@code 14.03.2025})
+         * and date bounds ({@code from:01.03.2025}, {@code to:31.03.2025}).
+         *
+         * @param input The typed text
+         * @return The query
+         */
+        public static Query parse(String input) {
+            StringBuilder text = new StringBuilder();
+            LocalDate from = null;
+            LocalDate to = null;
+            long minCents = Long.MIN_VALUE;
+            long maxCents = Long.MAX_VALUE;
+            for (String part : input.trim().split("\\s+")) {
+                Matcher amount = AMOUNT_FILTER.matcher(part);
+                if (amount.matches()) {
+                    long cents = new BigDecimal(amount.group(2).replace(",", ".")).movePointRight(2).longValue();
+                    switch (amount.group(1)) {
+                        case ">" -> minCents = Math.max(minCents, cents + 1);
+                        case ">=" -> minCents = Math.max(minCents, cents);
+                        case "<" -> maxCents = Math.min(maxCents, cents - 1);
+                        default -> maxCents = Math.min(maxCents, cents);
+                    }
+                    continue;
+                }
+                try {
+                    if (part.startsWith("from:")) {
+                        from = LocalDate.parse(part.substring(5), Expense.DISPLAY_FORMAT);
+                        continue;
+                    }
+                    if (part.startsWith("to:")) {
+                        to = LocalDate.parse(part.substring(3), Expense.DISPLAY_FORMAT);
+                        continue;
+                    }
+                    if (part.length() == 10 && Character.isDigit(part.charAt(0))) {
+                        from = to = LocalDate.parse(part, Expense.DISPLAY_FORMAT);
+                        continue;
+                    }
+                } catch (DateTimeParseException e) {
+                    // Not a complete date yet, searched as words
+                }
+                text.append(part).append(' ');
+            }
+            return new Query(text.toString(), from, to, minCents, maxCents);
+        }
+
+        /** @return true if the query has neither words nor filters */
+        public boolean isEmpty() {
+            return terms.isEmpty() && from == null && to == null
+                    && minCents == Long.MIN_VALUE && maxCents == Long.MAX_VALUE;
+        }
+
+        /**
+         * Checks the filters of the query.
+         */
+        private boolean accepts(Expense expense) {
+            long cents = expense.getAmountCents();
+            return cents >= minCents && cents <= maxCents
+                    && (from == null || !expense.getDate().isBefore(from))
+                    && (to == null || !expense.getDate().isAfter(to));
+        }
+    }
+}
@@ -2,15 +2,22 @@ package Finance.data;
 
 import com.google.gson.*;
 import com.google.gson.reflect.TypeToken;
+import Finance.model.Expense;
 
 import java.io.*;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.function.Supplier;
 
 public class ExpenseStorage {
     private final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
             .setPrettyPrinting()
             .create();
 
@@ -19,6 +26,21 @@ public class ExpenseStorage {
             + File.separator + "FinanceTracker" + File.separator + "expenses";
     private static final Path BASE_PATH = Paths.get(BASE_DIR);
     private static final Path EXPENSES_FILE = BASE_PATH.resolve("expenses.json");
+    private static final Path LEGACY_BACKUP = BASE_PATH.resolve("expenses.v1.json");
+
+    /** Version of the typed file format */
+    private static final int FORMAT_VERSION = 2;
+
+    /** Month keys of the legacy format, e.g. "March 2025" */
+    private static final DateTimeFormatter LEGACY_MONTH = DateTimeFormatter.ofPattern("MMMM yyyy", Locale.ENGLISH);
+
+    /**
+     * Typed file content: a version and the list of expenses.
+     */
+    private static class ExpenseFile {
+        private int version = FORMAT_VERSION;
+        private List<Expense> expenses = new ArrayList<>();
+    }
 
     public ExpenseStorage() {
         try {
@@ -28,29 +50,107 @@ public class ExpenseStorage {
         }
     }
 
-    /** Speichert die Map<String, List<String>> als JSON */
-    public void saveExpenses(Map<String, List<String>> data) {
-        try (Writer writer = new OutputStreamWriter(
-                new FileOutputStream(EXPENSES_FILE.toFile()), StandardCharsets.UTF_8)) {
-            gson.toJson(data, writer);
-        } catch (IOException e) {
-            System.err.println("Error saving expenses: " + e.getMessage());
-        }
+    /** Speichert alle Ausgaben als versionierte JSON-Datei */
+    public void saveExpenses(Collection<Expense> expenses) {
+        List<Expense> snapshot = new ArrayList<>(expenses);
+        saveExpenses(() -> snapshot);
+    }
+
+    /**
+     * Marks the expenses as changed. They are read and written once the edits pause,
+     * so a caller may pass a view of its live data without copying it on every change.
+     * @param expenses Supplies all expenses when the file is written, on the EDT
+     */
+    public void saveExpenses(Supplier<? extends Collection<Expense>> expenses) {
+        WriteBehindStore.getShared().markDirty(EXPENSES_FILE, () -> {
+            ExpenseFile content = new ExpenseFile();
+            content.expenses.addAll(expenses.get());
+            return gson.toJson(content);
+        });
     }
 
-    /** Lädt die JSON und gibt eine Map zurück (oder leere Map) */
-    public Map<String, List<String>> loadExpenses() {
+    /**
+     * Lädt alle Ausgaben (oder eine leere Liste).
+     * A file in the former format, a map of month keys to tab-separated strings, is
+     * converted once; the original is kept next to it as a backup.
+     */
+    public List<Expense> loadExpenses() {
         if (!Files.exists(EXPENSES_FILE)) {
-            return new HashMap<>();
+            return new ArrayList<>();
         }
         try (Reader reader = new InputStreamReader(
                 new FileInputStream(EXPENSES_FILE.toFile()), StandardCharsets.UTF_8)) {
+            JsonElement root = JsonParser.parseReader(reader);
+            if (root == null || !root.isJsonObject()) {
+                return new ArrayList<>();
+            }
+            JsonObject object = root.getAsJsonObject();
+            if (object.has("version")) {
+                ExpenseFile content = gson.fromJson(object, ExpenseFile.class);
+                return content.expenses != null ? new ArrayList<>(content.expenses) : new ArrayList<>();
+            }
             Type type = new TypeToken<Map<String, List<String>>>(){}.getType();
-            Map<String, List<String>> map = gson.fromJson(reader, type);
-            return map != null ? map : new HashMap<>();
-        } catch (IOException | JsonSyntaxException e) {
+            Map<String, List<String>> legacy = gson.fromJson(object, type);
+            return migrate(legacy);
+        } catch (IOException | JsonParseException e) {
             System.err.println("Error loading expenses: " + e.getMessage());
-            return new HashMap<>();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Converts expenses of the former format and saves them in the typed format.
+     * @param legacy Tab-separated "date, description, amount in CHF" strings by month key
+     * @return The converted expenses
+     */
+    private List<Expense> migrate(Map<String, List<String>> legacy) throws IOException {
+        List<Expense> expenses = new ArrayList<>();
+        if (legacy != null) {
+            for (Map.Entry<String, List<String>> month : legacy.entrySet()) {
+                for (String entry : month.getValue()) {
+                    Expense expense = parseLegacy(month.getKey(), entry);
+                    if (expense != null) {
+                        expenses.add(expense);
+                    }
+                }
+            }
+        }
+        Files.copy(EXPENSES_FILE, LEGACY_BACKUP, StandardCopyOption.REPLACE_EXISTING);
+        saveExpenses(expenses);
+        System.out.println("Migrated " + expenses.size() + " expenses to the typed format");
+        return expenses;
+    }
+
+    /**
+     * Parses one expense of the former format.
+     * @param monthKey The month the entry was stored under, used if its date is invalid
+     * @param entry The tab-separated entry
+     * @return The expense, or null if the amount is not a number
+     */
+    private static Expense parseLegacy(String monthKey, String entry) {
+        String[] parts = entry.split("\t");
+        String dateStr = parts.length > 0 ? parts[0] : "";
+        String description = parts.length > 1 ? parts[1] : "";
+        String amountStr = parts.length > 2 ? parts[2] : "0.00";
+
+        long cents;
+        try {
+            cents = Expense.toCents(Double.parseDouble(amountStr.replace(",", ".")));
+        } catch (NumberFormatException e) {
+            System.err.println("Skipping expense with invalid amount: " + entry);
+            return null;
+        }
+
+        LocalDate date;
+        try {
+            date = LocalDate.parse(dateStr, Expense.DISPLAY_FORMAT);
+        } catch (DateTimeParseException e) {
+            try {
+                date = YearMonth.parse(monthKey, LEGACY_MONTH).atDay(1);
+            } catch (DateTimeParseException ignored) {
+                date = LocalDate.now();
+            }
         }
+        return new Expense(date, description, Expense.DEFAULT_CATEGORY, cents, "CHF", cents);
     }
-}
\ No newline at end of file
+}
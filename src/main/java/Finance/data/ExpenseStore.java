@@ -0,0 +1,362 @@
+package Finance.data;
+
+import Finance.model.Expense;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * In-memory expenses ordered by date, shared by the expense and balance screens.
+ * <p>
+ * Expenses are kept in a {@link TreeMap} from epoch day to the expenses of that day,
+ * so the expenses of any date range are found with one ordered scan instead of going
+ * through string month keys. Sums are answered without scanning at all: a Fenwick tree
+ * of daily totals in cents, one overall and one per category, gives the total of any
+ * range, a category breakdown or the year-to-date total in logarithmic time. An
+ * {@link ExpenseSearchIndex} kept in step with the expenses answers text searches.
+ * <p>
+ * The trees hold one slot per day of the covered range, so expense dates are limited
+ * to {@link #FIRST_DATE} up to {@link #MAX_YEARS_AHEAD} years after today; a typo such
+ * as the year 9999 would otherwise allocate millions of days per category.
+ * <p>
+ * Not thread-safe; used on the EDT.
+ */
+public class ExpenseStore {
+
+    /** Extra days allocated around the covered range when the sum trees grow */
+    private static final int GROWTH_MARGIN = 366;
+
+    /** Oldest accepted expense date */
+    public static final LocalDate FIRST_DATE = LocalDate.of(1900, 1, 1);
+
+    /** Number of years after today up to which planned expenses may be dated */
+    public static final int MAX_YEARS_AHEAD = 10;
+
+    private final NavigableMap<Integer, List<Expense>> byDay = new TreeMap<>(); // Expenses per epoch day
+    private final Map<String, DailySums> categorySums = new HashMap<>(); // Daily totals per category
+    private final Map<YearMonth, Integer> monthVersions = new HashMap<>(); // Number of changes per month
+    private final ExpenseSearchIndex searchIndex = new ExpenseSearchIndex(); // Words of the descriptions
+    private DailySums totalSums = new DailySums(0, 0); // Daily totals of all categories
+    private int size; // Number of expenses
+
+    /**
+     * Creates an empty store.
+     */
+    public ExpenseStore() {
+    }
+
+    /**
+     * Creates a store holding the given expenses.
+     * Expenses dated outside the accepted range are skipped.
+     *
+     * @param expenses The initial expenses
+     */
+    public ExpenseStore(Collection<Expense> expenses) {
+        for (Expense expense : expenses) {
+            if (isValidDate(expense.getDate())) {
+                add(expense);
+            } else {
+                System.err.println("Skipping expense with invalid date: "
+                        + expense.getDate() + " " + expense.getDescription());
+            }
+        }
+    }
+
+    /**
+     * Checks whether a date is in the range accepted for expenses.
+     *
+     * @param date The date to check
+     * @return true if the date is not before {@link #FIRST_DATE} and at most
+     * {@link #MAX_YEARS_AHEAD} years after today
+     */
+    public static boolean isValidDate(LocalDate date) {
+        return !date.isBefore(FIRST_DATE) && !date.isAfter(LocalDate.now().plusYears(MAX_YEARS_AHEAD));
+    }
+
+    /**
+     * Checks that a date is in the range accepted for expenses.
+     *
+     * @param date The date to check
+     * @throws IllegalArgumentException If the date is outside the range
+     */
+    public static void requireValidDate(LocalDate date) {
+        if (!isValidDate(date)) {
+            throw new IllegalArgumentException("Expense dates must lie between "
+                    + FIRST_DATE.format(Expense.DISPLAY_FORMAT) + " and "
+                    + LocalDate.now().plusYears(MAX_YEARS_AHEAD).format(Expense.DISPLAY_FORMAT) + ".");
+        }
+    }
+
+    /**
+     * Adds an expense.
+     *
+     * @param expense The expense to add
+     * @throws IllegalArgumentException If the expense is dated outside the accepted range
+     */
+    public void add(Expense expense) {
+        requireValidDate(expense.getDate());
+        int day = (int) expense.getDate().toEpochDay();
+        if (!totalSums.covers(day)) {
+            regrow(day);
+        }
+        byDay.computeIfAbsent(day, d -> new ArrayList<>()).add(expense);
+        size++;
+        addToSums(expense, day, 1);
+        monthVersions.merge(YearMonth.from(expense.getDate()), 1, Integer::sum);
+        searchIndex.add(expense);
+    }
+
+    /**
+     * Removes an expense. Only this exact instance is removed, not equal-looking ones.
+     *
+     * @param expense The expense to remove
+     * @return true if the expense was in the store
+     */
+    public boolean remove(Expense expense) {
+        int day = (int) expense.getDate().toEpochDay();
+        List<Expense> expenses = byDay.get(day);
+        if (expenses == null) return false;
+        for (int i = 0; i < expenses.size(); i++) {
+            if (expenses.get(i) == expense) {
+                expenses.remove(i);
+                if (expenses.isEmpty()) byDay.remove(day);
+                size--;
+                addToSums(expense, day, -1);
+                monthVersions.merge(YearMonth.from(expense.getDate()), 1, Integer::sum);
+                searchIndex.remove(expense);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the expenses of a date range, in date order.
+     *
+     * @param from The first day, inclusive
+     * @param to   The last day, inclusive
+     * @return The expenses of the range
+     */
+    public List<Expense> getExpenses(LocalDate from, LocalDate to) {
+        List<Expense> result = new ArrayList<>();
+        if (from.isAfter(to)) return result;
+        for (List<Expense> expenses : byDay.subMap((int) from.toEpochDay(), true, (int) to.toEpochDay(), true).values()) {
+            result.addAll(expenses);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the expenses of a month, in date order.
+     *
+     * @param month The month
+     * @return The expenses of the month
+     */
+    public List<Expense> getExpenses(YearMonth month) {
+        return getExpenses(month.atDay(1), month.atEndOfMonth());
+    }
+
+    /**
+     * Gets every expense, in date order.
+     *
+     * @return All expenses
+     */
+    public List<Expense> getAll() {
+        List<Expense> result = new ArrayList<>(size);
+        for (List<Expense> expenses : byDay.values()) {
+            result.addAll(expenses);
+        }
+        return result;
+    }
+
+    /**
+     * Searches the descriptions and categories, see {@link ExpenseSearchIndex.Query#parse}.
+     *
+     * @param query The words and filters to match
+     * @return The matching expenses in date order
+     */
+    public List<Expense> search(ExpenseSearchIndex.Query query) {
+        return searchIndex.search(query);
+    }
+
+    /**
+     * Gets the total of a date range in CHF cents.
+     *
+     * @param from The first day, inclusive
+     * @param to   The last day, inclusive
+     * @return The total of the range
+     */
+    public long sumCents(LocalDate from, LocalDate to) {
+        return totalSums.sum(from.toEpochDay(), to.toEpochDay());
+    }
+
+    /**
+     * Gets the total of one category over a date range in CHF cents.
+     *
+     * @param category The category
+     * @param from     The first day, inclusive
+     * @param to       The last day, inclusive
+     * @return The total of the category in the range
+     */
+    public long sumCents(String category, LocalDate from, LocalDate to) {
+        DailySums sums = categorySums.get(category);
+        return sums == null ? 0 : sums.sum(from.toEpochDay(), to.toEpochDay());
+    }
+
+    /**
+     * Gets the total of every category over a date range in CHF cents.
+     *
+     * @param from The first day, inclusive
+     * @param to   The last day, inclusive
+     * @return The non-zero totals by category
+     */
+    public Map<String, Long> sumByCategory(LocalDate from, LocalDate to) {
+        Map<String, Long> totals = new HashMap<>();
+        for (Map.Entry<String, DailySums> entry : categorySums.entrySet()) {
+            long total = entry.getValue().sum(from.toEpochDay(), to.toEpochDay());
+            if (total != 0) totals.put(entry.getKey(), total);
+        }
+        return totals;
+    }
+
+    /**
+     * Gets the total from January 1st up to and including a date in CHF cents.
+     *
+     * @param date The last day counted
+     * @return The year-to-date total
+     */
+    public long yearToDateCents(LocalDate date) {
+        return sumCents(date.withDayOfYear(1), date);
+    }
+
+    /**
+     * Gets the categories that have expenses.
+     * A category is dropped once its last expense is removed.
+     *
+     * @return The category names
+     */
+    public Collection<String> getCategories() {
+        return Collections.unmodifiableSet(categorySums.keySet());
+    }
+
+    /**
+     * Gets the date of the oldest expense.
+     *
+     * @return The oldest date, or null if the store is empty
+     */
+    public LocalDate getFirstDate() {
+        return byDay.isEmpty() ? null : LocalDate.ofEpochDay(byDay.firstKey());
+    }
+
+    /**
+     * Gets the date of the newest expense.
+     *
+     * @return The newest date, or null if the store is empty
+     */
+    public LocalDate getLastDate() {
+        return byDay.isEmpty() ? null : LocalDate.ofEpochDay(byDay.lastKey());
+    }
+
+    /**
+     * Gets a counter of the changes to a month, so results computed from the month can
+     * tell whether they are still current.
+     *
+     * @param month The month
+     * @return A number that changes whenever an expense of the month is added or removed
+     */
+    public int getMonthVersion(YearMonth month) {
+        return monthVersions.getOrDefault(month, 0);
+    }
+
+    /** @return The number of expenses */
+    public int size() { return size; }
+
+    /** @return true if the store has no expenses */
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * Adds an expense to, or removes it from, the daily sums of a day covered by the sum trees.
+     *
+     * @param sign 1 to add the expense, -1 to remove it
+     */
+    private void addToSums(Expense expense, int day, int sign) {
+        long cents = sign * expense.getAmountCents();
+        totalSums.add(day, cents);
+        DailySums sums = categorySums.get(expense.getCategory());
+        if (sums == null) {
+            sums = new DailySums(totalSums.firstDay, totalSums.tree.length - 1);
+            categorySums.put(expense.getCategory(), sums);
+        }
+        sums.add(day, cents);
+        sums.count += sign;
+        if (sums.count == 0) {
+            categorySums.remove(expense.getCategory()); // Last expense of the category removed
+        }
+    }
+
+    /**
+     * Rebuilds the sum trees over a range covering every stored day and a new one.
+     * Rare: the range has a year of margin on both sides.
+     */
+    private void regrow(int day) {
+        int first = byDay.isEmpty() ? day : Math.min(day, byDay.firstKey());
+        int last = byDay.isEmpty() ? day : Math.max(day, byDay.lastKey());
+        int newFirst = first - GROWTH_MARGIN;
+        int newLength = last - first + 1 + 2 * GROWTH_MARGIN;
+
+        totalSums = new DailySums(newFirst, newLength);
+        categorySums.clear();
+        for (Map.Entry<Integer, List<Expense>> entry : byDay.entrySet()) {
+            for (Expense expense : entry.getValue()) {
+                addToSums(expense, entry.getKey(), 1);
+            }
+        }
+    }
+
+    /**
+     * Fenwick tree of daily totals over a fixed range of epoch days.
+     */
+    private static class DailySums {
+        private final int firstDay; // Epoch day of position 1
+        private final long[] tree; // 1-based Fenwick tree
+        private int count; // Number of expenses summed, used for categories
+
+        private DailySums(int firstDay, int length) {
+            this.firstDay = firstDay;
+            this.tree = new long[length + 1];
+        }
+
+        private boolean covers(long day) {
+            return day >= firstDay && day < firstDay + tree.length - 1;
+        }
+
+        private void add(long day, long cents) {
+            for (int i = (int) (day - firstDay) + 1; i < tree.length; i += i & -i) {
+                tree[i] += cents;
+            }
+        }
+
+        /** Sum of the days up to and including a day */
+        private long prefix(long day) {
+            if (day < firstDay) return 0;
+            int i = (int) Math.min(day - firstDay + 1, tree.length - 1);
+            long sum = 0;
+            for (; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+
+        private long sum(long from, long to) {
+            return from > to ? 0 : prefix(to) - prefix(from - 1);
+        }
+    }
+}
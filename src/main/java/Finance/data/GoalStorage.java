@@ -5,6 +5,7 @@ import com.google.gson.reflect.TypeToken;
 import Finance.model.Goal;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
@@ -27,18 +28,11 @@ public class GoalStorage {
 
     /**
      * Saves all goals to persistent storage
+     * The list is serialized and written in the background once the edits pause
      * @param goals List of Goal objects to save
      */
     public void saveGoals(List<Goal> goals) {
-        // Create parent directory if it doesn't exist
-        new File(System.getProperty("user.home")).mkdirs();
-
-        try (Writer writer = new FileWriter(STORAGE_FILE)) {
-            gson.toJson(goals, writer);
-        } catch (IOException e) {
-            System.err.println("Error saving goals: " + e.getMessage());
-            e.printStackTrace();
-        }
+        WriteBehindStore.getShared().markDirty(Paths.get(STORAGE_FILE), () -> gson.toJson(goals));
     }
 
     /**
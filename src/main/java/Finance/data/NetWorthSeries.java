@@ -0,0 +1,293 @@
+package Finance.data;
+
+import Finance.model.MonthlyBalance;
+import shared.SeriesDownsampler;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Monthly net worth over every month with balance entries, with its trend and projection.
+ * <p>
+ * The series runs from the first to the last month with full year savings or debts.
+ * A month without its own full year savings carries those of the latest earlier month
+ * that has them, even if the net savings of the month itself were entered, and
+ * likewise for debts, so a debt entered once stays until it is updated. Values are
+ * kept in primitive arrays indexed by month.
+ * <p>
+ * Trends are least-squares slopes over a window of months. Their sums, of the values
+ * and of the values weighted by month index, are held in Fenwick trees, so the slope
+ * and projection of any window take logarithmic time. When one month changes, only
+ * the months that carry its entries are recomputed and updated in the trees; a month
+ * outside the covered range rebuilds the series, which happens at most once a month.
+ * <p>
+ * Not thread-safe; used on the EDT.
+ */
+public class NetWorthSeries {
+
+    private YearMonth firstMonth; // Month of index 0, null while empty
+    private int length; // Number of months covered
+    private boolean[] hasYearSavings = new boolean[0]; // Whether a month has its own full year savings
+    private long[] savingsCents = new long[0]; // Own full year savings of each month
+    private boolean[] hasDebts = new boolean[0]; // Whether a month has its own debts
+    private long[] debtsCents = new long[0]; // Own total debts of each month
+    private long[] netWorthCents = new long[0]; // Net worth of each month, entries carried forward
+    private MonthSums valueSums = new MonthSums(0); // Sum of net worth over months
+    private MonthSums weightedSums = new MonthSums(0); // Sum of index times net worth over months
+
+    /**
+     * Creates the series of the given months.
+     *
+     * @param balances The entries of every month
+     */
+    public NetWorthSeries(Collection<MonthlyBalance> balances) {
+        rebuild(balances);
+    }
+
+    /**
+     * Updates the series after the entries of one month were set.
+     *
+     * @param balance The changed month
+     * @param all     The entries of every month, used if the series must grow
+     */
+    public void update(MonthlyBalance balance, Collection<MonthlyBalance> all) {
+        int index = indexOf(balance.getMonth());
+        if (index < 0 || index >= length) {
+            rebuild(all);
+            return;
+        }
+        hasYearSavings[index] = balance.hasYearSavings();
+        savingsCents[index] = balance.getYearSavingsCents();
+        hasDebts[index] = balance.hasDebts();
+        debtsCents[index] = balance.getTotalDebtsCents();
+
+        // Months up to the next own entries of both kinds carry this month's values
+        int end = Math.max(nextOwn(hasYearSavings, index + 1), nextOwn(hasDebts, index + 1));
+        recompute(index, end);
+    }
+
+    /** @return true if no month has entries */
+    public boolean isEmpty() { return length == 0; }
+
+    /** @return The number of months in the series */
+    public int size() { return length; }
+
+    /** @return The first month of the series, or null if it is empty */
+    public YearMonth getFirstMonth() { return firstMonth; }
+
+    /** @return The last month of the series, or null if it is empty */
+    public YearMonth getLastMonth() { return length == 0 ? null : firstMonth.plusMonths(length - 1); }
+
+    /**
+     * Gets the net worth of a month. Months after the series keep its last value.
+     *
+     * @param month The month
+     * @return The net worth in CHF cents, 0 before the first entries
+     */
+    public long getNetWorthCents(YearMonth month) {
+        int index = indexOf(month);
+        if (index < 0) return 0;
+        return netWorthCents[Math.min(index, length - 1)];
+    }
+
+    /**
+     * Gets the trend of the net worth over a window of months ending with a given month.
+     * Only months of the series count, so the window is shorter near its start.
+     *
+     * @param end    The last month of the window
+     * @param months The number of months in the window
+     * @return The least-squares change per month in CHF cents, or NaN with fewer than two months
+     */
+    public double getTrendCentsPerMonth(YearMonth end, int months) {
+        double[] fit = fit(end, months);
+        return fit == null ? Double.NaN : fit[0];
+    }
+
+    /**
+     * Projects the net worth along the trend of a window of months.
+     *
+     * @param end    The last month of the window, the projection starts from it
+     * @param months The number of months in the window
+     * @param ahead  The number of months to project past the window
+     * @return The projected net worth in CHF cents, or NaN with fewer than two months
+     */
+    public double getProjectionCents(YearMonth end, int months, int ahead) {
+        double[] fit = fit(end, months);
+        if (fit == null) return Double.NaN;
+        int last = Math.min(indexOf(end), length - 1);
+        return fit[1] + fit[0] * (last + ahead);
+    }
+
+    /**
+     * Gets the series reduced to at most the given number of points for a line chart.
+     *
+     * @param maxPoints The number of points to keep
+     * @return The kept points in month order
+     */
+    public List<Point> getChartPoints(int maxPoints) {
+        double[] x = new double[length];
+        double[] y = new double[length];
+        for (int i = 0; i < length; i++) {
+            x[i] = i;
+            y[i] = netWorthCents[i];
+        }
+        List<Point> points = new ArrayList<>();
+        for (int i : SeriesDownsampler.largestTriangleThreeBuckets(x, y, length, maxPoints)) {
+            points.add(new Point(firstMonth.plusMonths(i), netWorthCents[i]));
+        }
+        return points;
+    }
+
+    /**
+     * Fits a line to the months of a window.
+     *
+     * @return The slope and intercept by month index, or null with fewer than two months
+     */
+    private double[] fit(YearMonth end, int months) {
+        if (length == 0) return null;
+        int last = Math.min(indexOf(end), length - 1);
+        int first = Math.max(last - months + 1, 0);
+        long n = last - first + 1;
+        if (last < 0 || n < 2) return null;
+
+        double sumX = (first + last) * n / 2.0;
+        double sumXX = squareSum(last) - squareSum(first - 1);
+        double sumY = valueSums.sum(first, last);
+        double sumXY = weightedSums.sum(first, last);
+        double slope = (n * sumXY - sumX * sumY) / (n * sumXX - sumX * sumX);
+        double intercept = (sumY - slope * sumX) / n;
+        return new double[]{slope, intercept};
+    }
+
+    /** Sum of the squares of 0 to k */
+    private static double squareSum(long k) {
+        return k < 0 ? 0 : k * (k + 1.0) * (2 * k + 1) / 6.0;
+    }
+
+    /**
+     * Rebuilds the series from every month's entries.
+     */
+    private void rebuild(Collection<MonthlyBalance> balances) {
+        YearMonth first = null;
+        YearMonth last = null;
+        for (MonthlyBalance balance : balances) {
+            if (!balance.hasYearSavings() && !balance.hasDebts()) continue;
+            if (first == null || balance.getMonth().isBefore(first)) first = balance.getMonth();
+            if (last == null || balance.getMonth().isAfter(last)) last = balance.getMonth();
+        }
+        firstMonth = first;
+        length = first == null ? 0 : (int) (last.getYear() * 12L + last.getMonthValue()
+                - first.getYear() * 12L - first.getMonthValue()) + 1;
+
+        hasYearSavings = new boolean[length];
+        savingsCents = new long[length];
+        hasDebts = new boolean[length];
+        debtsCents = new long[length];
+        netWorthCents = new long[length];
+        valueSums = new MonthSums(length);
+        weightedSums = new MonthSums(length);
+        for (MonthlyBalance balance : balances) {
+            int index = indexOf(balance.getMonth());
+            if (index < 0 || index >= length) continue;
+            hasYearSavings[index] = balance.hasYearSavings();
+            savingsCents[index] = balance.getYearSavingsCents();
+            hasDebts[index] = balance.hasDebts();
+            debtsCents[index] = balance.getTotalDebtsCents();
+        }
+        recompute(0, length);
+    }
+
+    /**
+     * Recomputes the net worth of a range of months and updates the sums by the differences.
+     */
+    private void recompute(int from, int to) {
+        int savingsSource = from > 0 ? previousOwn(hasYearSavings, from - 1) : -1;
+        int debtsSource = from > 0 ? previousOwn(hasDebts, from - 1) : -1;
+        for (int i = from; i < to; i++) {
+            if (hasYearSavings[i]) savingsSource = i;
+            if (hasDebts[i]) debtsSource = i;
+            long value = (savingsSource >= 0 ? savingsCents[savingsSource] : 0)
+                    - (debtsSource >= 0 ? debtsCents[debtsSource] : 0);
+            long delta = value - netWorthCents[i];
+            if (delta != 0) {
+                netWorthCents[i] = value;
+                valueSums.add(i, delta);
+                weightedSums.add(i, delta * i);
+            }
+        }
+    }
+
+    /** Index of the next month from a start with its own entry, or the length */
+    private int nextOwn(boolean[] own, int start) {
+        for (int i = start; i < length; i++) {
+            if (own[i]) return i;
+        }
+        return length;
+    }
+
+    /** Index of the latest month up to a start with its own entry, or -1 */
+    private static int previousOwn(boolean[] own, int start) {
+        for (int i = start; i >= 0; i--) {
+            if (own[i]) return i;
+        }
+        return -1;
+    }
+
+    /** Index of a month, negative before the series */
+    private int indexOf(YearMonth month) {
+        if (firstMonth == null) return -1;
+        return (int) (month.getYear() * 12L + month.getMonthValue()
+                - firstMonth.getYear() * 12L - firstMonth.getMonthValue());
+    }
+
+    /**
+     * Fenwick tree of values per month index.
+     */
+    private static class MonthSums {
+        private final long[] tree; // 1-based Fenwick tree
+
+        private MonthSums(int length) {
+            this.tree = new long[length + 1];
+        }
+
+        private void add(int index, long value) {
+            for (int i = index + 1; i < tree.length; i += i & -i) {
+                tree[i] += value;
+            }
+        }
+
+        /** Sum of the indices up to and including an index */
+        private long prefix(int index) {
+            long sum = 0;
+            for (int i = index + 1; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+
+        private long sum(int from, int to) {
+            return from > to ? 0 : prefix(to) - prefix(from - 1);
+        }
+    }
+
+    /**
+     * Net worth of one month, a point of the chart.
+     */
+    public static final class Point {
+        private final YearMonth month; // The month
+        private final long netWorthCents; // Net worth in CHF cents
+
+        private Point(YearMonth month, long netWorthCents) {
+            this.month = month;
+            this.netWorthCents = netWorthCents;
+        }
+
+        /** @return The month */
+        public YearMonth getMonth() { return month; }
+
+        /** @return The net worth in CHF cents */
+        public long getNetWorthCents() { return netWorthCents; }
+    }
+}
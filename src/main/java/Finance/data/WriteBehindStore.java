@@ -0,0 +1,173 @@
+package Finance.data;
+
+import javax.swing.Timer;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind persistence shared by the storage classes of the Finance application.
+ * <p>
+ * Saving only marks a file as dirty together with a function producing its content;
+ * nothing is serialized or written yet. Once no save has been requested for
+ * {@link #DEBOUNCE_MS}, every dirty file is serialized once on the EDT, where the
+ * panels change their data, and written by a background thread. A burst of edits
+ * therefore costs a single write per file instead of one full rewrite per edit.
+ * <p>
+ * Each write goes to a temporary file next to the target, which is then moved over
+ * it in one step, so a crash never leaves a half-written file behind. Pending files
+ * are flushed when the JVM exits; the frames exit through {@code System.exit} from
+ * the EDT, which is then blocked, so the content is serialized on the shutdown thread
+ * without racing any edit.
+ */
+public class WriteBehindStore {
+
+    /** Quiet time after the last save before dirty files are written */
+    public static final int DEBOUNCE_MS = 750;
+
+    /** Longest wait for pending writes at shutdown */
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private static WriteBehindStore shared; // Instance used by the Finance application
+
+    private final Map<Path, Supplier<String>> dirty = new LinkedHashMap<>(); // Content of each unsaved file, guarded by this
+    private final Timer debounce; // Fires once the saves have paused
+    private final ExecutorService writer; // Writes the files in request order
+    private final AtomicLong saveRequests = new AtomicLong(); // Saves requested by the storage classes
+    private final AtomicLong writes = new AtomicLong(); // Files actually written
+
+    /**
+     * Creates a store with its own writer thread and debounce timer.
+     */
+    public WriteBehindStore() {
+        debounce = new Timer(DEBOUNCE_MS, e -> submitDirty()); // Fires on the EDT
+        debounce.setRepeats(false);
+        writer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "finance-write-behind");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Gets the store shared by the Finance application, which is flushed when the JVM exits.
+     *
+     * @return The shared store
+     */
+    public static synchronized WriteBehindStore getShared() {
+        if (shared == null) {
+            shared = new WriteBehindStore();
+            Runtime.getRuntime().addShutdownHook(new Thread(shared::close, "finance-write-behind-shutdown"));
+        }
+        return shared;
+    }
+
+    /**
+     * Marks a file as changed. A later call for the same file replaces the content function.
+     *
+     * @param file    The file to write
+     * @param content Produces the full file content when the file is flushed
+     */
+    public void markDirty(Path file, Supplier<String> content) {
+        saveRequests.incrementAndGet();
+        synchronized (this) {
+            dirty.put(file, content);
+        }
+        debounce.restart();
+    }
+
+    /**
+     * Serializes every dirty file on the calling thread and waits until it is written.
+     */
+    public void flush() {
+        debounce.stop();
+        for (Future<?> write : submitDirty()) {
+            try {
+                write.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                System.err.println("Error flushing finance data: " + e.getCause().getMessage());
+            }
+        }
+    }
+
+    /** @return The number of saves requested since the start */
+    public long getSaveRequestCount() { return saveRequests.get(); }
+
+    /** @return The number of files written since the start */
+    public long getWriteCount() { return writes.get(); }
+
+    /**
+     * Flushes the dirty files and stops the writer thread.
+     */
+    private void close() {
+        flush();
+        writer.shutdown();
+        try {
+            writer.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Serializes the dirty files and queues their writes.
+     *
+     * @return The queued writes
+     */
+    private List<Future<?>> submitDirty() {
+        Map<Path, Supplier<String>> batch;
+        synchronized (this) {
+            batch = new LinkedHashMap<>(dirty);
+            dirty.clear();
+        }
+        List<Future<?>> queued = new ArrayList<>();
+        for (Map.Entry<Path, Supplier<String>> entry : batch.entrySet()) {
+            Path file = entry.getKey();
+            String content;
+            try {
+                content = entry.getValue().get();
+            } catch (RuntimeException e) {
+                System.err.println("Error serializing " + file + ": " + e.getMessage());
+                continue;
+            }
+            queued.add(writer.submit(() -> write(file, content)));
+        }
+        return queued;
+    }
+
+    /**
+     * Writes a file through a temporary file moved over it in one step.
+     */
+    private void write(Path file, String content) {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(temp, content, StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            writes.incrementAndGet();
+        } catch (IOException e) {
+            System.err.println("Error saving to " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package Finance.data;
+
+import com.google.gson.*;
+import java.lang.reflect.Type;
+import java.time.YearMonth;
+
+/**
+ * Custom Gson adapter for serializing and deserializing YearMonth objects.
+ * Months are written in ISO-8601 format, e.g. "2025-03".
+ */
+public class YearMonthAdapter implements JsonSerializer<YearMonth>, JsonDeserializer<YearMonth> {
+
+    /**
+     * Serializes a YearMonth object to JSON format.
+     * @param month The YearMonth to serialize
+     * @param typeOfSrc The type of the source object
+     * @param context The JSON serialization context
+     * @return JSON element representing the month in ISO-8601 format
+     */
+    @Override
+    public JsonElement serialize(YearMonth month, Type typeOfSrc, JsonSerializationContext context) {
+        return new JsonPrimitive(month.toString());
+    }
+
+    /**
+     * Deserializes a JSON element back to a YearMonth object.
+     * @param json The JSON element containing the month string
+     * @param typeOfT The target type (YearMonth)
+     * @param context The JSON deserialization context
+     * @return YearMonth object parsed from the JSON string
+     * @throws JsonParseException if the month string is invalid
+     */
+    @Override
+    public YearMonth deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
+            throws JsonParseException {
+        try {
+            return YearMonth.parse(json.getAsString());
+        } catch (java.time.format.DateTimeParseException e) {
+            throw new JsonParseException("Invalid month: " + json.getAsString(), e);
+        }
+    }
+}
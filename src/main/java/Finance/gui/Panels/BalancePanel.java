@@ -5,38 +5,64 @@ import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.*;
 import java.time.LocalDate;
-import java.util.HashMap;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 import Finance.data.BalanceStorage;
+import Finance.data.ExpenseAnalytics;
+import Finance.data.ExpenseStore;
+import Finance.data.NetWorthSeries;
+import Finance.model.Expense;
+import Finance.model.MonthlyBalance;
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.DateAxis;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
 
 // Panel for displaying and managing financial balance information
 public class BalancePanel {
-    // Data structures for storing monthly financial information
-    private final Map<String, Map<String, String>> monthlyNetSavings;
-    private final Map<String, Map<String, String>> monthlyDebts;
+    // Net savings and debts of each month
+    private final NavigableMap<YearMonth, MonthlyBalance> balances = new TreeMap<>();
     private final BalanceStorage balanceStorage; // Storage handler for persisting data
+    private final ExpenseStore expenseStore; // Expenses shared with the expenses panel
+    private final ExpenseAnalytics expenseAnalytics; // Cached spending statistics of the expenses
+    private final NetWorthSeries netWorthSeries; // Net worth of every month with its trend
 
     // UI components
     private JPanel balanceArea;
     private JComboBox<String> balanceMonthCombo;
     private JComboBox<String> balanceYearCombo;
     private static final Font TITLE_FONT = new Font("Inter", Font.BOLD, 14);
+    private static final int TOP_DAYS = 3; // Most expensive days listed in the expenses card
+    private static final int TREND_MONTHS = 3; // Previous months shown in the savings trend
+    private static final int NET_WORTH_WINDOW = 12; // Months the net worth trend is fitted over
+    private static final int PROJECTION_MONTHS = 12; // Months the net worth is projected ahead
+    private static final int CHART_POINTS = 300; // One point per pixel of the phone frame width
+
+    // Net worth chart, created once and updated in place
+    private XYSeries netWorthChartSeries;
+    private JFreeChart netWorthChart;
+    private ChartPanel netWorthChartPanel;
 
     // Constructor initializes data storage and loads saved data
-    public BalancePanel(Map<String, Map<String, String>> monthlyNetSavings,
-                        Map<String, Map<String, String>> monthlyDebts) {
+    public BalancePanel(ExpenseStore expenseStore) {
         this.balanceStorage = new BalanceStorage();
+        this.expenseStore = expenseStore;
+        this.expenseAnalytics = new ExpenseAnalytics(expenseStore);
 
         // Load saved data from storage
-        Map<String, Map<String, String>> loadedSavings = balanceStorage.loadNetSavings();
-        Map<String, Map<String, String>> loadedDebts = balanceStorage.loadDebts();
-
-        // Initialize with passed-in maps and merge with loaded data
-        this.monthlyNetSavings = monthlyNetSavings;
-        this.monthlyNetSavings.putAll(loadedSavings);
-
-        this.monthlyDebts = monthlyDebts;
-        this.monthlyDebts.putAll(loadedDebts);
+        for (MonthlyBalance balance : balanceStorage.loadBalances()) {
+            balances.put(balance.getMonth(), balance);
+        }
+        this.netWorthSeries = new NetWorthSeries(balances.values());
     }
 
     // Creates and returns the main balance panel
@@ -55,7 +81,14 @@ public class BalancePanel {
         // Month and year selection dropdowns
         String[] months = {"January", "February", "March", "April", "May", "June",
                 "July", "August", "September", "October", "November", "December"};
-        String[] years = {"2024", "2025"};
+        // Every year from the oldest entry or expense up to the current one
+        int firstYear = 2024;
+        if (!balances.isEmpty()) firstYear = Math.min(firstYear, balances.firstKey().getYear());
+        if (expenseStore.getFirstDate() != null) firstYear = Math.min(firstYear, expenseStore.getFirstDate().getYear());
+        String[] years = new String[LocalDate.now().getYear() - firstYear + 1];
+        for (int i = 0; i < years.length; i++) {
+            years[i] = String.valueOf(firstYear + i);
+        }
 
         balanceMonthCombo = new JComboBox<>(months);
         balanceYearCombo = new JComboBox<>(years);
@@ -118,16 +151,23 @@ public class BalancePanel {
 
         balancePanel.add(bottomPanel, BorderLayout.SOUTH);
 
+        // Expenses may have changed on the expenses screen while this one was hidden
+        balancePanel.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentShown(ComponentEvent e) {
+                updateBalanceArea();
+            }
+        });
+
         // Initial update of the display
+        createNetWorthChart();
         updateBalanceArea();
         return balancePanel;
     }
 
     // Shows dialog for entering financial data (either net savings or debts)
     private void enterFinancialData(String type) {
-        String month = (String) balanceMonthCombo.getSelectedItem();
-        String year = (String) balanceYearCombo.getSelectedItem();
-        String key = month + " " + year;
+        YearMonth selectedMonth = getSelectedMonth();
 
         JPanel panel = new JPanel(new GridLayout(0, 1));
 
@@ -143,17 +183,17 @@ public class BalancePanel {
             panel.add(yearLabel);
             panel.add(yearField);
 
-            // Add fields for previous 3 months
-            LocalDate now = LocalDate.now();
-            for (int i = 3; i >= 1; i--) {
-                LocalDate prevMonth = now.minusMonths(i);
+            // Add fields for the previous 3 months; left empty, a month keeps its value,
+            // and a month with savings of its own is only replaced after confirmation
+            JTextField[] previousFields = new JTextField[TREND_MONTHS];
+            for (int i = TREND_MONTHS; i >= 1; i--) {
+                YearMonth prevMonth = selectedMonth.minusMonths(i);
                 String monthName = prevMonth.getMonth().name().substring(0, 1) +
                         prevMonth.getMonth().name().substring(1).toLowerCase();
-                String monthKey = prevMonth.getMonth().name().substring(0, 3).toLowerCase(); // "mar", "apr", etc.
 
                 JLabel label = new JLabel(monthName + " (CHF):");
                 JTextField field = new JTextField();
-                field.setName(monthKey); // Store as 3-letter key (e.g., "mar")
+                previousFields[TREND_MONTHS - i] = field;
                 panel.add(label);
                 panel.add(field);
             }
@@ -163,20 +203,42 @@ public class BalancePanel {
 
             if (result == JOptionPane.OK_OPTION) {
                 try {
-                    Map<String, String> netSavingsData = new HashMap<>();
-                    netSavingsData.put("current", currentField.getText());
-                    netSavingsData.put("year", yearField.getText());
-
-                    // Get values from previous month fields
-                    Component[] components = panel.getComponents();
-                    for (Component c : components) {
-                        if (c instanceof JTextField && c.getName() != null) {
-                            netSavingsData.put(c.getName(), ((JTextField) c).getText());
-                        }
+                    // Parse every field before changing anything
+                    long currentCents = parseCents(currentField.getText());
+                    long yearCents = parseCents(yearField.getText());
+                    long[] previousCents = new long[TREND_MONTHS];
+                    for (int i = 0; i < TREND_MONTHS; i++) {
+                        previousCents[i] = parseCents(previousFields[i].getText());
                     }
 
-                    monthlyNetSavings.put(key, netSavingsData);
-                    balanceStorage.saveNetSavings(monthlyNetSavings);
+                    // Months with savings of their own are only replaced after confirmation
+                    List<String> replaced = new ArrayList<>();
+                    for (int i = 0; i < TREND_MONTHS; i++) {
+                        MonthlyBalance previous = balances.get(selectedMonth.minusMonths(TREND_MONTHS - i));
+                        if (!previousFields[i].getText().isBlank() && previous != null && previous.hasSavings()
+                                && previous.getCurrentSavingsCents() != previousCents[i]) {
+                            String monthName = previous.getMonth().getMonth().name();
+                            replaced.add(monthName.charAt(0) + monthName.substring(1).toLowerCase()
+                                    + " (" + formatChf(previous.getCurrentSavingsCents()) + ")");
+                        }
+                    }
+                    boolean replace = replaced.isEmpty() || JOptionPane.showConfirmDialog(null,
+                            "Savings were already entered for " + String.join(", ", replaced)
+                                    + ".\nReplace them with the new values?",
+                            "Replace Savings", JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION;
+
+                    balanceOf(selectedMonth).setSavings(currentCents, yearCents);
+                    netWorthSeries.update(balances.get(selectedMonth), balances.values());
+                    for (int i = 0; i < TREND_MONTHS; i++) {
+                        if (!previousFields[i].getText().isBlank()) {
+                            MonthlyBalance previous = balanceOf(selectedMonth.minusMonths(TREND_MONTHS - i));
+                            if (previous.hasSavings() && !replace) continue; // Keeps the month's own entry
+                            previous.setCurrentSavings(previousCents[i]);
+                            netWorthSeries.update(previous, balances.values());
+                        }
+                    }
+                    saveBalances();
+                    updateNetWorthChart();
 
                     updateBalanceArea();
                 } catch (Exception ex) {
@@ -201,12 +263,10 @@ public class BalancePanel {
 
             if (result == JOptionPane.OK_OPTION) {
                 try {
-                    Map<String, String> debtsData = new HashMap<>();
-                    debtsData.put("credit", creditField.getText());
-                    debtsData.put("loan", loanField.getText());
-
-                    monthlyDebts.put(key, debtsData);
-                    balanceStorage.saveDebts(monthlyDebts);
+                    balanceOf(selectedMonth).setDebts(parseCents(creditField.getText()), parseCents(loanField.getText()));
+                    netWorthSeries.update(balances.get(selectedMonth), balances.values());
+                    saveBalances();
+                    updateNetWorthChart();
                     updateBalanceArea();
                 } catch (Exception ex) {
                     JOptionPane.showMessageDialog(null, "Invalid input", "Error", JOptionPane.ERROR_MESSAGE);
@@ -217,10 +277,6 @@ public class BalancePanel {
 
     // Updates the display area with current financial data
     private void updateBalanceArea() {
-        String month = (String) balanceMonthCombo.getSelectedItem();
-        String year = (String) balanceYearCombo.getSelectedItem();
-        String key = month + " " + year;
-
         balanceArea.removeAll();
         balanceArea.setLayout(new BorderLayout());
         balanceArea.setBackground(new Color(245, 245, 250));
@@ -230,18 +286,25 @@ public class BalancePanel {
         mainPanel.setBackground(new Color(245, 245, 250));
         mainPanel.setBorder(new EmptyBorder(10, 10, 10, 10));
 
-        if (monthlyNetSavings.containsKey(key) || monthlyDebts.containsKey(key)) {
+        // Expenses of the selected month and of its year up to the month's end
+        YearMonth selectedMonth = getSelectedMonth();
+        long monthExpenses = expenseStore.sumCents(selectedMonth.atDay(1), selectedMonth.atEndOfMonth());
+        long yearExpenses = expenseStore.yearToDateCents(selectedMonth.atEndOfMonth());
+
+        MonthlyBalance balance = balances.get(selectedMonth);
+        if (balance != null || yearExpenses != 0) {
+            if (balance == null) balance = new MonthlyBalance(selectedMonth); // Expenses only, shown with zero balances
+
             // Create net savings card
             JPanel savingsCard = createCardPanel("Net Savings");
-            Map<String, String> netSavings = monthlyNetSavings.getOrDefault(key, new HashMap<>());
 
             // Current month and full year values
             JPanel currentMonthPanel = createValuePanel("Current Month",
-                    "CHF " + netSavings.getOrDefault("current", "0"),
+                    formatChf(balance.getCurrentSavingsCents()),
                     new Color(50, 205, 50));
 
             JPanel fullYearPanel = createValuePanel("Full Year",
-                    "CHF " + netSavings.getOrDefault("year", "0"),
+                    formatChf(balance.getYearSavingsCents()),
                     new Color(50, 205, 50));
 
             savingsCard.add(currentMonthPanel);
@@ -262,43 +325,25 @@ public class BalancePanel {
             savingsCard.add(Box.createRigidArea(new Dimension(0, 5)));
             savingsCard.add(trendPanel);
 
-            // Calculate current date from selection
-            LocalDate currentDate = LocalDate.of(
-                    Integer.parseInt(year),
-                    balanceMonthCombo.getSelectedIndex() + 1, // Months are 0-based in combo
-                    1
-            );
-
-            // Get previous 3 months for trend analysis
-            String[] prevMonths = new String[3];
-            for (int i = 0; i < 3; i++) {
-                LocalDate prevMonth = currentDate.minusMonths(3 - i);
-                prevMonths[i] = prevMonth.getMonth().name().substring(0, 3).toLowerCase(); // "mar", "apr", etc.
-            }
-
-            // Display trend for these months
-            trendPanel.add(createTrendItem(
-                    prevMonths[0].substring(0, 1).toUpperCase() + prevMonths[0].substring(1), // "Mar"
-                    netSavings.getOrDefault(prevMonths[0], "0"),
-                    "-",
-                    new Color(100, 100, 100)
-            ));
+            // Net savings of the previous months, each compared with the one before it
+            long previousCents = 0;
+            for (int i = TREND_MONTHS; i >= 1; i--) {
+                YearMonth prevMonth = selectedMonth.minusMonths(i);
+                MonthlyBalance prevBalance = balances.get(prevMonth);
+                long cents = prevBalance != null ? prevBalance.getCurrentSavingsCents() : 0;
+                String name = prevMonth.getMonth().name();
 
-            // Calculate and display trends
-            for (int i = 1; i < 3; i++) {
-                double currentVal = parseDoubleSafe(netSavings.getOrDefault(prevMonths[i], "0"));
-                double prevVal = parseDoubleSafe(netSavings.getOrDefault(prevMonths[i-1], "0"));
-
-                String trend = currentVal > prevVal ? "▲" : (currentVal < prevVal ? "▼" : "-");
-                Color color = currentVal > prevVal ? new Color(50, 205, 60) :
-                        (currentVal < prevVal ? new Color(220, 20, 60) : new Color(100, 100, 100));
+                String trend = i == TREND_MONTHS ? "-" : (cents > previousCents ? "▲" : (cents < previousCents ? "▼" : "-"));
+                Color color = trend.equals("▲") ? new Color(50, 205, 60) :
+                        (trend.equals("▼") ? new Color(220, 20, 60) : new Color(100, 100, 100));
 
                 trendPanel.add(createTrendItem(
-                        prevMonths[i].substring(0, 1).toUpperCase() + prevMonths[i].substring(1), // "Apr"
-                        netSavings.getOrDefault(prevMonths[i], "0"),
+                        name.charAt(0) + name.substring(1, 3).toLowerCase(), // "Mar"
+                        String.format("%.2f", cents / 100.0),
                         trend,
                         color
                 ));
+                previousCents = cents;
             }
 
             savingsCard.add(Box.createRigidArea(new Dimension(0, 5)));
@@ -309,14 +354,13 @@ public class BalancePanel {
 
             // Create debts card
             JPanel debtsCard = createCardPanel("Debts");
-            Map<String, String> debts = monthlyDebts.getOrDefault(key, new HashMap<>());
 
             JPanel creditCardPanel = createValuePanel("Credit Card",
-                    "CHF " + debts.getOrDefault("credit", "0"),
+                    formatChf(balance.getCreditCardCents()),
                     new Color(220, 20, 60));
 
             JPanel studentLoanPanel = createValuePanel("Student Loan",
-                    "CHF " + debts.getOrDefault("loan", "0"),
+                    formatChf(balance.getStudentLoanCents()),
                     new Color(220, 20, 60));
 
             debtsCard.add(creditCardPanel);
@@ -326,22 +370,69 @@ public class BalancePanel {
             mainPanel.add(debtsCard);
             mainPanel.add(Box.createRigidArea(new Dimension(0, 10)));
 
-            // Calculate and display net worth
-            try {
-                double assets = Double.parseDouble(netSavings.getOrDefault("year", "0"));
-                double totalDebts = Double.parseDouble(debts.getOrDefault("credit", "0")) +
-                        Double.parseDouble(debts.getOrDefault("loan", "0"));
-                double netWorth = assets - totalDebts;
-
-                Color netWorthColor = netWorth >= 0 ? new Color(50, 205, 50) : new Color(220, 20, 60);
-                JPanel netWorthPanel = createValuePanel("Net Worth",
-                        String.format("CHF %.2f", netWorth),
-                        netWorthColor);
-
-                mainPanel.add(netWorthPanel);
-            } catch (NumberFormatException e) {
-                // Ignore invalid numbers
+            // Create expenses card
+            JPanel expensesCard = createCardPanel("Expenses");
+            expensesCard.add(createValuePanel("Current Month",
+                    String.format("CHF %.2f", monthExpenses / 100.0),
+                    new Color(220, 20, 60)));
+            expensesCard.add(Box.createRigidArea(new Dimension(0, 5)));
+            expensesCard.add(createValuePanel("Year to Date",
+                    String.format("CHF %.2f", yearExpenses / 100.0),
+                    new Color(220, 20, 60)));
+
+            // Rolling averages and the change from the previous month
+            for (int window : ExpenseAnalytics.ROLLING_WINDOWS) {
+                expensesCard.add(Box.createRigidArea(new Dimension(0, 5)));
+                expensesCard.add(createValuePanel(window + "-Month Average",
+                        String.format("CHF %.2f", expenseAnalytics.getRollingAverageCents(selectedMonth, window) / 100.0),
+                        new Color(100, 100, 100)));
+            }
+            long delta = expenseAnalytics.getMonthOverMonthDeltaCents(selectedMonth);
+            double percent = expenseAnalytics.getMonthOverMonthPercent(selectedMonth);
+            String deltaText = String.format("%s CHF %.2f", delta > 0 ? "▲" : (delta < 0 ? "▼" : "-"), Math.abs(delta) / 100.0)
+                    + (Double.isNaN(percent) ? "" : String.format(" (%+.0f%%)", percent));
+            expensesCard.add(Box.createRigidArea(new Dimension(0, 5)));
+            expensesCard.add(createValuePanel("vs. Previous Month", deltaText,
+                    delta > 0 ? new Color(220, 20, 60) : new Color(50, 205, 50)));
+
+            // Largest categories of the month and most expensive days of the year so far
+            Map<String, Long> breakdown = expenseAnalytics.getCategoryBreakdown(selectedMonth, selectedMonth);
+            if (!breakdown.isEmpty()) {
+                expensesCard.add(Box.createRigidArea(new Dimension(0, 10)));
+                JLabel categoriesLabel = new JLabel("By Category");
+                categoriesLabel.setFont(new Font("Inter", Font.BOLD, 12));
+                categoriesLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+                expensesCard.add(categoriesLabel);
+                for (Map.Entry<String, Long> entry : breakdown.entrySet()) {
+                    expensesCard.add(createValuePanel(entry.getKey(),
+                            String.format("CHF %.2f (%.0f%%)", entry.getValue() / 100.0, entry.getValue() * 100.0 / monthExpenses),
+                            new Color(100, 100, 100)));
+                }
             }
+            List<ExpenseAnalytics.DayTotal> topDays = expenseAnalytics.getTopDays(
+                    YearMonth.of(selectedMonth.getYear(), 1), selectedMonth, TOP_DAYS);
+            if (!topDays.isEmpty()) {
+                expensesCard.add(Box.createRigidArea(new Dimension(0, 10)));
+                JLabel topDaysLabel = new JLabel("Top Spending Days");
+                topDaysLabel.setFont(new Font("Inter", Font.BOLD, 12));
+                topDaysLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+                expensesCard.add(topDaysLabel);
+                for (ExpenseAnalytics.DayTotal day : topDays) {
+                    expensesCard.add(createValuePanel(day.getDate().format(Expense.DISPLAY_FORMAT),
+                            String.format("CHF %.2f", day.getCents() / 100.0),
+                            new Color(220, 20, 60)));
+                }
+            }
+
+            mainPanel.add(expensesCard);
+            mainPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+
+            // Display net worth: full year savings minus all debts, carried from earlier months like the chart
+            long netWorth = netWorthSeries.getNetWorthCents(selectedMonth);
+            Color netWorthColor = netWorth >= 0 ? new Color(50, 205, 50) : new Color(220, 20, 60);
+            JPanel netWorthPanel = createValuePanel("Net Worth", formatChf(netWorth), netWorthColor);
+
+            mainPanel.add(netWorthPanel);
         } else {
             // Show empty state if no data available
             JPanel emptyPanel = new JPanel();
@@ -360,6 +451,12 @@ public class BalancePanel {
             mainPanel.add(emptyPanel);
         }
 
+        // Net worth over all months, with its trend up to the selected month
+        if (netWorthSeries.size() >= 2) {
+            mainPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+            mainPanel.add(createNetWorthCard(selectedMonth));
+        }
+
         JScrollPane scrollPane = new JScrollPane(mainPanel);
         scrollPane.setBorder(null);
         balanceArea.add(scrollPane, BorderLayout.CENTER);
@@ -368,13 +465,100 @@ public class BalancePanel {
         balanceArea.repaint();
     }
 
-    // Helper method to safely parse double values
-    private double parseDoubleSafe(String value) {
-        try {
-            return Double.parseDouble(value);
-        } catch (NumberFormatException e) {
-            return 0.0;
+    // Creates the net worth line chart once; its series is replaced when entries change
+    private void createNetWorthChart() {
+        netWorthChartSeries = new XYSeries("Net Worth", true, false); // x values are epoch milliseconds
+        netWorthChart = ChartFactory.createTimeSeriesChart(
+                null, // No title for the chart
+                null, // No time axis label
+                null, // No value axis label
+                new XYSeriesCollection(netWorthChartSeries),
+                false, // No legend for a single series
+                false, // No tooltips when hovering
+                false // No URLs for web integration
+        );
+        netWorthChart.setBackgroundPaint(Color.WHITE);
+
+        XYPlot plot = netWorthChart.getXYPlot();
+        plot.setBackgroundPaint(Color.WHITE);
+        plot.setOutlinePaint(null);
+        plot.setDomainGridlinesVisible(false);
+        plot.setRangeGridlinePaint(new Color(230, 230, 230));
+        plot.getRenderer().setSeriesPaint(0, new Color(0, 122, 255));
+
+        DateAxis dateAxis = (DateAxis) plot.getDomainAxis();
+        dateAxis.setTickLabelFont(new Font("Inter", Font.PLAIN, 10));
+        NumberAxis valueAxis = (NumberAxis) plot.getRangeAxis();
+        valueAxis.setTickLabelFont(new Font("Inter", Font.PLAIN, 10));
+        valueAxis.setAutoRangeIncludesZero(false);
+
+        netWorthChartPanel = new ChartPanel(netWorthChart);
+        netWorthChartPanel.setPreferredSize(new Dimension(280, 160));
+        netWorthChartPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, 160));
+        netWorthChartPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        updateNetWorthChart();
+    }
+
+    // Replaces the chart series with the downsampled net worth; the chart redraws once
+    private void updateNetWorthChart() {
+        if (netWorthChart == null) return; // Chart not created yet
+
+        netWorthChart.setNotify(false);
+        netWorthChartSeries.clear();
+        ZoneId zone = ZoneId.systemDefault();
+        for (NetWorthSeries.Point point : netWorthSeries.getChartPoints(CHART_POINTS)) {
+            long millis = point.getMonth().atDay(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            netWorthChartSeries.add(millis, point.getNetWorthCents() / 100.0, false);
+        }
+        netWorthChartSeries.fireSeriesChanged(); // Lets the axes adjust their range
+        netWorthChart.setNotify(true);
+    }
+
+    // Creates the card with the net worth chart, its trend and projection
+    private JPanel createNetWorthCard(YearMonth selectedMonth) {
+        JPanel card = createCardPanel("Net Worth History");
+        card.add(netWorthChartPanel);
+
+        double trend = netWorthSeries.getTrendCentsPerMonth(selectedMonth, NET_WORTH_WINDOW);
+        double projection = netWorthSeries.getProjectionCents(selectedMonth, NET_WORTH_WINDOW, PROJECTION_MONTHS);
+        if (!Double.isNaN(trend)) {
+            card.add(Box.createRigidArea(new Dimension(0, 5)));
+            card.add(createValuePanel("Trend (" + NET_WORTH_WINDOW + " months)",
+                    String.format("%s CHF %.2f / month", trend > 0 ? "▲" : (trend < 0 ? "▼" : "-"), Math.abs(trend) / 100.0),
+                    trend >= 0 ? new Color(50, 205, 50) : new Color(220, 20, 60)));
+            card.add(Box.createRigidArea(new Dimension(0, 5)));
+            card.add(createValuePanel("In " + PROJECTION_MONTHS + " months",
+                    formatChf(Math.round(projection)),
+                    projection >= 0 ? new Color(50, 205, 50) : new Color(220, 20, 60)));
         }
+        return card;
+    }
+
+    // Gets the month selected in the month and year dropdowns
+    private YearMonth getSelectedMonth() {
+        return YearMonth.of(Integer.parseInt((String) balanceYearCombo.getSelectedItem()),
+                balanceMonthCombo.getSelectedIndex() + 1);
+    }
+
+    // Gets the balance of a month, creating an empty one if none was entered
+    private MonthlyBalance balanceOf(YearMonth month) {
+        return balances.computeIfAbsent(month, MonthlyBalance::new);
+    }
+
+    // Saves the balances of all months
+    private void saveBalances() {
+        balanceStorage.saveBalances(balances::values);
+    }
+
+    // Parses an amount typed in CHF to cents; an empty field counts as zero
+    private static long parseCents(String text) {
+        if (text.isBlank()) return 0;
+        return Expense.toCents(Double.parseDouble(text.trim().replace(",", ".")));
+    }
+
+    // Formats an amount in cents as CHF
+    private static String formatChf(long cents) {
+        return String.format("CHF %.2f", cents / 100.0);
     }
 
     // Creates a styled card panel for financial information
@@ -4,26 +4,43 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.Map;
+import java.time.YearMonth;
+import java.util.concurrent.CompletionException;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import Finance.api.CurrencyConverter;
+import Finance.data.ExpenseSearchIndex;
 import Finance.data.ExpenseStorage;
+import Finance.data.ExpenseStore;
+import Finance.gui.components.ExpenseListModel;
+import Finance.model.Expense;
 
 /**
  * Panel for displaying and managing expense tracking functionality.
- * Shows expenses by month with ability to add/delete entries.
+ * Shows expenses by month with ability to add/delete entries, or the results of a
+ * search across all months.
  */
 public class ExpensesPanel {
-    // Data structure to store expenses by month-year key
-    private final Map<String, List<String>> monthlyExpenses;
+    // Expenses ordered by date, shared with the balance panel
+    private final ExpenseStore expenseStore;
 
     // UI components
     private JPanel mainPanel;
-    private JScrollPane scrollPane;
+    private final ExpenseListModel listModel = new ExpenseListModel(this::displayAmount); // Expenses of the shown month
+    private JList<Expense> expensesList;
+    private final CardLayout listCardLayout = new CardLayout(); // Switches between the list and the empty state
+    private JPanel listCards;
+    private JLabel emptyLabel;
+    private JPanel totalPanel;
+    private JLabel totalAmountLabel;
+    private YearMonth shownMonth; // Month currently loaded into the list
     private JComboBox<String> monthCombo;
     private JComboBox<String> yearCombo;
+    private JTextField searchField;
+    private boolean searching; // Whether the list shows search results instead of a month
 
     // Currency settings
     private final String selectedCurrency = "CHF";
@@ -45,13 +62,13 @@ public class ExpensesPanel {
 
     /**
      * Constructor initializes expense data and UI
-     * @param monthlyExpenses Map to store expenses data
+     * @param expenseStore Store holding the expenses loaded from storage
      */
-    public ExpensesPanel(Map<String, List<String>> monthlyExpenses) {
-        this.monthlyExpenses = monthlyExpenses;
+    public ExpensesPanel(ExpenseStore expenseStore) {
+        this.expenseStore = expenseStore;
         this.storage = new ExpenseStorage();
-        // Load any existing expenses from storage
-        this.monthlyExpenses.putAll(storage.loadExpenses());
+        // Fetch today's rates in the background, conversions then never wait on the EDT
+        CurrencyConverter.prefetch();
 
         initializeUI();
     }
@@ -73,8 +90,9 @@ public class ExpensesPanel {
         mainPanel.setBorder(new EmptyBorder(15, 15, 15, 15));
 
         createHeader();
-        scrollPane = createExpensesList();
-        mainPanel.add(scrollPane);
+        createSearchBar();
+        mainPanel.add(createExpensesList());
+        showSelectedMonth();
     }
 
     /**
@@ -127,11 +145,17 @@ public class ExpensesPanel {
         // Month/year dropdown options
         String[] months = {"January", "February", "March", "April", "May", "June",
                 "July", "August", "September", "October", "November", "December"};
-        String[] years = {"2024", "2025"};
-
         // Set to current month/year
         LocalDate now = LocalDate.now();
 
+        // Every year from the oldest expense up to the current one
+        LocalDate first = expenseStore.getFirstDate();
+        int firstYear = Math.min(first != null ? first.getYear() : now.getYear(), 2024);
+        String[] years = new String[now.getYear() - firstYear + 1];
+        for (int i = 0; i < years.length; i++) {
+            years[i] = String.valueOf(firstYear + i);
+        }
+
         monthCombo = new JComboBox<>(months);
         yearCombo = new JComboBox<>(years);
         monthCombo.setFont(new Font("Inter", Font.PLAIN, 14));
@@ -141,7 +165,14 @@ public class ExpensesPanel {
         yearCombo.setSelectedItem(String.valueOf(now.getYear()));
 
         // Refresh list when date changes
-        ActionListener dateChangeListener = e -> refreshExpensesList();
+        ActionListener dateChangeListener = e -> {
+            if (emptyLabel == null) return; // The list is created after the header
+            if (searching) {
+                searchField.setText(""); // Clearing the search shows the selected month
+            } else {
+                showSelectedMonth();
+            }
+        };
         monthCombo.addActionListener(dateChangeListener);
         yearCombo.addActionListener(dateChangeListener);
 
@@ -156,166 +187,220 @@ public class ExpensesPanel {
     }
 
     /**
-     * Creates the scrollable list of expense cards
+     * Creates the search field below the header. Results are shown while typing.
      */
-    private JScrollPane createExpensesList() {
-        JPanel cardsPanel = new JPanel();
-        cardsPanel.setLayout(new BoxLayout(cardsPanel, BoxLayout.Y_AXIS));
-        cardsPanel.setBackground(BACKGROUND_COLOR);
+    private void createSearchBar() {
+        JPanel searchPanel = new JPanel(new BorderLayout(5, 0));
+        searchPanel.setBackground(BACKGROUND_COLOR);
+        searchPanel.setBorder(new EmptyBorder(0, 0, 10, 0));
+        searchPanel.setPreferredSize(new Dimension(HEADER_SIZE.width, 38));
+        searchPanel.setMaximumSize(new Dimension(HEADER_SIZE.width, 38));
+
+        JLabel searchLabel = new JLabel("🔍");
+        searchLabel.setFont(DETAIL_FONT);
+
+        searchField = new JTextField();
+        searchField.setFont(DETAIL_FONT);
+        searchField.setToolTipText("<html>Search descriptions and categories of all months<br>"
+                + "Filters: &gt;50, &lt;=100 (CHF), 14.03.2025, from:01.03.2025, to:31.03.2025</html>");
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { applySearch(); }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) { applySearch(); }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) { applySearch(); }
+        });
 
-        int CARD_PADDING = 20;
+        searchPanel.add(searchLabel, BorderLayout.WEST);
+        searchPanel.add(searchField, BorderLayout.CENTER);
+        mainPanel.add(searchPanel);
+    }
+
+    /**
+     * Creates the list of expense cards with its empty state and the total below it.
+     * The list only paints the visible cards, reusing a single renderer card.
+     */
+    private JPanel createExpensesList() {
         int MAX_CARD_WIDTH = 300;
         Dimension cardSize = new Dimension(MAX_CARD_WIDTH, CARD_HEIGHT);
 
-        // Get expenses for selected month/year
-        String month = (String) monthCombo.getSelectedItem();
-        String year = (String) yearCombo.getSelectedItem();
-        String key = month + " " + year;
-        List<String> currentExpenses = monthlyExpenses.getOrDefault(key, new java.util.ArrayList<>());
-
-        if (currentExpenses.isEmpty()) {
-            // Show empty state if no expenses
-            JLabel emptyLabel = new JLabel("No expenses for " + month + " " + year);
-            emptyLabel.setFont(DETAIL_FONT);
-            emptyLabel.setForeground(Color.GRAY);
-            emptyLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-            cardsPanel.add(Box.createVerticalGlue());
-            cardsPanel.add(emptyLabel);
-            cardsPanel.add(Box.createVerticalGlue());
-        } else {
-            double totalAmount = 0;
-            double conversionRate = 1.0;
-
-            // Get currency conversion rate if needed
-            if (!"CHF".equals(selectedCurrency)) {
-                try {
-                    conversionRate = CurrencyConverter.getExchangeRate("CHF", selectedCurrency);
-                } catch (Exception e) {
-                    JOptionPane.showMessageDialog(null,
-                            "Currency conversion failed: " + e.getMessage(),
-                            "Conversion Error", JOptionPane.ERROR_MESSAGE);
-                }
+        expensesList = new JList<>(listModel);
+        expensesList.setCellRenderer(new ExpenseCardRenderer());
+        expensesList.setFixedCellWidth(MAX_CARD_WIDTH);
+        expensesList.setFixedCellHeight(CARD_HEIGHT + 10); // Card plus the gap below it
+        expensesList.setBackground(BACKGROUND_COLOR);
+        expensesList.setSelectionModel(new DefaultListSelectionModel() {
+            @Override
+            public void setSelectionInterval(int index0, int index1) {
+                // Cards are not selectable
             }
+        });
 
-            // Create card for each expense
-            for (String expense : currentExpenses) {
-                String[] parts = expense.split("\t");
-                String dateStr = parts.length > 0 ? parts[0] : "";
-                String description = parts.length > 1 ? parts[1] : "";
-                String amountStr = parts.length > 2 ? parts[2] : "0.00";
-
-                double amountInCHF = 0.0;
-                try {
-                    amountInCHF = Double.parseDouble(amountStr.replace(",", "."));
-                    totalAmount += amountInCHF;
-                } catch (NumberFormatException e) {
-                    // Skip invalid amounts
+        // Clicks on the painted delete button of a card
+        MouseAdapter deleteHandler = new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = deleteButtonIndexAt(e.getPoint());
+                if (index >= 0) {
+                    confirmDelete(listModel.getElementAt(index));
                 }
-
-                JPanel card = createExpenseCard(dateStr, description, amountInCHF * conversionRate, cardSize);
-                cardsPanel.add(card);
-                cardsPanel.add(Box.createRigidArea(new Dimension(0, 10)));
             }
 
-            // Add total expenses panel
-            JPanel totalPanel = createTotalPanel(totalAmount * conversionRate, cardSize);
-            cardsPanel.add(totalPanel);
-        }
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                expensesList.setCursor(deleteButtonIndexAt(e.getPoint()) >= 0
+                        ? Cursor.getPredefinedCursor(Cursor.HAND_CURSOR) : Cursor.getDefaultCursor());
+            }
+        };
+        expensesList.addMouseListener(deleteHandler);
+        expensesList.addMouseMotionListener(deleteHandler);
 
-        JScrollPane scroll = new JScrollPane(cardsPanel);
+        JScrollPane scroll = new JScrollPane(expensesList);
         scroll.setBorder(null);
         scroll.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         scroll.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
         scroll.getVerticalScrollBar().setUnitIncrement(16);
-        scroll.setPreferredSize(new Dimension(MAX_CARD_WIDTH + 30, 450));
-
-        return scroll;
+        scroll.getViewport().setBackground(BACKGROUND_COLOR);
+
+        // Empty state shown instead of the list
+        JPanel emptyPanel = new JPanel();
+        emptyPanel.setLayout(new BoxLayout(emptyPanel, BoxLayout.Y_AXIS));
+        emptyPanel.setBackground(BACKGROUND_COLOR);
+        emptyLabel = new JLabel();
+        emptyLabel.setFont(DETAIL_FONT);
+        emptyLabel.setForeground(Color.GRAY);
+        emptyLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        emptyPanel.add(Box.createVerticalGlue());
+        emptyPanel.add(emptyLabel);
+        emptyPanel.add(Box.createVerticalGlue());
+
+        listCards = new JPanel(listCardLayout);
+        listCards.setBackground(BACKGROUND_COLOR);
+        listCards.add(scroll, "list");
+        listCards.add(emptyPanel, "empty");
+
+        totalPanel = createTotalPanel(cardSize);
+
+        JPanel listPanel = new JPanel(new BorderLayout(0, 10));
+        listPanel.setBackground(BACKGROUND_COLOR);
+        listPanel.setPreferredSize(new Dimension(MAX_CARD_WIDTH + 30, 450));
+        listPanel.add(listCards, BorderLayout.CENTER);
+        listPanel.add(totalPanel, BorderLayout.SOUTH);
+        return listPanel;
     }
 
     /**
-     * Creates an individual expense card
+     * Finds the card whose delete button is under a point of the list.
+     *
+     * @param point The point in list coordinates
+     * @return The row index, or -1 if the point is not on a delete button
      */
-    private JPanel createExpenseCard(String date, String description, double amount, Dimension size) {
-        JPanel card = new JPanel();
-        card.setLayout(new BoxLayout(card, BoxLayout.Y_AXIS));
-        card.setBackground(CARD_COLOR);
-        card.setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createLineBorder(new Color(230, 230, 230)),
-                new EmptyBorder(10, 15, 10, 15)));
-        card.setAlignmentX(Component.LEFT_ALIGNMENT);
-        card.setPreferredSize(size);
-        card.setMaximumSize(size);
-        card.setMinimumSize(new Dimension(MIN_CARD_WIDTH, CARD_HEIGHT));
-
-        // Top section with date and delete button
-        JPanel topPanel = new JPanel(new BorderLayout());
-        topPanel.setBackground(CARD_COLOR);
-
-        JLabel dateLabel = new JLabel(date);
-        dateLabel.setFont(new Font("Inter", Font.PLAIN, 12));
-        dateLabel.setForeground(new Color(100, 100, 100));
-        topPanel.add(dateLabel, BorderLayout.WEST);
-
-        // Delete button
-        JButton deleteButton = new JButton("Delete");
-        deleteButton.setFont(new Font("Inter", Font.BOLD, 12));
-        deleteButton.setBackground(new Color(220, 53, 69));
-        deleteButton.setForeground(Color.WHITE);
-        deleteButton.setFocusPainted(false);
-        deleteButton.setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createLineBorder(new Color(220, 53, 69).darker()),
-                new EmptyBorder(4, 10, 4, 10)));
-        deleteButton.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
-
-        deleteButton.addActionListener(e -> {
-            int confirm = JOptionPane.showConfirmDialog(mainPanel,
-                    "Delete this expense?\n" + date + " - " + description + " - " + String.format("%s %.2f", selectedCurrency, amount),
-                    "Confirm Delete", JOptionPane.YES_NO_OPTION);
-            if (confirm == JOptionPane.YES_OPTION) {
-                deleteExpense(date, description, amount);
-            }
-        });
-
-        topPanel.add(deleteButton, BorderLayout.EAST);
-        card.add(topPanel);
-        card.add(Box.createRigidArea(new Dimension(0, 5)));
-
-        // Description section
-        JPanel descWrapper = new JPanel();
-        descWrapper.setLayout(new BoxLayout(descWrapper, BoxLayout.X_AXIS));
-        descWrapper.setBackground(CARD_COLOR);
-
-        JTextArea descArea = new JTextArea(description);
-        descArea.setFont(new Font("Inter", Font.BOLD, 14));
-        descArea.setEditable(false);
-        descArea.setLineWrap(true);
-        descArea.setWrapStyleWord(true);
-        descArea.setBackground(CARD_COLOR);
-        descArea.setBorder(new EmptyBorder(0, 0, 0, 0));
-
-        descWrapper.add(descArea);
-        card.add(descWrapper);
-        card.add(Box.createRigidArea(new Dimension(0, 10)));
+    private int deleteButtonIndexAt(Point point) {
+        int index = expensesList.locationToIndex(point);
+        if (index < 0) return -1;
+        Rectangle cell = expensesList.getCellBounds(index, index);
+        if (cell == null || !cell.contains(point)) return -1;
+        ExpenseCardRenderer renderer = (ExpenseCardRenderer) expensesList.getCellRenderer();
+        Rectangle button = renderer.deleteButtonBounds(expensesList, listModel.getElementAt(index), index, cell);
+        return button.contains(point) ? index : -1;
+    }
 
-        // Amount section
-        JPanel amountPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
-        amountPanel.setBackground(CARD_COLOR);
-        amountPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+    /**
+     * Renders an expense as a card. One card component is reused for every row.
+     */
+    private class ExpenseCardRenderer implements ListCellRenderer<Expense> {
+        private final JPanel cell = new JPanel(new BorderLayout()); // Card plus the gap below it
+        private final JPanel card = new JPanel();
+        private final JLabel dateLabel = new JLabel();
+        private final JButton deleteButton = new JButton("Delete");
+        private final JLabel descLabel = new JLabel();
+        private final JLabel amountLabel = new JLabel();
+
+        private ExpenseCardRenderer() {
+            cell.setOpaque(false);
+            cell.setBorder(new EmptyBorder(0, 0, 10, 0));
+
+            card.setLayout(new BoxLayout(card, BoxLayout.Y_AXIS));
+            card.setBackground(CARD_COLOR);
+            card.setBorder(BorderFactory.createCompoundBorder(
+                    BorderFactory.createLineBorder(new Color(230, 230, 230)),
+                    new EmptyBorder(10, 15, 10, 15)));
+
+            // Top section with date and delete button
+            JPanel topPanel = new JPanel(new BorderLayout());
+            topPanel.setBackground(CARD_COLOR);
+            topPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+            dateLabel.setFont(new Font("Inter", Font.PLAIN, 12));
+            dateLabel.setForeground(new Color(100, 100, 100));
+            topPanel.add(dateLabel, BorderLayout.WEST);
+
+            deleteButton.setFont(new Font("Inter", Font.BOLD, 12));
+            deleteButton.setBackground(new Color(220, 53, 69));
+            deleteButton.setForeground(Color.WHITE);
+            deleteButton.setFocusPainted(false);
+            deleteButton.setBorder(BorderFactory.createCompoundBorder(
+                    BorderFactory.createLineBorder(new Color(220, 53, 69).darker()),
+                    new EmptyBorder(4, 10, 4, 10)));
+            topPanel.add(deleteButton, BorderLayout.EAST);
+
+            // Description section
+            descLabel.setFont(new Font("Inter", Font.BOLD, 14));
+            descLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+            // Amount section
+            JPanel amountPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+            amountPanel.setBackground(CARD_COLOR);
+            amountPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+            amountLabel.setFont(new Font("Inter", Font.BOLD, 16));
+            amountLabel.setForeground(EXPENSE_COLOR);
+            amountPanel.add(amountLabel);
+
+            card.add(topPanel);
+            card.add(Box.createRigidArea(new Dimension(0, 5)));
+            card.add(descLabel);
+            card.add(Box.createVerticalGlue());
+            card.add(amountPanel);
+            cell.add(card, BorderLayout.CENTER);
+        }
 
-        JLabel amountLabel = new JLabel(String.format("%s %.2f", selectedCurrency, amount));
-        amountLabel.setFont(new Font("Inter", Font.BOLD, 16));
-        amountLabel.setForeground(EXPENSE_COLOR);
-        amountPanel.add(amountLabel);
+        @Override
+        public Component getListCellRendererComponent(JList<? extends Expense> list, Expense expense, int index,
+                                                      boolean isSelected, boolean cellHasFocus) {
+            dateLabel.setText(expense.getDate().format(Expense.DISPLAY_FORMAT) + " · " + expense.getCategory());
+            descLabel.setText(expense.getDescription());
+            amountLabel.setText(String.format("%s %.2f", selectedCurrency, listModel.getDisplayAmount(expense)));
+            return cell;
+        }
 
-        card.add(amountPanel);
+        /**
+         * Lays the card out for a row and gets where its delete button is painted.
+         *
+         * @return The button bounds in list coordinates
+         */
+        private Rectangle deleteButtonBounds(JList<Expense> list, Expense expense, int index, Rectangle cellBounds) {
+            getListCellRendererComponent(list, expense, index, false, false);
+            cell.setBounds(0, 0, cellBounds.width, cellBounds.height);
+            layoutTree(cell);
+            Rectangle button = SwingUtilities.convertRectangle(deleteButton.getParent(), deleteButton.getBounds(), cell);
+            button.translate(cellBounds.x, cellBounds.y);
+            return button;
+        }
 
-        return card;
+        private void layoutTree(Container container) {
+            container.doLayout();
+            for (Component child : container.getComponents()) {
+                if (child instanceof Container) layoutTree((Container) child);
+            }
+        }
     }
 
     /**
      * Creates the total expenses summary panel
      */
-    private JPanel createTotalPanel(double totalAmount, Dimension size) {
+    private JPanel createTotalPanel(Dimension size) {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(CARD_COLOR);
         panel.setBorder(BorderFactory.createCompoundBorder(
@@ -328,16 +413,29 @@ public class ExpensesPanel {
         JLabel totalLabel = new JLabel("Total Expenses:");
         totalLabel.setFont(CARD_TITLE_FONT);
 
-        JLabel amountLabel = new JLabel(String.format("%s %.2f", selectedCurrency, totalAmount));
-        amountLabel.setFont(CARD_TITLE_FONT);
-        amountLabel.setForeground(EXPENSE_COLOR);
+        totalAmountLabel = new JLabel();
+        totalAmountLabel.setFont(CARD_TITLE_FONT);
+        totalAmountLabel.setForeground(EXPENSE_COLOR);
 
         panel.add(totalLabel, BorderLayout.WEST);
-        panel.add(amountLabel, BorderLayout.EAST);
+        panel.add(totalAmountLabel, BorderLayout.EAST);
 
         return panel;
     }
 
+    /**
+     * Converts an expense to the display currency at the rate of its own date.
+     */
+    private double displayAmount(Expense expense) {
+        if ("CHF".equals(selectedCurrency)) return expense.getAmount();
+        try {
+            return expense.getAmount() * CurrencyConverter.getExchangeRate("CHF", selectedCurrency, expense.getDate());
+        } catch (RuntimeException e) {
+            System.err.println("Currency conversion failed: " + e.getMessage());
+            return expense.getAmount();
+        }
+    }
+
     /**
      * Creates a styled button with default appearance
      */
@@ -356,7 +454,10 @@ public class ExpensesPanel {
      * Shows dialog for adding a new expense
      */
     private void showAddExpenseDialog() {
-        JPanel panel = new JPanel(new GridLayout(4, 2));
+        // Rates of recent days load while the dialog is open
+        CurrencyConverter.prefetchHistory(LocalDate.now().withDayOfMonth(1).minusMonths(1));
+
+        JPanel panel = new JPanel(new GridLayout(5, 2));
 
         // Default to current date
         String currentDate = LocalDate.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy"));
@@ -375,6 +476,9 @@ public class ExpensesPanel {
         JComboBox<String> currencyBox = new JComboBox<>(currencies);
         currencyBox.setSelectedItem("CHF");
 
+        JComboBox<String> categoryBox = new JComboBox<>(Expense.CATEGORIES);
+        categoryBox.setSelectedItem(Expense.DEFAULT_CATEGORY);
+
         panel.add(dateLabel);
         panel.add(dateField);
         panel.add(descLabel);
@@ -383,6 +487,8 @@ public class ExpensesPanel {
         panel.add(amountField);
         panel.add(new JLabel("Currency:"));
         panel.add(currencyBox);
+        panel.add(new JLabel("Category:"));
+        panel.add(categoryBox);
 
         int result = JOptionPane.showConfirmDialog(null, panel,
                 "Add New Expense", JOptionPane.OK_CANCEL_OPTION);
@@ -392,38 +498,40 @@ public class ExpensesPanel {
                 // Parse and validate input
                 DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
                 LocalDate expenseDate = LocalDate.parse(dateField.getText(), formatter);
-
-                // Get month/year for storage key
-                String month = expenseDate.getMonth().toString();
-                month = month.charAt(0) + month.substring(1).toLowerCase();
-                String year = String.valueOf(expenseDate.getYear());
-                String key = month + " " + year;
+                ExpenseStore.requireValidDate(expenseDate); // Before any rate is looked up
 
                 // Handle currency conversion if needed
                 double originalAmount = Double.parseDouble(amountField.getText());
-                String selectedInputCurrency = (String) currencyBox.getSelectedItem();
-                if (selectedInputCurrency == null) selectedInputCurrency = "CHF";
-
-                double amountInCHF = originalAmount;
-                if (!"CHF".equals(selectedInputCurrency)) {
-                    amountInCHF = CurrencyConverter.getExchangeRate(selectedInputCurrency, "CHF") * originalAmount;
+                String inputCurrency = (String) currencyBox.getSelectedItem();
+                String selectedInputCurrency = inputCurrency != null ? inputCurrency : "CHF";
+                String description = descField.getText();
+                String category = (String) categoryBox.getSelectedItem();
+
+                if ("CHF".equals(selectedInputCurrency)) {
+                    addExpense(new Expense(expenseDate, description, category, Expense.toCents(originalAmount),
+                            selectedInputCurrency, Expense.toCents(originalAmount)));
+                    return;
                 }
-
-                // Create expense entry string
-                String newEntry = String.format("%s\t%s\t%.2f", dateField.getText(), descField.getText(), amountInCHF);
-
-                // Add to data structure and save
-                if (!monthlyExpenses.containsKey(key)) {
-                    monthlyExpenses.put(key, new java.util.ArrayList<>());
-                }
-                monthlyExpenses.get(key).add(newEntry);
-                storage.saveExpenses(monthlyExpenses);
-                refreshExpensesList();
-
-                // Update UI to show new expense
-                monthCombo.setSelectedItem(month);
-                yearCombo.setSelectedItem(year);
-                refreshExpensesList();
+                // Rate of the expense date, not of the day it is entered; may need a download
+                CurrencyConverter.getExchangeRateAsync(selectedInputCurrency, "CHF", expenseDate)
+                        .whenComplete((historicalRate, error) -> SwingUtilities.invokeLater(() -> {
+                            try {
+                                double rate;
+                                if (error == null) {
+                                    rate = historicalRate;
+                                } else if (confirmTodaysRate(expenseDate, unwrap(error))) {
+                                    rate = CurrencyConverter.getExchangeRate(selectedInputCurrency, "CHF");
+                                } else {
+                                    return; // Nothing stored, the expense can be entered again later
+                                }
+                                addExpense(new Expense(expenseDate, description, category,
+                                        Expense.toCents(rate * originalAmount),
+                                        selectedInputCurrency, Expense.toCents(originalAmount)));
+                            } catch (Exception ex) {
+                                JOptionPane.showMessageDialog(null,
+                                        getErrorMessage(ex), "Error", JOptionPane.ERROR_MESSAGE);
+                            }
+                        }));
             } catch (Exception ex) {
                 JOptionPane.showMessageDialog(null,
                         getErrorMessage(ex), "Error", JOptionPane.ERROR_MESSAGE);
@@ -431,10 +539,69 @@ public class ExpensesPanel {
         }
     }
 
+    /**
+     * Asks whether an expense may be converted at today's rate because the rate of its
+     * own date could not be loaded
+     * @param expenseDate The date of the expense
+     * @param cause Why the rate of that date is unavailable
+     * @return true if today's rate should be used
+     */
+    private boolean confirmTodaysRate(LocalDate expenseDate, Throwable cause) {
+        int choice = JOptionPane.showConfirmDialog(null,
+                "The exchange rate of " + expenseDate.format(Expense.DISPLAY_FORMAT) + " could not be loaded:\n"
+                        + cause.getMessage() + "\n\nConvert the expense at today's rate instead?",
+                "Exchange Rate Unavailable", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+        return choice == JOptionPane.YES_OPTION;
+    }
+
+    /**
+     * Gets the original failure of a background task
+     */
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof UncheckedIOException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * Stores a new expense and shows it
+     */
+    private void addExpense(Expense newExpense) {
+        LocalDate expenseDate = newExpense.getDate();
+
+        // Get month/year for storage key
+        String month = expenseDate.getMonth().toString();
+        month = month.charAt(0) + month.substring(1).toLowerCase();
+        String year = String.valueOf(expenseDate.getYear());
+
+        // Add to data structure and save
+        expenseStore.add(newExpense);
+        saveExpenses();
+
+        if (searching) {
+            applySearch(); // The new expense may match the search
+        } else if (YearMonth.from(expenseDate).equals(shownMonth)) {
+            // Inserts the single new row
+            int index = listModel.add(newExpense);
+            updateSummary();
+            expensesList.ensureIndexIsVisible(index);
+        } else {
+            // Update UI to show the month of the new expense
+            monthCombo.setSelectedItem(month);
+            if (((DefaultComboBoxModel<String>) yearCombo.getModel()).getIndexOf(year) < 0) {
+                yearCombo.addItem(year); // Expense in a year not listed yet
+            }
+            yearCombo.setSelectedItem(year);
+            showSelectedMonth();
+        }
+    }
+
     /**
      * Generates appropriate error messages for different exception types
      */
-    private String getErrorMessage(Exception ex) {
+    private String getErrorMessage(Throwable ex) {
         if (ex instanceof NumberFormatException) {
             return "Invalid amount. Please enter a valid number.";
         } else if (ex instanceof java.time.format.DateTimeParseException) {
@@ -444,39 +611,86 @@ public class ExpensesPanel {
         }
     }
 
+    /**
+     * Asks for confirmation before deleting an expense
+     */
+    private void confirmDelete(Expense expense) {
+        int confirm = JOptionPane.showConfirmDialog(mainPanel,
+                "Delete this expense?\n" + expense.getDate().format(Expense.DISPLAY_FORMAT) + " - " + expense.getDescription()
+                        + " - " + String.format("%s %.2f", selectedCurrency, listModel.getDisplayAmount(expense)),
+                "Confirm Delete", JOptionPane.YES_NO_OPTION);
+        if (confirm == JOptionPane.YES_OPTION) {
+            deleteExpense(expense);
+        }
+    }
+
     /**
      * Deletes an expense entry
      */
-    private void deleteExpense(String date, String description, double amountInCHF) {
-        String month = (String) monthCombo.getSelectedItem();
-        String year = (String) yearCombo.getSelectedItem();
-        String key = month + " " + year;
-
-        List<String> expenses = monthlyExpenses.get(key);
-        if (expenses != null) {
-            // Remove matching expense
-            expenses.removeIf(expense -> {
-                String[] parts = expense.split("\t");
-                if (parts.length < 3) return false;
-                String d = parts[0];
-                String desc = parts[1];
-                return d.equals(date) && desc.equals(description);
-            });
-
-            // Save changes and refresh UI
-            storage.saveExpenses(monthlyExpenses);
-            refreshExpensesList();
+    private void deleteExpense(Expense expense) {
+        // Removes this exact entry, not every expense with the same date and description
+        if (expenseStore.remove(expense)) {
+            // Save changes and remove the single row
+            saveExpenses();
+            listModel.remove(expense);
+            updateSummary();
+        }
+    }
+
+    /**
+     * Saves the expenses of all months
+     */
+    private void saveExpenses() {
+        storage.saveExpenses(expenseStore::getAll);
+    }
+
+    /**
+     * Gets the month selected in the month and year dropdowns.
+     */
+    private YearMonth getSelectedMonth() {
+        return YearMonth.of(Integer.parseInt((String) yearCombo.getSelectedItem()), monthCombo.getSelectedIndex() + 1);
+    }
+
+    /**
+     * Loads the expenses of the selected month into the list.
+     */
+    private void showSelectedMonth() {
+        YearMonth selectedMonth = getSelectedMonth();
+        if (selectedMonth.equals(shownMonth)) return;
+        shownMonth = selectedMonth;
+        listModel.setExpenses(expenseStore.getExpenses(selectedMonth));
+        emptyLabel.setText("No expenses for " + monthCombo.getSelectedItem() + " " + yearCombo.getSelectedItem());
+        updateSummary();
+    }
+
+    /**
+     * Shows the expenses matching the search field, or the selected month once it is cleared.
+     */
+    private void applySearch() {
+        ExpenseSearchIndex.Query query = ExpenseSearchIndex.Query.parse(searchField.getText());
+        if (query.isEmpty()) {
+            if (searching) {
+                searching = false;
+                showSelectedMonth();
+            }
+            return;
         }
+        searching = true;
+        shownMonth = null; // Reloaded when the search is cleared
+        listModel.setExpenses(expenseStore.search(query));
+        emptyLabel.setText("No matching expenses");
+        updateSummary();
     }
 
     /**
-     * Refreshes the expenses list display
+     * Updates the empty state and the total after the rows changed.
      */
-    private void refreshExpensesList() {
-        mainPanel.remove(scrollPane);
-        scrollPane = createExpensesList();
-        mainPanel.add(scrollPane);
-        mainPanel.revalidate();
-        mainPanel.repaint();
+    private void updateSummary() {
+        boolean empty = listModel.getSize() == 0;
+        listCardLayout.show(listCards, empty ? "empty" : "list");
+        totalPanel.setVisible(!empty);
+        // The CHF total is kept exactly in cents
+        double total = "CHF".equals(selectedCurrency) ? listModel.getTotalCents() / 100.0 : listModel.getDisplayTotal();
+        totalAmountLabel.setText(String.format("%s %.2f", selectedCurrency, total));
     }
-}
\ No newline at end of file
+}
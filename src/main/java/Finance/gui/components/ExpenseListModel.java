@@ -0,0 +1,123 @@
+package Finance.gui.components;
+
+import Finance.model.Expense;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * List model of the expenses of the selected month.
+ * <p>
+ * Adding or removing one expense notifies the list of that single row, so only the
+ * affected cells are repainted, and the month total is updated by the same amount
+ * instead of being summed again. The total is kept both in exact CHF cents and in the
+ * display currency, whose amounts come from a conversion function.
+ * <p>
+ * Must only be used on the EDT.
+ */
+public class ExpenseListModel extends AbstractListModel<Expense> {
+
+    private static final long serialVersionUID = 1L; // For serialization compatibility
+
+    /** Order of the rows: by date, then in insertion order */
+    private static final Comparator<Expense> BY_DATE = Comparator.comparing(Expense::getDate);
+
+    private final transient ToDoubleFunction<Expense> displayAmount; // Amount of an expense in the display currency, not serialized
+    private final transient List<Expense> rows = new ArrayList<>(); // Expenses in date order, not serialized
+    private long totalCents; // Total in CHF cents
+    private double displayTotal; // Total in the display currency
+
+    /**
+     * Creates an empty model.
+     *
+     * @param displayAmount Converts an expense to the amount shown in the display currency
+     */
+    public ExpenseListModel(ToDoubleFunction<Expense> displayAmount) {
+        this.displayAmount = displayAmount;
+    }
+
+    /**
+     * Replaces the rows, used when another month is selected.
+     *
+     * @param expenses The expenses of the month, in date order
+     */
+    public void setExpenses(List<Expense> expenses) {
+        int oldSize = rows.size();
+        rows.clear();
+        totalCents = 0;
+        displayTotal = 0;
+        if (oldSize > 0) fireIntervalRemoved(this, 0, oldSize - 1);
+        for (Expense expense : expenses) {
+            rows.add(expense);
+            totalCents += expense.getAmountCents();
+            displayTotal += displayAmount.applyAsDouble(expense);
+        }
+        if (!rows.isEmpty()) fireIntervalAdded(this, 0, rows.size() - 1);
+    }
+
+    /**
+     * Inserts an expense at its date position.
+     *
+     * @param expense The expense to add
+     * @return The row index of the expense
+     */
+    public int add(Expense expense) {
+        int index = rows.size();
+        while (index > 0 && BY_DATE.compare(rows.get(index - 1), expense) > 0) {
+            index--; // New expenses are usually the latest, so this stops almost at once
+        }
+        rows.add(index, expense);
+        totalCents += expense.getAmountCents();
+        displayTotal += displayAmount.applyAsDouble(expense);
+        fireIntervalAdded(this, index, index);
+        return index;
+    }
+
+    /**
+     * Removes an expense.
+     *
+     * @param expense The exact expense instance to remove
+     * @return true if the expense was shown
+     */
+    public boolean remove(Expense expense) {
+        for (int index = 0; index < rows.size(); index++) {
+            if (rows.get(index) == expense) {
+                rows.remove(index);
+                totalCents -= expense.getAmountCents();
+                displayTotal -= displayAmount.applyAsDouble(expense);
+                fireIntervalRemoved(this, index, index);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the amount of an expense in the display currency.
+     *
+     * @param expense The expense
+     * @return The converted amount
+     */
+    public double getDisplayAmount(Expense expense) {
+        return displayAmount.applyAsDouble(expense);
+    }
+
+    /** @return The total of the rows in CHF cents */
+    public long getTotalCents() { return totalCents; }
+
+    /** @return The total of the rows in the display currency */
+    public double getDisplayTotal() { return displayTotal; }
+
+    @Override
+    public int getSize() {
+        return rows.size();
+    }
+
+    @Override
+    public Expense getElementAt(int index) {
+        return rows.get(index);
+    }
+}
@@ -0,0 +1,94 @@
+package Finance.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * A single expense.
+ * <p>
+ * Amounts are stored as whole cents in a {@code long}, so sums and deletions never
+ * accumulate floating-point drift. The amount in CHF is the one used for totals; the
+ * amount and currency the expense was entered in are kept as well, since the CHF
+ * value depends on the exchange rate of the expense date.
+ */
+public final class Expense {
+
+    /** Category of expenses recorded before categories existed */
+    public static final String DEFAULT_CATEGORY = "Other";
+
+    /** Categories offered when adding an expense */
+    public static final String[] CATEGORIES = {"Food", "Housing", "Transport", "Leisure", "Health", "Shopping", DEFAULT_CATEGORY};
+
+    /** Date format shown to the user */
+    public static final DateTimeFormatter DISPLAY_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    private final LocalDate date; // Day of the expense
+    private final String description; // What the money was spent on
+    private final String category; // Category of the expense
+    private final long amountCents; // Amount in CHF cents
+    private final String originalCurrency; // Currency the expense was entered in
+    private final long originalCents; // Amount in cents of the original currency
+
+    /**
+     * Creates an expense.
+     *
+     * @param date             The day of the expense
+     * @param description      What the money was spent on
+     * @param category         The category, the default category if null
+     * @param amountCents      The amount in CHF cents
+     * @param originalCurrency The currency the expense was entered in
+     * @param originalCents    The amount in cents of the original currency
+     */
+    public Expense(LocalDate date, String description, String category, long amountCents,
+                   String originalCurrency, long originalCents) {
+        this.date = date;
+        this.description = description == null ? "" : description;
+        this.category = category == null ? DEFAULT_CATEGORY : category;
+        this.amountCents = amountCents;
+        this.originalCurrency = originalCurrency == null ? "CHF" : originalCurrency;
+        this.originalCents = originalCents;
+    }
+
+    /** @return The day of the expense */
+    public LocalDate getDate() { return date; }
+
+    /** @return What the money was spent on */
+    public String getDescription() { return description; }
+
+    /** @return The category of the expense */
+    public String getCategory() { return category; }
+
+    /** @return The amount in CHF cents */
+    public long getAmountCents() { return amountCents; }
+
+    /** @return The amount in CHF */
+    public double getAmount() { return amountCents / 100.0; }
+
+    /** @return The currency the expense was entered in */
+    public String getOriginalCurrency() { return originalCurrency; }
+
+    /** @return The amount in cents of the original currency */
+    public long getOriginalCents() { return originalCents; }
+
+    /**
+     * Gets the key of the expense's month as used by the month selector, e.g. "March 2025".
+     *
+     * @return The month key
+     */
+    public String getMonthKey() {
+        String month = date.getMonth().toString();
+        return month.charAt(0) + month.substring(1).toLowerCase() + " " + date.getYear();
+    }
+
+    /**
+     * Converts an amount to whole cents, rounding half up on its decimal form.
+     *
+     * @param amount The amount
+     * @return The amount in cents
+     */
+    public static long toCents(double amount) {
+        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,100 @@
+package Finance.model;
+
+import java.time.YearMonth;
+
+/**
+ * Net savings and debts entered for one month.
+ * <p>
+ * Amounts are whole CHF cents, like those of {@link Expense}, so trends and the net
+ * worth are plain integer arithmetic. Savings and debts are entered separately; a
+ * month may have either, both or, once its entries are replaced, neither. The net
+ * savings of a month itself can be entered without its full year savings, as for the
+ * months preceding an entry, so only {@link #hasYearSavings()} tells whether the full
+ * year value was entered.
+ */
+public final class MonthlyBalance {
+
+    private final YearMonth month; // The month of the entries
+    private boolean hasSavings; // Whether net savings were entered
+    private boolean hasYearSavings; // Whether the full year savings were entered too
+    private long currentSavingsCents; // Net savings of the month itself
+    private long yearSavingsCents; // Net savings of the full year, the assets of the month
+    private boolean hasDebts; // Whether debts were entered
+    private long creditCardCents; // Credit card debt
+    private long studentLoanCents; // Student loan debt
+
+    /**
+     * Creates a month without entries.
+     *
+     * @param month The month
+     */
+    public MonthlyBalance(YearMonth month) {
+        this.month = month;
+    }
+
+    /**
+     * Sets the net savings of the month.
+     *
+     * @param currentCents The net savings of the month itself in CHF cents
+     * @param yearCents    The net savings of the full year in CHF cents
+     */
+    public void setSavings(long currentCents, long yearCents) {
+        this.hasSavings = true;
+        this.hasYearSavings = true;
+        this.currentSavingsCents = currentCents;
+        this.yearSavingsCents = yearCents;
+    }
+
+    /**
+     * Sets only the net savings of the month itself, keeping the full year value and
+     * whether it was entered.
+     *
+     * @param currentCents The net savings of the month in CHF cents
+     */
+    public void setCurrentSavings(long currentCents) {
+        this.hasSavings = true;
+        this.currentSavingsCents = currentCents;
+    }
+
+    /**
+     * Sets the debts of the month.
+     *
+     * @param creditCardCents  The credit card debt in CHF cents
+     * @param studentLoanCents The student loan debt in CHF cents
+     */
+    public void setDebts(long creditCardCents, long studentLoanCents) {
+        this.hasDebts = true;
+        this.creditCardCents = creditCardCents;
+        this.studentLoanCents = studentLoanCents;
+    }
+
+    /** @return The month of the entries */
+    public YearMonth getMonth() { return month; }
+
+    /** @return true if net savings were entered */
+    public boolean hasSavings() { return hasSavings; }
+
+    /** @return true if the full year net savings were entered */
+    public boolean hasYearSavings() { return hasYearSavings; }
+
+    /** @return The net savings of the month itself in CHF cents */
+    public long getCurrentSavingsCents() { return currentSavingsCents; }
+
+    /** @return The net savings of the full year in CHF cents, 0 unless entered */
+    public long getYearSavingsCents() { return yearSavingsCents; }
+
+    /** @return true if debts were entered */
+    public boolean hasDebts() { return hasDebts; }
+
+    /** @return The credit card debt in CHF cents */
+    public long getCreditCardCents() { return creditCardCents; }
+
+    /** @return The student loan debt in CHF cents */
+    public long getStudentLoanCents() { return studentLoanCents; }
+
+    /** @return The sum of all debts in CHF cents */
+    public long getTotalDebtsCents() { return creditCardCents + studentLoanCents; }
+
+    /** @return The full year net savings minus all debts in CHF cents */
+    public long getNetWorthCents() { return yearSavingsCents - getTotalDebtsCents(); }
+}
@@ -28,17 +28,26 @@ public class Investify {
     private final ChartService chartService; // Creates visual representations of portfolio data
     private final CurrencyService currencyService; // Handles currency conversions
     private final ApiKeyManager apiKeyManager; // Manages API authentication
+    private final AlphaVantageScheduler apiScheduler; // Rate-limits all AlphaVantage requests
+    private final SymbolIndex symbolIndex; // Local symbol and company name lookup
+    private final PriceHistoryStore priceHistoryStore; // Local daily price history per symbol
+    private final PortfolioValuationEngine valuationEngine; // Values holdings at the latest quotes
+    private final PortfolioHistoryService historyService; // Daily portfolio value over time
 
     // Configuration state variables
     private String apiKey; // Stores API key for external services
-    private boolean apiKeyInitialized = false; // Tracks if API has been initialized
 
     /**
      * Constructor - initializes all services in the correct dependency order.
      * Sets up the entire application structure including:
      * - Currency service for handling currency conversions
      * - API key management for external service authentication
+     * - Request scheduling to stay within the AlphaVantage rate limit
+     * - Symbol index for search suggestions and validation
+     * - Price history store keeping downloaded daily prices
      * - Portfolio management for tracking investments
+     * - Valuation engine pricing holdings at market
+     * - History service computing the portfolio value over time
      * - Chart service for data visualization
      * - Transaction service for handling investment operations
      * - User interface components
@@ -47,8 +56,13 @@ public class Investify {
         // Initialize services in order of dependency
         this.currencyService = new CurrencyService(); // First as other services depend on it
         this.apiKeyManager = new ApiKeyManager(); // Handles API authentication
+        this.apiScheduler = AlphaVantageScheduler.getShared(); // One rate limit for the whole process
+        this.symbolIndex = SymbolIndex.loadBundled(); // Loaded once from the bundled listing file
+        this.priceHistoryStore = new PriceHistoryStore(apiScheduler); // Downloads missing days through the scheduler
         this.portfolioManager = new PortfolioManager(currencyService); // Needs currency service
-        this.chartService = new ChartService(portfolioManager, currencyService); // Depends on portfolio and currency
+        this.valuationEngine = new PortfolioValuationEngine(priceHistoryStore, currencyService); // Reads stored quotes
+        this.historyService = new PortfolioHistoryService(valuationEngine, priceHistoryStore); // Follows valuation changes
+        this.chartService = new ChartService(valuationEngine, historyService, currencyService); // Depends on valuation, history and currency
         this.transactionService = new TransactionService(portfolioManager); // Depends on portfolio
         this.ui = new InvestifyUI(this); // UI needs access to all services via app instance
     }
@@ -67,22 +81,18 @@ public class Investify {
      * Ensures that the API is properly initialized with a valid key.
      * If the API has not been initialized yet, this method prompts the user
      * for an API key and attempts to initialize the API with the provided key.
-     * If already initialized, it returns true without further action.
+     * If already initialized, by this or any other instance, it returns true
+     * without further action.
      *
      * @return true if the API is successfully initialized or was already initialized,
      * false if initialization fails or the user cancels the operation
      */
     public boolean ensureApiInitialized() {
-        if (apiKeyInitialized) {
+        if (ApiKeyManager.isApiConfigured()) {
             return true;
         }
 
-        if (apiKeyManager.setupApiKey()) {
-            apiKeyInitialized = true;
-            return true;
-        }
-
-        return false;
+        return apiKeyManager.setupApiKey();
     }
 
 
@@ -130,4 +140,71 @@ public class Investify {
     public ApiKeyManager getApiKeyManager() {
         return apiKeyManager;
     }
-}
\ No newline at end of file
+
+    /**
+     * Provides access to the scheduler that all AlphaVantage requests go through.
+     *
+     * @return The AlphaVantageScheduler instance for this application
+     */
+    public AlphaVantageScheduler getApiScheduler() {
+        return apiScheduler;
+    }
+
+    /**
+     * Provides access to the local index of known symbols.
+     *
+     * @return The SymbolIndex instance for this application
+     */
+    public SymbolIndex getSymbolIndex() {
+        return symbolIndex;
+    }
+
+    /**
+     * Provides access to the local store of daily prices.
+     *
+     * @return The PriceHistoryStore instance for this application
+     */
+    public PriceHistoryStore getPriceHistoryStore() {
+        return priceHistoryStore;
+    }
+
+    /**
+     * Checks whether the API has been initialized, without prompting for a key.
+     * The AlphaVantage configuration is global, so a key entered through another
+     * instance counts. Background work uses it to skip downloads until the user
+     * has provided a key.
+     *
+     * @return true if the API is initialized
+     */
+    public boolean isApiInitialized() {
+        return ApiKeyManager.isApiConfigured();
+    }
+
+    /**
+     * Runs an action once the API is initialized: right away if it already is,
+     * otherwise on the thread that initializes it.
+     *
+     * @param action The action to run
+     */
+    public void whenApiInitialized(Runnable action) {
+        ApiKeyManager.whenApiConfigured(action);
+    }
+
+    /**
+     * Provides access to the mark-to-market valuation of the portfolio.
+     *
+     * @return The PortfolioValuationEngine instance for this application
+     */
+    public PortfolioValuationEngine getValuationEngine() {
+        return valuationEngine;
+    }
+
+    /**
+     * Provides access to the daily portfolio value history.
+     *
+     * @return The PortfolioHistoryService instance for this application
+     */
+    public PortfolioHistoryService getHistoryService() {
+        return historyService;
+    }
+}
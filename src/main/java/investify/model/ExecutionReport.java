@@ -0,0 +1,196 @@
+package investify.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Structured result of one recurring investment run.
+ * Holds one entry per investment that was due, describing whether it was executed,
+ * skipped or failed, so the caller can present a single summary instead of one
+ * message per investment.
+ */
+public class ExecutionReport {
+
+    /**
+     * Outcome of a single recurring investment within a run.
+     */
+    public enum Status {
+        /** A buy transaction was recorded */
+        EXECUTED,
+        /** The amount was too small to buy a single share */
+        SKIPPED,
+        /** No valid price could be fetched, or the transaction could not be saved */
+        FAILED
+    }
+
+    private final LocalDate runDate; // Date the run was executed for
+    private final List<Entry> entries = new ArrayList<>(); // One entry per due investment
+    private int priceRequests; // Number of distinct symbols priced during the run
+    private String historyError; // Why the execution history could not be read, null if it was
+
+    /**
+     * Creates an empty report for a run.
+     *
+     * @param runDate The date the run was executed for
+     */
+    public ExecutionReport(LocalDate runDate) {
+        this.runDate = runDate;
+    }
+
+    /**
+     * Adds the outcome of one investment to the report.
+     *
+     * @param entry The entry to add
+     */
+    public void addEntry(Entry entry) {
+        entries.add(entry);
+    }
+
+    /**
+     * Records how many distinct symbols were priced during the run.
+     *
+     * @param priceRequests The number of price requests issued
+     */
+    public void setPriceRequests(int priceRequests) {
+        this.priceRequests = priceRequests;
+    }
+
+    /**
+     * Marks the run as aborted because the execution history could not be read.
+     * Nothing is executed in such a run, as due occurrences cannot be told apart
+     * from ones that already ran.
+     *
+     * @param historyError The reason the history could not be read
+     */
+    public void setHistoryError(String historyError) {
+        this.historyError = historyError;
+    }
+
+    /**
+     * Gets the date the run was executed for.
+     *
+     * @return The run date
+     */
+    public LocalDate getRunDate() {
+        return runDate;
+    }
+
+    /**
+     * Gets all entries of the run.
+     *
+     * @return An unmodifiable list of entries
+     */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Gets the number of distinct symbols priced during the run.
+     *
+     * @return The number of price requests issued
+     */
+    public int getPriceRequests() {
+        return priceRequests;
+    }
+
+    /**
+     * Gets the reason the execution history could not be read.
+     *
+     * @return The reason, or null if the run could read the history
+     */
+    public String getHistoryError() {
+        return historyError;
+    }
+
+    /**
+     * Gets the number of investments with a recorded buy transaction.
+     *
+     * @return The number of executed investments
+     */
+    public int getExecutedCount() {
+        return count(Status.EXECUTED);
+    }
+
+    /**
+     * Gets the number of investments skipped because the amount was too small.
+     *
+     * @return The number of skipped investments
+     */
+    public int getSkippedCount() {
+        return count(Status.SKIPPED);
+    }
+
+    /**
+     * Gets the number of investments that failed.
+     *
+     * @return The number of failed investments
+     */
+    public int getFailedCount() {
+        return count(Status.FAILED);
+    }
+
+    /**
+     * Counts the entries with the given status.
+     *
+     * @param status The status to count
+     * @return The number of matching entries
+     */
+    private int count(Status status) {
+        int count = 0;
+        for (Entry entry : entries) {
+            if (entry.getStatus() == status) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Outcome of a single recurring investment.
+     */
+    public static class Entry {
+        private final String name; // Name of the recurring investment
+        private final String symbol; // Stock symbol of the investment
+        private final Status status; // Outcome of the investment
+        private final int quantity; // Shares bought, 0 unless executed
+        private final double price; // Price used, 0 if no price was available
+        private final String message; // Reason for a skip or failure, null when executed
+
+        /**
+         * Creates a report entry.
+         *
+         * @param name     The name of the recurring investment
+         * @param symbol   The stock symbol of the investment
+         * @param status   The outcome of the investment
+         * @param quantity The number of shares bought
+         * @param price    The price per share used
+         * @param message  The reason for a skip or failure, or null
+         */
+        public Entry(String name, String symbol, Status status, int quantity, double price, String message) {
+            this.name = name;
+            this.symbol = symbol;
+            this.status = status;
+            this.quantity = quantity;
+            this.price = price;
+            this.message = message;
+        }
+
+        /** @return The name of the recurring investment */
+        public String getName() { return name; }
+
+        /** @return The stock symbol of the investment */
+        public String getSymbol() { return symbol; }
+
+        /** @return The outcome of the investment */
+        public Status getStatus() { return status; }
+
+        /** @return The number of shares bought */
+        public int getQuantity() { return quantity; }
+
+        /** @return The price per share used */
+        public double getPrice() { return price; }
+
+        /** @return The reason for a skip or failure, or null when executed */
+        public String getMessage() { return message; }
+    }
+}
@@ -0,0 +1,223 @@
+package investify.model;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+/**
+ * Read-only view of the stored daily price history of one symbol.
+ * <p>
+ * The view wraps the memory-mapped price file written by the price history store.
+ * The file starts with a fixed header followed by fixed-width daily OHLCV records
+ * sorted by date, so any day is reached by index arithmetic and a date lookup is
+ * a binary search. Values are read straight from the mapped buffer, nothing is
+ * copied to the heap.
+ */
+public class PriceSeries {
+
+    /** Magic number identifying a price file ("IVPH") */
+    public static final int MAGIC = 0x49565048;
+
+    /** Current version of the file layout */
+    public static final int VERSION = 1;
+
+    /** Header size: magic (4), version (4), record count (4), flags (4) */
+    public static final int HEADER_BYTES = 16;
+
+    /** Offset of the record count inside the header */
+    public static final int COUNT_OFFSET = 8;
+
+    /** Offset of the flags inside the header, 0 in files written before they existed */
+    public static final int FLAGS_OFFSET = 12;
+
+    /** Flag set once the whole available history of the symbol is stored */
+    public static final int FLAG_COMPLETE = 1;
+
+    /** Record size: epoch day (4), open, high, low, close (4 x 8), volume (8) */
+    public static final int RECORD_BYTES = 44;
+
+    // Field offsets inside a record
+    private static final int DAY = 0;
+    private static final int OPEN = 4;
+    private static final int HIGH = 12;
+    private static final int LOW = 20;
+    private static final int CLOSE = 28;
+    private static final int VOLUME = 36;
+
+    private final String symbol; // Symbol the prices belong to
+    private final ByteBuffer buffer; // Mapped file content, header included
+    private final int size; // Number of daily records
+
+    /**
+     * Creates a view over a price file buffer.
+     *
+     * @param symbol The symbol the prices belong to
+     * @param buffer The file content, header included
+     * @param size   The number of records to expose
+     */
+    public PriceSeries(String symbol, ByteBuffer buffer, int size) {
+        this.symbol = symbol;
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    /**
+     * Creates an empty series for a symbol without stored prices.
+     *
+     * @param symbol The symbol
+     * @return An empty series
+     */
+    public static PriceSeries empty(String symbol) {
+        return new PriceSeries(symbol, ByteBuffer.allocate(0), 0);
+    }
+
+    /** @return The symbol the prices belong to */
+    public String getSymbol() { return symbol; }
+
+    /** @return The number of stored days */
+    public int size() { return size; }
+
+    /** @return true if no day is stored */
+    public boolean isEmpty() { return size == 0; }
+
+    /** @return true if the whole available history is stored, so nothing older exists */
+    public boolean isComplete() {
+        return buffer.capacity() >= HEADER_BYTES && (buffer.getInt(FLAGS_OFFSET) & FLAG_COMPLETE) != 0;
+    }
+
+    /**
+     * Gets the date of a record as days since 1970-01-01.
+     *
+     * @param index The record index, 0 is the oldest day
+     * @return The epoch day of the record
+     */
+    public int getEpochDay(int index) {
+        return buffer.getInt(offset(index) + DAY);
+    }
+
+    /**
+     * Gets the date of a record.
+     *
+     * @param index The record index, 0 is the oldest day
+     * @return The date of the record
+     */
+    public LocalDate getDate(int index) {
+        return LocalDate.ofEpochDay(getEpochDay(index));
+    }
+
+    /**
+     * Gets the opening price of a record.
+     *
+     * @param index The record index, 0 is the oldest day
+     * @return The opening price
+     */
+    public double getOpen(int index) {
+        return buffer.getDouble(offset(index) + OPEN);
+    }
+
+    /**
+     * Gets the highest price of a record.
+     *
+     * @param index The record index, 0 is the oldest day
+     * @return The highest price
+     */
+    public double getHigh(int index) {
+        return buffer.getDouble(offset(index) + HIGH);
+    }
+
+    /**
+     * Gets the lowest price of a record.
+     *
+     * @param index The record index, 0 is the oldest day
+     * @return The lowest price
+     */
+    public double getLow(int index) {
+        return buffer.getDouble(offset(index) + LOW);
+    }
+
+    /**
+     * Gets the closing price of a record.
+     *
+     * @param index The record index, 0 is the oldest day
+     * @return The closing price
+     */
+    public double getClose(int index) {
+        return buffer.getDouble(offset(index) + CLOSE);
+    }
+
+    /**
+     * Gets the traded volume of a record.
+     *
+     * @param index The record index, 0 is the oldest day
+     * @return The traded volume
+     */
+    public long getVolume(int index) {
+        return buffer.getLong(offset(index) + VOLUME);
+    }
+
+    /**
+     * Gets the date of the most recent stored day.
+     *
+     * @return The last date, or null if the series is empty
+     */
+    public LocalDate getLastDate() {
+        return size == 0 ? null : getDate(size - 1);
+    }
+
+    /**
+     * Gets the most recent closing price.
+     *
+     * @return The last close, or NaN if the series is empty
+     */
+    public double getLatestClose() {
+        return size == 0 ? Double.NaN : getClose(size - 1);
+    }
+
+    /**
+     * Finds the last record on or before a date.
+     * Weekends and holidays resolve to the previous trading day.
+     *
+     * @param date The date to look up
+     * @return The record index, or -1 if the date is before the first stored day
+     */
+    public int indexOnOrBefore(LocalDate date) {
+        long key = date.toEpochDay();
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int day = getEpochDay(mid);
+            if (day < key) {
+                low = mid + 1;
+            } else if (day > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return high; // Last record before the date, -1 if none
+    }
+
+    /**
+     * Gets the closing price valid on a date.
+     *
+     * @param date The date to look up
+     * @return The close of the last trading day on or before the date, or NaN if unknown
+     */
+    public double getCloseOn(LocalDate date) {
+        int index = indexOnOrBefore(date);
+        return index < 0 ? Double.NaN : getClose(index);
+    }
+
+    /**
+     * Computes the byte offset of a record in the buffer.
+     *
+     * @param index The record index
+     * @return The offset of the record
+     */
+    private int offset(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of range for " + size + " days");
+        }
+        return HEADER_BYTES + index * RECORD_BYTES;
+    }
+}
@@ -1,9 +1,12 @@
 package investify.model;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
 /**
  * Represents a stock transaction in the Investify application.
  * Stores information about buy/sell actions, including the stock symbol,
- * quantity of shares, and price per share.
+ * quantity of shares, price per share and trade date.
  * This class is used for recording and tracking user investment activities.
  */
 public class Transaction { // Main class definition for representing financial transactions
@@ -11,6 +14,7 @@ public class Transaction { // Main class definition for representing financial t
     private String symbol; // Stores the stock identifier code (ticker)
     private int quantity; // Stores the number of shares involved in the transaction
     private double price; // Stores the price per share in USD currency
+    private String date; // Stores the ISO trade date, missing in files written before dates were recorded
 
     /**
      * Creates a new transaction with the specified details.
@@ -20,11 +24,25 @@ public class Transaction { // Main class definition for representing financial t
      * @param quantity Number of shares
      * @param price    Price per share in USD
      */
-    public Transaction(String action, String symbol, int quantity, double price) { // Constructor initializing all fields
+    public Transaction(String action, String symbol, int quantity, double price) { // Constructor dated today
+        this(action, symbol, quantity, price, LocalDate.now());
+    }
+
+    /**
+     * Creates a new transaction traded on the given date.
+     *
+     * @param action   Type of transaction ("Buy" or "Sell")
+     * @param symbol   Stock symbol/ticker
+     * @param quantity Number of shares
+     * @param price    Price per share in USD
+     * @param date     Trade date
+     */
+    public Transaction(String action, String symbol, int quantity, double price, LocalDate date) { // Constructor initializing all fields
         this.action = action; // Sets the action field with the provided transaction type
         this.symbol = symbol; // Sets the symbol field with the provided stock ticker
         this.quantity = quantity; // Sets the quantity field with the provided number of shares
         this.price = price; // Sets the price field with the provided price per share
+        this.date = date.toString(); // Stored as ISO text so the JSON file stays readable
     }
 
     /**
@@ -63,6 +81,20 @@ public class Transaction { // Main class definition for representing financial t
         return price; // Returns the current price value
     }
 
+    /**
+     * Gets the trade date.
+     *
+     * @return The trade date, or null for transactions recorded without a date
+     */
+    public LocalDate getDate() {
+        if (date == null) return null;
+        try {
+            return LocalDate.parse(date); // Parses the stored ISO date
+        } catch (DateTimeParseException e) {
+            return null; // Treated like an undated transaction
+        }
+    }
+
     /**
      * Sets a new transaction type.
      *
@@ -99,4 +131,13 @@ public class Transaction { // Main class definition for representing financial t
         this.price = price; // Updates the price field
     }
 
+    /**
+     * Sets a new trade date for this transaction.
+     *
+     * @param date The new trade date
+     */
+    public void setDate(LocalDate date) {
+        this.date = date == null ? null : date.toString(); // Updates the date field
+    }
+
 }
\ No newline at end of file
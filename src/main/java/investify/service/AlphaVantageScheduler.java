@@ -0,0 +1,377 @@
+package investify.service;
+
+import com.crazzyghost.alphavantage.AlphaVantage;
+import com.crazzyghost.alphavantage.parameters.OutputSize;
+import com.crazzyghost.alphavantage.timeseries.response.TimeSeriesResponse;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client-side scheduler for every AlphaVantage request of the Investify application.
+ * <p>
+ * The free AlphaVantage tier only accepts a few calls per minute, and calls above that
+ * limit fail with an error message instead of a price. This scheduler protects the quota
+ * with a token bucket: each request consumes one token, and tokens are refilled at a fixed
+ * rate. Requests that arrive while the bucket is empty are queued instead of failing.
+ * <p>
+ * Queued requests are served by priority class first (interactive searches before background
+ * recurring jobs) and in arrival order within the same class. The scheduler also records
+ * metrics on how long requests waited and how often the bucket throttled the queue.
+ * <p>
+ * The quota belongs to the API key, which is global to the AlphaVantage library, so the
+ * application uses the single scheduler returned by {@link #getShared()}.
+ */
+public class AlphaVantageScheduler {
+
+    /**
+     * Priority classes for AlphaVantage requests, from most to least urgent.
+     */
+    public enum Priority {
+        /** Requests triggered directly by the user, such as a symbol search */
+        INTERACTIVE,
+        /** Requests issued by background jobs, such as recurring investments */
+        BACKGROUND
+    }
+
+    /** Number of calls per period allowed by the free AlphaVantage tier */
+    public static final int FREE_TIER_CALLS = 5;
+
+    /** Length of the period over which the free tier calls are counted */
+    public static final long FREE_TIER_PERIOD_SECONDS = 60;
+
+    /** Scheduler shared by the whole process, created on first use */
+    private static AlphaVantageScheduler shared;
+
+    /** Maximum number of tokens the bucket can hold (burst size) */
+    private final int capacity;
+
+    /** Time needed to refill a single token, in nanoseconds */
+    private final double nanosPerToken;
+
+    /** Tokens currently available, guarded by this scheduler's monitor */
+    private double tokens;
+
+    /** Timestamp of the last refill, guarded by this scheduler's monitor */
+    private long lastRefillNanos;
+
+    /** Pending requests ordered by priority and arrival order */
+    private final PriorityBlockingQueue<ScheduledRequest<?>> queue = new PriorityBlockingQueue<>();
+
+    /** Sequence counter used to keep arrival order within a priority class */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** Executor running the dispatched requests so slow responses never block dispatching */
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+
+    /** Thread handing out tokens and dispatching queued requests */
+    private final Thread dispatcher;
+
+    /** Flag telling the dispatcher thread to keep running */
+    private volatile boolean running = true;
+
+    // Metrics
+    private final AtomicLong submittedRequests = new AtomicLong(); // Requests accepted by the scheduler
+    private final AtomicLong dispatchedRequests = new AtomicLong(); // Requests handed to a worker
+    private final AtomicLong throttleEvents = new AtomicLong(); // Times the empty bucket held back queued work
+    private final AtomicLong totalWaitNanos = new AtomicLong(); // Sum of queue wait times
+    private final AtomicLong maxWaitNanos = new AtomicLong(); // Longest queue wait time seen
+
+    /**
+     * Constructs a scheduler configured for the free AlphaVantage tier.
+     */
+    public AlphaVantageScheduler() {
+        this(FREE_TIER_CALLS, FREE_TIER_PERIOD_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Constructs a scheduler allowing the given number of calls per period.
+     * The bucket starts full so the first calls of a session are not delayed.
+     *
+     * @param callsPerPeriod Number of calls allowed in each period (also the burst size)
+     * @param period         Length of the period
+     * @param unit           Time unit of the period
+     */
+    public AlphaVantageScheduler(int callsPerPeriod, long period, TimeUnit unit) {
+        if (callsPerPeriod <= 0 || period <= 0) {
+            throw new IllegalArgumentException("Rate limit must be positive");
+        }
+        this.capacity = callsPerPeriod;
+        this.nanosPerToken = (double) unit.toNanos(period) / callsPerPeriod;
+        this.tokens = callsPerPeriod;
+        this.lastRefillNanos = System.nanoTime();
+
+        this.dispatcher = new Thread(this::dispatchLoop, "alphavantage-dispatcher");
+        this.dispatcher.setDaemon(true); // Never keeps the phone application alive on exit
+        this.dispatcher.start();
+    }
+
+    /**
+     * Gets the scheduler shared by every AlphaVantage caller of the process.
+     * It is created on first use with the free tier limit, and its threads run until exit.
+     *
+     * @return The shared scheduler
+     */
+    public static synchronized AlphaVantageScheduler getShared() {
+        if (shared == null) {
+            shared = new AlphaVantageScheduler();
+        }
+        return shared;
+    }
+
+    /**
+     * Queues a request for execution once the rate limit allows it.
+     * Cancelling the returned future before dispatch removes the request
+     * without consuming a token.
+     *
+     * @param priority The priority class of the request
+     * @param call     The AlphaVantage call to run
+     * @param <T>      The type of the call result
+     * @return A future completed with the call result or its failure
+     */
+    public <T> CompletableFuture<T> submit(Priority priority, Callable<T> call) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Scheduler has been shut down"));
+        }
+        ScheduledRequest<T> request = new ScheduledRequest<>(priority, sequence.getAndIncrement(), call);
+        submittedRequests.incrementAndGet();
+        queue.put(request);
+        return request.future;
+    }
+
+    /**
+     * Queues a request and blocks until it has been executed.
+     * Must not be called from the Swing event dispatch thread.
+     *
+     * @param priority The priority class of the request
+     * @param call     The AlphaVantage call to run
+     * @param <T>      The type of the call result
+     * @return The call result
+     * @throws Exception The exception thrown by the call, or an interruption
+     */
+    public <T> T execute(Priority priority, Callable<T> call) throws Exception {
+        try {
+            return submit(priority, call).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Queues a daily time series request for a symbol.
+     *
+     * @param symbol     The stock ticker symbol
+     * @param outputSize COMPACT for the last 100 days, FULL for the whole history
+     * @param priority   The priority class of the request
+     * @return A future completed with the AlphaVantage response
+     */
+    public CompletableFuture<TimeSeriesResponse> fetchDailyAsync(String symbol, OutputSize outputSize, Priority priority) {
+        return submit(priority, () -> AlphaVantage.api()
+                .timeSeries()
+                .daily()
+                .forSymbol(symbol)
+                .outputSize(outputSize)
+                .fetchSync());
+    }
+
+    /**
+     * Fetches a daily time series for a symbol, blocking until the rate limit allows the call.
+     * Must not be called from the Swing event dispatch thread.
+     *
+     * @param symbol     The stock ticker symbol
+     * @param outputSize COMPACT for the last 100 days, FULL for the whole history
+     * @param priority   The priority class of the request
+     * @return The AlphaVantage response
+     * @throws Exception If the call fails or the waiting thread is interrupted
+     */
+    public TimeSeriesResponse fetchDaily(String symbol, OutputSize outputSize, Priority priority) throws Exception {
+        return execute(priority, () -> AlphaVantage.api()
+                .timeSeries()
+                .daily()
+                .forSymbol(symbol)
+                .outputSize(outputSize)
+                .fetchSync());
+    }
+
+    /**
+     * Main loop of the dispatcher thread.
+     * Takes the most urgent request, waits for a token if the bucket is empty and
+     * hands the request to a worker. While waiting, the request goes back into the
+     * queue so a more urgent request arriving in the meantime is served first.
+     */
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                ScheduledRequest<?> request = queue.take(); // Blocks until work is available
+                if (request.future.isDone()) {
+                    continue; // Cancelled before dispatch, no token needed
+                }
+
+                long waitNanos = reserveToken();
+                if (waitNanos > 0) {
+                    queue.put(request); // Keep its place, a more urgent request may overtake it
+                    throttleEvents.incrementAndGet();
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    continue;
+                }
+
+                recordWait(System.nanoTime() - request.enqueuedNanos);
+                dispatchedRequests.incrementAndGet();
+                try {
+                    workers.execute(request::run);
+                } catch (RejectedExecutionException e) { // Shut down while this request was taken
+                    request.future.completeExceptionally(new IllegalStateException("Scheduler has been shut down"));
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Tries to take one token from the bucket after refilling it for the elapsed time.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next token is available
+     */
+    private synchronized long reserveToken() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / nanosPerToken);
+        lastRefillNanos = now;
+
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return 0;
+        }
+        return (long) Math.ceil((1.0 - tokens) * nanosPerToken);
+    }
+
+    /**
+     * Adds a queue wait time to the metrics.
+     *
+     * @param waitNanos Time the request spent in the queue
+     */
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    /**
+     * Stops the dispatcher and fails every request still waiting in the queue.
+     */
+    public void shutdown() {
+        running = false;
+        dispatcher.interrupt();
+        ScheduledRequest<?> pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(new IllegalStateException("Scheduler has been shut down"));
+        }
+        workers.shutdown();
+    }
+
+    /**
+     * Gets the number of requests accepted by the scheduler.
+     *
+     * @return The number of submitted requests
+     */
+    public long getSubmittedRequests() {
+        return submittedRequests.get();
+    }
+
+    /**
+     * Gets the number of requests handed to a worker for execution.
+     *
+     * @return The number of dispatched requests
+     */
+    public long getDispatchedRequests() {
+        return dispatchedRequests.get();
+    }
+
+    /**
+     * Gets the number of requests currently waiting for a token.
+     *
+     * @return The queue length
+     */
+    public int getQueuedRequests() {
+        return queue.size();
+    }
+
+    /**
+     * Gets how many times queued work was held back because the bucket was empty.
+     *
+     * @return The number of throttle events
+     */
+    public long getThrottleEvents() {
+        return throttleEvents.get();
+    }
+
+    /**
+     * Gets the average time dispatched requests spent waiting in the queue.
+     *
+     * @return The average wait time in milliseconds
+     */
+    public double getAverageWaitMillis() {
+        long dispatched = dispatchedRequests.get();
+        return dispatched == 0 ? 0.0 : totalWaitNanos.get() / (dispatched * 1_000_000.0);
+    }
+
+    /**
+     * Gets the longest time a dispatched request spent waiting in the queue.
+     *
+     * @return The maximum wait time in milliseconds
+     */
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * A queued AlphaVantage call with its priority, arrival order and result future.
+     *
+     * @param <T> The type of the call result
+     */
+    private static final class ScheduledRequest<T> implements Comparable<ScheduledRequest<?>> {
+        private final Priority priority; // Priority class of the request
+        private final long sequence; // Arrival order within the scheduler
+        private final long enqueuedNanos = System.nanoTime(); // Time the request was queued
+        private final Callable<T> call; // The AlphaVantage call to run
+        private final CompletableFuture<T> future = new CompletableFuture<>(); // Result handed back to the caller
+
+        ScheduledRequest(Priority priority, long sequence, Callable<T> call) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.call = call;
+        }
+
+        /**
+         * Runs the call and completes the future with its result or failure.
+         */
+        void run() {
+            if (future.isDone()) {
+                return; // Cancelled while being dispatched
+            }
+            try {
+                future.complete(call.call());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public int compareTo(ScheduledRequest<?> other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -6,6 +6,8 @@ import com.crazzyghost.alphavantage.Config;
 import javax.swing.*;
 import java.awt.*;
 import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Manages the AlphaVantage API key for the Investify application.
@@ -13,8 +15,56 @@ import java.io.*;
  * of the AlphaVantage API client with valid credentials.
  * It provides UI dialogs for key input and performs validation to ensure
  * proper API connectivity.
+ * <p>
+ * The AlphaVantage configuration is global to the library, so whether a key is
+ * set is tracked globally too: every Investify instance sees the key entered
+ * through any other one.
  */
 public class ApiKeyManager {
+
+    // Global API state, like the AlphaVantage configuration itself
+    private static boolean apiConfigured = false; // Whether AlphaVantage was initialized with a key
+    private static final List<Runnable> configuredActions = new ArrayList<>(); // Run once a key is set
+
+    /**
+     * Checks whether AlphaVantage has been initialized with a key, by any instance.
+     *
+     * @return true if API requests can be made
+     */
+    public static synchronized boolean isApiConfigured() {
+        return apiConfigured;
+    }
+
+    /**
+     * Runs an action as soon as AlphaVantage has a key: right away if it already
+     * has one, otherwise once on the thread that initializes it.
+     *
+     * @param action The action to run
+     */
+    public static void whenApiConfigured(Runnable action) {
+        synchronized (ApiKeyManager.class) {
+            if (!apiConfigured) {
+                configuredActions.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    /**
+     * Marks the API as configured and runs the actions waiting for it.
+     */
+    private static void markApiConfigured() {
+        List<Runnable> actions;
+        synchronized (ApiKeyManager.class) {
+            apiConfigured = true;
+            actions = new ArrayList<>(configuredActions);
+            configuredActions.clear();
+        }
+        for (Runnable action : actions) {
+            action.run();
+        }
+    }
     /**
      * Shows a dialog for entering the AlphaVantage API key.
      * Creates and displays a user interface with a text field where users
@@ -116,6 +166,8 @@ public class ApiKeyManager {
 
             // Initializes the AlphaVantage API with our configuration
             AlphaVantage.api().init(cfg);
+            // Lets every instance and waiting task know that requests can be made
+            markApiConfigured();
             // Returns true to indicate successful initialization
             return true;
         } catch (Exception e) {
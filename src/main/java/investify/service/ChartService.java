@@ -4,11 +4,19 @@ import investify.app.Investify;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.DateAxis;
+import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.plot.PiePlot;
+import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.title.LegendTitle;
 import org.jfree.data.general.DefaultPieDataset;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
 import javax.swing.*;
 import java.awt.*;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -16,113 +24,262 @@ import java.util.Map;
  * This service provides methods to generate graphical representations of portfolio data,
  * making it easier for users to understand their investment distribution and performance.
  * It uses the JFreeChart library to create visually appealing and interactive charts.
+ * <p>
+ * The pie chart is built once and kept for the lifetime of the application. Its dataset
+ * is updated in place from valuation change events, and bursts of changes are throttled
+ * into a single redraw.
+ * <p>
+ * The performance chart shows the portfolio value over time. The daily series is
+ * downsampled to the chart's width before it is handed to JFreeChart, so multi-year
+ * histories draw as quickly as a few weeks.
  */
 public class ChartService { // Main class responsible for creating investment portfolio charts
-    private final PortfolioManager portfolioManager; // Reference to manage portfolio data
+    private static final int REDRAW_DELAY_MS = 250; // Minimum time between two pie chart redraws
+    private static final int PERFORMANCE_POINTS = 300; // One point per pixel of the phone frame width
+
+    private final PortfolioValuationEngine valuationEngine; // Provides the market value of each holding
+    private final PortfolioHistoryService historyService; // Provides the portfolio value over time
     private final CurrencyService currencyService; // Reference to handle currency conversions
 
+    // Long-lived pie chart state, only accessed on the EDT
+    private JPanel pieChartPanel; // Panel handed out to the UI, created once
+    private CardLayout pieChartLayout; // Switches between the chart and the placeholder
+    private DefaultPieDataset<String> pieDataset; // Dataset updated in place
+    private JFreeChart pieChart; // Chart drawing the dataset
+    private Timer pieRedrawTimer; // Throttles dataset updates into one redraw
+
+    // Long-lived performance chart state, only accessed on the EDT
+    private JPanel performanceChartPanel; // Panel handed out to the UI, created once
+    private CardLayout performanceChartLayout; // Switches between the chart and the placeholder
+    private XYSeries performanceSeries; // Downsampled portfolio values
+    private JFreeChart performanceChart; // Chart drawing the series
+
     /**
      * Constructs a new ChartService with the necessary dependencies.
+     * The service listens to the valuation engine to keep its charts up to date.
      *
-     * @param portfolioManager The portfolio manager that provides access to investment data
+     * @param valuationEngine The valuation engine that provides the market value of each holding
+     * @param historyService  The history service that provides the portfolio value over time
      * @param currencyService The currency service used for currency conversions in charts
      */
-    public ChartService(PortfolioManager portfolioManager, CurrencyService currencyService) {
-        this.portfolioManager = portfolioManager; // Stores reference to portfolio manager
+    public ChartService(PortfolioValuationEngine valuationEngine, PortfolioHistoryService historyService,
+                        CurrencyService currencyService) {
+        this.valuationEngine = valuationEngine; // Stores reference to the valuation engine
+        this.historyService = historyService; // Stores reference to the history service
         this.currencyService = currencyService; // Stores reference to currency service
+        // Valuation changes arrive on background threads, the timer is restarted on the EDT
+        valuationEngine.addListener(symbol -> SwingUtilities.invokeLater(this::schedulePieChartUpdate));
+        historyService.addListener(() -> SwingUtilities.invokeLater(this::updatePerformanceSeries));
     }
 
     /**
-     * Creates a pie chart panel that visualizes the distribution of investments in the portfolio.
-     * The chart shows the relative value of each stock holding as a proportion of the total portfolio.
-     * If no portfolio data is available, a message is displayed instead. Made by IA.
+     * Gets the pie chart panel that visualizes the distribution of investments in the portfolio.
+     * The chart shows the market value of each stock holding as a proportion of the total portfolio.
+     * The panel is created on the first call and the same instance is returned afterwards; it
+     * updates itself when the valuation changes. If no portfolio data is available, a message
+     * is displayed instead. Made by IA.
      *
      * @return A JPanel containing either the pie chart or a message indicating no data is available
      */
     public JPanel createPieChartPanel() {
-        // Creates the main panel with BorderLayout to hold the chart
-        JPanel chartPanel = new JPanel(new BorderLayout());
+        if (pieChartPanel != null) {
+            return pieChartPanel; // Reuses the long-lived chart
+        }
+
+        // Creates the main panel with a CardLayout to switch between the chart and the placeholder
+        pieChartLayout = new CardLayout();
+        pieChartPanel = new JPanel(pieChartLayout);
         // Sets background color to match application theme
-        chartPanel.setBackground(Investify.backgroundColor);
+        pieChartPanel.setBackground(Investify.backgroundColor);
         // Sets default size for the chart panel
-        chartPanel.setPreferredSize(new Dimension(300, 200));
+        pieChartPanel.setPreferredSize(new Dimension(300, 200));
 
-        // Updates portfolio values before displaying the chart
-        portfolioManager.calculatePortfolioValue();
+        // Creates the dataset once, it is updated in place afterwards
+        pieDataset = new DefaultPieDataset<>();
 
-        // Retrieves current holdings data from portfolio manager
-        Map<String, Double> holdings = portfolioManager.getTotalValues();
+        // Creates pie chart using JFreeChart factory
+        pieChart = ChartFactory.createPieChart(
+                null, // No title for the chart
+                pieDataset, // The dataset containing portfolio values
+                true, // Show legend to identify segments
+                false, // No tooltips when hovering
+                false // No URLs for web integration
+        );
 
-        // Checks if there is portfolio data to display
-        if (!holdings.isEmpty()) {
-            // Creates dataset for the pie chart
-            DefaultPieDataset dataset = new DefaultPieDataset();
-            // Populates the dataset with stock symbols and their respective values
-            for (Map.Entry<String, Double> entry : holdings.entrySet()) {
-                dataset.setValue(entry.getKey(), entry.getValue());
-            }
+        // Sets chart background to match application theme
+        pieChart.setBackgroundPaint(Investify.backgroundColor);
 
-            // Creates pie chart using JFreeChart factory
-            JFreeChart chart = ChartFactory.createPieChart(
-                    null, // No title for the chart
-                    dataset, // The dataset containing portfolio values
-                    true, // Show legend to identify segments
-                    false, // No tooltips when hovering
-                    false // No URLs for web integration
-            );
-
-            // Sets chart background to match application theme
-            chart.setBackgroundPaint(Investify.backgroundColor);
-
-            // Gets the plot object to configure pie chart appearance
-            PiePlot plot = (PiePlot) chart.getPlot();
-            // Sets plot background to match application theme
-            plot.setBackgroundPaint(Investify.backgroundColor);
-            // Removes outline around the plot
-            plot.setOutlinePaint(null);
-            // Removes label outlines for cleaner look
-            plot.setLabelOutlinePaint(null);
-            // Removes label shadows
-            plot.setLabelShadowPaint(null);
-            // Removes label backgrounds
-            plot.setLabelBackgroundPaint(null);
-            // Sets font for segment labels
-            plot.setLabelFont(new Font("Inter", Font.PLAIN, 12));
-            // Sets label text color
-            plot.setLabelPaint(Investify.textColor);
-
-            // Configures the chart legend for better readability
-            LegendTitle legend = chart.getLegend();
-            // Sets legend background to match application theme
-            legend.setBackgroundPaint(Investify.backgroundColor);
-            // Sets font for legend items
-            legend.setItemFont(new Font("Inter", Font.PLAIN, 12));
-            // Sets legend text color
-            legend.setItemPaint(Investify.textColor);
-
-            // Creates a chart panel component to display the chart
-            ChartPanel chartComponent = new ChartPanel(chart);
-            // Sets size for the chart component
-            chartComponent.setPreferredSize(new Dimension(280, 180));
-            // Sets chart component background
-            chartComponent.setBackground(Investify.backgroundColor);
-            // Adds chart component to the main panel
-            chartPanel.add(chartComponent, BorderLayout.CENTER);
-
-            // Returns the complete chart panel
-            return chartPanel;
-        }
+        // Gets the plot object to configure pie chart appearance
+        PiePlot plot = (PiePlot) pieChart.getPlot();
+        // Sets plot background to match application theme
+        plot.setBackgroundPaint(Investify.backgroundColor);
+        // Removes outline around the plot
+        plot.setOutlinePaint(null);
+        // Removes label outlines for cleaner look
+        plot.setLabelOutlinePaint(null);
+        // Removes label shadows
+        plot.setLabelShadowPaint(null);
+        // Removes label backgrounds
+        plot.setLabelBackgroundPaint(null);
+        // Sets font for segment labels
+        plot.setLabelFont(new Font("Inter", Font.PLAIN, 12));
+        // Sets label text color
+        plot.setLabelPaint(Investify.textColor);
+
+        // Configures the chart legend for better readability
+        LegendTitle legend = pieChart.getLegend();
+        // Sets legend background to match application theme
+        legend.setBackgroundPaint(Investify.backgroundColor);
+        // Sets font for legend items
+        legend.setItemFont(new Font("Inter", Font.PLAIN, 12));
+        // Sets legend text color
+        legend.setItemPaint(Investify.textColor);
+
+        // Creates a chart panel component to display the chart
+        ChartPanel chartComponent = new ChartPanel(pieChart);
+        // Sets size for the chart component
+        chartComponent.setPreferredSize(new Dimension(280, 180));
+        // Sets chart component background
+        chartComponent.setBackground(Investify.backgroundColor);
+        // Adds chart component as the first card
+        pieChartPanel.add(chartComponent, "chart");
 
-        // Creates and displays a placeholder when no portfolio data exists
+        // Creates the placeholder shown when no portfolio data exists
         JLabel noDataLabel = new JLabel("No portfolio data available", SwingConstants.CENTER);
         // Sets text color for the placeholder
         noDataLabel.setForeground(Investify.textColor);
         // Sets font for the placeholder
         noDataLabel.setFont(new Font("Inter", Font.PLAIN, 16));
-        // Adds the placeholder to the center of the panel
-        chartPanel.add(noDataLabel, BorderLayout.CENTER);
+        // Adds the placeholder as the second card
+        pieChartPanel.add(noDataLabel, "empty");
+
+        // Coalesces valuation changes into one dataset update per delay
+        pieRedrawTimer = new Timer(REDRAW_DELAY_MS, e -> updatePieDataset());
+        pieRedrawTimer.setRepeats(false);
+
+        updatePieDataset(); // Shows the current snapshot
+        return pieChartPanel;
+    }
+
+    /**
+     * Schedules a pie chart update unless one is already pending.
+     * Must be called on the EDT.
+     */
+    private void schedulePieChartUpdate() {
+        if (pieRedrawTimer != null && !pieRedrawTimer.isRunning()) {
+            pieRedrawTimer.start(); // Later changes within the delay are picked up by the same update
+        }
+    }
+
+    /**
+     * Copies the current market values into the dataset in place.
+     * Notifications are suspended during the update, so the chart redraws once.
+     */
+    private void updatePieDataset() {
+        Map<String, Double> holdings = valuationEngine.getMarketValues();
+
+        pieChart.setNotify(false); // One redraw for the whole update
+        // Removes symbols that are no longer held
+        List<String> stale = new ArrayList<>();
+        for (String key : pieDataset.getKeys()) {
+            if (!holdings.containsKey(key)) stale.add(key);
+        }
+        for (String key : stale) {
+            pieDataset.remove(key);
+        }
+        // Updates or adds the values of the current holdings
+        for (Map.Entry<String, Double> entry : holdings.entrySet()) {
+            Number current = pieDataset.getIndex(entry.getKey()) >= 0 ? pieDataset.getValue(entry.getKey()) : null;
+            if (current == null || current.doubleValue() != entry.getValue()) {
+                pieDataset.setValue(entry.getKey(), entry.getValue());
+            }
+        }
+        pieChart.setNotify(true);
+
+        pieChartLayout.show(pieChartPanel, holdings.isEmpty() ? "empty" : "chart");
+    }
+
+    /**
+     * Gets the line chart panel showing the portfolio value over time.
+     * The panel is created on the first call and the same instance is returned afterwards;
+     * it updates itself whenever the history service computes new days.
+     *
+     * @return A JPanel containing either the performance chart or a placeholder message
+     */
+    public JPanel createPerformanceChartPanel() {
+        if (performanceChartPanel != null) {
+            return performanceChartPanel; // Reuses the long-lived chart
+        }
+
+        // Creates the main panel with a CardLayout to switch between the chart and the placeholder
+        performanceChartLayout = new CardLayout();
+        performanceChartPanel = new JPanel(performanceChartLayout);
+        performanceChartPanel.setBackground(Investify.backgroundColor);
+        performanceChartPanel.setPreferredSize(new Dimension(300, 150));
+
+        // Creates the series once, x values are epoch milliseconds for the date axis
+        performanceSeries = new XYSeries("Value", true, false);
+        performanceChart = ChartFactory.createTimeSeriesChart(
+                null, // No title for the chart
+                null, // No time axis label
+                null, // No value axis label
+                new XYSeriesCollection(performanceSeries), // The dataset containing portfolio values
+                false, // No legend for a single series
+                false, // No tooltips when hovering
+                false // No URLs for web integration
+        );
+        performanceChart.setBackgroundPaint(Investify.backgroundColor);
+
+        // Configures the plot to match the application theme
+        XYPlot plot = performanceChart.getXYPlot();
+        plot.setBackgroundPaint(Investify.backgroundColor);
+        plot.setOutlinePaint(null);
+        plot.setDomainGridlinesVisible(false);
+        plot.setRangeGridlinePaint(new Color(60, 60, 60));
+        plot.getRenderer().setSeriesPaint(0, new Color(48, 209, 88)); // Green value line
+
+        DateAxis dateAxis = (DateAxis) plot.getDomainAxis();
+        dateAxis.setTickLabelPaint(Investify.textColor);
+        dateAxis.setTickLabelFont(new Font("Inter", Font.PLAIN, 10));
+        NumberAxis valueAxis = (NumberAxis) plot.getRangeAxis();
+        valueAxis.setTickLabelPaint(Investify.textColor);
+        valueAxis.setTickLabelFont(new Font("Inter", Font.PLAIN, 10));
+        valueAxis.setAutoRangeIncludesZero(false);
+
+        ChartPanel chartComponent = new ChartPanel(performanceChart);
+        chartComponent.setPreferredSize(new Dimension(280, 140));
+        chartComponent.setBackground(Investify.backgroundColor);
+        performanceChartPanel.add(chartComponent, "chart");
+
+        // Creates the placeholder shown until at least two days are known
+        JLabel noDataLabel = new JLabel("No price history yet", SwingConstants.CENTER);
+        noDataLabel.setForeground(Investify.textColor);
+        noDataLabel.setFont(new Font("Inter", Font.PLAIN, 14));
+        performanceChartPanel.add(noDataLabel, "empty");
+
+        updatePerformanceSeries(); // Shows the series computed so far
+        historyService.scheduleUpdate(); // Catches up with prices already stored
+        return performanceChartPanel;
+    }
+
+    /**
+     * Replaces the chart series with the downsampled portfolio history.
+     * Notifications are suspended during the update, so the chart redraws once.
+     */
+    private void updatePerformanceSeries() {
+        if (performanceChartPanel == null) return; // Chart not shown yet
+
+        List<PortfolioHistoryService.Point> points = historyService.getChartPoints(PERFORMANCE_POINTS);
+        performanceChart.setNotify(false);
+        performanceSeries.clear();
+        ZoneId zone = ZoneId.systemDefault();
+        for (PortfolioHistoryService.Point point : points) {
+            long millis = point.getDate().atStartOfDay(zone).toInstant().toEpochMilli();
+            performanceSeries.add(millis, currencyService.convertToCurrent(point.getValue()), false);
+        }
+        performanceSeries.fireSeriesChanged(); // Lets the axes adjust their range
+        performanceChart.setNotify(true);
 
-        // Returns the panel with the placeholder message
-        return chartPanel;
+        performanceChartLayout.show(performanceChartPanel, points.size() < 2 ? "empty" : "chart");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,295 @@
+package investify.service;
+
+import investify.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks open lots, cost basis and profit and loss per symbol over the transaction history.
+ * <p>
+ * Trades are applied one at a time in the order they happened, so each new trade
+ * only touches the position of its own symbol. Buys open a lot; sells close lots
+ * either first-in first-out or at the running average cost. The difference between
+ * the sell price and the cost of the closed shares is booked as realized profit,
+ * while the cost of the remaining shares stays as the position's cost basis.
+ * <p>
+ * Lots are kept in primitive ring buffers instead of one object per lot, so long
+ * histories stay compact. The engine is not thread-safe; callers synchronize.
+ */
+public class CostBasisEngine {
+
+    /**
+     * How the cost of sold shares is determined.
+     */
+    public enum Method {
+        FIFO, // Oldest shares are sold first
+        AVERAGE // Every share costs the running average price
+    }
+
+    private final Method method; // Cost method used for every symbol
+    private final Map<String, Position> positions = new HashMap<>(); // Open and closed positions by symbol
+    private long appliedTrades; // Number of trades applied so far
+
+    /**
+     * Creates an engine using first-in first-out lots.
+     */
+    public CostBasisEngine() {
+        this(Method.FIFO);
+    }
+
+    /**
+     * Creates an engine using the given cost method.
+     *
+     * @param method The cost method
+     */
+    public CostBasisEngine(Method method) {
+        this.method = method;
+    }
+
+    /**
+     * Applies every transaction of a history, in order.
+     *
+     * @param transactions The transactions to apply
+     */
+    public void applyAll(Transaction[] transactions) {
+        for (Transaction transaction : transactions) {
+            apply(transaction);
+        }
+    }
+
+    /**
+     * Applies one trade to the position of its symbol.
+     * Selling more shares than are held closes the position; the extra
+     * shares have no known cost and are ignored.
+     *
+     * @param transaction The buy or sell transaction
+     */
+    public void apply(Transaction transaction) {
+        appliedTrades++; // Counted even when empty, so the count matches the history index
+        int quantity = transaction.getQuantity();
+        if (quantity <= 0) return; // Nothing traded
+        Position position = positions.computeIfAbsent(transaction.getSymbol(), s -> new Position());
+        if (transaction.getAction().equalsIgnoreCase("Buy")) {
+            position.buy(quantity, transaction.getPrice());
+        } else {
+            int held = position.quantity;
+            if (quantity > held) {
+                System.err.println("Sell of " + quantity + " " + transaction.getSymbol()
+                        + " exceeds the " + held + " shares held, closing the position");
+                quantity = held;
+            }
+            if (method == Method.FIFO) {
+                position.sellFifo(quantity, transaction.getPrice());
+            } else {
+                position.sellAverage(quantity, transaction.getPrice());
+            }
+        }
+    }
+
+    /**
+     * Removes every position.
+     */
+    public void clear() {
+        positions.clear();
+        appliedTrades = 0;
+    }
+
+    /**
+     * Gets the cost method of this engine.
+     *
+     * @return The cost method
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Gets the number of trades applied since creation or the last clear.
+     *
+     * @return The number of applied trades
+     */
+    public long getAppliedTrades() {
+        return appliedTrades;
+    }
+
+    /**
+     * Gets the symbols with shares currently held.
+     *
+     * @return The symbols of open positions
+     */
+    public List<String> getOpenSymbols() {
+        List<String> symbols = new ArrayList<>();
+        for (Map.Entry<String, Position> entry : positions.entrySet()) {
+            if (entry.getValue().quantity > 0) symbols.add(entry.getKey());
+        }
+        return symbols;
+    }
+
+    /**
+     * Gets the number of shares held of a symbol.
+     *
+     * @param symbol The stock symbol
+     * @return The shares held, 0 if none
+     */
+    public int getQuantity(String symbol) {
+        Position position = positions.get(symbol);
+        return position == null ? 0 : position.quantity;
+    }
+
+    /**
+     * Gets the cost of the shares still held of a symbol.
+     *
+     * @param symbol The stock symbol
+     * @return The remaining cost basis, 0 if none
+     */
+    public double getCostBasis(String symbol) {
+        Position position = positions.get(symbol);
+        return position == null ? 0.0 : position.cost;
+    }
+
+    /**
+     * Gets the average cost per share still held of a symbol.
+     *
+     * @param symbol The stock symbol
+     * @return The average cost, 0 if no shares are held
+     */
+    public double getAverageCost(String symbol) {
+        Position position = positions.get(symbol);
+        return position == null || position.quantity == 0 ? 0.0 : position.cost / position.quantity;
+    }
+
+    /**
+     * Gets the profit booked by the sells of a symbol.
+     *
+     * @param symbol The stock symbol
+     * @return The realized profit, negative for a loss
+     */
+    public double getRealizedPnl(String symbol) {
+        Position position = positions.get(symbol);
+        return position == null ? 0.0 : position.realized;
+    }
+
+    /**
+     * Gets the profit the shares still held of a symbol would make at a price.
+     *
+     * @param symbol The stock symbol
+     * @param price  The current price per share
+     * @return The unrealized profit, negative for a loss
+     */
+    public double getUnrealizedPnl(String symbol, double price) {
+        Position position = positions.get(symbol);
+        return position == null ? 0.0 : position.quantity * price - position.cost;
+    }
+
+    /**
+     * Gets the profit booked by the sells of every symbol.
+     *
+     * @return The total realized profit, negative for a loss
+     */
+    public double getTotalRealizedPnl() {
+        double total = 0.0;
+        for (Position position : positions.values()) {
+            total += position.realized;
+        }
+        return total;
+    }
+
+    /**
+     * Position of one symbol with its open lots.
+     * Lots are stored in parallel primitive arrays used as a ring buffer,
+     * oldest lot at {@code head}.
+     */
+    private static class Position {
+        private int[] lotQuantities = new int[4]; // Shares left in each lot
+        private double[] lotPrices = new double[4]; // Buy price of each lot
+        private int head; // Index of the oldest open lot
+        private int lotCount; // Number of open lots
+        private int quantity; // Shares held over all lots
+        private double cost; // Cost of the shares held
+        private double realized; // Profit booked by sells
+
+        /**
+         * Opens a lot.
+         *
+         * @param shares The shares bought
+         * @param price  The price per share
+         */
+        void buy(int shares, double price) {
+            if (lotCount == lotQuantities.length) grow();
+            int tail = (head + lotCount) % lotQuantities.length;
+            lotQuantities[tail] = shares;
+            lotPrices[tail] = price;
+            lotCount++;
+            quantity += shares;
+            cost += shares * price;
+        }
+
+        /**
+         * Sells shares from the oldest lots first.
+         *
+         * @param shares The shares sold, at most the shares held
+         * @param price  The sell price per share
+         */
+        void sellFifo(int shares, double price) {
+            int remaining = shares;
+            while (remaining > 0 && lotCount > 0) {
+                int taken = Math.min(remaining, lotQuantities[head]);
+                double lotPrice = lotPrices[head];
+                realized += taken * (price - lotPrice);
+                cost -= taken * lotPrice;
+                lotQuantities[head] -= taken;
+                remaining -= taken;
+                if (lotQuantities[head] == 0) { // Lot fully closed
+                    head = (head + 1) % lotQuantities.length;
+                    lotCount--;
+                }
+            }
+            quantity -= shares;
+            if (quantity == 0) cost = 0.0; // Drops rounding residue
+        }
+
+        /**
+         * Sells shares at the running average cost.
+         * Lots are shrunk from the oldest one so they still add up to the shares held.
+         *
+         * @param shares The shares sold, at most the shares held
+         * @param price  The sell price per share
+         */
+        void sellAverage(int shares, double price) {
+            if (shares == 0 || quantity == 0) return; // Nothing held, no average to sell at
+            double averageCost = cost / quantity;
+            realized += shares * (price - averageCost);
+            int remaining = shares;
+            while (remaining > 0 && lotCount > 0) {
+                int taken = Math.min(remaining, lotQuantities[head]);
+                lotQuantities[head] -= taken;
+                remaining -= taken;
+                if (lotQuantities[head] == 0) {
+                    head = (head + 1) % lotQuantities.length;
+                    lotCount--;
+                }
+            }
+            quantity -= shares;
+            cost = quantity == 0 ? 0.0 : cost - shares * averageCost;
+        }
+
+        /**
+         * Doubles the lot capacity, moving the open lots to the front.
+         */
+        private void grow() {
+            int capacity = lotQuantities.length;
+            int[] quantities = new int[capacity * 2];
+            double[] prices = new double[capacity * 2];
+            for (int i = 0; i < lotCount; i++) {
+                quantities[i] = lotQuantities[(head + i) % capacity];
+                prices[i] = lotPrices[(head + i) % capacity];
+            }
+            lotQuantities = quantities;
+            lotPrices = prices;
+            head = 0;
+        }
+    }
+}
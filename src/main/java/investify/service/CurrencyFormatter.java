@@ -0,0 +1,85 @@
+package investify.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Formats amounts of one currency as "1234.56 $", two decimals followed by the symbol.
+ * <p>
+ * The output is the same as {@code String.format("%.2f $", amount)}, but the digits are
+ * written directly into a {@link StringBuilder}: no format string is parsed and no
+ * intermediate objects are created. Callers building longer texts can append into
+ * their own builder. Instances are immutable and can be shared between threads.
+ */
+public final class CurrencyFormatter {
+
+    /** Largest absolute amount formatted by the fast path, keeps cents within a long */
+    private static final double MAX_FAST_AMOUNT = 1e15;
+
+    /** Distance from a half cent below which the rounding is decided on the decimal form */
+    private static final double TIE_TOLERANCE = 1e-6;
+
+    private final String suffix; // Space and currency symbol appended after the amount
+    private final char decimalSeparator; // Separator of the default format locale, as String.format uses it
+
+    /**
+     * Creates a formatter for a currency symbol using the default format locale.
+     *
+     * @param symbol The symbol shown after amounts
+     */
+    public CurrencyFormatter(String symbol) {
+        this(symbol, Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+    /**
+     * Creates a formatter for a currency symbol and locale.
+     *
+     * @param symbol The symbol shown after amounts
+     * @param locale The locale providing the decimal separator
+     */
+    public CurrencyFormatter(String symbol, Locale locale) {
+        this.suffix = " " + symbol;
+        this.decimalSeparator = DecimalFormatSymbols.getInstance(locale).getDecimalSeparator();
+    }
+
+    /**
+     * Formats an amount.
+     *
+     * @param amount The amount in this formatter's currency
+     * @return The formatted amount with its symbol
+     */
+    public String format(double amount) {
+        return appendTo(new StringBuilder(24), amount).toString(); // Large enough for any amount below a trillion
+    }
+
+    /**
+     * Appends a formatted amount to a builder.
+     *
+     * @param builder The builder to append to
+     * @param amount  The amount in this formatter's currency
+     * @return The same builder, for chaining
+     */
+    public StringBuilder appendTo(StringBuilder builder, double amount) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount) || Math.abs(amount) >= MAX_FAST_AMOUNT) {
+            return builder.append(String.format("%.2f", amount)).append(suffix); // Rare, keeps the exact behaviour
+        }
+
+        double scaled = Math.abs(amount) * 100;
+        long cents;
+        double tolerance = Math.max(TIE_TOLERANCE, 16 * Math.ulp(scaled)); // Large amounts have coarser doubles
+        if (Math.abs(scaled - Math.floor(scaled) - 0.5) < tolerance) {
+            // Near a tie, %.2f rounds the shortest decimal form of the amount, not its binary value
+            cents = BigDecimal.valueOf(Math.abs(amount)).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+        } else {
+            cents = Math.round(scaled);
+        }
+        if (Double.doubleToRawLongBits(amount) < 0) builder.append('-'); // Sign bit, so -0.0 prints "-0.00" like %.2f
+        builder.append(cents / 100).append(decimalSeparator);
+        long fraction = cents % 100;
+        if (fraction < 10) builder.append('0');
+        builder.append(fraction);
+        return builder.append(suffix);
+    }
+}
@@ -1,24 +1,56 @@
 package investify.service; // Defines the package for this service class within the application
 
+import shared.FxRateProvider;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Manages currency operations for the Investify application.
  * This service handles currency conversion, formatting, and storage of the current
- * selected currency. It supports conversion between USD and CHF currencies
- * using fixed exchange rates.
+ * selected currency. Amounts are stored in USD and converted with the live rates of
+ * the shared {@link FxRateProvider}, which keeps its table in memory, so formatting
+ * many values during a render never waits for the network. One cached formatter per
+ * currency writes the digits without {@code String.format}.
  */
 public class CurrencyService { // Main class for handling currency operations and conversions
-    private String currentCurrency = "USD"; // Stores the currently selected currency, with USD as default
-    private final double USD_TO_CHF = 0.83; // Defines the fixed exchange rate from USD to Swiss Francs
+    /** Symbols shown after amounts, other currencies show their code */
+    private static final Map<String, String> SYMBOLS = Map.of(
+            "USD", "$",
+            "CHF", "Fr.",
+            "EUR", "€",
+            "GBP", "£",
+            "JPY", "¥");
+
+    private final FxRateProvider rates; // Shared, cached exchange rates
+    private final Map<String, CurrencyFormatter> formatters = new ConcurrentHashMap<>(); // One formatter per currency
+    private volatile String currentCurrency = "USD"; // Stores the currently selected currency, with USD as default
+
+    /**
+     * Constructs a currency service using the shared exchange rate provider.
+     */
+    public CurrencyService() {
+        this(FxRateProvider.getShared());
+    }
+
+    /**
+     * Constructs a currency service using the given exchange rate provider.
+     *
+     * @param rates The provider of exchange rates
+     */
+    public CurrencyService(FxRateProvider rates) {
+        this.rates = rates;
+    }
 
     /**
      * Sets the current application currency.
-     * Only accepts valid currency codes that are supported by the application
-     * (currently USD and CHF).
+     * Only accepts currency codes that the exchange rate provider supports.
      *
-     * @param currency The currency code to set ("USD" or "CHF")
+     * @param currency The currency code to set (e.g. "USD", "CHF" or "EUR")
      */
     public void setCurrency(String currency) { // Method to change the active currency
-        if ("USD".equals(currency) || "CHF".equals(currency)) { // Validates that the currency is supported
+        if (rates.supports(currency)) { // Validates that the currency is supported
             this.currentCurrency = currency; // Updates the current currency if valid
         }
     }
@@ -26,12 +58,31 @@ public class CurrencyService { // Main class for handling currency operations an
     /**
      * Gets the currently selected currency code.
      *
-     * @return The current currency code ("USD" or "CHF")
+     * @return The current currency code
      */
     public String getCurrentCurrency() { // Method to retrieve the currently selected currency
         return currentCurrency; // Returns the current currency code
     }
 
+    /**
+     * Gets the currencies the user can choose from.
+     *
+     * @return The sorted currency codes
+     */
+    public Set<String> getSupportedCurrencies() {
+        return rates.getCurrencies();
+    }
+
+    /**
+     * Gets the symbol shown after amounts in a currency.
+     *
+     * @param currency The currency code
+     * @return The currency symbol, or the code itself if it has no symbol
+     */
+    public static String getSymbol(String currency) {
+        return SYMBOLS.getOrDefault(currency, currency);
+    }
+
     /**
      * Formats a monetary amount according to the current currency.
      * Converts the amount to the appropriate currency if needed and
@@ -41,26 +92,55 @@ public class CurrencyService { // Main class for handling currency operations an
      * @return A formatted string representing the amount with currency symbol
      */
     public String formatCurrency(double amount) { // Method to format amounts according to the current currency
-        if (currentCurrency.equals("CHF")) { // Checks if the current currency is Swiss Francs
-            amount = amount * USD_TO_CHF; // Converts the amount from USD to CHF using the exchange rate
-            return String.format("%.2f Fr.", amount); // Returns formatted string with CHF symbol and 2 decimal places
-        } else {
-            return String.format("%.2f $", amount); // Returns formatted string with USD symbol and 2 decimal places
-        }
+        String currency = currentCurrency; // Reads the selection once so amount and symbol match
+        return formatterFor(currency).format(convertTo(amount, currency)); // Two decimals followed by the symbol
+    }
+
+    /**
+     * Appends a monetary amount formatted in the current currency to a builder.
+     * Lets callers composing longer texts avoid an intermediate string per amount.
+     *
+     * @param builder The builder to append to
+     * @param amount  The monetary amount in USD to format
+     * @return The same builder, for chaining
+     */
+    public StringBuilder appendCurrency(StringBuilder builder, double amount) {
+        String currency = currentCurrency;
+        return formatterFor(currency).appendTo(builder, convertTo(amount, currency));
+    }
+
+    /**
+     * Gets the cached formatter of a currency, creating it on first use.
+     *
+     * @param currency The currency code
+     * @return The formatter of the currency
+     */
+    private CurrencyFormatter formatterFor(String currency) {
+        return formatters.computeIfAbsent(currency, code -> new CurrencyFormatter(getSymbol(code)));
     }
 
     /**
      * Converts a monetary value from USD to the currently selected currency.
      * If the current currency is USD, returns the original amount.
-     * If the current currency is CHF, converts the amount using the defined exchange rate.
      *
      * @param amountUSD The monetary amount in USD to convert
      * @return The equivalent amount in the currently selected currency
      */
     public double convertToCurrent(double amountUSD) { // Method to convert USD amount to the current currency
-        if (currentCurrency.equals("CHF")) { // Checks if conversion to CHF is needed
-            return amountUSD * USD_TO_CHF; // Converts and returns amount in CHF
+        return convertTo(amountUSD, currentCurrency);
+    }
+
+    /**
+     * Converts a monetary value from USD to the given currency with the cached rates.
+     *
+     * @param amountUSD The monetary amount in USD to convert
+     * @param currency  The target currency code
+     * @return The equivalent amount in the target currency
+     */
+    private double convertTo(double amountUSD, String currency) {
+        if (currency.equals("USD")) {
+            return amountUSD; // Returns original amount if currency is already USD
         }
-        return amountUSD; // Returns original amount if currency is already USD
+        return amountUSD * rates.getRate("USD", currency); // In-memory lookup, no network access
     }
-}
\ No newline at end of file
+}
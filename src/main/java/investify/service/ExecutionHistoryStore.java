@@ -0,0 +1,376 @@
+package investify.service;
+
+import investify.model.ExecutionReport;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only store of recurring investment executions.
+ * <p>
+ * Every execution is one fixed-width record: the occurrence date, the time of the run,
+ * its outcome, quantity, price and the investment key, followed by a CRC32. Records
+ * are appended with a single write and forced to disk, so a crash can at worst leave
+ * a torn last record, which is detected by its length or checksum and dropped on the
+ * next load. The file starts with a magic number, a format version and the record
+ * size.
+ * <p>
+ * The full audit trail is kept in the file; in memory only the first recorded and the
+ * last executed occurrence of each investment are indexed, which answers "already
+ * executed" checks in constant time. Unlike the former serialized map, a damaged file
+ * is reported as an error and never silently treated as an empty history, which could
+ * repeat purchases.
+ * <p>
+ * A history written by earlier versions with Java serialization is migrated once.
+ * Not thread-safe; the recurring investment service serializes its runs.
+ */
+public class ExecutionHistoryStore {
+
+    /** File signature, "IVEH" */
+    private static final int MAGIC = 0x49564548;
+
+    /** Current format version */
+    private static final short VERSION = 1;
+
+    /** Size of the file header in bytes */
+    private static final int HEADER_SIZE = 16;
+
+    /** Maximum encoded length of an investment key */
+    private static final int KEY_BYTES = 66;
+
+    /** Size of one record: day, time, status, key length, quantity, price, key, checksum */
+    private static final int RECORD_SIZE = 4 + 8 + 1 + 1 + 4 + 8 + KEY_BYTES + 4;
+
+    /** Status byte of entries migrated from the legacy history */
+    private static final byte MIGRATED = -1;
+
+    /**
+     * One execution as read from the store.
+     */
+    public static class Record {
+        private final String key; // Investment key
+        private final LocalDate occurrence; // Scheduled day that was executed
+        private final long executedAt; // Time of the run in epoch milliseconds
+        private final ExecutionReport.Status status; // Outcome, null for migrated entries
+        private final int quantity; // Shares bought
+        private final double price; // Price per share
+
+        private Record(String key, LocalDate occurrence, long executedAt, ExecutionReport.Status status,
+                       int quantity, double price) {
+            this.key = key;
+            this.occurrence = occurrence;
+            this.executedAt = executedAt;
+            this.status = status;
+            this.quantity = quantity;
+            this.price = price;
+        }
+
+        /** @return The investment key */
+        public String getKey() { return key; }
+
+        /** @return The scheduled day that was executed */
+        public LocalDate getOccurrence() { return occurrence; }
+
+        /** @return The time of the run in epoch milliseconds */
+        public long getExecutedAt() { return executedAt; }
+
+        /** @return The outcome, or null for entries migrated from the legacy history */
+        public ExecutionReport.Status getStatus() { return status; }
+
+        /** @return The number of shares bought */
+        public int getQuantity() { return quantity; }
+
+        /** @return The price per share */
+        public double getPrice() { return price; }
+    }
+
+    private final Path file; // Record file
+    private final Map<String, Integer> lastExecutedDay = new HashMap<>(); // Epoch day of the last executed occurrence per key
+    private final Map<String, Integer> firstRecordedDay = new HashMap<>(); // Epoch day of the first occurrence of any outcome per key
+
+    /**
+     * Opens the store, creating or migrating the file if needed.
+     *
+     * @param file       The record file
+     * @param legacyFile The serialized history of earlier versions, migrated if the record file does not exist
+     * @throws IOException If the file cannot be created or is damaged
+     */
+    public ExecutionHistoryStore(Path file, Path legacyFile) throws IOException {
+        this.file = file;
+        if (!Files.exists(file)) {
+            create(legacyFile);
+        }
+        for (Record record : readRecords()) {
+            index(record.getKey(), record.getOccurrence(), record.getStatus());
+        }
+    }
+
+    /**
+     * Gets the last executed occurrence of an investment.
+     *
+     * @param key The investment key
+     * @return The last executed occurrence, or null if it never ran
+     */
+    public LocalDate getLastExecuted(String key) {
+        Integer day = lastExecutedDay.get(storedKey(key));
+        return day == null ? null : LocalDate.ofEpochDay(day);
+    }
+
+    /**
+     * Gets the first occurrence of an investment with a record, failed ones included.
+     *
+     * @param key The investment key
+     * @return The first recorded occurrence, or null if the investment has no record
+     */
+    public LocalDate getFirstRecorded(String key) {
+        Integer day = firstRecordedDay.get(storedKey(key));
+        return day == null ? null : LocalDate.ofEpochDay(day);
+    }
+
+    /**
+     * Checks whether an occurrence of an investment was already executed.
+     *
+     * @param key        The investment key
+     * @param occurrence The scheduled day
+     * @return true if that occurrence or a later one was executed
+     */
+    public boolean isExecuted(String key, LocalDate occurrence) {
+        Integer day = lastExecutedDay.get(storedKey(key));
+        return day != null && day >= occurrence.toEpochDay();
+    }
+
+    /**
+     * Appends the execution of one occurrence and forces it to disk.
+     * Failed executions are kept for the audit but do not mark the occurrence executed.
+     *
+     * @param key        The investment key
+     * @param occurrence The scheduled day
+     * @param status     The outcome of the execution
+     * @param quantity   The number of shares bought
+     * @param price      The price per share
+     * @throws IOException If the record cannot be written
+     */
+    public void append(String key, LocalDate occurrence, ExecutionReport.Status status, int quantity, double price)
+            throws IOException {
+        ByteBuffer buffer = encode(key, occurrence, System.currentTimeMillis(), (byte) status.ordinal(), quantity, price);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        index(key, occurrence, status);
+    }
+
+    /**
+     * Reads every record of the store, oldest first.
+     *
+     * @return The audit trail of all executions
+     * @throws IOException If the file cannot be read or is damaged
+     */
+    public List<Record> readRecords() throws IOException {
+        List<Record> records = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC) throw new IOException("Not an execution history file: " + file);
+            short version = header.getShort();
+            if (version != VERSION) throw new IOException("Unsupported execution history version " + version);
+            if (header.getShort() != RECORD_SIZE) throw new IOException("Unexpected record size in " + file);
+
+            long count = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+            for (long i = 0; i < count; i++) {
+                buffer.clear();
+                readFully(channel, buffer, HEADER_SIZE + i * RECORD_SIZE);
+                buffer.flip();
+                Record record = decode(buffer);
+                if (record == null) {
+                    if (i < count - 1) throw new IOException("Damaged execution history record " + i + " in " + file);
+                    count = i; // Torn last write, dropped below
+                    break;
+                }
+                records.add(record);
+            }
+            long validSize = HEADER_SIZE + count * RECORD_SIZE;
+            if (channel.size() > validSize) {
+                System.err.println("Dropping incomplete execution history record in " + file);
+                channel.truncate(validSize);
+            }
+        }
+        return Collections.unmodifiableList(records);
+    }
+
+    /**
+     * Creates the record file, migrating the legacy history if there is one.
+     * The file is written next to the target and moved over it in one step.
+     *
+     * @param legacyFile The serialized history of earlier versions
+     * @throws IOException If the file cannot be written or the legacy history cannot be read
+     */
+    private void create(Path legacyFile) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE).putLong(0);
+        header.flip();
+
+        Map<String, LocalDate> legacy = readLegacy(legacyFile);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(header);
+            long now = System.currentTimeMillis();
+            for (Map.Entry<String, LocalDate> entry : legacy.entrySet()) {
+                ByteBuffer record = encode(entry.getKey(), entry.getValue(), now, MIGRATED, 0, 0);
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (!legacy.isEmpty()) {
+            System.out.println("Migrated " + legacy.size() + " entries of the execution history");
+        }
+    }
+
+    /**
+     * Reads the serialized history map of earlier versions.
+     *
+     * @param legacyFile The serialized history file
+     * @return The last execution date per key, empty if there is no legacy file
+     * @throws IOException If the legacy file exists but cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, LocalDate> readLegacy(Path legacyFile) throws IOException {
+        File legacy = legacyFile.toFile();
+        if (!legacy.exists()) return new HashMap<>();
+        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(legacy))) {
+            return (Map<String, LocalDate>) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Unreadable legacy execution history: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Updates the in-memory index with one execution.
+     *
+     * @param key        The investment key
+     * @param occurrence The scheduled day
+     * @param status     The outcome, null for migrated entries
+     */
+    private void index(String key, LocalDate occurrence, ExecutionReport.Status status) {
+        int day = (int) occurrence.toEpochDay();
+        firstRecordedDay.merge(storedKey(key), day, Math::min);
+        if (status == ExecutionReport.Status.FAILED) return; // Failed occurrences are retried
+        lastExecutedDay.merge(storedKey(key), day, Math::max);
+    }
+
+    /**
+     * Gets a key as it reads back from the file, shortened if it is too long.
+     *
+     * @param key The investment key
+     * @return The stored form of the key
+     */
+    private static String storedKey(String key) {
+        return new String(encodeKey(key), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes one record with its checksum.
+     *
+     * @return A buffer ready to be written
+     */
+    private static ByteBuffer encode(String key, LocalDate occurrence, long executedAt, byte status,
+                                     int quantity, double price) {
+        byte[] keyBytes = encodeKey(key);
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        buffer.putInt((int) occurrence.toEpochDay())
+                .putLong(executedAt)
+                .put(status)
+                .put((byte) keyBytes.length)
+                .putInt(quantity)
+                .putDouble(price)
+                .put(keyBytes);
+        buffer.position(RECORD_SIZE - 4); // Unused key bytes stay zero
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, RECORD_SIZE - 4);
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Decodes one record.
+     *
+     * @param buffer A buffer holding exactly one record
+     * @return The record, or null if its checksum does not match
+     */
+    private static Record decode(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, RECORD_SIZE - 4);
+        if (buffer.getInt(RECORD_SIZE - 4) != (int) crc.getValue()) return null;
+
+        int day = buffer.getInt();
+        long executedAt = buffer.getLong();
+        byte status = buffer.get();
+        int keyLength = buffer.get() & 0xFF;
+        int quantity = buffer.getInt();
+        double price = buffer.getDouble();
+        String key = new String(buffer.array(), buffer.position(), keyLength, StandardCharsets.UTF_8);
+        ExecutionReport.Status outcome = status == MIGRATED ? null : ExecutionReport.Status.values()[status];
+        return new Record(key, LocalDate.ofEpochDay(day), executedAt, outcome, quantity, price);
+    }
+
+    /**
+     * Encodes a key into at most {@link #KEY_BYTES} bytes.
+     * Longer keys keep a prefix followed by their hash, which stays unique in practice.
+     *
+     * @param key The investment key
+     * @return The encoded key
+     */
+    private static byte[] encodeKey(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= KEY_BYTES) return bytes;
+        String suffix = "#" + String.format("%08x", key.hashCode());
+        StringBuilder prefix = new StringBuilder();
+        int length = suffix.length();
+        for (int i = 0; i < key.length(); ) {
+            int codePoint = key.codePointAt(i);
+            int size = new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8).length;
+            if (length + size > KEY_BYTES) break;
+            prefix.appendCodePoint(codePoint);
+            length += size;
+            i += Character.charCount(codePoint);
+        }
+        return (prefix + suffix).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads until the buffer is full.
+     *
+     * @throws IOException If the file ends before the buffer is full
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) throw new IOException("Unexpected end of execution history");
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package investify.service;
+
+import investify.model.PriceSeries;
+import investify.model.Transaction;
+import shared.SeriesDownsampler;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Daily value of the portfolio over time.
+ * <p>
+ * The series replays the transaction history against the closing prices kept in the
+ * {@link PriceHistoryStore}: the value of a weekday is the sum of the shares held that
+ * day times the symbol's close. The series ends on the last day for which every held
+ * symbol has a stored close, so no computed day has to be revised later.
+ * <p>
+ * Updates are incremental. When new days arrive, or new trades dated after the last
+ * computed day, only the missing days are computed. A trade dated inside the computed
+ * range, a replaced history or older prices of a symbol that was valued before its
+ * stored history trigger a full rebuild. Updates run on a background thread after every valuation change.
+ * <p>
+ * Trades recorded before dates were stored are placed at the start of the series.
+ * Symbols without any stored price are valued at their last trade price.
+ */
+public class PortfolioHistoryService {
+
+    /**
+     * A point of a downsampled series, ready to chart.
+     */
+    public static class Point {
+        private final LocalDate date; // Day of the value
+        private final double value; // Portfolio value in USD
+
+        /**
+         * Creates a point.
+         *
+         * @param date  The day of the value
+         * @param value The portfolio value in USD
+         */
+        public Point(LocalDate date, double value) {
+            this.date = date;
+            this.value = value;
+        }
+
+        /** @return The day of the value */
+        public LocalDate getDate() { return date; }
+
+        /** @return The portfolio value in USD */
+        public double getValue() { return value; }
+    }
+
+    private final PortfolioValuationEngine valuationEngine; // Provides the loaded transaction history
+    private final PriceHistoryStore priceHistoryStore; // Provides the daily closes
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "portfolio-history");
+        thread.setDaemon(true); // Never keeps the application alive
+        return thread;
+    });
+    private final AtomicBoolean updatePending = new AtomicBoolean(); // Coalesces update requests
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>(); // Notified after each update
+
+    // Computed series and replay state, guarded by this service's monitor
+    private int[] days = new int[256]; // Epoch day of each computed point
+    private double[] values = new double[256]; // Portfolio value of each computed point
+    private int size; // Number of computed points
+    private Transaction[] history = new Transaction[0]; // History the series was computed from
+    private Transaction[] sortedTrades = new Transaction[0]; // Same trades, ordered by effective date
+    private int nextTrade; // First sorted trade not yet applied
+    private final Map<String, Integer> held = new HashMap<>(); // Shares held after the last computed day
+    private final Map<String, Double> lastTradePrices = new HashMap<>(); // Fallback price per symbol
+    private final Map<String, Integer> valuedBefore = new HashMap<>(); // First stored day of symbols valued before it
+
+    /**
+     * Constructs the service and subscribes it to valuation changes.
+     *
+     * @param valuationEngine   The engine whose reloads provide the transaction history
+     * @param priceHistoryStore The store providing the daily closes
+     */
+    public PortfolioHistoryService(PortfolioValuationEngine valuationEngine, PriceHistoryStore priceHistoryStore) {
+        this.valuationEngine = valuationEngine;
+        this.priceHistoryStore = priceHistoryStore;
+        valuationEngine.addListener(symbol -> scheduleUpdate());
+    }
+
+    /**
+     * Registers a listener called on the background thread after each update.
+     *
+     * @param listener The listener to add
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Requests an update in the background.
+     * Requests made while one is already waiting are merged into it.
+     */
+    public void scheduleUpdate() {
+        if (updatePending.compareAndSet(false, true)) {
+            worker.execute(() -> {
+                updatePending.set(false); // Later requests schedule another update
+                try {
+                    update();
+                } catch (RuntimeException e) {
+                    System.err.println("Error updating portfolio history: " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Brings the series up to date with the loaded history and the stored prices.
+     */
+    public void update() {
+        Transaction[] transactions = valuationEngine.getTransactions();
+        boolean changed;
+        synchronized (this) {
+            if (needsRebuild(transactions)) {
+                rebuild(transactions);
+            } else if (transactions.length > history.length) {
+                addTrades(transactions); // Only trades after the computed range
+            }
+            changed = extend();
+        }
+        if (changed) {
+            for (Runnable listener : listeners) {
+                listener.run();
+            }
+        }
+    }
+
+    /**
+     * Checks whether already computed days are affected by the new state.
+     * Must be called while holding this service's monitor.
+     *
+     * @param transactions The current transaction history
+     * @return true if the series has to be computed from scratch
+     */
+    private boolean needsRebuild(Transaction[] transactions) {
+        if (transactions.length < history.length) return true; // History replaced
+        for (int i = 0; i < history.length; i++) {
+            if (!sameTrade(transactions[i], history[i])) return true; // Earlier trades were edited
+        }
+        if (size > 0) {
+            for (int i = history.length; i < transactions.length; i++) {
+                LocalDate date = transactions[i].getDate();
+                if (date == null || date.toEpochDay() <= days[size - 1]) return true; // Trade inside the computed range
+            }
+        }
+        for (Map.Entry<String, Integer> entry : valuedBefore.entrySet()) {
+            PriceSeries prices = priceHistoryStore.getSeries(entry.getKey());
+            if (!prices.isEmpty() && prices.getEpochDay(0) < entry.getValue()) return true; // Older prices arrived
+        }
+        return false;
+    }
+
+    /**
+     * Drops the computed series and prepares a replay of the whole history.
+     * Must be called while holding this service's monitor.
+     *
+     * @param transactions The transaction history
+     */
+    private void rebuild(Transaction[] transactions) {
+        size = 0;
+        held.clear();
+        lastTradePrices.clear();
+        valuedBefore.clear();
+        history = new Transaction[0];
+        sortedTrades = new Transaction[0];
+        nextTrade = 0;
+        addTrades(transactions);
+    }
+
+    /**
+     * Adds the trades appended to the history since the last update.
+     * Must be called while holding this service's monitor.
+     *
+     * @param transactions The transaction history
+     */
+    private void addTrades(Transaction[] transactions) {
+        List<Transaction> pending = new ArrayList<>(Arrays.asList(sortedTrades).subList(nextTrade, sortedTrades.length));
+        pending.addAll(Arrays.asList(transactions).subList(history.length, transactions.length));
+        pending.sort(Comparator.comparingLong(PortfolioHistoryService::effectiveDay)); // Stable, keeps file order per day
+        sortedTrades = pending.toArray(new Transaction[0]);
+        nextTrade = 0;
+        history = transactions;
+    }
+
+    /**
+     * Computes the missing days up to the last day priced for every held symbol.
+     * Must be called while holding this service's monitor.
+     *
+     * @return true if points were added
+     */
+    private boolean extend() {
+        if (sortedTrades.length == 0 && held.isEmpty()) return false; // Nothing ever held
+
+        LocalDate start;
+        if (size > 0) {
+            start = LocalDate.ofEpochDay(days[size - 1] + 1L);
+        } else {
+            start = firstDay();
+            if (start == null) return false;
+        }
+        LocalDate end = lastPricedDay();
+        if (end == null || end.isBefore(start)) return false;
+
+        Map<String, PriceSeries> series = new HashMap<>();
+        int before = size;
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            applyTradesUntil(day);
+            DayOfWeek weekday = day.getDayOfWeek();
+            if (weekday == DayOfWeek.SATURDAY || weekday == DayOfWeek.SUNDAY) continue; // Markets closed
+
+            double value = 0.0;
+            for (Map.Entry<String, Integer> entry : held.entrySet()) {
+                String symbol = entry.getKey();
+                PriceSeries prices = series.computeIfAbsent(symbol, priceHistoryStore::getSeries);
+                double close = prices.getCloseOn(day);
+                if (Double.isNaN(close)) {
+                    close = lastTradePrices.getOrDefault(symbol, 0.0); // Before the stored history
+                    valuedBefore.put(symbol, prices.isEmpty() ? Integer.MAX_VALUE : prices.getEpochDay(0));
+                }
+                value += entry.getValue() * close;
+            }
+            append((int) day.toEpochDay(), value);
+        }
+        applyTradesUntil(end); // Trades on a weekend end are still applied
+        return size > before;
+    }
+
+    /**
+     * Applies every sorted trade dated on or before a day.
+     * Must be called while holding this service's monitor.
+     *
+     * @param day The day to apply trades up to
+     */
+    private void applyTradesUntil(LocalDate day) {
+        long limit = day.toEpochDay();
+        while (nextTrade < sortedTrades.length && effectiveDay(sortedTrades[nextTrade]) <= limit) {
+            Transaction trade = sortedTrades[nextTrade++];
+            int quantity = trade.getAction().equalsIgnoreCase("Buy") ? trade.getQuantity() : -trade.getQuantity();
+            int remaining = held.getOrDefault(trade.getSymbol(), 0) + quantity;
+            if (remaining > 0) {
+                held.put(trade.getSymbol(), remaining);
+            } else {
+                held.remove(trade.getSymbol()); // Oversold positions are closed, like in the cost basis
+            }
+            lastTradePrices.put(trade.getSymbol(), trade.getPrice());
+        }
+    }
+
+    /**
+     * Finds the first day of the series.
+     * Undated trades start the series at the first stored close of their symbol.
+     * Must be called while holding this service's monitor.
+     *
+     * @return The first day, or null if nothing can be placed
+     */
+    private LocalDate firstDay() {
+        long first = Long.MAX_VALUE;
+        for (Transaction trade : sortedTrades) {
+            LocalDate date = trade.getDate();
+            if (date != null) {
+                first = Math.min(first, date.toEpochDay());
+            } else {
+                PriceSeries prices = priceHistoryStore.getSeries(trade.getSymbol());
+                first = Math.min(first, prices.isEmpty() ? LocalDate.now().toEpochDay() : prices.getEpochDay(0));
+            }
+        }
+        return first == Long.MAX_VALUE ? null : LocalDate.ofEpochDay(first);
+    }
+
+    /**
+     * Finds the last day on which every symbol that may be held has a stored close.
+     * Symbols without stored prices do not limit the series.
+     * Must be called while holding this service's monitor.
+     *
+     * @return The last complete day, today if no symbol has stored prices, or null if nothing is held
+     */
+    private LocalDate lastPricedDay() {
+        Set<String> symbols = new HashSet<>(held.keySet());
+        for (int i = nextTrade; i < sortedTrades.length; i++) {
+            symbols.add(sortedTrades[i].getSymbol());
+        }
+        if (symbols.isEmpty()) return null;
+
+        LocalDate today = LocalDate.now();
+        LocalDate end = today;
+        for (String symbol : symbols) {
+            LocalDate last = priceHistoryStore.getSeries(symbol).getLastDate();
+            if (last != null && last.isBefore(end)) end = last;
+        }
+        return end;
+    }
+
+    /**
+     * Appends a computed point, growing the arrays as needed.
+     * Must be called while holding this service's monitor.
+     *
+     * @param day   The epoch day of the point
+     * @param value The portfolio value of the day
+     */
+    private void append(int day, double value) {
+        if (size == days.length) {
+            days = Arrays.copyOf(days, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        days[size] = day;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * Checks whether two loaded transactions describe the same trade.
+     * Each reload creates new objects, so trades are compared by content.
+     *
+     * @param a The first trade
+     * @param b The second trade
+     * @return true if both trades are identical
+     */
+    private static boolean sameTrade(Transaction a, Transaction b) {
+        return a.getQuantity() == b.getQuantity()
+                && a.getPrice() == b.getPrice()
+                && a.getSymbol().equals(b.getSymbol())
+                && a.getAction().equalsIgnoreCase(b.getAction())
+                && effectiveDay(a) == effectiveDay(b);
+    }
+
+    /**
+     * Gets the effective day of a trade for ordering.
+     *
+     * @param trade The trade
+     * @return The epoch day of its date, or Long.MIN_VALUE for undated trades
+     */
+    private static long effectiveDay(Transaction trade) {
+        LocalDate date = trade.getDate();
+        return date == null ? Long.MIN_VALUE : date.toEpochDay();
+    }
+
+    /**
+     * Gets the number of computed days.
+     *
+     * @return The number of points of the full series
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gets the series reduced to at most the given number of points for charting.
+     *
+     * @param maxPoints The maximum number of points, typically the chart width in pixels
+     * @return The downsampled points, oldest first
+     */
+    public List<Point> getChartPoints(int maxPoints) {
+        double[] x;
+        double[] y;
+        int count;
+        synchronized (this) {
+            count = size;
+            x = new double[count];
+            for (int i = 0; i < count; i++) x[i] = days[i];
+            y = Arrays.copyOf(values, count);
+        }
+
+        int[] kept = SeriesDownsampler.largestTriangleThreeBuckets(x, y, count, maxPoints);
+        List<Point> points = new ArrayList<>(kept.length);
+        for (int index : kept) {
+            points.add(new Point(LocalDate.ofEpochDay((long) x[index]), y[index]));
+        }
+        return points;
+    }
+}
@@ -10,7 +10,8 @@ import java.io.*;
 public class PortfolioManager { // Main class responsible for managing investment portfolio data
     private final CurrencyService currencyService; // Reference to handle currency formatting and conversion
     private Map<String, Integer> holdings = new HashMap<>(); // Stores stock quantities by symbol
-    private Map<String, Double> totalValues = new HashMap<>(); // Stores monetary values by symbol
+    private Map<String, Double> totalValues = new HashMap<>(); // Stores the cost basis of the shares held by symbol
+    private final CostBasisEngine costBasis = new CostBasisEngine(); // Tracks lots and profit per symbol
     private double portfolioTotalValue = 0.0; // Tracks the combined value of all holdings
 
     /**
@@ -81,32 +82,20 @@ public class PortfolioManager { // Main class responsible for managing investmen
 
     /**
      * Processes an array of transactions to update holdings and total values.
-     * This method calculates the net quantity and value for each stock in the portfolio. Made by AI.
+     * Trades are replayed through the cost basis engine, so a sell at a profit
+     * books the gain instead of pushing the symbol's value below zero.
      *
      * @param transactions The array of transactions to process
      */
     private void processTransactions(Transaction[] transactions) { // Method to analyze transactions and update portfolio state
-        for (Transaction transaction : transactions) { // Iterates through each transaction
-            String symbol = transaction.getSymbol(); // Gets the stock ticker symbol
-            int quantity = transaction.getQuantity(); // Gets the number of shares
-            double price = transaction.getPrice(); // Gets the price per share
-            boolean isBuy = transaction.getAction().equalsIgnoreCase("Buy"); // Determines transaction type
-
-            // Updates quantities in holdings map, adding for buys and subtracting for sells
-            holdings.put(symbol, holdings.getOrDefault(symbol, 0) +
-                    (isBuy ? quantity : -quantity));
-
-            // Updates monetary values, adding for buys and subtracting for sells
-            double transactionValue = quantity * price; // Calculates total value of this transaction
-            totalValues.put(symbol, totalValues.getOrDefault(symbol, 0.0) +
-                    (isBuy ? transactionValue : -transactionValue));
-        }
+        costBasis.clear(); // Replays the full history from scratch
+        costBasis.applyAll(transactions);
 
-        // Removes stocks that have been completely sold (zero or negative quantities)
-        holdings.entrySet().removeIf(entry -> entry.getValue() <= 0);
-        // Removes values for stocks no longer in holdings or with negative values
-        totalValues.entrySet().removeIf(entry -> entry.getValue() <= 0 ||
-                !holdings.containsKey(entry.getKey()));
+        // Keeps the shares held and their remaining cost for every open position
+        for (String symbol : costBasis.getOpenSymbols()) {
+            holdings.put(symbol, costBasis.getQuantity(symbol));
+            totalValues.put(symbol, costBasis.getCostBasis(symbol));
+        }
     }
 
     /**
@@ -121,7 +110,7 @@ public class PortfolioManager { // Main class responsible for managing investmen
     /**
      * Gets the map of stock values in the portfolio.
      *
-     * @return A map where the key is the stock symbol and the value is the monetary value
+     * @return A map where the key is the stock symbol and the value is the cost of the shares held
      */
     public Map<String, Double> getTotalValues() {
         return totalValues; // Returns reference to current values
@@ -135,4 +124,13 @@ public class PortfolioManager { // Main class responsible for managing investmen
     public double getPortfolioTotalValue() {
         return portfolioTotalValue; // Returns the calculated total value
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the lots, cost basis and realized profit of the loaded transactions.
+     *
+     * @return The cost basis engine holding every position
+     */
+    public CostBasisEngine getCostBasis() {
+        return costBasis;
+    }
+}
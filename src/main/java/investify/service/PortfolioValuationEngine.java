@@ -0,0 +1,397 @@
+package investify.service;
+
+import investify.model.PriceSeries;
+import investify.model.Transaction;
+
+import java.io.File;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Mark-to-market valuation of the Investify portfolio.
+ * <p>
+ * The engine combines the current holdings with the latest known quote of every
+ * symbol, taken from the {@link PriceHistoryStore}. Quotes are refreshed for all
+ * symbols in parallel through the rate-limited scheduler. When one quote ticks,
+ * only that symbol's market value and the difference to the total are recomputed.
+ * <p>
+ * Symbols without any stored quote are valued at the average cost of their open
+ * lots until a quote arrives. All reads return cached values, so UI code can call them on the
+ * EDT; loading and refreshing run in the background and are announced to listeners.
+ */
+public class PortfolioValuationEngine {
+
+    /**
+     * Receives valuation changes. Listeners are called on the background thread
+     * that applied the change and must switch to the EDT before touching Swing.
+     */
+    public interface Listener {
+        /**
+         * Called after the valuation changed.
+         *
+         * @param symbol The symbol whose quote ticked, or null after a full reload
+         */
+        void valuationChanged(String symbol);
+    }
+
+    /**
+     * Valuation of one holding at the time of a snapshot.
+     */
+    public static class Holding {
+        private final String symbol; // Stock symbol
+        private final int quantity; // Shares held
+        private final double marketValue; // Value in USD, at cost while no quote is known
+        private final double unrealizedPnl; // Profit of the shares held in USD
+        private final double realizedPnl; // Profit booked by sells in USD
+        private final boolean priced; // Whether a quote is known
+
+        /**
+         * Creates a holding snapshot.
+         *
+         * @param symbol        The stock symbol
+         * @param quantity      The shares held
+         * @param marketValue   The value in USD
+         * @param unrealizedPnl The profit of the shares held in USD
+         * @param realizedPnl   The profit booked by sells in USD
+         * @param priced        Whether a quote is known
+         */
+        public Holding(String symbol, int quantity, double marketValue, double unrealizedPnl,
+                       double realizedPnl, boolean priced) {
+            this.symbol = symbol;
+            this.quantity = quantity;
+            this.marketValue = marketValue;
+            this.unrealizedPnl = unrealizedPnl;
+            this.realizedPnl = realizedPnl;
+            this.priced = priced;
+        }
+
+        /** @return The stock symbol */
+        public String getSymbol() { return symbol; }
+
+        /** @return The shares held */
+        public int getQuantity() { return quantity; }
+
+        /** @return The value in USD, at cost while no quote is known */
+        public double getMarketValue() { return marketValue; }
+
+        /** @return The profit of the shares held in USD, 0 while no quote is known */
+        public double getUnrealizedPnl() { return unrealizedPnl; }
+
+        /** @return The profit booked by sells in USD */
+        public double getRealizedPnl() { return realizedPnl; }
+
+        /** @return true if the value is based on a quote */
+        public boolean isPriced() { return priced; }
+
+        /**
+         * Checks whether another snapshot of the same symbol shows the same values.
+         *
+         * @param other The other snapshot
+         * @return true if nothing visible changed
+         */
+        public boolean sameValues(Holding other) {
+            return quantity == other.quantity && marketValue == other.marketValue
+                    && unrealizedPnl == other.unrealizedPnl && realizedPnl == other.realizedPnl
+                    && priced == other.priced;
+        }
+    }
+
+    private final PriceHistoryStore priceHistoryStore; // Source of the latest quotes
+    private final CurrencyService currencyService; // Formats the total value
+    private final ExecutorService loader = Executors.newVirtualThreadPerTaskExecutor(); // Runs file reads off the EDT
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>(); // Registered change listeners
+
+    // Valuation state, guarded by this engine's monitor
+    private final Map<String, Integer> quantities = new HashMap<>(); // Shares held per symbol
+    private final CostBasisEngine costBasis = new CostBasisEngine(); // Lots and profit per symbol
+    private final Map<String, Double> quotes = new HashMap<>(); // Latest known price per symbol
+    private final Map<String, Double> marketValues = new HashMap<>(); // Quantity times quote per symbol
+    private double totalValue; // Sum of all market values
+    private Transaction[] transactions = new Transaction[0]; // History last loaded, never modified
+    private long loadedModified = -1; // Modification time of the history file last loaded
+    private long loadedLength = -1; // Size of the history file last loaded
+
+    /**
+     * Constructs a new valuation engine.
+     *
+     * @param priceHistoryStore The store providing and refreshing quotes
+     * @param currencyService   The currency service used for formatting
+     */
+    public PortfolioValuationEngine(PriceHistoryStore priceHistoryStore, CurrencyService currencyService) {
+        this.priceHistoryStore = priceHistoryStore;
+        this.currencyService = currencyService;
+    }
+
+    /**
+     * Registers a listener for valuation changes.
+     *
+     * @param listener The listener to add
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Reloads holdings in the background, so callers on the EDT never read the
+     * transaction file themselves. Listeners are notified once the reload is done.
+     *
+     * @return A future completed after the reload
+     */
+    public CompletableFuture<Void> reloadAsync() {
+        return CompletableFuture.runAsync(this::reloadHoldings, loader);
+    }
+
+    /**
+     * Reads the transaction history and updates the holdings, then values them
+     * with the stored quotes. An unchanged file is not parsed again. The history
+     * file only grows, so trades that were already applied are skipped; a shorter
+     * file means it was replaced and the positions are rebuilt. No network access
+     * is made.
+     */
+    public void reloadHoldings() {
+        File file = Paths.get(System.getProperty("user.home"), "investifyData.json").toFile();
+        long modified = file.lastModified(); // 0 if the file does not exist
+        long length = file.length();
+        synchronized (this) {
+            if (modified == loadedModified && length == loadedLength) {
+                return; // History unchanged since the last reload, nothing to parse
+            }
+        }
+        Transaction[] loaded = file.exists() ? TransactionService.readTransactionsFromFile(file) : null;
+        if (loaded == null) loaded = new Transaction[0];
+
+        synchronized (this) {
+            transactions = loaded;
+            if (transactions.length < costBasis.getAppliedTrades()) {
+                costBasis.clear(); // History was replaced, start over
+            }
+            for (int i = (int) costBasis.getAppliedTrades(); i < transactions.length; i++) {
+                costBasis.apply(transactions[i]); // Only the new trades
+            }
+
+            quantities.clear();
+            for (String symbol : costBasis.getOpenSymbols()) {
+                quantities.put(symbol, costBasis.getQuantity(symbol));
+            }
+
+            // Seeds quotes from the local store, keeps quotes already received
+            quotes.keySet().retainAll(quantities.keySet());
+            for (String symbol : quantities.keySet()) {
+                if (!quotes.containsKey(symbol)) {
+                    double stored = priceHistoryStore.getSeries(symbol).getLatestClose();
+                    if (!Double.isNaN(stored)) quotes.put(symbol, stored);
+                }
+            }
+            recomputeAll();
+            loadedModified = modified;
+            loadedLength = length;
+        }
+        fireChanged(null);
+    }
+
+    /**
+     * Refreshes the quote of every held symbol in parallel.
+     * The stored prices are also extended back to the first trade of each symbol,
+     * so the portfolio history can price its early days.
+     * Each quote is applied as soon as it arrives.
+     *
+     * @return A future completed when all refreshes have finished
+     */
+    public CompletableFuture<Void> refreshQuotesAsync() {
+        Map<String, LocalDate> firstTrades = new HashMap<>(); // Earliest dated trade per symbol
+        for (Transaction trade : getTransactions()) {
+            if (trade.getDate() != null) {
+                firstTrades.merge(trade.getSymbol(), trade.getDate(), (a, b) -> a.isBefore(b) ? a : b);
+            }
+        }
+        List<CompletableFuture<Void>> refreshes = new ArrayList<>();
+        for (String symbol : getHeldSymbols()) {
+            PriceSeries stored = priceHistoryStore.getSeries(symbol);
+            refreshes.add(priceHistoryStore.refreshAsync(symbol, firstTrades.get(symbol),
+                            AlphaVantageScheduler.Priority.BACKGROUND)
+                    .thenAccept(series -> {
+                        applyLatestClose(symbol, series);
+                        if (!stored.isEmpty() && series.getEpochDay(0) < stored.getEpochDay(0)) {
+                            fireChanged(symbol); // Older days arrived, the quote alone may not have changed
+                        }
+                    })
+                    .exceptionally(error -> {
+                        System.err.println("Could not refresh quote for " + symbol + ": " + error.getMessage());
+                        return null; // Keep the last known quote
+                    }));
+        }
+        return CompletableFuture.allOf(refreshes.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Applies a new quote for one symbol and updates the total incrementally.
+     *
+     * @param symbol The symbol whose price changed
+     * @param price  The new price per share
+     */
+    public void updateQuote(String symbol, double price) {
+        synchronized (this) {
+            Integer quantity = quantities.get(symbol);
+            Double previous = quotes.put(symbol, price);
+            if (quantity == null || (previous != null && previous == price)) {
+                return; // Not held, or nothing changed
+            }
+            double newValue = quantity * price;
+            Double oldValue = marketValues.put(symbol, newValue);
+            totalValue += newValue - (oldValue == null ? 0.0 : oldValue);
+        }
+        fireChanged(symbol);
+    }
+
+    /**
+     * Applies the latest close of a refreshed series.
+     *
+     * @param symbol The symbol of the series
+     * @param series The refreshed series
+     */
+    private void applyLatestClose(String symbol, PriceSeries series) {
+        double close = series.getLatestClose();
+        if (!Double.isNaN(close)) {
+            updateQuote(symbol, close);
+        }
+    }
+
+    /**
+     * Recomputes every market value and the total from scratch.
+     * Must be called while holding this engine's monitor.
+     */
+    private void recomputeAll() {
+        marketValues.clear();
+        totalValue = 0.0;
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            String symbol = entry.getKey();
+            double price = quotes.getOrDefault(symbol, costBasis.getAverageCost(symbol));
+            double value = entry.getValue() * price;
+            marketValues.put(symbol, value);
+            totalValue += value;
+        }
+    }
+
+    /**
+     * Notifies all listeners of a change.
+     *
+     * @param symbol The symbol that changed, or null after a full reload
+     */
+    private void fireChanged(String symbol) {
+        for (Listener listener : listeners) {
+            listener.valuationChanged(symbol);
+        }
+    }
+
+    /**
+     * Gets the transaction history last loaded.
+     * The array is shared and must not be modified.
+     *
+     * @return The transactions in file order
+     */
+    public synchronized Transaction[] getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * Gets the symbols currently held.
+     *
+     * @return A copy of the held symbols
+     */
+    public synchronized List<String> getHeldSymbols() {
+        return new ArrayList<>(quantities.keySet());
+    }
+
+    /**
+     * Gets the market value of every holding.
+     *
+     * @return A snapshot mapping each symbol to its market value in USD
+     */
+    public synchronized Map<String, Double> getMarketValues() {
+        return Collections.unmodifiableMap(new HashMap<>(marketValues));
+    }
+
+    /**
+     * Gets a consistent snapshot of every holding.
+     *
+     * @return One entry per held symbol, in no particular order
+     */
+    public synchronized List<Holding> getHoldings() {
+        List<Holding> holdings = new ArrayList<>(quantities.size());
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            String symbol = entry.getKey();
+            Double quote = quotes.get(symbol);
+            holdings.add(new Holding(symbol, entry.getValue(), marketValues.getOrDefault(symbol, 0.0),
+                    quote == null ? 0.0 : costBasis.getUnrealizedPnl(symbol, quote),
+                    costBasis.getRealizedPnl(symbol), quote != null));
+        }
+        return holdings;
+    }
+
+    /**
+     * Gets the quantity held of every symbol.
+     *
+     * @return A snapshot mapping each symbol to its number of shares
+     */
+    public synchronized Map<String, Integer> getQuantities() {
+        return Collections.unmodifiableMap(new HashMap<>(quantities));
+    }
+
+    /**
+     * Checks whether a holding is valued with a market quote rather than its cost.
+     *
+     * @param symbol The symbol to check
+     * @return true if a quote is known for the symbol
+     */
+    public synchronized boolean hasQuote(String symbol) {
+        return quotes.containsKey(symbol);
+    }
+
+    /**
+     * Gets the profit booked by the sells of a symbol.
+     *
+     * @param symbol The stock symbol
+     * @return The realized profit in USD, negative for a loss
+     */
+    public synchronized double getRealizedPnl(String symbol) {
+        return costBasis.getRealizedPnl(symbol);
+    }
+
+    /**
+     * Gets the profit of the shares still held of a symbol at its latest quote.
+     *
+     * @param symbol The stock symbol
+     * @return The unrealized profit in USD, 0 while no quote is known
+     */
+    public synchronized double getUnrealizedPnl(String symbol) {
+        Double quote = quotes.get(symbol);
+        return quote == null ? 0.0 : costBasis.getUnrealizedPnl(symbol, quote);
+    }
+
+    /**
+     * Gets the total market value of the portfolio.
+     *
+     * @return The total value in USD
+     */
+    public synchronized double getTotalValue() {
+        return totalValue;
+    }
+
+    /**
+     * Gets the total market value formatted in the current currency.
+     *
+     * @return The formatted total value
+     */
+    public String getTotalValueFormatted() {
+        return currencyService.formatCurrency(getTotalValue());
+    }
+}
@@ -0,0 +1,441 @@
+package investify.service;
+
+import com.crazzyghost.alphavantage.parameters.OutputSize;
+import com.crazzyghost.alphavantage.timeseries.response.StockUnit;
+import com.crazzyghost.alphavantage.timeseries.response.TimeSeriesResponse;
+import investify.model.PriceSeries;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local store of daily OHLCV prices, one compact binary file per symbol.
+ * <p>
+ * Every AlphaVantage daily response can be ingested into the store instead of being
+ * thrown away after reading one close price. Days newer than the last stored one are
+ * appended; days older than the first stored one, as brought by a backfill, make the
+ * file be rewritten once and atomically replaced. Files are memory-mapped for reads,
+ * so charts and valuations read prices without repeated downloads.
+ * <p>
+ * A refresh only asks AlphaVantage for what is missing: nothing when the series is
+ * already current, a COMPACT response (last 100 trading days) when the gap is small
+ * and a FULL response only for new symbols, long gaps or a requested range starting
+ * before the stored history. Once a FULL response was stored, the file header marks
+ * the history as complete, so no later launch downloads it again to look for older days.
+ */
+public class PriceHistoryStore {
+
+    /** Calendar days safely covered by a COMPACT response of 100 trading days */
+    private static final int COMPACT_COVERAGE_DAYS = 130;
+
+    private final Path directory; // Folder holding one price file per symbol
+    private final AlphaVantageScheduler apiScheduler; // Rate-limited access to AlphaVantage
+    private final Map<String, PriceSeries> cache = new ConcurrentHashMap<>(); // Mapped series by symbol
+    private final Map<String, LocalDate> checkedOn = new ConcurrentHashMap<>(); // Last refresh date by symbol
+
+    /**
+     * Constructs a store in the default folder of the user's home directory.
+     *
+     * @param apiScheduler The scheduler used to download missing prices
+     */
+    public PriceHistoryStore(AlphaVantageScheduler apiScheduler) {
+        this(Paths.get(System.getProperty("user.home"), "investifyPrices"), apiScheduler);
+    }
+
+    /**
+     * Constructs a store in the given folder.
+     *
+     * @param directory    The folder holding the price files
+     * @param apiScheduler The scheduler used to download missing prices
+     */
+    public PriceHistoryStore(Path directory, AlphaVantageScheduler apiScheduler) {
+        this.directory = directory;
+        this.apiScheduler = apiScheduler;
+    }
+
+    /**
+     * Gets the stored prices of a symbol without any network access.
+     *
+     * @param symbol The stock symbol
+     * @return The stored series, empty if nothing is stored
+     */
+    public PriceSeries getSeries(String symbol) {
+        String key = normalize(symbol);
+        return cache.computeIfAbsent(key, this::map);
+    }
+
+    /**
+     * Brings the stored prices of a symbol up to date in the background.
+     *
+     * @param symbol   The stock symbol
+     * @param priority The priority class of the download, if one is needed
+     * @return A future completed with the updated series
+     */
+    public CompletableFuture<PriceSeries> refreshAsync(String symbol, AlphaVantageScheduler.Priority priority) {
+        return refreshAsync(symbol, null, priority);
+    }
+
+    /**
+     * Brings the stored prices of a symbol up to date in the background and makes
+     * sure they reach back to a given day.
+     *
+     * @param symbol   The stock symbol
+     * @param from     The first day needed, or null if only the latest prices matter
+     * @param priority The priority class of the download, if one is needed
+     * @return A future completed with the updated series
+     */
+    public CompletableFuture<PriceSeries> refreshAsync(String symbol, LocalDate from,
+                                                       AlphaVantageScheduler.Priority priority) {
+        String key = normalize(symbol);
+        PriceSeries current = getSeries(key);
+        LocalDate today = LocalDate.now();
+        boolean backfill = needsBackfill(key, current, from);
+        if (!backfill && isCurrent(key, current, today)) {
+            return CompletableFuture.completedFuture(current); // Nothing missing, no API call
+        }
+
+        LocalDate last = current.getLastDate();
+        OutputSize size = last != null && last.plusDays(COMPACT_COVERAGE_DAYS).isAfter(today)
+                && (!backfill || from.plusDays(COMPACT_COVERAGE_DAYS).isAfter(today))
+                ? OutputSize.COMPACT // The last 100 days cover the gap and the requested range
+                : OutputSize.FULL; // New symbol, long gap or older days, download the whole history
+
+        return apiScheduler.fetchDailyAsync(key, size, priority).thenApply(response -> {
+            if (response.getErrorMessage() != null) {
+                throw new IllegalStateException("API error: " + response.getErrorMessage());
+            }
+            try {
+                ingest(key, response);
+            } catch (IOException e) {
+                throw new IllegalStateException("Error storing prices for " + key + ": " + e.getMessage(), e);
+            }
+            checkedOn.put(key, today);
+            if (size == OutputSize.FULL) {
+                try {
+                    markComplete(key); // Nothing older exists, never backfill again
+                } catch (IOException e) {
+                    System.err.println("Error marking the prices of " + key + " complete: " + e.getMessage());
+                }
+            }
+            return getSeries(key);
+        });
+    }
+
+    /**
+     * Adds the days of a daily response that are outside the stored history.
+     * Newer days are appended; older days make the file be rewritten with them in
+     * front. Responses fetched elsewhere (search, recurring investments) can be
+     * passed here so their data is kept.
+     *
+     * @param symbol   The stock symbol of the response
+     * @param response A daily time series response
+     * @return The number of days added
+     * @throws IOException If the price file cannot be written
+     */
+    public int ingest(String symbol, TimeSeriesResponse response) throws IOException {
+        if (response == null || response.getErrorMessage() != null || response.getStockUnits() == null) {
+            return 0;
+        }
+        List<DailyBar> bars = new ArrayList<>();
+        for (StockUnit unit : response.getStockUnits()) {
+            long day = epochDay(unit);
+            if (day == Long.MIN_VALUE) continue; // Unreadable date
+            bars.add(new DailyBar((int) day, unit.getOpen(), unit.getHigh(), unit.getLow(),
+                    unit.getClose(), unit.getVolume()));
+        }
+        return ingest(symbol, bars);
+    }
+
+    /**
+     * Adds the days outside the stored history, as read from a daily response.
+     *
+     * @param symbol The stock symbol
+     * @param bars   The days of the response, in any order
+     * @return The number of days added
+     * @throws IOException If the price file cannot be written
+     */
+    synchronized int ingest(String symbol, List<DailyBar> bars) throws IOException {
+        String key = normalize(symbol);
+        PriceSeries current = getSeries(key);
+        long firstDay = current.isEmpty() ? Long.MAX_VALUE : current.getEpochDay(0);
+        long lastDay = current.isEmpty() ? Long.MIN_VALUE : current.getEpochDay(current.size() - 1);
+
+        // Keeps only the days outside the stored range, oldest first
+        List<DailyBar> older = new ArrayList<>();
+        List<DailyBar> newer = new ArrayList<>();
+        for (DailyBar bar : bars) {
+            if (bar.epochDay > lastDay) {
+                newer.add(bar);
+            } else if (bar.epochDay < firstDay) {
+                older.add(bar);
+            }
+        }
+        if (older.isEmpty() && newer.isEmpty()) {
+            return 0;
+        }
+        older.sort(Comparator.comparingInt(bar -> bar.epochDay));
+        newer.sort(Comparator.comparingInt(bar -> bar.epochDay));
+
+        if (older.isEmpty()) {
+            append(key, current.size(), newer);
+        } else {
+            rewrite(key, older, current, newer);
+        }
+        cache.put(key, map(key)); // Remap to expose the new days
+        return older.size() + newer.size();
+    }
+
+    /**
+     * Marks the stored history of a symbol as complete in its file header.
+     *
+     * @param symbol The normalized symbol
+     * @throws IOException If the file cannot be written
+     */
+    synchronized void markComplete(String symbol) throws IOException {
+        PriceSeries current = getSeries(symbol);
+        if (current.isEmpty() || current.isComplete()) return; // No file, or nothing to change
+        try (FileChannel channel = FileChannel.open(fileFor(symbol), StandardOpenOption.WRITE)) {
+            ByteBuffer flags = ByteBuffer.allocate(4).putInt(PriceSeries.FLAG_COMPLETE).flip();
+            channel.write(flags, PriceSeries.FLAGS_OFFSET);
+            channel.force(false);
+        }
+        cache.put(symbol, map(symbol));
+    }
+
+    /**
+     * Writes new records at the end of a price file, then publishes them in the header.
+     * Readers only see records covered by the header count, so an interrupted write
+     * never exposes a partial record.
+     *
+     * @param symbol        The normalized symbol
+     * @param existingCount The number of records already stored
+     * @param units         The new days, oldest first
+     * @throws IOException If the file cannot be written
+     */
+    private void append(String symbol, int existingCount, List<DailyBar> units) throws IOException {
+        Files.createDirectories(directory);
+        try (FileChannel channel = FileChannel.open(fileFor(symbol),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (existingCount == 0) {
+                ByteBuffer header = ByteBuffer.allocate(PriceSeries.HEADER_BYTES).order(ByteOrder.BIG_ENDIAN);
+                header.putInt(PriceSeries.MAGIC).putInt(PriceSeries.VERSION).putInt(0).putInt(0).flip();
+                channel.truncate(0);
+                channel.write(header, 0);
+            }
+
+            ByteBuffer records = ByteBuffer.allocate(units.size() * PriceSeries.RECORD_BYTES);
+            for (DailyBar unit : units) {
+                putRecord(records, unit);
+            }
+            records.flip();
+            long position = PriceSeries.HEADER_BYTES + (long) existingCount * PriceSeries.RECORD_BYTES;
+            while (records.hasRemaining()) {
+                position += channel.write(records, position);
+            }
+            channel.force(false); // Records are durable before the count points at them
+
+            ByteBuffer count = ByteBuffer.allocate(4).putInt(existingCount + units.size()).flip();
+            channel.write(count, PriceSeries.COUNT_OFFSET);
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Writes a whole price file with older days in front of the stored ones, then
+     * moves it over the current file. Series mapped from the former file keep
+     * reading it, so readers never see a half-written file.
+     *
+     * @param symbol  The normalized symbol
+     * @param older   The days before the stored history, oldest first
+     * @param current The stored history
+     * @param newer   The days after the stored history, oldest first
+     * @throws IOException If the file cannot be written
+     */
+    private void rewrite(String symbol, List<DailyBar> older, PriceSeries current,
+                         List<DailyBar> newer) throws IOException {
+        int count = older.size() + current.size() + newer.size();
+        ByteBuffer content = ByteBuffer.allocate(PriceSeries.HEADER_BYTES + count * PriceSeries.RECORD_BYTES)
+                .order(ByteOrder.BIG_ENDIAN);
+        int flags = current.isComplete() ? PriceSeries.FLAG_COMPLETE : 0; // Kept across the rewrite
+        content.putInt(PriceSeries.MAGIC).putInt(PriceSeries.VERSION).putInt(count).putInt(flags);
+        for (DailyBar unit : older) {
+            putRecord(content, unit);
+        }
+        for (int i = 0; i < current.size(); i++) {
+            content.putInt(current.getEpochDay(i))
+                    .putDouble(current.getOpen(i))
+                    .putDouble(current.getHigh(i))
+                    .putDouble(current.getLow(i))
+                    .putDouble(current.getClose(i))
+                    .putLong(current.getVolume(i));
+        }
+        for (DailyBar unit : newer) {
+            putRecord(content, unit);
+        }
+        content.flip();
+
+        Files.createDirectories(directory);
+        Path file = fileFor(symbol);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+            channel.force(false);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Writes one daily record.
+     *
+     * @param buffer The buffer positioned at the record
+     * @param bar    The day to write
+     */
+    private static void putRecord(ByteBuffer buffer, DailyBar bar) {
+        buffer.putInt(bar.epochDay)
+                .putDouble(bar.open)
+                .putDouble(bar.high)
+                .putDouble(bar.low)
+                .putDouble(bar.close)
+                .putLong(bar.volume);
+    }
+
+    /**
+     * Memory-maps the price file of a symbol.
+     * Missing, foreign or damaged files are treated as an empty history.
+     *
+     * @param symbol The normalized symbol
+     * @return The mapped series
+     */
+    private PriceSeries map(String symbol) {
+        Path file = fileFor(symbol);
+        if (!Files.exists(file)) {
+            return PriceSeries.empty(symbol);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < PriceSeries.HEADER_BYTES) {
+                return PriceSeries.empty(symbol);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length); // Stays valid after close
+            if (buffer.getInt(0) != PriceSeries.MAGIC || buffer.getInt(4) != PriceSeries.VERSION) {
+                System.err.println("Ignoring unknown price file format: " + file);
+                return PriceSeries.empty(symbol);
+            }
+            int count = buffer.getInt(PriceSeries.COUNT_OFFSET);
+            long available = (length - PriceSeries.HEADER_BYTES) / PriceSeries.RECORD_BYTES;
+            return new PriceSeries(symbol, buffer, (int) Math.min(count, available));
+        } catch (IOException e) {
+            System.err.println("Error reading prices for " + symbol + ": " + e.getMessage());
+            return PriceSeries.empty(symbol);
+        }
+    }
+
+    /**
+     * Checks whether a refresh can be skipped.
+     * A series is current once it holds today's close, or once it was already
+     * refreshed today (the missing days are weekends, holidays or not yet closed).
+     *
+     * @param symbol The normalized symbol
+     * @param series The stored series
+     * @param today  The current date
+     * @return true if no download is needed
+     */
+    private boolean isCurrent(String symbol, PriceSeries series, LocalDate today) {
+        if (series.isEmpty()) return false;
+        return !series.getLastDate().isBefore(today) || today.equals(checkedOn.get(symbol));
+    }
+
+    /**
+     * Checks whether the stored prices start after a requested day.
+     * Series marked complete have nothing older to fetch.
+     *
+     * @param symbol The normalized symbol
+     * @param series The stored series
+     * @param from   The first day needed, or null
+     * @return true if older days have to be downloaded
+     */
+    private boolean needsBackfill(String symbol, PriceSeries series, LocalDate from) {
+        if (from == null || series.isEmpty() || series.isComplete()) return false;
+        return series.getDate(0).isAfter(from);
+    }
+
+    /**
+     * Gets the file storing the prices of a symbol.
+     *
+     * @param symbol The normalized symbol
+     * @return The path of the price file
+     */
+    private Path fileFor(String symbol) {
+        return directory.resolve(symbol.replaceAll("[^A-Z0-9.\\-]", "_") + ".prices");
+    }
+
+    /**
+     * Normalizes a symbol for use as cache key and file name.
+     *
+     * @param symbol The symbol as typed or stored
+     * @return The trimmed, upper-case symbol
+     */
+    private static String normalize(String symbol) {
+        return symbol.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Converts the date of a stock unit to an epoch day.
+     *
+     * @param unit The stock unit
+     * @return The epoch day, or Long.MIN_VALUE if the date cannot be parsed
+     */
+    private static long epochDay(StockUnit unit) {
+        try {
+            return LocalDate.parse(unit.getDate().substring(0, 10)).toEpochDay();
+        } catch (DateTimeParseException | NullPointerException | IndexOutOfBoundsException e) {
+            return Long.MIN_VALUE; // Skipped when ingesting
+        }
+    }
+
+    /**
+     * One day of prices as read from a response, before it is stored.
+     */
+    static final class DailyBar {
+        final int epochDay; // Days since 1970-01-01
+        final double open; // Opening price
+        final double high; // Highest price
+        final double low; // Lowest price
+        final double close; // Closing price
+        final long volume; // Traded volume
+
+        DailyBar(int epochDay, double open, double high, double low, double close, long volume) {
+            this.epochDay = epochDay;
+            this.open = open;
+            this.high = high;
+            this.low = low;
+            this.close = close;
+            this.volume = volume;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package investify.service;
+
+import com.crazzyghost.alphavantage.parameters.OutputSize;
+import com.crazzyghost.alphavantage.timeseries.response.TimeSeriesResponse;
+import investify.model.ExecutionReport;
+import investify.model.Transaction;
+import shared.RecurringInvestment;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Executes a batch of due recurring investments.
+ * <p>
+ * The executor prices every distinct symbol only once, with all price requests
+ * submitted to the {@link AlphaVantageScheduler} at the same time so they run
+ * concurrently on its virtual-thread workers within the rate limit. The resulting
+ * buy transactions are committed in one atomic batch write, and the outcome of
+ * every investment is collected in an {@link ExecutionReport}.
+ */
+public class RecurringInvestmentExecutor {
+    private final AlphaVantageScheduler apiScheduler; // Rate-limited access to AlphaVantage
+    private final TransactionService transactionService; // Persists the resulting transactions
+    private final PriceHistoryStore priceHistoryStore; // Keeps the downloaded daily prices
+
+    /**
+     * Constructs a new executor with the services it depends on.
+     *
+     * @param apiScheduler       The scheduler used for all price requests
+     * @param transactionService The service used to persist the buy transactions
+     * @param priceHistoryStore  The store receiving the downloaded daily prices
+     */
+    public RecurringInvestmentExecutor(AlphaVantageScheduler apiScheduler, TransactionService transactionService,
+                                       PriceHistoryStore priceHistoryStore) {
+        this.apiScheduler = apiScheduler;
+        this.transactionService = transactionService;
+        this.priceHistoryStore = priceHistoryStore;
+    }
+
+    /**
+     * Executes the given investments and reports the outcome of each one.
+     *
+     * @param dueInvestments The investments due on the run date
+     * @param runDate        The date the run is executed for
+     * @return A report with one entry per investment
+     */
+    public ExecutionReport execute(List<RecurringInvestment> dueInvestments, LocalDate runDate) {
+        ExecutionReport report = new ExecutionReport(runDate);
+        if (dueInvestments.isEmpty()) {
+            return report;
+        }
+
+        // Submits one price request per distinct symbol, all at once
+        Map<String, CompletableFuture<TimeSeriesResponse>> pending = new LinkedHashMap<>();
+        for (RecurringInvestment investment : dueInvestments) {
+            pending.computeIfAbsent(investment.getSymbol(), symbol ->
+                    apiScheduler.fetchDailyAsync(symbol, OutputSize.COMPACT, AlphaVantageScheduler.Priority.BACKGROUND));
+        }
+        report.setPriceRequests(pending.size());
+
+        // Waits for every price, keeping the failure reason per symbol
+        Map<String, Double> prices = new LinkedHashMap<>();
+        Map<String, String> priceErrors = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<TimeSeriesResponse>> entry : pending.entrySet()) {
+            String symbol = entry.getKey();
+            try {
+                TimeSeriesResponse response = entry.getValue().get();
+                if (response.getErrorMessage() != null) {
+                    priceErrors.put(symbol, "API error: " + response.getErrorMessage());
+                    continue;
+                }
+                storeHistory(symbol, response);
+                double price = response.getStockUnits().stream()
+                        .findFirst()
+                        .map(unit -> unit.getClose())
+                        .orElse(0.0);
+                if (price > 0) {
+                    prices.put(symbol, price);
+                } else {
+                    priceErrors.put(symbol, "Could not get valid price for " + symbol);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                priceErrors.put(symbol, "Interrupted while fetching price");
+            } catch (ExecutionException e) {
+                priceErrors.put(symbol, "Error fetching price: " + e.getCause().getMessage());
+            }
+        }
+
+        // Builds the buy transactions, integer division intentionally truncates fractional shares
+        List<Transaction> batch = new ArrayList<>();
+        List<RecurringInvestment> batchInvestments = new ArrayList<>();
+        for (RecurringInvestment investment : dueInvestments) {
+            String symbol = investment.getSymbol();
+            Double price = prices.get(symbol);
+            if (price == null) {
+                report.addEntry(new ExecutionReport.Entry(investment.getName(), symbol,
+                        ExecutionReport.Status.FAILED, 0, 0.0, priceErrors.get(symbol)));
+                continue;
+            }
+
+            int quantity = (int) (investment.getAmount() / price);
+            if (quantity > 0) {
+                batch.add(new Transaction("Buy", symbol, quantity, price, runDate));
+                batchInvestments.add(investment);
+            } else {
+                report.addEntry(new ExecutionReport.Entry(investment.getName(), symbol,
+                        ExecutionReport.Status.SKIPPED, 0, price,
+                        "Investment amount too small to purchase shares of " + symbol));
+            }
+        }
+
+        // Commits every buy of the run at once, so a failure leaves no partial run behind
+        String saveError = null;
+        try {
+            transactionService.saveTransactions(batch);
+        } catch (Exception e) {
+            saveError = "Error saving transactions: " + e.getMessage();
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            RecurringInvestment investment = batchInvestments.get(i);
+            Transaction transaction = batch.get(i);
+            report.addEntry(new ExecutionReport.Entry(investment.getName(), transaction.getSymbol(),
+                    saveError == null ? ExecutionReport.Status.EXECUTED : ExecutionReport.Status.FAILED,
+                    saveError == null ? transaction.getQuantity() : 0, transaction.getPrice(), saveError));
+        }
+
+        return report;
+    }
+
+    /**
+     * Keeps the daily prices of a response in the price history store.
+     * A storage failure does not affect the investment run.
+     *
+     * @param symbol   The stock symbol of the response
+     * @param response The daily time series response
+     */
+    private void storeHistory(String symbol, TimeSeriesResponse response) {
+        try {
+            priceHistoryStore.ingest(symbol, response);
+        } catch (Exception e) {
+            System.err.println("Error storing price history for " + symbol + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package investify.service;
+
+import investify.model.ExecutionReport;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs recurring investments automatically when they are due.
+ * <p>
+ * Instead of checking every day whether something has to run, the scheduler asks the
+ * {@link RecurringInvestmentService} for the nearest next occurrence of any investment
+ * and sleeps until that day. A first run right after start catches up on occurrences
+ * missed while the application was closed. Runs happen on a background thread, never
+ * on the EDT; listeners are notified on that thread with the report of each run.
+ * <p>
+ * The sleep is capped so investments added in the Finance application are picked up
+ * without a restart, and a run with failed purchases is retried after a short delay.
+ */
+public class RecurringInvestmentScheduler {
+
+    /** Time of day at which occurrences are executed */
+    private static final LocalTime RUN_TIME = LocalTime.of(0, 5);
+
+    /** Longest sleep before the investments are read again */
+    private static final Duration MAX_SLEEP = Duration.ofHours(6);
+
+    /** Delay before failed purchases are retried */
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(15);
+
+    private final RecurringInvestmentService service; // Computes and executes due occurrences
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "recurring-investments");
+        thread.setDaemon(true); // Never keeps the application alive
+        return thread;
+    });
+    private final List<Consumer<ExecutionReport>> listeners = new CopyOnWriteArrayList<>(); // Notified after each run
+    private ScheduledFuture<?> nextRun; // Pending run, guarded by this scheduler's monitor
+
+    /**
+     * Creates a scheduler for the given service. Call {@link #start()} to begin.
+     *
+     * @param service The service executing the recurring investments
+     */
+    public RecurringInvestmentScheduler(RecurringInvestmentService service) {
+        this.service = service;
+    }
+
+    /**
+     * Registers a listener notified with the report of every run.
+     * Listeners are called on the scheduler thread.
+     *
+     * @param listener The listener to add
+     */
+    public void addListener(Consumer<ExecutionReport> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Starts the scheduler with an immediate run that catches up on missed occurrences.
+     */
+    public void start() {
+        runNow();
+    }
+
+    /**
+     * Runs due occurrences now and plans the next run from the result.
+     * Used after the recurring investments changed.
+     */
+    public synchronized void runNow() {
+        schedule(Duration.ZERO);
+    }
+
+    /**
+     * Stops the scheduler. A run in progress is allowed to finish.
+     */
+    public void stop() {
+        timer.shutdown();
+    }
+
+    /**
+     * Replaces the pending run with one after the given delay.
+     *
+     * @param delay The delay before the run
+     */
+    private synchronized void schedule(Duration delay) {
+        if (nextRun != null) {
+            nextRun.cancel(false); // The new run supersedes the pending one
+        }
+        nextRun = timer.schedule(this::run, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Executes the due occurrences, notifies the listeners and plans the next run.
+     */
+    private void run() {
+        boolean failed = false;
+        try {
+            ExecutionReport report = service.executeRecurringInvestments();
+            failed = report.getFailedCount() > 0;
+            for (Consumer<ExecutionReport> listener : listeners) {
+                listener.accept(report);
+            }
+        } catch (Exception e) {
+            System.err.println("Error executing recurring investments: " + e.getMessage());
+            failed = true;
+        }
+        schedule(nextDelay(failed));
+    }
+
+    /**
+     * Computes the time until the next run.
+     *
+     * @param failed Whether the last run had failed purchases
+     * @return The delay until the nearest occurrence, capped by the sleep limits
+     */
+    private Duration nextDelay(boolean failed) {
+        LocalDateTime now = LocalDateTime.now();
+        Duration delay = MAX_SLEEP;
+        LocalDate next = service.nextOccurrenceAfter(now.toLocalDate());
+        if (next != null) {
+            Duration untilNext = Duration.between(now, next.atTime(RUN_TIME));
+            if (untilNext.compareTo(delay) < 0) {
+                delay = untilNext.isNegative() ? Duration.ZERO : untilNext;
+            }
+        }
+        if (failed && RETRY_DELAY.compareTo(delay) < 0) {
+            delay = RETRY_DELAY;
+        }
+        return delay;
+    }
+}
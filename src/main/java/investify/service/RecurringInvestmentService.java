@@ -1,12 +1,14 @@
 package investify.service;
 
-import com.crazzyghost.alphavantage.AlphaVantage;
-import com.crazzyghost.alphavantage.parameters.OutputSize;
-import com.crazzyghost.alphavantage.timeseries.response.TimeSeriesResponse;
 import investify.app.Investify;
+import investify.model.ExecutionReport;
+import shared.Recurrence;
 import shared.RecurringInvestment;
 
 import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -32,6 +34,32 @@ public class RecurringInvestmentService {
      */
     private final Investify app;
 
+    /**
+     * Executor that prices and commits each batch of due investments
+     */
+    private final RecurringInvestmentExecutor executor;
+
+    /**
+     * Record of every execution, opened on first use
+     */
+    private ExecutionHistoryStore history;
+
+    /**
+     * Reason the execution history could not be opened, null once it is open
+     */
+    private String historyError;
+
+    /**
+     * Maximum number of missed occurrences of one investment caught up in a run
+     */
+    public static final int MAX_CATCH_UP_RUNS = 12;
+
+    /**
+     * Markets are closed on weekends: daily investments skip them, others move to a
+     * weekday within the same month
+     */
+    private static final Recurrence.BusinessDayRule BUSINESS_DAY_RULE = Recurrence.BusinessDayRule.MODIFIED_FOLLOWING;
+
     /**
      * Constructs a new RecurringInvestmentService with a reference to the main application.
      *
@@ -39,6 +67,8 @@ public class RecurringInvestmentService {
      */
     public RecurringInvestmentService(Investify app) {
         this.app = app;
+        this.executor = new RecurringInvestmentExecutor(app.getApiScheduler(), app.getTransactionService(),
+                app.getPriceHistoryStore());
     }
 
     /**
@@ -68,169 +98,141 @@ public class RecurringInvestmentService {
     }
 
     /**
-     * Executes all recurring investments that are due today.
+     * Executes every recurring investment occurrence that is due and not executed yet.
      * <p>
-     * This method checks all imported investments against their schedules
-     * and executes those that should run today. It maintains an execution
-     * history to prevent duplicate executions on the same day.
+     * Occurrences missed while the application was not running are caught up, up to
+     * {@link #MAX_CATCH_UP_RUNS} per investment, and all of them are executed as a
+     * single batch. An investment without any record starts with today's occurrence:
+     * its start date may lie long before it was first seen here, and those past
+     * occurrences would all be bought at today's price. Every execution is appended to
+     * the execution history, which knows the last executed occurrence of each investment
+     * to prevent duplicates; failed executions do not count as executed, so the next run
+     * retries them. If the history cannot be read, or no API key is set yet, nothing is
+     * bought and nothing is recorded; an unreadable history is reported as such, not as
+     * a run without due investments. Runs are serialized, so a manual run and a
+     * scheduled run never buy the same occurrence twice.
      *
-     * @return The number of investments successfully executed
+     * @return A report describing the outcome of every occurrence executed
      */
-    public int executeRecurringInvestments() {
-        int executedCount = 0;  // Initialize counter for executed investments
+    public synchronized ExecutionReport executeRecurringInvestments() {
         List<RecurringInvestment> investments = importRecurringInvestments();  // Import all recurring investments
         LocalDate today = LocalDate.now();  // Get current date
+        if (!app.isApiInitialized()) {
+            return new ExecutionReport(today);  // Prices cannot be fetched, the occurrences stay due
+        }
 
-        Map<String, LocalDate> executionHistory = loadExecutionHistory();  // Load previous execution history
+        ExecutionHistoryStore executionHistory = openHistory();  // Previous executions
+        if (executionHistory == null) {
+            ExecutionReport aborted = new ExecutionReport(today);  // Never buy without knowing what already ran
+            aborted.setHistoryError(historyError);
+            return aborted;
+        }
 
+        List<RecurringInvestment> dueInvestments = new ArrayList<>();  // One entry per occurrence to run in this batch
+        Map<String, Deque<LocalDate>> dueOccurrences = new HashMap<>();  // Occurrences run per investment, oldest first
         for (RecurringInvestment investment : investments) {  // Process each investment
-            String key = investment.getSymbol() + "-" + investment.getName();  // Create unique key for tracking
-            if (shouldExecuteToday(investment, today)) {  // Check if investment should execute today
-                LocalDate lastExecution = executionHistory.get(key);  // Get last execution date
-                if (lastExecution == null || !lastExecution.equals(today)) {  // Only execute if not already done today
-                    executeSingleInvestment(investment);  // Execute the investment
-                    executedCount++;  // Increment success counter
-                    executionHistory.put(key, today);  // Record execution in history
-                }
+            String key = historyKey(investment.getSymbol(), investment.getName());
+            LocalDate after = executionHistory.getLastExecuted(key);  // Get last executed occurrence
+            if (after == null) {
+                LocalDate firstRecorded = executionHistory.getFirstRecorded(key);  // Failed occurrences are still retried
+                after = (firstRecorded != null && firstRecorded.isBefore(today) ? firstRecorded : today).minusDays(1);
+            }
+            List<LocalDate> missed = dueOccurrences(investment, after, today);
+            for (LocalDate occurrence : missed) {
+                dueInvestments.add(investment);  // Each missed occurrence buys once
+            }
+            if (!missed.isEmpty()) {
+                dueOccurrences.put(key, new ArrayDeque<>(missed));
+            }
+        }
+
+        ExecutionReport report = executor.execute(dueInvestments, today);  // Price, buy and commit the whole batch
+        for (ExecutionReport.Entry entry : report.getEntries()) {
+            String key = historyKey(entry.getSymbol(), entry.getName());
+            Deque<LocalDate> occurrences = dueOccurrences.get(key);
+            LocalDate occurrence = occurrences != null && !occurrences.isEmpty() ? occurrences.poll() : today;
+            try {
+                executionHistory.append(key, occurrence, entry.getStatus(), entry.getQuantity(), entry.getPrice());  // One audit record per execution
+            } catch (IOException e) {
+                System.err.println("Error saving execution history: " + e.getMessage());
             }
         }
-        saveExecutionHistory(executionHistory);  // Save updated execution history
-        return executedCount;  // Return number of executions
+        return report;  // Return the outcome of the run
     }
 
     /**
-     * Determines if a recurring investment should be executed today based on its schedule.
-     * <p>
-     * This method checks the investment's frequency (daily, weekly, monthly, yearly)
-     * against the current date to determine if execution is due.
+     * Finds the earliest occurrence of any recurring investment after a date.
+     * Used by the scheduler to sleep until the next run.
      *
-     * @param investment The recurring investment to evaluate
-     * @param today      The current date
-     * @return true if the investment should execute today, false otherwise
+     * @param date The date after which to search
+     * @return The earliest next occurrence, or null if no investment will run again
      */
-    private boolean shouldExecuteToday(RecurringInvestment investment, LocalDate today) {
-        LocalDate startDate = investment.getStartDate();  // Get the start date of the investment
-        if (startDate.isAfter(today)) return false;  // Don't execute if start date is in the future
-        long days = java.time.temporal.ChronoUnit.DAYS.between(startDate, today);  // Calculate days since start
-        String freq = investment.getFrequency().toUpperCase();  // Get frequency in uppercase for comparison
-        switch (freq) {  // Check each frequency type
-            case "DAILY":
-                return true;  // Daily investments execute every day
-            case "WEEKLY":
-                return days % 7 == 0;  // Weekly investments execute every 7 days
-            case "MONTHLY":
-                return startDate.getDayOfMonth() == today.getDayOfMonth();  // Monthly on same day of month
-            case "YEARLY":
-                return startDate.getDayOfYear() == today.getDayOfYear();  // Yearly on same day of year
-            default:
-                return false;  // Unknown frequency does not execute
+    public LocalDate nextOccurrenceAfter(LocalDate date) {
+        LocalDate earliest = null;
+        for (RecurringInvestment investment : importRecurringInvestments()) {
+            LocalDate next = nextOccurrence(investment, date);
+            if (next != null && (earliest == null || next.isBefore(earliest))) {
+                earliest = next;
+            }
         }
+        return earliest;
     }
 
     /**
-     * Executes a single recurring investment by purchasing shares based on current price.
+     * Builds the key identifying a recurring investment in the execution history.
      *
-     * @param investment The recurring investment to execute
+     * @param symbol The stock symbol of the investment
+     * @param name   The name of the investment
+     * @return The history key
      */
-    private void executeSingleInvestment(RecurringInvestment investment) {
-        // Extract the stock symbol from the investment object
-        String symbol = investment.getSymbol();
-
-        try {
-            // Query AlphaVantage API to get current market data for the stock
-            // Using synchronous request to fetch daily time series with compact output
-            TimeSeriesResponse response = AlphaVantage.api()
-                    .timeSeries()
-                    .daily()
-                    .forSymbol(symbol)
-                    .outputSize(OutputSize.COMPACT)
-                    .fetchSync();
-
-            // Check if the API returned an error message
-            if (response.getErrorMessage() != null) {
-                System.err.println("API error: " + response.getErrorMessage());
-                return; // Exit method if API returned an error
-            }
-
-            // Extract the most recent closing price from the time series data
-            // Using Java streams to find first stock unit and get its close price
-            // Defaults to 0.0 if no data is available
-            double currentPrice = response.getStockUnits().stream()
-                    .findFirst()
-                    .map(unit -> unit.getClose())
-                    .orElse(0.0);
-
-            // Validate that we received a positive price value
-            if (currentPrice <= 0) {
-                System.err.println("Could not get valid price for " + symbol);
-                return; // Exit if price is invalid
-            }
-
-            // Get configured investment amount and calculate shares to purchase
-            // Integer division intentionally truncates fractional shares
-            double amount = investment.getAmount();
-            int quantity = (int) (amount / currentPrice);
-
-            // Only proceed if we can purchase at least one full share
-            if (quantity > 0) {
-                // Record the buy transaction in the system using transaction service
-                app.getTransactionService().saveTransaction("Buy", symbol, quantity, currentPrice);
-                // Log successful investment execution with details
-                System.out.println("Executed recurring investment: " + quantity +
-                        " shares of " + symbol + " at " + currentPrice +
-                        " (total: " + (quantity * currentPrice) + ")");
-            } else {
-                javax.swing.JOptionPane.showMessageDialog(
-                        null,
-                        "Investment amount too small to purchase shares of " + symbol,
-                        "Investment Warning",
-                        javax.swing.JOptionPane.WARNING_MESSAGE
-                );
-            }
+    private String historyKey(String symbol, String name) {
+        return symbol + "-" + name;
+    }
 
-        } catch (Exception e) {
-            javax.swing.JOptionPane.showMessageDialog(
-                    null,
-                    "Error executing investment for " + symbol + ": " + e.getMessage(),
-                    "Investment Error",
-                    javax.swing.JOptionPane.ERROR_MESSAGE
-            );
-        }
+    /**
+     * Lists the occurrences of an investment that are due and not executed yet.
+     *
+     * @param investment The recurring investment to evaluate
+     * @param after      The day after which occurrences are due, the last executed one if any
+     * @param today      The current date
+     * @return The due occurrences, oldest first, at most {@link #MAX_CATCH_UP_RUNS}
+     */
+    private List<LocalDate> dueOccurrences(RecurringInvestment investment, LocalDate after, LocalDate today) {
+        Recurrence recurrence = Recurrence.of(investment, BUSINESS_DAY_RULE);
+        if (recurrence == null) return new ArrayList<>();  // Unknown frequency does not execute
+        return recurrence.between(after, today, MAX_CATCH_UP_RUNS);  // Only the most recent ones
     }
 
     /**
-     * Loads the execution history from persistent storage.
-     * <p>
-     * The execution history tracks which investments were already
-     * executed on which dates to prevent duplicate executions.
+     * Computes the first occurrence of an investment strictly after a date.
      *
-     * @return A map of investment keys to their last execution dates
+     * @param investment The recurring investment
+     * @param date       The date after which to search
+     * @return The next occurrence, or null for an unknown frequency
      */
-    private Map<String, LocalDate> loadExecutionHistory() {
-        String path = Paths.get(System.getProperty("user.home"), "investifyExecutionHistory.dat").toString();  // Build path to history file
-        File file = new File(path);  // Create file object
-        if (!file.exists()) return new HashMap<>();  // Return empty map if file doesn't exist
-        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {  // Open input stream with automatic resource management
-            return (Map<String, LocalDate>) in.readObject();  // Read and return the execution history map
-        } catch (Exception e) {
-            return new HashMap<>();  // Return empty map on error
-        }
+    private LocalDate nextOccurrence(RecurringInvestment investment, LocalDate date) {
+        Recurrence recurrence = Recurrence.of(investment, BUSINESS_DAY_RULE);
+        return recurrence == null ? null : recurrence.nextAfter(date);
     }
 
     /**
-     * Saves the execution history to persistent storage.
-     * <p>
-     * This method serializes the execution history map to a file
-     * to maintain state between application runs.
+     * Opens the execution history on first use.
+     * If it cannot be opened, the reason is kept in {@link #historyError}.
      *
-     * @param history The execution history map to save
+     * @return The execution history, or null if it cannot be opened
      */
-    private void saveExecutionHistory(Map<String, LocalDate> history) {
-        String path = Paths.get(System.getProperty("user.home"), "investifyExecutionHistory.dat").toString();  // Build path to history file
-        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(path))) {  // Open output stream with automatic resource management
-            out.writeObject(history);  // Write the execution history map to the file
-        } catch (Exception e) {
-            System.err.println("Error saving execution history: " + e.getMessage());
+    private ExecutionHistoryStore openHistory() {
+        if (history == null) {
+            String home = System.getProperty("user.home");
+            try {
+                history = new ExecutionHistoryStore(Paths.get(home, "investifyExecutionHistory.bin"),
+                        Paths.get(home, "investifyExecutionHistory.dat"));  // Migrates the serialized history once
+                historyError = null;
+            } catch (IOException e) {
+                historyError = e.getMessage();  // Reported with the run, retried on the next one
+                System.err.println("Error opening execution history: " + e.getMessage());
+            }
         }
+        return history;
     }
 }
@@ -0,0 +1,303 @@
+package investify.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Local, prefix-searchable index of stock symbols and company names.
+ * <p>
+ * The index is loaded once from a bundled listing file in the AlphaVantage
+ * LISTING_STATUS CSV format (only the symbol and name columns are required,
+ * exchange and status are used when present). Symbols and the words of each
+ * company name are kept in sorted arrays, so a prefix query is a binary search
+ * followed by a short scan, fast enough to run on every keystroke.
+ * <p>
+ * The bundled listing is a subset of all listed symbols, so the index serves
+ * suggestions only; a symbol missing from it may still exist. Searches are checked
+ * with {@link #isValidSymbol(String)} instead, a syntax check needing no listing.
+ */
+public class SymbolIndex {
+
+    /** Syntax of a ticker symbol in upper case */
+    private static final Pattern SYMBOL_SYNTAX = Pattern.compile("[A-Z0-9.\\-]{1,10}");
+
+    /** Classpath location of the bundled listing file */
+    public static final String BUNDLED_LISTING = "/investify/data/listing_status.csv";
+
+    /** Sorted, upper-case symbols */
+    private final String[] symbols;
+
+    /** Listing for each entry of {@link #symbols}, same order */
+    private final Listing[] listings;
+
+    /** Sorted, lower-case words of every company name */
+    private final String[] nameTokens;
+
+    /** Index into {@link #listings} for each entry of {@link #nameTokens} */
+    private final int[] nameTokenOwners;
+
+    /**
+     * A listed security as read from the listing file.
+     */
+    public static class Listing {
+        private final String symbol; // Upper-case ticker symbol
+        private final String name; // Company or fund name
+        private final String exchange; // Exchange the symbol trades on, may be empty
+
+        /**
+         * Creates a listing.
+         *
+         * @param symbol   The ticker symbol
+         * @param name     The company or fund name
+         * @param exchange The exchange, or an empty string if unknown
+         */
+        public Listing(String symbol, String name, String exchange) {
+            this.symbol = symbol;
+            this.name = name;
+            this.exchange = exchange;
+        }
+
+        /** @return The ticker symbol */
+        public String getSymbol() { return symbol; }
+
+        /** @return The company or fund name */
+        public String getName() { return name; }
+
+        /** @return The exchange, or an empty string if unknown */
+        public String getExchange() { return exchange; }
+
+        @Override
+        public String toString() {
+            return symbol + " - " + name; // Used directly by list renderers
+        }
+    }
+
+    /**
+     * Builds an index over the given listings.
+     * Duplicate symbols keep their first listing.
+     *
+     * @param source The listings to index
+     */
+    public SymbolIndex(List<Listing> source) {
+        // Sorts listings by symbol and removes duplicates
+        List<Listing> sorted = new ArrayList<>(source);
+        sorted.sort((a, b) -> a.getSymbol().compareTo(b.getSymbol()));
+        List<Listing> unique = new ArrayList<>(sorted.size());
+        for (Listing listing : sorted) {
+            if (unique.isEmpty() || !unique.get(unique.size() - 1).getSymbol().equals(listing.getSymbol())) {
+                unique.add(listing);
+            }
+        }
+
+        listings = unique.toArray(new Listing[0]);
+        symbols = new String[listings.length];
+        for (int i = 0; i < listings.length; i++) {
+            symbols[i] = listings[i].getSymbol();
+        }
+
+        // Collects every word of every name, encoded with its owner for sorting
+        List<String> tokens = new ArrayList<>();
+        List<Integer> owners = new ArrayList<>();
+        for (int i = 0; i < listings.length; i++) {
+            for (String word : listings[i].getName().toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}&.']+")) {
+                if (!word.isEmpty()) {
+                    tokens.add(word);
+                    owners.add(i);
+                }
+            }
+        }
+        Integer[] order = new Integer[tokens.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> tokens.get(a).compareTo(tokens.get(b)));
+
+        nameTokens = new String[order.length];
+        nameTokenOwners = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            nameTokens[i] = tokens.get(order[i]);
+            nameTokenOwners[i] = owners.get(order[i]);
+        }
+    }
+
+    /**
+     * Loads the index from the listing file bundled with the application.
+     * An empty index is returned if the file is missing or unreadable.
+     *
+     * @return The loaded index
+     */
+    public static SymbolIndex loadBundled() {
+        try (InputStream in = SymbolIndex.class.getResourceAsStream(BUNDLED_LISTING)) {
+            if (in == null) {
+                System.err.println("Symbol listing not found: " + BUNDLED_LISTING);
+                return new SymbolIndex(Collections.emptyList());
+            }
+            return new SymbolIndex(readListings(in));
+        } catch (IOException e) {
+            System.err.println("Error loading symbol listing: " + e.getMessage());
+            return new SymbolIndex(Collections.emptyList());
+        }
+    }
+
+    /**
+     * Reads active listings from a LISTING_STATUS style CSV stream.
+     *
+     * @param in The CSV stream, with a header row
+     * @return The active listings found in the stream
+     * @throws IOException If the stream cannot be read
+     */
+    static List<Listing> readListings(InputStream in) throws IOException {
+        List<Listing> result = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        String header = reader.readLine();
+        if (header == null) return result;
+        List<String> columns = Arrays.asList(splitCsvLine(header));
+        int symbolColumn = columns.indexOf("symbol");
+        int nameColumn = columns.indexOf("name");
+        int exchangeColumn = columns.indexOf("exchange");
+        int statusColumn = columns.indexOf("status");
+        if (symbolColumn < 0 || nameColumn < 0) {
+            throw new IOException("Listing file needs symbol and name columns");
+        }
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] fields = splitCsvLine(line);
+            if (fields.length <= Math.max(symbolColumn, nameColumn)) continue; // Skip malformed rows
+            if (statusColumn >= 0 && statusColumn < fields.length
+                    && !fields[statusColumn].equalsIgnoreCase("Active")) continue; // Skip delisted symbols
+
+            String symbol = fields[symbolColumn].trim().toUpperCase(Locale.ROOT);
+            if (symbol.isEmpty()) continue;
+            String exchange = exchangeColumn >= 0 && exchangeColumn < fields.length ? fields[exchangeColumn].trim() : "";
+            result.add(new Listing(symbol, fields[nameColumn].trim(), exchange));
+        }
+        return result;
+    }
+
+    /**
+     * Splits a CSV line, honouring double-quoted fields.
+     *
+     * @param line The line to split
+     * @return The fields of the line
+     */
+    private static String[] splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"'); // Escaped quote
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * Checks whether the index holds no listings.
+     * An empty index cannot validate symbols, so callers should accept any input.
+     *
+     * @return true if no listings were loaded
+     */
+    public boolean isEmpty() {
+        return listings.length == 0;
+    }
+
+    /**
+     * Gets the number of indexed symbols.
+     *
+     * @return The number of listings
+     */
+    public int size() {
+        return listings.length;
+    }
+
+    /**
+     * Checks whether a text has the syntax of a ticker symbol, ignoring case:
+     * 1 to 10 letters, digits, dots or dashes, as in "BRK.B" or "RDS-A".
+     * Unlike the index, this also accepts listed symbols missing from the bundled file.
+     *
+     * @param symbol The text to check
+     * @return true if the text could be a symbol
+     */
+    public static boolean isValidSymbol(String symbol) {
+        return SYMBOL_SYNTAX.matcher(symbol.trim().toUpperCase(Locale.ROOT)).matches();
+    }
+
+    /**
+     * Suggests listings for a partially typed query.
+     * Symbols starting with the query come first (an exact match at the top),
+     * followed by listings with a name word starting with the query.
+     *
+     * @param query The typed text
+     * @param limit The maximum number of suggestions
+     * @return The matching listings, best matches first
+     */
+    public List<Listing> suggest(String query, int limit) {
+        String trimmed = query.trim();
+        if (trimmed.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        Set<Listing> result = new LinkedHashSet<>();
+
+        // Symbol prefix matches, sorted order puts an exact match first
+        String symbolPrefix = trimmed.toUpperCase(Locale.ROOT);
+        for (int i = lowerBound(symbols, symbolPrefix); i < symbols.length && result.size() < limit; i++) {
+            if (!symbols[i].startsWith(symbolPrefix)) break;
+            result.add(listings[i]);
+        }
+
+        // Company name word matches
+        String namePrefix = trimmed.toLowerCase(Locale.ROOT);
+        for (int i = lowerBound(nameTokens, namePrefix); i < nameTokens.length && result.size() < limit; i++) {
+            if (!nameTokens[i].startsWith(namePrefix)) break;
+            result.add(listings[nameTokenOwners[i]]);
+        }
+
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Finds the first position whose value is not less than the key.
+     *
+     * @param sorted The sorted array to search
+     * @param key    The key to position
+     * @return The insertion point of the key
+     */
+    private static int lowerBound(String[] sorted, String key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
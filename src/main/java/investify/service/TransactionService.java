@@ -7,7 +7,12 @@ import javax.swing.*;
 import java.awt.*;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -148,31 +153,47 @@ public class TransactionService { // Main class for handling stock transaction o
      * @throws Exception If an error occurs during file operations
      */
     public void saveTransaction(String action, String symbol, int quantity, double price) throws Exception { // Method to record transaction in storage
-        // Creates a new Transaction object with the provided details
-        Transaction transaction = new Transaction(action, symbol, quantity, price);
+        // Creates a new Transaction object with the provided details and appends it as a batch of one
+        saveTransactions(List.of(new Transaction(action, symbol, quantity, price)));
+    }
+
+    /**
+     * Appends several transactions to persistent storage in a single write.
+     * The existing history is read once, the new transactions are appended, and the
+     * result is written to a temporary file that atomically replaces the data file.
+     * Either all transactions of the batch are recorded or none of them are.
+     *
+     * @param newTransactions The transactions to append
+     * @throws Exception If an error occurs during file operations
+     */
+    public synchronized void saveTransactions(List<Transaction> newTransactions) throws Exception { // Method to record a batch of transactions
+        if (newTransactions.isEmpty()) {
+            return; // Nothing to write
+        }
 
         // Sets up Gson for JSON serialization with pretty printing
         Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        String filePath = System.getProperty("user.home") + "/investifyData.json"; // Defines path to user data file
-        File file = new File(filePath); // Creates a File object for the data file
+        Path dataFile = Paths.get(System.getProperty("user.home"), "investifyData.json"); // Defines path to user data file
 
         // Prepares list to hold transactions
         List<Transaction> transactions = new ArrayList<>();
-        if (file.exists()) { // Checks if the data file already exists
-            try (FileReader reader = new FileReader(file)) { // Opens file with auto-closing
+        if (Files.exists(dataFile)) { // Checks if the data file already exists
+            try (Reader reader = Files.newBufferedReader(dataFile)) { // Opens file with auto-closing
                 // Reads existing transactions into an array
                 Transaction[] existing = gson.fromJson(reader, Transaction[].class);
                 if (existing != null) transactions.addAll(Arrays.asList(existing)); // Adds existing transactions to list
             }
-        } else {
-            file.createNewFile(); // Creates a new file if none exists
         }
 
-        // Adds the new transaction to the list
-        transactions.add(transaction);
-        try (FileWriter writer = new FileWriter(file)) { // Opens writer with auto-closing
-            gson.toJson(transactions, writer); // Writes the updated transaction list to file as JSON
+        // Adds the new transactions to the list
+        transactions.addAll(newTransactions);
+
+        // Writes next to the data file, then swaps it in so readers never see a partial file
+        Path tempFile = dataFile.resolveSibling(dataFile.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tempFile)) { // Opens writer with auto-closing
+            gson.toJson(transactions, writer); // Writes the updated transaction list to the temporary file
         }
+        Files.move(tempFile, dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
     }
 
     /**
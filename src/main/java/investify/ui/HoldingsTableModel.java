@@ -0,0 +1,135 @@
+package investify.ui;
+
+import investify.service.PortfolioValuationEngine.Holding;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Table model of the portfolio holdings shown on the portfolio screen.
+ * <p>
+ * The model is fed with valuation snapshots and compares them with the rows it
+ * already has: only rows whose values changed are reported as updated, new symbols
+ * are inserted and sold ones deleted. The table therefore repaints single rows
+ * instead of rebuilding the whole view. Values stay in USD; the renderers convert
+ * them to the selected currency when a row is painted.
+ * <p>
+ * Must only be used on the EDT.
+ */
+public class HoldingsTableModel extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L; // For serialization compatibility
+
+    /** Column indices */
+    public static final int SYMBOL = 0;
+    public static final int QUANTITY = 1;
+    public static final int VALUE = 2;
+    public static final int PROFIT = 3;
+
+    private static final String[] COLUMN_NAMES = {"Symbol", "Shares", "Value", "P&L"};
+
+    private final transient List<Holding> rows = new ArrayList<>(); // Current snapshot of each row, not serialized
+    private final transient Map<String, Integer> rowBySymbol = new HashMap<>(); // Row index of each symbol, not serialized
+
+    /**
+     * Replaces the rows with a new snapshot, reporting only the rows that changed.
+     *
+     * @param snapshot The current holdings
+     */
+    public void update(List<Holding> snapshot) {
+        Set<String> current = new HashSet<>();
+        for (Holding holding : snapshot) {
+            current.add(holding.getSymbol());
+        }
+
+        // Deletes sold symbols, from the bottom so indices stay valid
+        for (int row = rows.size() - 1; row >= 0; row--) {
+            if (!current.contains(rows.get(row).getSymbol())) {
+                rows.remove(row);
+                fireTableRowsDeleted(row, row);
+            }
+        }
+        reindex();
+
+        // Updates changed rows and appends new symbols
+        for (Holding holding : snapshot) {
+            Integer row = rowBySymbol.get(holding.getSymbol());
+            if (row == null) {
+                rows.add(holding);
+                int inserted = rows.size() - 1;
+                rowBySymbol.put(holding.getSymbol(), inserted);
+                fireTableRowsInserted(inserted, inserted);
+            } else if (!rows.get(row).sameValues(holding)) {
+                rows.set(row, holding);
+                fireTableRowsUpdated(row, row);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the symbol to row index map after deletions.
+     */
+    private void reindex() {
+        rowBySymbol.clear();
+        for (int row = 0; row < rows.size(); row++) {
+            rowBySymbol.put(rows.get(row).getSymbol(), row);
+        }
+    }
+
+    /**
+     * Gets the holding shown in a model row.
+     *
+     * @param row The model row index
+     * @return The holding of the row
+     */
+    public Holding getHolding(int row) {
+        return rows.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (column) {
+            case SYMBOL:
+                return String.class;
+            case QUANTITY:
+                return Integer.class;
+            default:
+                return Double.class; // Sorted numerically
+        }
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Holding holding = rows.get(row);
+        switch (column) {
+            case SYMBOL:
+                return holding.getSymbol();
+            case QUANTITY:
+                return holding.getQuantity();
+            case VALUE:
+                return holding.getMarketValue();
+            default:
+                return holding.getUnrealizedPnl();
+        }
+    }
+}
@@ -1,15 +1,24 @@
 package investify.ui;
 
 import com.crazzyghost.alphavantage.timeseries.response.TimeSeriesResponse;
-import com.crazzyghost.alphavantage.AlphaVantage;
 import com.crazzyghost.alphavantage.parameters.OutputSize;
 import investify.app.Investify;
-import investify.model.Transaction;
+import investify.model.ExecutionReport;
 
 
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.PopupMenuEvent;
+import javax.swing.event.PopupMenuListener;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableRowSorter;
 import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.io.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -18,8 +27,19 @@ import java.util.Map;
 import java.nio.file.Paths;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import investify.service.AlphaVantageScheduler;
+import investify.service.CurrencyService;
+import investify.service.PortfolioValuationEngine;
+import investify.service.RecurringInvestmentScheduler;
 import investify.service.RecurringInvestmentService;
+import investify.service.SymbolIndex;
 import shared.RecurringInvestment;
 
 /**
@@ -34,6 +54,7 @@ import shared.RecurringInvestment;
 public class InvestifyUI { // Main UI class that manages all interface components
     private final Investify app; // Reference to the main application instance
     private final RecurringInvestmentService recurringInvestmentService;
+    private final RecurringInvestmentScheduler recurringScheduler; // Runs recurring investments when due
 
     // Card layout and panels for switching between screens
     private CardLayout mainCardLayout; // Layout manager to switch between different screens
@@ -41,6 +62,16 @@ public class InvestifyUI { // Main UI class that manages all interface component
 
     // UI components that need to be accessed between methods
     private JLabel portfolioValueLabel; // Label to display the total portfolio value
+    private boolean valuationRefreshQueued; // Coalesces valuation changes into one repaint, EDT only
+    private HoldingsTableModel holdingsModel; // Rows of the portfolio table
+    private JPanel portfolioContent; // Shows the holdings table or a message
+    private CardLayout portfolioContentLayout; // Switches the portfolio content card
+    private boolean recurringReportShown; // Whether a run report replaced the initial status, EDT only
+
+    // Search state, only accessed on the EDT
+    private static final long SEARCH_TIMEOUT_SECONDS = 45; // Longer than the 30 s API timeout plus queueing
+    private static final int MAX_SUGGESTIONS = 5; // Number of symbol suggestions shown while typing
+    private CompletableFuture<TimeSeriesResponse> pendingSearch; // Latest search still waiting for its result
 
     /**
      * Constructs a new InvestifyUI with the provided application reference.
@@ -51,6 +82,8 @@ public class InvestifyUI { // Main UI class that manages all interface component
     public InvestifyUI(Investify app) {
         this.app = app; // Store reference to the main application
         this.recurringInvestmentService = new RecurringInvestmentService(app);
+        this.recurringScheduler = new RecurringInvestmentScheduler(recurringInvestmentService);
+        app.getValuationEngine().addListener(symbol -> SwingUtilities.invokeLater(this::queueValuationRefresh));
     }
 
     /**
@@ -81,6 +114,11 @@ public class InvestifyUI { // Main UI class that manages all interface component
 
         // Initialize with home screen
         mainCardLayout.show(mainPanel, "home"); // Display the home screen initially
+        refreshValuation(); // Load holdings and quotes in the background
+        if (!app.isApiInitialized()) {
+            app.whenApiInitialized(this::refreshValuation); // Fetch the quotes once a key is entered
+        }
+        app.whenApiInitialized(recurringScheduler::start); // Once a key is set, catch up on missed investments, then run them when due
 
         return mainPanel; // Return the configured main panel
     }
@@ -113,7 +151,7 @@ public class InvestifyUI { // Main UI class that manages all interface component
         homeMain.add(titleLabel, gbc); // Add title to panel with constraints
 
         // Portfolio value
-        portfolioValueLabel = new JLabel("Total value: " + app.getPortfolioManager().getPortfolioValueFormatted()); // Create and set label with formatted value
+        portfolioValueLabel = new JLabel("Total value: " + app.getValuationEngine().getTotalValueFormatted()); // Create and set label with the cached market value
         portfolioValueLabel.setForeground(Investify.textColor); // Set text color from app theme
         portfolioValueLabel.setFont(new Font("Inter", Font.BOLD, 24)); // Set bold font with size 24
         gbc.gridy = 1; // Move to next row
@@ -121,15 +159,20 @@ public class InvestifyUI { // Main UI class that manages all interface component
         homeMain.add(portfolioValueLabel, gbc); // Add portfolio value label to panel
 
         // Pie chart
-        JPanel pieChartPanel = app.getChartService().createPieChartPanel(); // Create pie chart showing portfolio allocation
+        JPanel pieChartPanel = app.getChartService().createPieChartPanel(); // Long-lived pie chart showing portfolio allocation
         gbc.gridy = 2; // Move to third row
         gbc.fill = GridBagConstraints.BOTH; // Allow component to fill available space horizontally and vertically
         gbc.weighty = 1; // Give vertical space weight to this component
         gbc.insets = new Insets(5, 0, 5, 0); // Reset to default padding
         homeMain.add(pieChartPanel, gbc); // Add pie chart panel to main panel
 
-        // Navigation bar
+        // Performance chart
+        JPanel performanceChartPanel = app.getChartService().createPerformanceChartPanel(); // Long-lived chart of the value over time
         gbc.gridy = 3; // Move to fourth row
+        homeMain.add(performanceChartPanel, gbc); // Shares the remaining height with the pie chart
+
+        // Navigation bar
+        gbc.gridy = 4; // Move to fifth row
         gbc.fill = GridBagConstraints.HORIZONTAL; // Let component fill available horizontal space
         gbc.weighty = 0; // No vertical weight
         gbc.anchor = GridBagConstraints.SOUTH; // Anchor to bottom of the space
@@ -182,10 +225,59 @@ public class InvestifyUI { // Main UI class that manages all interface component
         gbc.insets = new Insets(10, 0, 10, 0); // Add more vertical padding
         searchMain.add(searchBar, gbc); // Add search bar to panel
 
+        // Suggestions from the local symbol index, updated while typing
+        DefaultListModel<SymbolIndex.Listing> suggestionModel = new DefaultListModel<>(); // Holds the current suggestions
+        JList<SymbolIndex.Listing> suggestionList = new JList<>(suggestionModel); // Create list showing "SYMBOL - Name"
+        suggestionList.setFont(new Font("Inter", Font.PLAIN, 14)); // Set font for suggestions
+        suggestionList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION); // Only one suggestion can be picked
+        suggestionList.setVisibleRowCount(MAX_SUGGESTIONS); // Show every suggestion without scrolling
+        suggestionList.setFocusable(false); // Keep keyboard focus in the search bar
+        JScrollPane suggestionScroll = new JScrollPane(suggestionList); // Wrap list for long names
+        suggestionScroll.setPreferredSize(new Dimension(250, 110)); // Same width as the search bar
+        suggestionScroll.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER); // Names are cut instead
+        suggestionScroll.setVisible(false); // Hidden until the user types
+        gbc.gridy = 3; // Move to fourth row
+        gbc.insets = new Insets(0, 0, 10, 0); // Attach the list below the search bar
+        searchMain.add(suggestionScroll, gbc); // Add suggestion list to panel
+
+        searchBar.getDocument().addDocumentListener(new DocumentListener() { // Refresh suggestions on every keystroke
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                updateSuggestions(searchBar.getText(), suggestionModel, suggestionScroll);
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                updateSuggestions(searchBar.getText(), suggestionModel, suggestionScroll);
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                updateSuggestions(searchBar.getText(), suggestionModel, suggestionScroll);
+            }
+        });
+
+        searchBar.addKeyListener(new KeyAdapter() { // Navigate suggestions from the search bar
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (!suggestionScroll.isVisible()) return; // Nothing to navigate
+                int selected = suggestionList.getSelectedIndex();
+                if (e.getKeyCode() == KeyEvent.VK_DOWN) {
+                    suggestionList.setSelectedIndex(Math.min(selected + 1, suggestionModel.getSize() - 1)); // Move selection down
+                } else if (e.getKeyCode() == KeyEvent.VK_UP) {
+                    suggestionList.setSelectedIndex(Math.max(selected - 1, 0)); // Move selection up
+                } else if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+                    suggestionScroll.setVisible(false); // Close suggestions
+                    searchMain.revalidate();
+                }
+            }
+        });
+
         JLabel searchResults = new JLabel("", SwingConstants.CENTER); // Create empty label for search results
         searchResults.setForeground(Investify.textColor); // Set text color from app theme
         searchResults.setFont(new Font("Inter", Font.PLAIN, 18)); // Set regular font with size 18
-        gbc.gridy = 3; // Move to fourth row
+        gbc.gridy = 4; // Move to fifth row
+        gbc.insets = new Insets(10, 0, 10, 0); // Restore vertical padding
         gbc.weighty = 1; // Give vertical weight to this component
         searchMain.add(searchResults, gbc); // Add results label to panel
 
@@ -195,37 +287,18 @@ public class InvestifyUI { // Main UI class that manages all interface component
 
         // Set up search action
         searchBar.addActionListener(e -> { // Add action listener for when user presses Enter
-            String symbol = searchBar.getText().trim(); // Get and clean search text
-            buttonPanel.setVisible(false); // Hide button panel initially
+            SymbolIndex.Listing picked = suggestionScroll.isVisible() ? suggestionList.getSelectedValue() : null; // Suggestion chosen with the arrow keys
+            String symbol = picked != null ? picked.getSymbol() : searchBar.getText().trim().toUpperCase(Locale.ROOT); // Get and clean search text
+            runSearch(symbol, searchBar, suggestionScroll, searchResults, buttonPanel);
+        });
 
-            if (!symbol.isEmpty()) { // Check if search is not empty
-                try {
-                    // Request stock data from API
-                    TimeSeriesResponse response = AlphaVantage.api() // Get API instance
-                            .timeSeries() // Access time series data
-                            .daily() // Use daily price data
-                            .forSymbol(symbol) // Set the stock symbol to search
-                            .outputSize(OutputSize.COMPACT) // Use compact output (last 100 data points)
-                            .fetchSync(); // Execute request synchronously
-
-                    if (response.getErrorMessage() == null) { // Check if response has no error
-                        response.getStockUnits().stream() // Stream the stock units data
-                                .findFirst() // Get the most recent data point
-                                .ifPresentOrElse( // Process if exists, otherwise show error
-                                        unit -> { // For successful data retrieval
-                                            searchResults.setText("Last price: " + unit.getClose() + " USD"); // Display closing price
-                                            buttonPanel.setVisible(true); // Show buy/sell buttons
-                                        },
-                                        () -> searchResults.setText("No data available for this symbol.") // Show message if no data points
-                                );
-                    } else {
-                        searchResults.setText("ERROR: Symbol not found"); // Show error if API returned an error message
-                    }
-                } catch (Exception ex) { // Catch any exceptions during API call
-                    searchResults.setText("Error retrieving data: " + ex.getMessage()); // Display generic error message
+        suggestionList.addMouseListener(new MouseAdapter() { // Search directly when a suggestion is clicked
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                SymbolIndex.Listing picked = suggestionList.getSelectedValue();
+                if (picked != null) {
+                    runSearch(picked.getSymbol(), searchBar, suggestionScroll, searchResults, buttonPanel);
                 }
-            } else {
-                searchResults.setText("Please enter a valid symbol."); // Show validation message for empty input
             }
         });
 
@@ -246,7 +319,7 @@ public class InvestifyUI { // Main UI class that manages all interface component
         buttonPanel.add(buyButton); // Add buy button to button panel
         buttonPanel.add(sellButton); // Add sell button to button panel
 
-        gbc.gridy = 4; // Move to fifth row
+        gbc.gridy = 5; // Move to sixth row
         gbc.weighty = 0; // Reset vertical weight
         searchMain.add(buttonPanel, gbc); // Add button panel to main panel
 
@@ -288,7 +361,7 @@ public class InvestifyUI { // Main UI class that manages all interface component
         });
 
         // Navigation bar
-        gbc.gridy = 5; // Move to sixth row
+        gbc.gridy = 6; // Move to seventh row
         gbc.fill = GridBagConstraints.HORIZONTAL; // Let component fill available horizontal space
         gbc.weighty = 0; // No vertical weight
         gbc.anchor = GridBagConstraints.SOUTH; // Anchor to bottom of the space
@@ -297,6 +370,142 @@ public class InvestifyUI { // Main UI class that manages all interface component
         return searchMain; // Return the configured search screen panel
     }
 
+    /**
+     * Refreshes the suggestion list for the text typed in the search bar.
+     * The list is hidden when the text is empty, has no match, or already
+     * equals the only suggestion.
+     *
+     * @param text             The current search bar text
+     * @param suggestionModel  The model of the suggestion list
+     * @param suggestionScroll The scroll pane wrapping the suggestion list
+     */
+    private void updateSuggestions(String text, DefaultListModel<SymbolIndex.Listing> suggestionModel, JScrollPane suggestionScroll) {
+        List<SymbolIndex.Listing> suggestions = app.getSymbolIndex().suggest(text, MAX_SUGGESTIONS); // Prefix lookup in the local index
+        suggestionModel.clear();
+        for (SymbolIndex.Listing listing : suggestions) {
+            suggestionModel.addElement(listing);
+        }
+
+        boolean alreadyChosen = suggestions.size() == 1
+                && suggestions.get(0).getSymbol().equalsIgnoreCase(text.trim()); // Nothing left to complete
+        boolean visible = !suggestions.isEmpty() && !alreadyChosen;
+        if (suggestionScroll.isVisible() != visible) {
+            suggestionScroll.setVisible(visible);
+            suggestionScroll.getParent().revalidate(); // Make room for the list or give it back
+        }
+    }
+
+    /**
+     * Starts the price lookup of a symbol.
+     * Text that cannot be a ticker symbol is rejected locally, without using a
+     * request of the rate limit. The local index only drives the suggestions: it
+     * bundles a subset of the listed symbols, so a well-formed symbol it does not
+     * know is still looked up, and AlphaVantage reports the ones that do not exist.
+     *
+     * @param symbol           The upper-case symbol to search
+     * @param searchBar        The search bar, updated to show the searched symbol
+     * @param suggestionScroll The suggestion list, hidden once a search starts
+     * @param searchResults    The label showing the search state and result
+     * @param buttonPanel      The buy/sell panel shown once a price is available
+     */
+    private void runSearch(String symbol, JTextField searchBar, JScrollPane suggestionScroll,
+                           JLabel searchResults, JPanel buttonPanel) {
+        buttonPanel.setVisible(false); // Hide button panel initially
+
+        if (!symbol.equals(searchBar.getText())) {
+            searchBar.setText(symbol); // Buy/sell read the symbol from the search bar
+        }
+        suggestionScroll.setVisible(false); // Close suggestions once the search starts
+        suggestionScroll.getParent().revalidate();
+
+        if (symbol.isEmpty()) { // Check if search is empty
+            cancelPendingSearch(); // An empty query supersedes any running search
+            searchResults.setText("Please enter a valid symbol."); // Show validation message for empty input
+        } else if (!SymbolIndex.isValidSymbol(symbol)) {
+            cancelPendingSearch(); // Invalid input supersedes any running search too
+            searchResults.setText("\"" + symbol + "\" is not a valid symbol."); // Rejected before any network call
+        } else {
+            searchSymbol(symbol, searchResults, buttonPanel); // Fetch the price without blocking the EDT
+        }
+    }
+
+    /**
+     * Looks up the latest price of a symbol asynchronously.
+     * The request goes through the AlphaVantage scheduler with interactive priority,
+     * and the result is published back to the EDT. A new search cancels the previous
+     * one, and results of superseded searches are ignored.
+     *
+     * @param symbol        The stock symbol to search
+     * @param searchResults The label showing the search state and result
+     * @param buttonPanel   The buy/sell panel shown once a price is available
+     */
+    private void searchSymbol(String symbol, JLabel searchResults, JPanel buttonPanel) {
+        cancelPendingSearch(); // Only the latest query matters
+        searchResults.setText("Searching " + symbol + "..."); // Show loading state
+
+        // Request stock data from API through the rate-limited scheduler
+        CompletableFuture<TimeSeriesResponse> search = app.getApiScheduler().fetchDailyAsync( // Queue ahead of background jobs
+                symbol, // Set the stock symbol to search
+                OutputSize.COMPACT, // Use compact output (last 100 data points)
+                AlphaVantageScheduler.Priority.INTERACTIVE); // User is waiting for this result
+        pendingSearch = search;
+
+        search.orTimeout(SEARCH_TIMEOUT_SECONDS, TimeUnit.SECONDS) // Give up on stalled networks
+                .whenComplete((response, error) -> storeSearchHistory(symbol, response)) // Keep the prices, still off the EDT
+                .whenComplete((response, error) -> SwingUtilities.invokeLater(() -> { // Publish the result on the EDT
+                    if (search != pendingSearch || search.isCancelled()) {
+                        return; // Superseded by a newer search
+                    }
+                    pendingSearch = null;
+
+                    if (error != null) { // Catch any exceptions during API call
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        searchResults.setText(cause instanceof TimeoutException
+                                ? "Search timed out, please try again." // Display timeout message
+                                : "Error retrieving data: " + cause.getMessage()); // Display generic error message
+                    } else if (response.getErrorMessage() == null) { // Check if response has no error
+                        response.getStockUnits().stream() // Stream the stock units data
+                                .findFirst() // Get the most recent data point
+                                .ifPresentOrElse( // Process if exists, otherwise show error
+                                        unit -> { // For successful data retrieval
+                                            searchResults.setText("Last price: " + unit.getClose() + " USD"); // Display closing price
+                                            buttonPanel.setVisible(true); // Show buy/sell buttons
+                                        },
+                                        () -> searchResults.setText("No data available for this symbol.") // Show message if no data points
+                                );
+                    } else {
+                        searchResults.setText("ERROR: Symbol not found"); // Show error if API returned an error message
+                    }
+                }));
+    }
+
+    /**
+     * Keeps the daily prices of a search response in the price history store.
+     * Called on the worker thread that completed the search.
+     *
+     * @param symbol   The searched symbol
+     * @param response The search response, null if the search failed
+     */
+    private void storeSearchHistory(String symbol, TimeSeriesResponse response) {
+        try {
+            app.getPriceHistoryStore().ingest(symbol, response);
+        } catch (Exception e) {
+            System.err.println("Error storing price history for " + symbol + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cancels the running search, if any.
+     * A search still waiting in the scheduler queue is dropped without using an API call.
+     */
+    private void cancelPendingSearch() {
+        if (pendingSearch != null) {
+            pendingSearch.cancel(false);
+            pendingSearch = null;
+        }
+    }
+
     /**
      * Creates the portfolio screen showing detailed holdings.
      * This screen displays a list of all stocks in the user's portfolio
@@ -330,117 +539,111 @@ public class InvestifyUI { // Main UI class that manages all interface component
 
     /**
      * Creates the content panel for the portfolio screen.
-     * This method reads transaction data from storage and displays
-     * the current holdings with quantities and values. Made by AI.
+     * The holdings are shown in a table backed by {@link HoldingsTableModel}, so only
+     * visible rows are painted and valuation updates repaint single rows. Clicking a
+     * column header sorts by symbol, shares, value or profit; the value column is
+     * sorted largest first initially. Holdings still waiting for a quote show their cost.
      *
      * @return A JPanel containing the portfolio content
      */
     private JPanel createPortfolioContent() {
-        // Create the main content panel
-        JPanel content = new JPanel(new BorderLayout());
-        content.setBackground(Investify.backgroundColor);
-
-        // Get the path to the transaction data file
-        String filePath = System.getProperty("user.home") + "/investifyData.json";
-        File file = new File(filePath);
-
-        if (file.exists()) {
-            try {
-                // Read transactions from file
-                Transaction[] transactions = app.getTransactionService().readTransactionsFromFile(file);
-
-                if (transactions != null && transactions.length > 0) {
-                    // Group stocks by symbol
-                    Map<String, Integer> holdings = app.getPortfolioManager().getHoldings();
-                    Map<String, Double> totalValues = app.getPortfolioManager().getTotalValues();
-
-                    if (!holdings.isEmpty()) {
-                        // Create a vertical panel to display stocks
-                        JPanel holdingsPanel = new JPanel();
-                        holdingsPanel.setLayout(new BoxLayout(holdingsPanel, BoxLayout.Y_AXIS));
-                        holdingsPanel.setBackground(Investify.backgroundColor);
-
-                        for (String symbol : holdings.keySet()) {
-                            int quantity = holdings.get(symbol);
-                            double totalValue = totalValues.get(symbol);
-
-                            // Create a panel for each stock with a border for visual separation
-                            JPanel stockPanel = new JPanel(new BorderLayout());
-                            stockPanel.setBackground(Investify.backgroundColor);
-                            stockPanel.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 0, new Color(60, 60, 60)));
-                            stockPanel.setPreferredSize(new Dimension(300, 60));
-                            stockPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, 60));
-
-                            // Stock symbol (left side)
-                            JLabel symbolLabel = new JLabel(symbol);
-                            symbolLabel.setForeground(Investify.textColor);
-                            symbolLabel.setFont(new Font("Inter", Font.BOLD, 20));
-                            symbolLabel.setBorder(BorderFactory.createEmptyBorder(0, 10, 0, 0));
-
-                            // Panel for stock information (right side)
-                            JPanel infoPanel = new JPanel(new GridLayout(2, 1));
-                            infoPanel.setBackground(Investify.backgroundColor);
-
-                            // Number of shares
-                            JLabel quantityLabel = new JLabel(quantity + " shares");
-                            quantityLabel.setForeground(Investify.textColor);
-                            quantityLabel.setFont(new Font("Inter", Font.PLAIN, 14));
-                            quantityLabel.setHorizontalAlignment(SwingConstants.RIGHT);
-
-                            // Total value
-                            JLabel valueLabel = new JLabel(app.getCurrencyService().formatCurrency(totalValue));
-                            valueLabel.setForeground(Investify.textColor);
-                            valueLabel.setFont(new Font("Inter", Font.PLAIN, 14));
-                            valueLabel.setHorizontalAlignment(SwingConstants.RIGHT);
-
-                            // Add components to panels
-                            infoPanel.add(quantityLabel);
-                            infoPanel.add(valueLabel);
-                            infoPanel.setBorder(BorderFactory.createEmptyBorder(0, 0, 0, 10));
-
-                            stockPanel.add(symbolLabel, BorderLayout.WEST);
-                            stockPanel.add(infoPanel, BorderLayout.EAST);
-
-                            holdingsPanel.add(stockPanel);
-                            holdingsPanel.add(Box.createRigidArea(new Dimension(0, 5)));
-                        }
-
-                        // Add scrolling functionality for many stocks
-                        JScrollPane scrollPane = new JScrollPane(holdingsPanel);
-                        scrollPane.setBorder(null);
-                        scrollPane.getViewport().setBackground(Investify.backgroundColor);
-                        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
-                        content.add(scrollPane, BorderLayout.CENTER);
-                    } else {
-                        // Display a message if there are no active holdings
-                        JLabel noHoldingsLabel = new JLabel("No shares found", SwingConstants.CENTER);
-                        noHoldingsLabel.setForeground(Investify.textColor);
-                        noHoldingsLabel.setFont(new Font("Inter", Font.PLAIN, 18));
-                        content.add(noHoldingsLabel, BorderLayout.CENTER);
-                    }
+        // Create the main content panel, switching between the table and a message
+        portfolioContentLayout = new CardLayout();
+        portfolioContent = new JPanel(portfolioContentLayout);
+        portfolioContent.setBackground(Investify.backgroundColor);
+
+        // Table of holdings fed by valuation snapshots
+        holdingsModel = new HoldingsTableModel();
+        JTable holdingsTable = new JTable(holdingsModel);
+        holdingsTable.setBackground(Investify.backgroundColor);
+        holdingsTable.setForeground(Investify.textColor);
+        holdingsTable.setFont(new Font("Inter", Font.PLAIN, 14));
+        holdingsTable.setRowHeight(40);
+        holdingsTable.setShowVerticalLines(false);
+        holdingsTable.setGridColor(new Color(60, 60, 60)); // Same separator color as the former stock panels
+        holdingsTable.setFillsViewportHeight(true);
+        holdingsTable.setSelectionBackground(new Color(58, 58, 60));
+        holdingsTable.setSelectionForeground(Investify.textColor);
+        holdingsTable.getTableHeader().setBackground(Investify.backgroundColor);
+        holdingsTable.getTableHeader().setForeground(Investify.textColor);
+        holdingsTable.getTableHeader().setFont(new Font("Inter", Font.BOLD, 14));
+        holdingsTable.getTableHeader().setReorderingAllowed(false);
+
+        // Renderers format USD values in the selected currency when a row is painted
+        CurrencyService currencyService = app.getCurrencyService();
+        StringBuilder cellText = new StringBuilder(32); // Reused for every painted cell, EDT only
+        Font symbolFont = new Font("Inter", Font.BOLD, 16); // Symbols stand out like the former labels
+        holdingsTable.getColumnModel().getColumn(HoldingsTableModel.SYMBOL).setCellRenderer(new DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                           boolean hasFocus, int row, int column) {
+                super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+                setFont(symbolFont);
+                return this;
+            }
+        });
+        holdingsTable.getColumnModel().getColumn(HoldingsTableModel.VALUE).setCellRenderer(new DefaultTableCellRenderer() {
+            @Override
+            protected void setValue(Object value) {
+                cellText.setLength(0);
+                currencyService.appendCurrency(cellText, (Double) value);
+                setText(cellText.toString());
+                setHorizontalAlignment(SwingConstants.RIGHT);
+            }
+
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                           boolean hasFocus, int row, int column) {
+                super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+                boolean priced = holdingsModel.getHolding(table.convertRowIndexToModel(row)).isPriced();
+                setToolTipText(priced ? null : "Valued at cost until a quote is available");
+                return this;
+            }
+        });
+        holdingsTable.getColumnModel().getColumn(HoldingsTableModel.PROFIT).setCellRenderer(new DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                           boolean hasFocus, int row, int column) {
+                super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+                PortfolioValuationEngine.Holding holding = holdingsModel.getHolding(table.convertRowIndexToModel(row));
+                double pnl = holding.getUnrealizedPnl();
+                cellText.setLength(0);
+                if (holding.isPriced()) {
+                    currencyService.appendCurrency(cellText.append(pnl >= 0 ? "+" : ""), pnl);
                 } else {
-                    // Display a message if no transactions exist
-                    JLabel noDataLabel = new JLabel("No transactions found.", SwingConstants.CENTER);
-                    noDataLabel.setForeground(Investify.textColor);
-                    noDataLabel.setFont(new Font("Inter", Font.PLAIN, 18));
-                    content.add(noDataLabel, BorderLayout.CENTER);
+                    cellText.append("(cost)");
                 }
-            } catch (Exception e) {
-                // Handle errors when loading data
-                JLabel errorLabel = new JLabel("Error loading data.", SwingConstants.CENTER);
-                errorLabel.setForeground(Investify.textColor);
-                errorLabel.setFont(new Font("Inter", Font.PLAIN, 18));
-                content.add(errorLabel, BorderLayout.CENTER);
+                setText(cellText.toString());
+                setHorizontalAlignment(SwingConstants.RIGHT);
+                if (!isSelected) setForeground(pnl < 0 ? new Color(255, 69, 58) : new Color(48, 209, 88)); // Red loss, green profit
+                cellText.setLength(0);
+                setToolTipText(currencyService.appendCurrency(cellText.append("Realized: "), holding.getRealizedPnl()).toString());
+                return this;
             }
-        } else {
-            // Display a message if the data file doesn't exist
-            JLabel noFileLabel = new JLabel("Data file not found.", SwingConstants.CENTER);
-            noFileLabel.setForeground(Investify.textColor);
-            noFileLabel.setFont(new Font("Inter", Font.PLAIN, 18));
-            content.add(noFileLabel, BorderLayout.CENTER);
-        }
+        });
+        holdingsTable.getColumnModel().getColumn(HoldingsTableModel.QUANTITY).setPreferredWidth(50);
+
+        // Sorting by any column, largest value first
+        TableRowSorter<HoldingsTableModel> sorter = new TableRowSorter<>(holdingsModel);
+        sorter.setSortKeys(List.of(new RowSorter.SortKey(HoldingsTableModel.VALUE, SortOrder.DESCENDING)));
+        sorter.setSortsOnUpdates(true); // Keeps the order when a value ticks
+        holdingsTable.setRowSorter(sorter);
 
-        return content;
+        // Add scrolling functionality for many stocks
+        JScrollPane scrollPane = new JScrollPane(holdingsTable);
+        scrollPane.setBorder(null);
+        scrollPane.getViewport().setBackground(Investify.backgroundColor);
+        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
+        portfolioContent.add(scrollPane, "table");
+
+        // Display a message if there are no active holdings
+        JLabel noHoldingsLabel = new JLabel("No shares found", SwingConstants.CENTER);
+        noHoldingsLabel.setForeground(Investify.textColor);
+        noHoldingsLabel.setFont(new Font("Inter", Font.PLAIN, 18));
+        portfolioContent.add(noHoldingsLabel, "empty");
+
+        updatePortfolioScreen(); // Fill with the current snapshot
+        return portfolioContent;
     }
 
     /**
@@ -469,22 +672,26 @@ public class InvestifyUI { // Main UI class that manages all interface component
         recurrentLabel.setFont(new Font("Inter", Font.BOLD, 24));
         recurrentMain.add(recurrentLabel, gbcRecurrent);
 
-        // Execute recurring investments and display status
-        int processedCount = recurringInvestmentService.executeRecurringInvestments();
-
         // Add execution status display
         JPanel statusPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
         statusPanel.setBackground(Investify.backgroundColor);
 
-        String statusMessage = processedCount > 0
-                ? processedCount + " investment(s) executed today"
-                : "No investments due today";
-
-        JLabel statusLabel = new JLabel(statusMessage);
-        statusLabel.setForeground(processedCount > 0 ? new Color(0, 200, 83) : Investify.textColor);
+        JLabel statusLabel = new JLabel("Checking investments due today...");
+        statusLabel.setForeground(Investify.textColor);
         statusLabel.setFont(new Font("Inter", Font.BOLD, 14));
         statusPanel.add(statusLabel);
 
+        // The scheduler runs due investments off the EDT and reports every run
+        recurringScheduler.addListener(report -> SwingUtilities.invokeLater(() -> {
+            if (!report.getEntries().isEmpty() || report.getHistoryError() != null || !recurringReportShown) {
+                showExecutionReport(report, statusLabel); // Runs without purchases keep the last result visible
+                recurringReportShown = true;
+            }
+            if (report.getExecutedCount() > 0) {
+                refreshValuation(); // New purchases change the holdings
+            }
+        }));
+
         // Add status panel to its own grid position
         gbcRecurrent.gridy = 2;
         recurrentMain.add(statusPanel, gbcRecurrent);
@@ -536,6 +743,49 @@ public class InvestifyUI { // Main UI class that manages all interface component
         return recurrentMain;
     }
 
+    /**
+     * Displays the outcome of a recurring investment run in the status label.
+     * The label summarizes the run and its tooltip lists the reason of every
+     * skipped or failed investment.
+     *
+     * @param report      The report of the run
+     * @param statusLabel The label showing the run status
+     */
+    private void showExecutionReport(ExecutionReport report, JLabel statusLabel) {
+        int executed = report.getExecutedCount();
+        int problems = report.getSkippedCount() + report.getFailedCount();
+
+        if (report.getHistoryError() != null) {
+            statusLabel.setText("Execution history unreadable, no investments executed");
+            statusLabel.setForeground(new Color(255, 69, 58)); // Red, unlike a run without due investments
+            statusLabel.setToolTipText(report.getHistoryError());
+            return;
+        }
+
+        if (report.getEntries().isEmpty()) {
+            statusLabel.setText("No investments due today");
+            statusLabel.setForeground(Investify.textColor);
+            statusLabel.setToolTipText(null);
+            return;
+        }
+
+        String statusMessage = executed + " investment(s) executed today";
+        if (problems > 0) {
+            statusMessage += ", " + problems + " not executed";
+        }
+        statusLabel.setText(statusMessage);
+        statusLabel.setForeground(problems > 0 ? new Color(255, 165, 0) : new Color(0, 200, 83));
+
+        // Lists the reason for every investment that was not executed
+        StringBuilder details = new StringBuilder("<html>");
+        for (ExecutionReport.Entry entry : report.getEntries()) {
+            if (entry.getStatus() != ExecutionReport.Status.EXECUTED) {
+                details.append(entry.getSymbol()).append(": ").append(entry.getMessage()).append("<br>");
+            }
+        }
+        statusLabel.setToolTipText(problems > 0 ? details.append("</html>").toString() : null);
+    }
+
     // Helper method to create an investment card
     private JPanel createInvestmentCard(RecurringInvestment investment) {
         // Create a card panel with vertical layout for investment details
@@ -653,43 +903,40 @@ public class InvestifyUI { // Main UI class that manages all interface component
                 Investify.textColor // Title color matching text color
         ));
 
-        // Create radio buttons for currency selection
-        ButtonGroup currencyGroup = new ButtonGroup(); // Create button group to ensure only one selection
-        JRadioButton usdButton = new JRadioButton("USD ($)"); // Create button for USD currency
-        usdButton.setFont(new Font("Inter", Font.PLAIN, 16)); // Set font for button text
-        usdButton.setForeground(Investify.textColor); // Set text color from app theme
-        usdButton.setBackground(Investify.backgroundColor); // Set background color from app theme
-        usdButton.setSelected(app.getCurrencyService().getCurrentCurrency().equals("USD")); // Set selected based on current setting
-
-        JRadioButton chfButton = new JRadioButton("CHF (Fr.)"); // Create button for Swiss Franc currency
-        chfButton.setFont(new Font("Inter", Font.PLAIN, 16)); // Set font for button text
-        chfButton.setForeground(Investify.textColor); // Set text color from app theme
-        chfButton.setBackground(Investify.backgroundColor); // Set background color from app theme
-        chfButton.setSelected(app.getCurrencyService().getCurrentCurrency().equals("CHF")); // Set selected based on current setting
-
-        // Group radio buttons and add them to the currency panel
-        currencyGroup.add(usdButton); // Add USD button to group (ensures mutual exclusivity)
-        currencyGroup.add(chfButton); // Add CHF button to group
-        currencyPanel.add(usdButton); // Add USD button to panel
-        currencyPanel.add(chfButton); // Add CHF button to panel
-
-        // For the USD button
-        usdButton.addActionListener(e -> { // Add click handler for USD button
-            if (usdButton.isSelected() && !app.getCurrencyService().getCurrentCurrency().equals("USD")) { // Check if this is a change
-                app.getCurrencyService().setCurrency("USD");  // Update the currency setting
-                JOptionPane.showMessageDialog(accountMain, // Show confirmation dialog
-                        "Currency changed to USD", // Message text
-                        "Currency Updated", // Dialog title
-                        JOptionPane.INFORMATION_MESSAGE); // Information message type
+        // Create a combo box listing every currency with a known exchange rate
+        JComboBox<String> currencyBox = new JComboBox<>(app.getCurrencyService().getSupportedCurrencies().toArray(new String[0])); // Currencies from the shared rate table
+        currencyBox.setFont(new Font("Inter", Font.PLAIN, 16)); // Set font for the entries
+        currencyBox.setSelectedItem(app.getCurrencyService().getCurrentCurrency()); // Select the current setting
+        currencyPanel.add(currencyBox); // Add the combo box to the panel
+
+        // Picks up currencies added by a rate download since the screen was built
+        currencyBox.addPopupMenuListener(new PopupMenuListener() {
+            @Override
+            public void popupMenuWillBecomeVisible(PopupMenuEvent e) {
+                Set<String> currencies = app.getCurrencyService().getSupportedCurrencies();
+                if (currencies.size() != currencyBox.getItemCount()) {
+                    DefaultComboBoxModel<String> model = new DefaultComboBoxModel<>(currencies.toArray(new String[0]));
+                    model.setSelectedItem(app.getCurrencyService().getCurrentCurrency()); // Keeps the current setting
+                    currencyBox.setModel(model);
+                }
+            }
+
+            @Override
+            public void popupMenuWillBecomeInvisible(PopupMenuEvent e) {
+            }
+
+            @Override
+            public void popupMenuCanceled(PopupMenuEvent e) {
             }
         });
 
-        // For the CHF button
-        chfButton.addActionListener(e -> { // Add click handler for CHF button
-            if (chfButton.isSelected() && !app.getCurrencyService().getCurrentCurrency().equals("CHF")) { // Check if this is a change
-                app.getCurrencyService().setCurrency("CHF");  // Update the currency setting
+        // Applies the selected currency
+        currencyBox.addActionListener(e -> { // Add selection handler
+            String selected = (String) currencyBox.getSelectedItem(); // Currency chosen by the user
+            if (selected != null && !app.getCurrencyService().getCurrentCurrency().equals(selected)) { // Check if this is a change
+                app.getCurrencyService().setCurrency(selected);  // Update the currency setting
                 JOptionPane.showMessageDialog(accountMain, // Show confirmation dialog
-                        "Currency changed to CHF", // Message text
+                        "Currency changed to " + selected, // Message text
                         "Currency Updated", // Dialog title
                         JOptionPane.INFORMATION_MESSAGE); // Information message type
             }
@@ -758,6 +1005,7 @@ public class InvestifyUI { // Main UI class that manages all interface component
         portfolioIcon.addActionListener(e -> { // Add click handler for portfolio button
             updatePortfolioScreen(); // Update portfolio screen data before showing
             layout.show(parentPanel, "portfolio"); // Switch to portfolio screen
+            refreshValuation(); // Update quotes in the background
         });
 
         recurrentIcon.addActionListener(e -> {
@@ -794,85 +1042,64 @@ public class InvestifyUI { // Main UI class that manages all interface component
 
     /**
      * Updates the home screen content with current data.
-     * This method refreshes the portfolio value and pie chart
-     * when returning to the home screen.
+     * This method shows the cached valuation right away and starts
+     * a background refresh when returning to the home screen.
      */
     private void updateHomeScreen() {
-        // Update the portfolio value label
-        portfolioValueLabel.setText("Total value: " + app.getPortfolioManager().getPortfolioValueFormatted()); // Update portfolio value label with latest data
-
-        // Find and update the chart panel
-        for (Component comp : mainPanel.getComponents()) { // Loop through all components in main panel
-            if (comp instanceof JPanel && "home".equals(((JPanel) comp).getName())) { // Find home panel by name
-                JPanel homePanel = (JPanel) comp; // Cast to JPanel
-
-                // Find and replace the chart panel (usually at position 2)
-                Component[] components = homePanel.getComponents(); // Get all components in home panel
-                for (int i = 0; i < components.length; i++) { // Loop through all components
-                    if (components[i] instanceof JPanel && i == 2) { // Find chart panel at index 2
-                        // Remove the old chart
-                        homePanel.remove(components[i]); // Remove old chart panel
-
-                        // Create a new chart panel
-                        JPanel newChartPanel = app.getChartService().createPieChartPanel(); // Create new chart panel with latest data
-
-                        // Reuse the same layout constraints
-                        GridBagConstraints gbc = new GridBagConstraints(); // Create position constraints
-                        gbc.gridx = 0; // Same horizontal position
-                        gbc.gridy = 2; // Same vertical position
-                        gbc.fill = GridBagConstraints.BOTH; // Same fill behavior
-                        gbc.weighty = 1; // Same vertical weight
-
-                        homePanel.add(newChartPanel, gbc, i); // Add new chart panel at same position
-                        break; // Exit the loop after replacement
-                    }
-                }
+        showHomeValuation(); // Show the last known values immediately
+        refreshValuation(); // Listeners repaint once fresher values arrive
+    }
 
-                // Refresh the display
-                homePanel.revalidate(); // Recalculate layout
-                homePanel.repaint(); // Redraw the panel
-                break; // Exit loop after finding and updating
+    /**
+     * Reloads holdings and, once the API is set up, refreshes every quote in parallel.
+     * All work runs in the background; the valuation listener repaints the screens.
+     */
+    private void refreshValuation() {
+        PortfolioValuationEngine engine = app.getValuationEngine();
+        engine.reloadAsync().thenRun(() -> {
+            if (app.isApiInitialized()) {
+                engine.refreshQuotesAsync(); // Each quote repaints as it arrives
             }
-        }
+        });
+    }
+
+    /**
+     * Schedules one repaint of the valuation views for a burst of changes.
+     * Must be called on the EDT.
+     */
+    private void queueValuationRefresh() {
+        if (valuationRefreshQueued) return; // A repaint is already pending
+        valuationRefreshQueued = true;
+        SwingUtilities.invokeLater(() -> {
+            valuationRefreshQueued = false;
+            showHomeValuation(); // Repaint the total, the pie chart redraws itself
+            updatePortfolioScreen(); // Repaint the holdings list
+        });
+    }
+
+    /**
+     * Shows the cached valuation on the home screen.
+     * The pie chart updates itself from valuation events, so only the total is set here.
+     */
+    private void showHomeValuation() {
+        if (portfolioValueLabel == null) return; // Home screen not built yet
+
+        // Update the portfolio value label
+        portfolioValueLabel.setText("Total value: " + app.getValuationEngine().getTotalValueFormatted()); // Update portfolio value label with the cached market value
     }
 
     /**
      * Updates the portfolio screen with current data.
-     * This method rebuilds the portfolio content to reflect
-     * any changes in holdings or currency settings.
+     * The table model receives the latest valuation snapshot and reports only the rows
+     * that changed; a repaint picks up currency changes.
      */
     private void updatePortfolioScreen() {
-        // Get the portfolio panel
-        Component[] components = mainPanel.getComponents(); // Get all screens in main panel
-        for (Component comp : components) { // Loop through all components
-            if (comp instanceof JPanel) { // Check if component is a panel
-                JPanel panel = (JPanel) comp; // Cast to JPanel
-                if (panel.getName() != null && panel.getName().equals("portfolio")) { // Find portfolio panel by name
-                    // Remove current content
-                    panel.removeAll(); // Clear all components from panel
-
-                    // Recreate content with updated values and currency
-                    JLabel portfolioLabel = new JLabel("Your Portfolio", SwingConstants.CENTER); // Recreate title
-                    portfolioLabel.setForeground(Investify.textColor); // Set text color from app theme
-                    portfolioLabel.setFont(new Font("Inter", Font.BOLD, 24)); // Set bold font with size 24
-
-                    JPanel headerPanel = new JPanel(new FlowLayout(FlowLayout.CENTER)); // Recreate header panel
-                    headerPanel.setBackground(Investify.backgroundColor); // Set background color from app theme
-                    headerPanel.add(portfolioLabel); // Add title to header
-
-                    // Reapply layout
-                    panel.setLayout(new BorderLayout()); // Reset to border layout
-                    panel.add(headerPanel, BorderLayout.NORTH); // Add header at top
-                    panel.add(createPortfolioContent(), BorderLayout.CENTER); // Add fresh content in center
-                    panel.add(createNavBar(mainCardLayout, mainPanel), BorderLayout.SOUTH); // Add navigation at bottom
-
-                    // Force visual update
-                    panel.revalidate(); // Recalculate layout
-                    panel.repaint(); // Redraw the panel
-                    break; // Exit loop after updating
-                }
-            }
-        }
+        if (holdingsModel == null) return; // Portfolio screen not built yet
+
+        List<PortfolioValuationEngine.Holding> holdings = app.getValuationEngine().getHoldings();
+        holdingsModel.update(holdings); // Fine-grained row events
+        portfolioContentLayout.show(portfolioContent, holdings.isEmpty() ? "empty" : "table");
+        portfolioContent.repaint(); // Renderers format in the current currency
     }
 
     /**
@@ -2,6 +2,7 @@ import Address.AddressBook;
 import gallery.PictureGalleryApp;
 import gallery.service.TinyPNGService;
 import investify.app.Investify;
+import investify.service.ApiKeyManager;
 import phone.HostOS;
 import Finance.FinanceTracker;
 
@@ -318,9 +319,9 @@ public class phoneUtils {
         appButton.addActionListener(e -> {
             switch (appName) {
                 case "Investify":
-                    // Remplacer l'utilisation de InvestifyApp par Investify
-                    Investify investify = new Investify();
-                    boolean investifyApiKeyOk = investify.ensureApiInitialized();
+                    // The key is global, so no Investify instance is needed to check or set it
+                    boolean investifyApiKeyOk = ApiKeyManager.isApiConfigured()
+                            || new ApiKeyManager().setupApiKey();
                     if (investifyApiKeyOk) {
                         Homescreen.cardLayout.show(Homescreen.mainPanel, "Investify");
                     }
@@ -0,0 +1,278 @@
+package shared;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Shared provider of foreign exchange rates for the phone applications.
+ * <p>
+ * All rates come from one Frankfurter request for the latest ECB reference rates,
+ * which gives every supported currency against the euro; any cross rate is derived
+ * from that single table. The table is kept in memory, so looking up a rate never
+ * touches the network and can be done for every value drawn on screen.
+ * <p>
+ * The table is refreshed in the background once a day and saved to the user's home
+ * directory as the last known good rates, which are used after a restart or while
+ * offline. Before the first successful download a small built-in table is used.
+ */
+public class FxRateProvider {
+
+    /** Frankfurter API root */
+    private static final String DEFAULT_API_URL = "https://api.frankfurter.app";
+
+    /** Hours between two checks whether the table is from a previous day */
+    private static final long CHECK_PERIOD_HOURS = 1;
+
+    private static FxRateProvider shared; // Instance used by every application
+
+    private final String apiUrl; // API root, replaceable for a local server
+    private final Path file; // Last known good rates
+    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    private final AtomicBoolean refreshing = new AtomicBoolean(); // Prevents concurrent downloads
+    private volatile RateTable table; // Current rates, replaced as a whole
+
+    /**
+     * Rates against the euro as stored in the last known good file.
+     */
+    private static class RateTable {
+        private String date; // ECB date of the rates
+        private String fetchedOn; // Local date of the download
+        private Map<String, Double> rates; // Units of each currency per euro, euro included
+    }
+
+    /**
+     * Creates a provider storing its rates in the given file.
+     *
+     * @param file The file holding the last known good rates
+     */
+    public FxRateProvider(Path file) {
+        this(DEFAULT_API_URL, file);
+    }
+
+    /**
+     * Creates a provider using the given API and storing its rates in the given file.
+     *
+     * @param apiUrl The Frankfurter API root, without a trailing slash
+     * @param file   The file holding the last known good rates
+     */
+    public FxRateProvider(String apiUrl, Path file) {
+        this.apiUrl = apiUrl;
+        this.file = file;
+        this.table = load();
+    }
+
+    /**
+     * Gets the provider shared by all applications.
+     * It is created on first use, loads the saved rates and starts the daily refresh.
+     *
+     * @return The shared provider
+     */
+    public static synchronized FxRateProvider getShared() {
+        if (shared == null) {
+            shared = new FxRateProvider(Paths.get(System.getProperty("user.home"), "fxRates.json"));
+            ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "fx-rate-refresh");
+                thread.setDaemon(true); // Never keeps the application alive
+                return thread;
+            });
+            FxRateProvider provider = shared;
+            timer.scheduleAtFixedRate(provider::refreshIfStale, 0, CHECK_PERIOD_HOURS, TimeUnit.HOURS);
+        }
+        return shared;
+    }
+
+    /**
+     * Gets the rate converting one currency into another from the in-memory table.
+     *
+     * @param from The currency code to convert from (e.g. "USD")
+     * @param to   The currency code to convert to (e.g. "CHF")
+     * @return The amount of {@code to} per unit of {@code from}
+     * @throws IllegalArgumentException If a currency is not in the table
+     */
+    public double getRate(String from, String to) {
+        if (from.equals(to)) return 1.0;
+        Map<String, Double> rates = table.rates;
+        Double fromPerEuro = rates.get(from);
+        Double toPerEuro = rates.get(to);
+        if (fromPerEuro == null || toPerEuro == null) {
+            throw new IllegalArgumentException("Unsupported currency: " + (fromPerEuro == null ? from : to));
+        }
+        return toPerEuro / fromPerEuro;
+    }
+
+    /**
+     * Checks whether a currency can be converted.
+     *
+     * @param currency The currency code
+     * @return true if the currency is in the table
+     */
+    public boolean supports(String currency) {
+        return table.rates.containsKey(currency);
+    }
+
+    /**
+     * Gets every currency in the table.
+     *
+     * @return The sorted currency codes
+     */
+    public Set<String> getCurrencies() {
+        return Collections.unmodifiableSet(new TreeSet<>(table.rates.keySet()));
+    }
+
+    /**
+     * Gets the ECB date of the current rates.
+     *
+     * @return The rate date, or null for the built-in table
+     */
+    public LocalDate getRateDate() {
+        return table.date == null ? null : LocalDate.parse(table.date);
+    }
+
+    /**
+     * Downloads the rates in the background unless they were already downloaded today.
+     */
+    public void refreshIfStale() {
+        String today = LocalDate.now().toString();
+        if (!today.equals(table.fetchedOn)) {
+            refreshAsync();
+        }
+    }
+
+    /**
+     * Downloads the latest rates in the background.
+     * A failed download keeps the current rates.
+     *
+     * @return A future completed once the download has finished or failed
+     */
+    public CompletableFuture<Void> refreshAsync() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null); // A download is already running
+        }
+        return CompletableFuture.runAsync(() -> {
+            try {
+                RateTable fresh = download();
+                table = fresh;
+                save(fresh);
+            } catch (Exception e) {
+                System.err.println("Could not refresh exchange rates: " + e.getMessage());
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    /**
+     * Downloads the latest rates against the euro.
+     *
+     * @return The downloaded table
+     * @throws IOException If the request fails or the response is invalid
+     */
+    private RateTable download() throws IOException {
+        HttpURLConnection con = (HttpURLConnection) URI.create(apiUrl + "/latest").toURL().openConnection();
+        con.setRequestMethod("GET");
+        con.setConnectTimeout(10_000);
+        con.setReadTimeout(10_000);
+        int responseCode = con.getResponseCode();
+        if (responseCode != 200) {
+            throw new IOException("HTTP error code: " + responseCode);
+        }
+
+        StringBuilder response = new StringBuilder();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                response.append(line);
+            }
+        }
+
+        JSONObject json = new JSONObject(response.toString());
+        JSONObject rates = json.getJSONObject("rates");
+        RateTable fresh = new RateTable();
+        fresh.date = json.getString("date");
+        fresh.fetchedOn = LocalDate.now().toString();
+        fresh.rates = new HashMap<>();
+        fresh.rates.put(json.optString("base", "EUR"), 1.0);
+        for (String currency : rates.keySet()) {
+            fresh.rates.put(currency, rates.getDouble(currency));
+        }
+        return fresh;
+    }
+
+    /**
+     * Loads the last known good rates, or the built-in table if none are saved.
+     *
+     * @return The loaded table
+     */
+    private RateTable load() {
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                RateTable saved = gson.fromJson(reader, RateTable.class);
+                if (saved != null && saved.rates != null && !saved.rates.isEmpty()) {
+                    return saved;
+                }
+            } catch (Exception e) {
+                System.err.println("Error loading exchange rates: " + e.getMessage());
+            }
+        }
+        return builtIn();
+    }
+
+    /**
+     * Saves a table as the last known good rates.
+     * The file is written next to the target and then moved over it, so a crash never
+     * leaves a truncated file.
+     *
+     * @param rates The table to save
+     */
+    private void save(RateTable rates) {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                gson.toJson(rates, writer);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error saving exchange rates: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the approximate table used before the first download.
+     * It keeps the former fixed rate of 0.83 CHF per USD.
+     *
+     * @return The built-in table
+     */
+    private static RateTable builtIn() {
+        RateTable fallback = new RateTable();
+        fallback.rates = new HashMap<>();
+        fallback.rates.put("EUR", 1.0);
+        fallback.rates.put("USD", 1.08);
+        fallback.rates.put("CHF", 0.8964); // 1.08 x 0.83
+        return fallback;
+    }
+}
@@ -0,0 +1,254 @@
+package shared;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Calculates the occurrences of a recurring schedule.
+ * <p>
+ * Occurrences are numbered from the start date: occurrence {@code n} is the start date
+ * plus {@code n} days, weeks, months or years, always counted from the start date and
+ * never from the previous occurrence. Monthly and yearly schedules are therefore
+ * anchored to the start day and clamped to the end of shorter months: a schedule
+ * started on January 31st runs on February 28th (29th in leap years) and on March 31st
+ * again, one started on February 29th runs on February 28th in common years.
+ * <p>
+ * A {@link BusinessDayRule} moves occurrences falling on a weekend; daily schedules
+ * with a rule simply skip weekends. Public holidays are not known. Any occurrence and
+ * the first occurrence after a date are computed in constant time, without iterating
+ * over earlier occurrences. Instances are immutable.
+ */
+public final class Recurrence {
+
+    /**
+     * Interval between two occurrences.
+     */
+    public enum Frequency {
+        DAILY, WEEKLY, MONTHLY, YEARLY;
+
+        /**
+         * Parses a frequency as stored in a recurring investment, ignoring case.
+         *
+         * @param frequency The frequency text (e.g. "Monthly")
+         * @return The frequency, or null if it is unknown
+         */
+        public static Frequency parse(String frequency) {
+            if (frequency == null) return null;
+            try {
+                return valueOf(frequency.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Adjustment of occurrences that fall on a Saturday or Sunday.
+     */
+    public enum BusinessDayRule {
+        /** Occurrences stay on weekends */
+        NONE,
+        /** Moved to the next Monday */
+        FOLLOWING,
+        /** Moved to the previous Friday */
+        PRECEDING,
+        /** Moved to the next Monday, or to the previous Friday if Monday is in the next month */
+        MODIFIED_FOLLOWING
+    }
+
+    /** Epoch day of a Monday, origin of the business day count */
+    private static final long MONDAY = LocalDate.of(1970, 1, 5).toEpochDay();
+
+    private final LocalDate start; // Nominal first occurrence
+    private final Frequency frequency; // Interval between occurrences
+    private final BusinessDayRule rule; // Weekend adjustment
+    private final long firstBusinessDay; // Business day number of the first daily occurrence
+
+    /**
+     * Creates a recurrence.
+     *
+     * @param start     The date of the first occurrence
+     * @param frequency The interval between occurrences
+     * @param rule      The adjustment of occurrences on weekends
+     */
+    public Recurrence(LocalDate start, Frequency frequency, BusinessDayRule rule) {
+        this.start = start;
+        this.frequency = frequency;
+        this.rule = rule;
+        this.firstBusinessDay = businessDaysBefore(nextBusinessDay(start.toEpochDay()));
+    }
+
+    /**
+     * Creates the recurrence of a recurring investment.
+     *
+     * @param investment The recurring investment
+     * @param rule       The adjustment of occurrences on weekends
+     * @return The recurrence, or null if the investment has an unknown frequency
+     */
+    public static Recurrence of(RecurringInvestment investment, BusinessDayRule rule) {
+        Frequency frequency = Frequency.parse(investment.getFrequency());
+        return frequency == null ? null : new Recurrence(investment.getStartDate(), frequency, rule);
+    }
+
+    /**
+     * Gets an occurrence by its number.
+     *
+     * @param index The occurrence number, 0 for the first one
+     * @return The date of the occurrence
+     */
+    public LocalDate occurrence(long index) {
+        if (index < 0) throw new IllegalArgumentException("Negative occurrence index: " + index);
+        if (skipsWeekends()) {
+            return LocalDate.ofEpochDay(businessDay(firstBusinessDay + index));
+        }
+        return adjust(nominal(index));
+    }
+
+    /**
+     * Gets the first occurrence strictly after a date.
+     *
+     * @param date The date after which to search
+     * @return The next occurrence
+     */
+    public LocalDate nextAfter(LocalDate date) {
+        return occurrence(indexAfter(date));
+    }
+
+    /**
+     * Gets the number of the first occurrence strictly after a date.
+     * Equal to the number of occurrences on or before that date.
+     *
+     * @param date The date after which to search
+     * @return The occurrence number
+     */
+    public long indexAfter(LocalDate date) {
+        if (skipsWeekends()) {
+            long next = nextBusinessDay(date.toEpochDay() + 1);
+            return Math.max(0, businessDaysBefore(next) - firstBusinessDay);
+        }
+        long index = Math.max(0, estimateIndex(date));
+        // The estimate is off by at most one because of clamping and weekend adjustment
+        while (index > 0 && occurrence(index - 1).isAfter(date)) index--;
+        while (!occurrence(index).isAfter(date)) index++;
+        return index;
+    }
+
+    /**
+     * Lists the next occurrences after a date.
+     *
+     * @param date  The date after which to search
+     * @param count The number of occurrences to list
+     * @return The occurrences, in order
+     */
+    public List<LocalDate> next(LocalDate date, int count) {
+        List<LocalDate> occurrences = new ArrayList<>(count);
+        long index = indexAfter(date);
+        for (int i = 0; i < count; i++) {
+            occurrences.add(occurrence(index + i));
+        }
+        return occurrences;
+    }
+
+    /**
+     * Lists the occurrences in a date range.
+     *
+     * @param after The exclusive start of the range
+     * @param until The inclusive end of the range
+     * @param limit The maximum number of occurrences returned; the latest ones are kept
+     * @return The occurrences, in order
+     */
+    public List<LocalDate> between(LocalDate after, LocalDate until, int limit) {
+        long first = indexAfter(after);
+        long end = indexAfter(until); // Exclusive
+        long from = Math.max(first, end - limit);
+        List<LocalDate> occurrences = new ArrayList<>();
+        for (long index = from; index < end; index++) {
+            occurrences.add(occurrence(index));
+        }
+        return occurrences;
+    }
+
+    /** @return The nominal date of the first occurrence */
+    public LocalDate getStart() { return start; }
+
+    /** @return The interval between occurrences */
+    public Frequency getFrequency() { return frequency; }
+
+    /** @return The adjustment of occurrences on weekends */
+    public BusinessDayRule getRule() { return rule; }
+
+    /**
+     * Checks whether daily occurrences skip weekends instead of being moved.
+     * Moving them would put several occurrences on the same day.
+     */
+    private boolean skipsWeekends() {
+        return frequency == Frequency.DAILY && rule != BusinessDayRule.NONE;
+    }
+
+    /**
+     * Computes an occurrence before weekend adjustment.
+     */
+    private LocalDate nominal(long index) {
+        switch (frequency) {
+            case DAILY: return start.plusDays(index);
+            case WEEKLY: return start.plusWeeks(index);
+            case MONTHLY: return start.plusMonths(index); // Clamps to the last day of shorter months
+            default: return start.plusYears(index); // Clamps February 29th in common years
+        }
+    }
+
+    /**
+     * Estimates the number of occurrences on or before a date from the elapsed time.
+     */
+    private long estimateIndex(LocalDate date) {
+        switch (frequency) {
+            case DAILY: return ChronoUnit.DAYS.between(start, date) + 1;
+            case WEEKLY: return Math.floorDiv(ChronoUnit.DAYS.between(start, date), 7) + 1;
+            case MONTHLY: return ChronoUnit.MONTHS.between(start, date) + 1;
+            default: return ChronoUnit.YEARS.between(start, date) + 1;
+        }
+    }
+
+    /**
+     * Moves a date falling on a weekend according to the business day rule.
+     */
+    private LocalDate adjust(LocalDate date) {
+        DayOfWeek day = date.getDayOfWeek();
+        if (rule == BusinessDayRule.NONE || (day != DayOfWeek.SATURDAY && day != DayOfWeek.SUNDAY)) {
+            return date;
+        }
+        LocalDate following = date.plusDays(day == DayOfWeek.SATURDAY ? 2 : 1);
+        LocalDate preceding = date.minusDays(day == DayOfWeek.SATURDAY ? 1 : 2);
+        switch (rule) {
+            case FOLLOWING: return following;
+            case PRECEDING: return preceding;
+            default: return following.getMonth() == date.getMonth() ? following : preceding;
+        }
+    }
+
+    /**
+     * Counts the weekdays from the reference Monday up to, excluding, an epoch day.
+     */
+    private static long businessDaysBefore(long epochDay) {
+        long days = epochDay - MONDAY;
+        return 5 * Math.floorDiv(days, 7) + Math.min(Math.floorMod(days, 7), 5);
+    }
+
+    /**
+     * Gets the epoch day of a business day number, the inverse of {@link #businessDaysBefore}.
+     */
+    private static long businessDay(long number) {
+        return MONDAY + 7 * Math.floorDiv(number, 5) + Math.floorMod(number, 5);
+    }
+
+    /**
+     * Gets the epoch day itself if it is a weekday, otherwise the following Monday.
+     */
+    private static long nextBusinessDay(long epochDay) {
+        int dayOfWeek = Math.floorMod(epochDay - MONDAY, 7); // 0 for Monday
+        return dayOfWeek < 5 ? epochDay : epochDay + 7 - dayOfWeek;
+    }
+}
@@ -0,0 +1,79 @@
+package shared;
+
+/**
+ * Downsampling of line chart series for the small phone screen.
+ * <p>
+ * Implements the Largest-Triangle-Three-Buckets (LTTB) algorithm: the series is
+ * split into as many buckets as points to keep, and from each bucket the point
+ * forming the largest triangle with the previously kept point and the average of
+ * the next bucket is kept. Peaks and troughs survive, so a multi-year daily series
+ * reduced to the chart's pixel width looks like the full series.
+ */
+public final class SeriesDownsampler {
+
+    /**
+     * Utility class, not instantiated.
+     */
+    private SeriesDownsampler() {
+    }
+
+    /**
+     * Selects the points to keep from a series.
+     * The first and last points are always kept. If the series already has no
+     * more points than requested, every index is returned.
+     *
+     * @param x         The x values, sorted ascending
+     * @param y         The y values
+     * @param size      The number of points of the series to consider
+     * @param threshold The maximum number of points to keep, at least 3 to downsample
+     * @return The indices of the kept points, ascending
+     */
+    public static int[] largestTriangleThreeBuckets(double[] x, double[] y, int size, int threshold) {
+        if (threshold >= size || threshold < 3) {
+            int[] all = new int[size];
+            for (int i = 0; i < size; i++) all[i] = i;
+            return all;
+        }
+
+        int[] kept = new int[threshold];
+        int count = 0;
+        kept[count++] = 0; // Always keeps the first point
+
+        double bucketSize = (double) (size - 2) / (threshold - 2); // Points per bucket, first and last excluded
+        int previous = 0; // Index of the last kept point
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // Average of the next bucket, the third corner of the triangle
+            int nextStart = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, size);
+            double averageX = 0.0;
+            double averageY = 0.0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += x[i];
+                averageY += y[i];
+            }
+            int nextCount = Math.max(nextEnd - nextStart, 1);
+            averageX /= nextCount;
+            averageY /= nextCount;
+
+            // Point of the current bucket with the largest triangle area
+            int start = (int) Math.floor(bucket * bucketSize) + 1;
+            int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            double maxArea = -1.0;
+            int selected = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((x[previous] - averageX) * (y[i] - y[previous])
+                        - (x[previous] - x[i]) * (averageY - y[previous])); // Twice the area, enough to compare
+                if (area > maxArea) {
+                    maxArea = area;
+                    selected = i;
+                }
+            }
+            kept[count++] = selected;
+            previous = selected;
+        }
+
+        kept[count] = size - 1; // Always keeps the last point
+        return kept;
+    }
+}
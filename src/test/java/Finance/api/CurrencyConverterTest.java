@@ -0,0 +1,57 @@
+package Finance.api;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import shared.FxRateProvider;
+import shared.StubHttpServer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of {@link CurrencyConverter} over a rate provider served by a local stub.
+ */
+public class CurrencyConverterTest {
+
+    private StubHttpServer server;
+    private FxRateProvider rates;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubHttpServer();
+        server.respond(request -> request.startsWith("/latest")
+                ? "{\"base\":\"EUR\",\"date\":\"2025-03-14\",\"rates\":{\"CHF\":0.96,\"USD\":1.2,\"JPY\":160.0}}"
+                : null);
+        rates = new FxRateProvider(server.getUrl(), Files.createTempDirectory("fx").resolve("fxRates.json"));
+        rates.refreshAsync().join();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void convertsWithTheSharedTable() {
+        CurrencyConverter converter = new CurrencyConverter(rates);
+        assertEquals(1.25, converter.getRate("CHF", "USD"), 1e-12);
+        assertEquals(160.0 / 0.96, converter.getRate("CHF", "JPY"), 1e-9);
+        assertEquals(1.0, converter.getRate("CHF", "CHF"), 0.0);
+        assertEquals(1, server.getRequests().size()); // Every base served by the one table
+    }
+
+    @Test
+    public void reportsUnknownCurrencies() {
+        CurrencyConverter converter = new CurrencyConverter(rates);
+        try {
+            converter.getRate("CHF", "XYZ");
+            fail("Unknown currency converted");
+        } catch (RuntimeException e) {
+            assertEquals("Currency conversion failed: Unsupported currency: XYZ", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package Finance.api;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import shared.StubHttpServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of {@link HistoricalRates} against a local stub of the Frankfurter time series API.
+ */
+public class HistoricalRatesTest {
+
+    private StubHttpServer server;
+    private Path file;
+    private volatile LocalDate published; // Last day with a published rate
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubHttpServer();
+        server.respond(this::timeSeries);
+        file = Files.createTempDirectory("rates").resolve("historicalRates.bin");
+        published = LocalDate.now();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    /** CHF per euro of a day, distinct for every day */
+    private static double chf(LocalDate day) {
+        return 0.9 + (day.toEpochDay() % 1000) / 10000.0;
+    }
+
+    /** Answers "/{start}..{end}" with the rates of the weekdays up to the last published day */
+    private String timeSeries(String request) {
+        String[] range = request.substring(1).split("\\.\\.");
+        LocalDate end = LocalDate.parse(range[1]);
+        StringBuilder json = new StringBuilder("{\"base\":\"EUR\",\"rates\":{");
+        String separator = "";
+        for (LocalDate day = LocalDate.parse(range[0]); !day.isAfter(end) && !day.isAfter(published);
+             day = day.plusDays(1)) {
+            if (isWeekend(day)) continue;
+            json.append(separator).append('"').append(day).append("\":{\"CHF\":").append(chf(day))
+                    .append(",\"USD\":1.25}");
+            separator = ",";
+        }
+        return json.append("}}").toString();
+    }
+
+    private static boolean isWeekend(LocalDate day) {
+        return day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY;
+    }
+
+    /** The latest weekday up to today */
+    private static LocalDate lastWeekday() {
+        LocalDate day = LocalDate.now();
+        while (isWeekend(day)) day = day.minusDays(1);
+        return day;
+    }
+
+    @Test
+    public void weekendsCarryTheRateOfFriday() throws IOException {
+        HistoricalRates rates = new HistoricalRates(server.getUrl(), file);
+        LocalDate saturday = LocalDate.now().minusWeeks(3).with(DayOfWeek.SATURDAY);
+
+        assertEquals(chf(saturday.minusDays(1)), rates.getRate("EUR", "CHF", saturday), 1e-12);
+        assertEquals(chf(saturday.plusDays(2)) / 1.25, rates.getRate("USD", "CHF", saturday.plusDays(2)), 1e-12);
+    }
+
+    @Test
+    public void loadedDaysAreAnsweredFromMemory() throws IOException {
+        HistoricalRates rates = new HistoricalRates(server.getUrl(), file);
+        rates.preloadAsync(LocalDate.now().minusMonths(2)).join();
+        for (LocalDate day = LocalDate.now().minusMonths(2); !day.isAfter(LocalDate.now()); day = day.plusDays(1)) {
+            rates.getRate("USD", "CHF", day);
+        }
+        assertEquals(1, server.getRequests().size());
+
+        rates.getRate("USD", "CHF", LocalDate.now().minusMonths(3)); // Older dates, one more request
+        assertEquals(2, server.getRequests().size());
+    }
+
+    @Test
+    public void rateCarriedToTheLastDayIsRequestedAgainAfterARestart() throws IOException {
+        LocalDate weekday = lastWeekday();
+        LocalDate before = weekday.minusDays(1);
+        while (isWeekend(before)) before = before.minusDays(1);
+        published = before; // The rate of the last weekday is not published yet
+        HistoricalRates rates = new HistoricalRates(server.getUrl(), file);
+        assertEquals(chf(before), rates.getRate("EUR", "CHF", weekday), 1e-12);
+
+        published = LocalDate.now();
+        HistoricalRates restarted = new HistoricalRates(server.getUrl(), file);
+        assertEquals(chf(weekday), restarted.getRate("EUR", "CHF", weekday), 1e-12);
+        String last = server.getRequests().get(server.getRequests().size() - 1);
+        assertTrue(last, last.endsWith(".." + LocalDate.now()));
+    }
+
+    @Test
+    public void asyncLookupsReportMissingRatesInsteadOfFallingBack() throws IOException {
+        HistoricalRates rates = new HistoricalRates(server.getUrl(), file);
+        LocalDate day = LocalDate.now().minusWeeks(2).with(DayOfWeek.WEDNESDAY);
+        assertEquals(chf(day), rates.getRateAsync("EUR", "CHF", day).join(), 1e-12);
+
+        server.setStatus(500);
+        try {
+            rates.getRateAsync("EUR", "CHF", day.minusYears(1)).join();
+            fail("Missing rate was answered");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof UncheckedIOException);
+        }
+        assertEquals(chf(day), rates.getRateAsync("EUR", "CHF", day).join(), 1e-12); // Loaded days still answer
+    }
+
+    @Test
+    public void loadedRatesAreUsedOffline() throws IOException {
+        LocalDate day = LocalDate.now().minusWeeks(2).with(DayOfWeek.WEDNESDAY);
+        new HistoricalRates(server.getUrl(), file).preload(day);
+        server.close();
+
+        HistoricalRates restarted = new HistoricalRates(server.getUrl(), file);
+        assertEquals(chf(day), restarted.getRate("EUR", "CHF", day), 1e-12);
+    }
+}
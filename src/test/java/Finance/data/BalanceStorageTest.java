@@ -0,0 +1,108 @@
+package Finance.data;
+
+import Finance.model.MonthlyBalance;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link BalanceStorage}: migration of the former string maps and of typed files
+ * without the full year flag.
+ */
+public class BalanceStorageTest {
+
+    private String userHome; // Restored after each test
+    private Path dir; // Balance directory below the temporary home
+
+    @Before
+    public void setUp() throws IOException {
+        userHome = System.getProperty("user.home");
+        Path home = Files.createTempDirectory("home");
+        System.setProperty("user.home", home.toString());
+        dir = home.resolve("FinanceTracker").resolve("balance");
+        Files.createDirectories(dir);
+    }
+
+    @After
+    public void tearDown() {
+        System.setProperty("user.home", userHome);
+    }
+
+    private static Map<YearMonth, MonthlyBalance> byMonth(List<MonthlyBalance> balances) {
+        Map<YearMonth, MonthlyBalance> months = new HashMap<>();
+        for (MonthlyBalance balance : balances) {
+            months.put(balance.getMonth(), balance);
+        }
+        return months;
+    }
+
+    @Test
+    public void migratesFormerFilesWithoutFullYearSavingsForPreviousMonths() throws IOException {
+        Files.writeString(dir.resolve("net_savings.json"), "{"
+                + "\"March 2025\": {\"current\": \"1200.50\", \"year\": \"15000\", \"feb\": \"900\", \"jan\": \"\"},"
+                + "\"January 2025\": {\"current\": \"700\", \"year\": \"13000\", \"dec\": \"650\"}}", StandardCharsets.UTF_8);
+        Files.writeString(dir.resolve("debts.json"),
+                "{\"March 2025\": {\"credit\": \"300\", \"loan\": \"2000\"}}", StandardCharsets.UTF_8);
+
+        Map<YearMonth, MonthlyBalance> months = byMonth(new BalanceStorage().loadBalances());
+        assertEquals(4, months.size());
+
+        MonthlyBalance march = months.get(YearMonth.of(2025, 3));
+        assertTrue(march.hasYearSavings());
+        assertEquals(120_050, march.getCurrentSavingsCents());
+        assertEquals(1_500_000, march.getYearSavingsCents());
+        assertEquals(230_000, march.getTotalDebtsCents());
+
+        MonthlyBalance february = months.get(YearMonth.of(2025, 2)); // Filled from March
+        assertTrue(february.hasSavings());
+        assertFalse(february.hasYearSavings());
+        assertEquals(90_000, february.getCurrentSavingsCents());
+
+        MonthlyBalance january = months.get(YearMonth.of(2025, 1)); // Own entry, not replaced by the empty fill
+        assertTrue(january.hasYearSavings());
+        assertEquals(70_000, january.getCurrentSavingsCents());
+
+        assertFalse(months.get(YearMonth.of(2024, 12)).hasYearSavings());
+    }
+
+    @Test
+    public void migratedMonthsKeepTheirFlagsInTheTypedFile() throws IOException {
+        Files.writeString(dir.resolve("net_savings.json"),
+                "{\"March 2025\": {\"current\": \"100\", \"year\": \"0\", \"feb\": \"80\"}}", StandardCharsets.UTF_8);
+        new BalanceStorage().loadBalances();
+        WriteBehindStore.getShared().flush();
+        assertTrue(Files.exists(dir.resolve("balances.json")));
+
+        Map<YearMonth, MonthlyBalance> months = byMonth(new BalanceStorage().loadBalances());
+        assertTrue(months.get(YearMonth.of(2025, 3)).hasYearSavings()); // Entered as zero
+        assertFalse(months.get(YearMonth.of(2025, 2)).hasYearSavings());
+    }
+
+    @Test
+    public void typedFilesOfVersionTwoInferTheFullYearFlag() throws IOException {
+        Files.writeString(dir.resolve("balances.json"), "{\"version\": 2, \"months\": ["
+                + "{\"month\": \"2025-03\", \"hasSavings\": true, \"currentSavingsCents\": 100, \"yearSavingsCents\": 5000},"
+                + "{\"month\": \"2025-02\", \"hasSavings\": true, \"currentSavingsCents\": 80, \"yearSavingsCents\": 0},"
+                + "{\"month\": \"2025-01\", \"hasDebts\": true, \"creditCardCents\": 10}]}", StandardCharsets.UTF_8);
+
+        Map<YearMonth, MonthlyBalance> months = byMonth(new BalanceStorage().loadBalances());
+        assertTrue(months.get(YearMonth.of(2025, 3)).hasYearSavings());
+        assertEquals(5000, months.get(YearMonth.of(2025, 3)).getYearSavingsCents());
+        assertFalse(months.get(YearMonth.of(2025, 2)).hasYearSavings());
+        assertTrue(months.get(YearMonth.of(2025, 2)).hasSavings());
+        assertFalse(months.get(YearMonth.of(2025, 1)).hasSavings());
+    }
+}
@@ -0,0 +1,145 @@
+package Finance.data;
+
+import Finance.model.Expense;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link ExpenseAnalytics} against sums over a plain list, before and after edits.
+ */
+public class ExpenseAnalyticsTest {
+
+    private static final YearMonth FIRST = YearMonth.of(2023, 1); // First month with expenses
+    private static final int MONTHS = 30; // Months with expenses
+
+    private static Expense randomExpense(Random random) {
+        LocalDate date = FIRST.atDay(1).plusDays(random.nextInt(MONTHS * 30));
+        String category = Expense.CATEGORIES[random.nextInt(Expense.CATEGORIES.length)];
+        long cents = 1 + random.nextInt(50_000);
+        return new Expense(date, "Expense", category, cents, "CHF", cents);
+    }
+
+    /** Checks every statistic of every month against the list */
+    private static void assertMatches(ExpenseAnalytics analytics, List<Expense> expenses) {
+        for (int m = 0; m < MONTHS; m++) {
+            YearMonth month = FIRST.plusMonths(m);
+            long total = total(expenses, month, month);
+            assertEquals(month.toString(), total, analytics.getMonth(month).getTotalCents());
+            assertEquals(month.toString(), count(expenses, month), analytics.getMonth(month).getCount());
+            assertEquals(month.toString(), total - total(expenses, month.minusMonths(1), month.minusMonths(1)),
+                    analytics.getMonthOverMonthDeltaCents(month));
+            for (int window : ExpenseAnalytics.ROLLING_WINDOWS) {
+                assertEquals(month + " over " + window,
+                        Math.round(total(expenses, month.minusMonths(window - 1), month) / (double) window),
+                        analytics.getRollingAverageCents(month, window));
+            }
+            for (int day = 1; day <= month.lengthOfMonth(); day++) {
+                assertEquals(dayTotal(expenses, month.atDay(day)), analytics.getMonth(month).getDayCents(day));
+            }
+        }
+
+        YearMonth from = FIRST.plusMonths(5);
+        YearMonth to = FIRST.plusMonths(16);
+        Map<String, Long> byCategory = new HashMap<>();
+        for (Expense expense : expenses) {
+            if (in(expense, from, to)) byCategory.merge(expense.getCategory(), expense.getAmountCents(), Long::sum);
+        }
+        Map<String, Long> breakdown = analytics.getCategoryBreakdown(from, to);
+        assertEquals(byCategory, breakdown);
+        long previous = Long.MAX_VALUE;
+        for (long cents : breakdown.values()) {
+            assertTrue("Largest first", cents <= previous);
+            previous = cents;
+        }
+
+        Map<LocalDate, Long> days = new TreeMap<>();
+        for (Expense expense : expenses) {
+            if (in(expense, from, to)) days.merge(expense.getDate(), expense.getAmountCents(), Long::sum);
+        }
+        List<Long> highest = new ArrayList<>(days.values());
+        highest.sort(null);
+        List<ExpenseAnalytics.DayTotal> top = analytics.getTopDays(from, to, 10);
+        assertEquals(10, top.size());
+        for (int i = 0; i < top.size(); i++) {
+            ExpenseAnalytics.DayTotal day = top.get(i);
+            assertEquals(highest.get(highest.size() - 1 - i), Long.valueOf(day.getCents()));
+            assertEquals(days.get(day.getDate()), Long.valueOf(day.getCents()));
+        }
+    }
+
+    private static boolean in(Expense expense, YearMonth from, YearMonth to) {
+        YearMonth month = YearMonth.from(expense.getDate());
+        return !month.isBefore(from) && !month.isAfter(to);
+    }
+
+    private static long total(List<Expense> expenses, YearMonth from, YearMonth to) {
+        long total = 0;
+        for (Expense expense : expenses) {
+            if (in(expense, from, to)) total += expense.getAmountCents();
+        }
+        return total;
+    }
+
+    private static int count(List<Expense> expenses, YearMonth month) {
+        int count = 0;
+        for (Expense expense : expenses) {
+            if (in(expense, month, month)) count++;
+        }
+        return count;
+    }
+
+    private static long dayTotal(List<Expense> expenses, LocalDate day) {
+        long total = 0;
+        for (Expense expense : expenses) {
+            if (expense.getDate().equals(day)) total += expense.getAmountCents();
+        }
+        return total;
+    }
+
+    @Test
+    public void matchesSumsOverTheListBeforeAndAfterEdits() {
+        Random random = new Random(47);
+        List<Expense> expenses = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            expenses.add(randomExpense(random));
+        }
+        ExpenseStore store = new ExpenseStore(expenses);
+        ExpenseAnalytics analytics = new ExpenseAnalytics(store);
+        assertMatches(analytics, expenses);
+
+        // Cached summaries of edited months are recomputed
+        for (int i = 0; i < 200; i++) {
+            if (random.nextBoolean()) {
+                Expense added = randomExpense(random);
+                expenses.add(added);
+                store.add(added);
+            } else {
+                store.remove(expenses.remove(random.nextInt(expenses.size())));
+            }
+        }
+        assertMatches(analytics, expenses);
+    }
+
+    @Test
+    public void monthOverMonthPercentIsUndefinedAfterAnEmptyMonth() {
+        ExpenseStore store = new ExpenseStore();
+        store.add(new Expense(LocalDate.of(2025, 2, 10), "Rent", "Housing", 20_000, "CHF", 20_000));
+        store.add(new Expense(LocalDate.of(2025, 3, 10), "Rent", "Housing", 25_000, "CHF", 25_000));
+        ExpenseAnalytics analytics = new ExpenseAnalytics(store);
+
+        assertEquals(25.0, analytics.getMonthOverMonthPercent(YearMonth.of(2025, 3)), 1e-9);
+        assertTrue(Double.isNaN(analytics.getMonthOverMonthPercent(YearMonth.of(2025, 2))));
+        assertTrue(analytics.getTopDays(YearMonth.of(2025, 1), YearMonth.of(2025, 3), 0).isEmpty());
+    }
+}
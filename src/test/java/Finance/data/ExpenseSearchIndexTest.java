@@ -0,0 +1,127 @@
+package Finance.data;
+
+import Finance.model.Expense;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link ExpenseSearchIndex} and its query parser, against a scan of every expense.
+ */
+public class ExpenseSearchIndexTest {
+
+    private static final String[] WORDS = {"coffee", "coop", "migros", "train", "ticket", "rent", "cinema", "cafe"};
+
+    private static Expense expense(String description, String category, int day, long cents) {
+        return new Expense(LocalDate.of(2025, 3, day), description, category, cents, "CHF", cents);
+    }
+
+    /** Matches a query by scanning every expense */
+    private static List<Expense> scan(List<Expense> expenses, List<String> prefixes,
+                                      LocalDate from, LocalDate to, long minCents, long maxCents) {
+        List<Expense> result = new ArrayList<>();
+        for (Expense expense : expenses) {
+            Set<String> words = ExpenseSearchIndex.tokenize(expense.getDescription() + " " + expense.getCategory());
+            boolean all = true;
+            for (String prefix : prefixes) {
+                all &= words.stream().anyMatch(word -> word.startsWith(prefix));
+            }
+            long cents = expense.getAmountCents();
+            if (all && cents >= minCents && cents <= maxCents
+                    && (from == null || !expense.getDate().isBefore(from))
+                    && (to == null || !expense.getDate().isAfter(to))) {
+                result.add(expense);
+            }
+        }
+        result.sort(Comparator.comparing(Expense::getDate));
+        return result;
+    }
+
+    @Test
+    public void matchesAScanOfEveryExpenseBeforeAndAfterRemovals() {
+        Random random = new Random(48);
+        List<Expense> expenses = new ArrayList<>();
+        ExpenseSearchIndex index = new ExpenseSearchIndex();
+        for (int i = 0; i < 2000; i++) {
+            String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+            Expense expense = expense(description, Expense.CATEGORIES[random.nextInt(Expense.CATEGORIES.length)],
+                    1 + random.nextInt(31), 1 + random.nextInt(20_000));
+            expenses.add(expense);
+            index.add(expense);
+        }
+
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 200; i++) {
+                List<String> prefixes = new ArrayList<>();
+                for (int p = random.nextInt(3); p > 0; p--) {
+                    String word = WORDS[random.nextInt(WORDS.length)];
+                    prefixes.add(word.substring(0, 1 + random.nextInt(word.length())));
+                }
+                LocalDate from = random.nextBoolean() ? null : LocalDate.of(2025, 3, 1 + random.nextInt(31));
+                long minCents = random.nextBoolean() ? Long.MIN_VALUE : random.nextInt(20_000);
+                ExpenseSearchIndex.Query query = new ExpenseSearchIndex.Query(
+                        String.join(" ", prefixes), from, null, minCents, Long.MAX_VALUE);
+                assertEquals(prefixes + " from " + from + " min " + minCents,
+                        scan(expenses, prefixes, from, null, minCents, Long.MAX_VALUE), index.search(query));
+            }
+            for (int i = 0; i < 500; i++) {
+                assertTrue(index.remove(expenses.remove(random.nextInt(expenses.size()))));
+            }
+        }
+    }
+
+    @Test
+    public void removeOnlyMatchesTheIndexedInstance() {
+        ExpenseSearchIndex index = new ExpenseSearchIndex();
+        Expense coffee = expense("Coffee", "Food", 3, 450);
+        index.add(coffee);
+        index.add(coffee); // Already indexed
+
+        assertFalse(index.remove(expense("Coffee", "Food", 3, 450)));
+        assertEquals(Arrays.asList(coffee), index.search(ExpenseSearchIndex.Query.parse("cof")));
+        assertTrue(index.remove(coffee));
+        assertTrue(index.search(ExpenseSearchIndex.Query.parse("cof")).isEmpty());
+        assertEquals(0, index.getWordCount());
+    }
+
+    @Test
+    public void parseReadsAmountAndDateFilters() {
+        ExpenseSearchIndex index = new ExpenseSearchIndex();
+        Expense small = expense("Coffee Starbucks", "Food", 3, 450);
+        Expense exact = expense("Coffee beans", "Food", 14, 1250);
+        Expense large = expense("Coffee machine", "Shopping", 20, 29_900);
+        for (Expense expense : Arrays.asList(small, exact, large)) {
+            index.add(expense);
+        }
+
+        assertEquals(Arrays.asList(exact, large), index.search(ExpenseSearchIndex.Query.parse("coffee >4.50")));
+        assertEquals(Arrays.asList(small, exact), index.search(ExpenseSearchIndex.Query.parse("<=12,50")));
+        assertEquals(Arrays.asList(small), index.search(ExpenseSearchIndex.Query.parse("<12.50")));
+        assertEquals(Arrays.asList(exact), index.search(ExpenseSearchIndex.Query.parse("14.03.2025")));
+        assertEquals(Arrays.asList(exact, large),
+                index.search(ExpenseSearchIndex.Query.parse("  from:04.03.2025   to:31.03.2025 co ")));
+        assertEquals(Arrays.asList(large), index.search(ExpenseSearchIndex.Query.parse("shop MACH")));
+    }
+
+    @Test
+    public void incompleteDatesAreSearchedAsWords() {
+        assertFalse(ExpenseSearchIndex.Query.parse("from:14.03").isEmpty());
+        assertTrue(ExpenseSearchIndex.Query.parse("   ").isEmpty());
+
+        ExpenseSearchIndex index = new ExpenseSearchIndex();
+        Expense invoice = expense("Invoice 14.03", "Other", 1, 100);
+        index.add(invoice);
+        index.add(expense("Order 14", "Other", 1, 100));
+        assertEquals(Arrays.asList(invoice), index.search(ExpenseSearchIndex.Query.parse("14.0"))); // Words "14" and "0"
+    }
+}
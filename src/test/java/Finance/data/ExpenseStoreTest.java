@@ -0,0 +1,69 @@
+package Finance.data;
+
+import Finance.model.Expense;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of {@link ExpenseStore}: the accepted date range and the reported categories.
+ */
+public class ExpenseStoreTest {
+
+    private static Expense expense(LocalDate date, String category, long cents) {
+        return new Expense(date, "Expense", category, cents, "CHF", cents);
+    }
+
+    @Test
+    public void datesFarOutsideTheRangeAreRejected() {
+        ExpenseStore store = new ExpenseStore();
+        Expense typo = expense(LocalDate.of(9999, 1, 1), "Food", 500);
+        try {
+            store.add(typo);
+            fail("Expense of the year 9999 was added");
+        } catch (IllegalArgumentException expected) {
+            // Reported to the dialog
+        }
+        assertTrue(store.isEmpty());
+
+        store.add(expense(ExpenseStore.FIRST_DATE, "Food", 100));
+        store.add(expense(LocalDate.now().plusYears(ExpenseStore.MAX_YEARS_AHEAD), "Food", 200));
+        assertEquals(300, store.sumCents(ExpenseStore.FIRST_DATE, LocalDate.now().plusYears(20)));
+        assertFalse(ExpenseStore.isValidDate(ExpenseStore.FIRST_DATE.minusDays(1)));
+
+        // Loaded files with such dates still open, without the expense
+        ExpenseStore loaded = new ExpenseStore(Arrays.asList(typo, expense(LocalDate.of(2025, 3, 1), "Food", 700)));
+        assertEquals(1, loaded.size());
+        assertEquals(LocalDate.of(2025, 3, 1), loaded.getLastDate());
+    }
+
+    @Test
+    public void categoriesWithoutExpensesAreDropped() {
+        LocalDate day = LocalDate.of(2025, 3, 1);
+        Expense coffee = expense(day, "Food", 450);
+        Expense refund = expense(day, "Shopping", -2_000);
+        Expense purchase = expense(day, "Shopping", 2_000);
+        ExpenseStore store = new ExpenseStore(Arrays.asList(coffee, refund, purchase));
+        assertEquals(new HashSet<>(Arrays.asList("Food", "Shopping")), new HashSet<>(store.getCategories()));
+
+        assertTrue(store.remove(coffee));
+        assertEquals(Collections.singleton("Shopping"), new HashSet<>(store.getCategories())); // Netting to zero still counts
+        assertEquals(0, store.sumCents("Food", day, day));
+
+        store.add(expense(day.minusYears(3), "Travel", 90_000)); // Regrows the trees
+        assertTrue(store.remove(refund));
+        assertTrue(store.remove(purchase));
+        assertEquals(Collections.singleton("Travel"), new HashSet<>(store.getCategories()));
+
+        store.add(coffee);
+        assertEquals(450, store.sumCents("Food", day, day));
+    }
+}
@@ -0,0 +1,109 @@
+package Finance.data;
+
+import Finance.model.MonthlyBalance;
+import org.junit.Test;
+
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link NetWorthSeries}: carried entries, incremental updates against a
+ * rebuild, and trends against a direct least-squares fit.
+ */
+public class NetWorthSeriesTest {
+
+    private static final YearMonth START = YearMonth.of(2020, 1);
+
+    private static MonthlyBalance balance(Map<YearMonth, MonthlyBalance> balances, YearMonth month) {
+        return balances.computeIfAbsent(month, MonthlyBalance::new);
+    }
+
+    @Test
+    public void currentSavingsAloneCarryTheEarlierFullYearSavings() {
+        Map<YearMonth, MonthlyBalance> balances = new TreeMap<>();
+        balance(balances, START).setSavings(50_000, 1_000_000);
+        balance(balances, START).setDebts(10_000, 0);
+        balance(balances, START.plusMonths(3)).setSavings(80_000, 1_200_000);
+        NetWorthSeries series = new NetWorthSeries(balances.values());
+
+        // Previous-month fields of the savings dialog only enter the month's own savings
+        MonthlyBalance filled = balance(balances, START.plusMonths(2));
+        filled.setCurrentSavings(70_000);
+        series.update(filled, balances.values());
+
+        assertEquals(990_000, series.getNetWorthCents(START.plusMonths(1)));
+        assertEquals(990_000, series.getNetWorthCents(START.plusMonths(2))); // No dip to the debts alone
+        assertEquals(1_190_000, series.getNetWorthCents(START.plusMonths(3)));
+
+        // A month with current savings only does not extend the series
+        MonthlyBalance later = balance(balances, START.plusMonths(6));
+        later.setCurrentSavings(10_000);
+        series.update(later, balances.values());
+        assertEquals(START.plusMonths(3), series.getLastMonth());
+        assertEquals(4, series.size());
+    }
+
+    @Test
+    public void incrementalUpdatesMatchARebuild() {
+        Random random = new Random(50);
+        Map<YearMonth, MonthlyBalance> balances = new TreeMap<>();
+        NetWorthSeries series = new NetWorthSeries(balances.values());
+        for (int step = 0; step < 2000; step++) {
+            MonthlyBalance balance = balance(balances, START.plusMonths(random.nextInt(120)));
+            switch (random.nextInt(3)) {
+                case 0 -> balance.setSavings(random.nextInt(100_000), random.nextInt(5_000_000));
+                case 1 -> balance.setCurrentSavings(random.nextInt(100_000));
+                default -> balance.setDebts(random.nextInt(500_000), random.nextInt(2_000_000));
+            }
+            series.update(balance, balances.values());
+
+            if (step % 50 == 0) {
+                NetWorthSeries rebuilt = new NetWorthSeries(balances.values());
+                assertEquals(rebuilt.getFirstMonth(), series.getFirstMonth());
+                assertEquals(rebuilt.size(), series.size());
+                for (int m = -2; m < 125; m++) {
+                    YearMonth month = START.plusMonths(m);
+                    assertEquals(month.toString(), rebuilt.getNetWorthCents(month), series.getNetWorthCents(month));
+                    assertEquals(rebuilt.getTrendCentsPerMonth(month, 12), series.getTrendCentsPerMonth(month, 12), 1e-6);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void trendIsTheLeastSquaresSlopeOfTheWindow() {
+        Random random = new Random(7);
+        Map<YearMonth, MonthlyBalance> balances = new TreeMap<>();
+        for (int m = 0; m < 60; m++) {
+            balance(balances, START.plusMonths(m)).setSavings(0, 1_000_000 + m * 25_000L + random.nextInt(40_000));
+        }
+        NetWorthSeries series = new NetWorthSeries(balances.values());
+
+        YearMonth end = START.plusMonths(40);
+        int window = 12;
+        double meanX = 0;
+        double meanY = 0;
+        for (int i = 0; i < window; i++) {
+            meanX += i / (double) window;
+            meanY += series.getNetWorthCents(end.minusMonths(window - 1 - i)) / (double) window;
+        }
+        double covariance = 0;
+        double variance = 0;
+        for (int i = 0; i < window; i++) {
+            double y = series.getNetWorthCents(end.minusMonths(window - 1 - i));
+            covariance += (i - meanX) * (y - meanY);
+            variance += (i - meanX) * (i - meanX);
+        }
+        double slope = covariance / variance;
+        assertEquals(slope, series.getTrendCentsPerMonth(end, window), 1e-6);
+        assertEquals(meanY + slope * (window - 1 - meanX + 6),
+                series.getProjectionCents(end, window, 6), 1e-3);
+
+        assertTrue(Double.isNaN(series.getTrendCentsPerMonth(START, window))); // A single month
+    }
+}
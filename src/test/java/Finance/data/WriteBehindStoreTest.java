@@ -0,0 +1,92 @@
+package Finance.data;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link WriteBehindStore}: coalesced saves, lazy serialization and atomic writes.
+ */
+public class WriteBehindStoreTest {
+
+    private WriteBehindStore store;
+    private Path dir;
+
+    @Before
+    public void setUp() throws IOException {
+        store = new WriteBehindStore();
+        dir = Files.createTempDirectory("write-behind");
+    }
+
+    @Test
+    public void burstOfSavesIsSerializedAndWrittenOnce() throws IOException {
+        Path file = dir.resolve("expenses.json");
+        AtomicInteger serialized = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            String content = "version " + i;
+            store.markDirty(file, () -> {
+                serialized.incrementAndGet();
+                return content;
+            });
+        }
+        assertEquals(0, serialized.get()); // Nothing serialized before the flush
+        assertFalse(Files.exists(file));
+
+        store.flush();
+        assertEquals(1, serialized.get());
+        assertEquals(100, store.getSaveRequestCount());
+        assertEquals(1, store.getWriteCount());
+        assertEquals("version 99", Files.readString(file, StandardCharsets.UTF_8));
+        assertFalse(Files.exists(dir.resolve("expenses.json.tmp")));
+    }
+
+    @Test
+    public void flushReplacesTheFileAndCreatesItsDirectory() throws IOException {
+        Path file = dir.resolve("balance").resolve("balances.json");
+        store.markDirty(file, () -> "old");
+        store.flush();
+        store.markDirty(file, () -> "new");
+        store.flush();
+
+        assertEquals("new", Files.readString(file, StandardCharsets.UTF_8));
+        assertEquals(2, store.getWriteCount());
+        store.flush(); // Nothing dirty
+        assertEquals(2, store.getWriteCount());
+    }
+
+    @Test
+    public void failedSerializationDoesNotBlockOtherFiles() throws IOException {
+        Path broken = dir.resolve("goals.json");
+        Path file = dir.resolve("expenses.json");
+        store.markDirty(broken, () -> {
+            throw new IllegalStateException("Not serializable");
+        });
+        store.markDirty(file, () -> "saved");
+        store.flush();
+
+        assertFalse(Files.exists(broken));
+        assertEquals("saved", Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void dirtyFilesAreWrittenOnceTheSavesPause() throws Exception {
+        Path file = dir.resolve("expenses.json");
+        store.markDirty(file, () -> "debounced");
+
+        long deadline = System.currentTimeMillis() + 10 * WriteBehindStore.DEBOUNCE_MS;
+        while (store.getWriteCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(Files.exists(file));
+        assertEquals("debounced", Files.readString(file, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,94 @@
+package Finance.gui.components;
+
+import Finance.model.Expense;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link ExpenseListModel}: row order, single-row events and incremental totals.
+ */
+public class ExpenseListModelTest {
+
+    private ExpenseListModel model;
+    private final List<String> events = new ArrayList<>(); // Type and rows of every event
+
+    @Before
+    public void setUp() {
+        model = new ExpenseListModel(expense -> expense.getAmount() * 2); // Display currency worth half a franc
+        model.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(ListDataEvent e) { events.add("added " + e.getIndex0() + "-" + e.getIndex1()); }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) { events.add("removed " + e.getIndex0() + "-" + e.getIndex1()); }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) { events.add("changed " + e.getIndex0() + "-" + e.getIndex1()); }
+        });
+    }
+
+    private static Expense expense(int day, long cents) {
+        return new Expense(LocalDate.of(2025, 3, day), "Expense " + day, Expense.DEFAULT_CATEGORY,
+                cents, "CHF", cents);
+    }
+
+    @Test
+    public void addInsertsOneRowAtItsDatePosition() {
+        Expense first = expense(3, 1000);
+        Expense last = expense(20, 250);
+        model.setExpenses(Arrays.asList(first, last));
+        events.clear();
+
+        Expense middle = expense(10, 125);
+        Expense sameDay = expense(10, 5);
+        assertEquals(1, model.add(middle));
+        assertEquals(2, model.add(sameDay)); // After the expenses of the same day
+
+        assertEquals(Arrays.asList("added 1-1", "added 2-2"), events);
+        assertSame(first, model.getElementAt(0));
+        assertSame(middle, model.getElementAt(1));
+        assertSame(sameDay, model.getElementAt(2));
+        assertSame(last, model.getElementAt(3));
+        assertEquals(1380, model.getTotalCents());
+        assertEquals(27.6, model.getDisplayTotal(), 1e-9);
+    }
+
+    @Test
+    public void removeMatchesTheInstanceAndUpdatesTheTotals() {
+        Expense kept = expense(5, 300);
+        Expense equalCopy = expense(5, 300);
+        model.setExpenses(Arrays.asList(kept));
+        events.clear();
+
+        assertFalse(model.remove(equalCopy));
+        assertTrue(model.remove(kept));
+        assertEquals(Arrays.asList("removed 0-0"), events);
+        assertEquals(0, model.getSize());
+        assertEquals(0, model.getTotalCents());
+        assertEquals(0.0, model.getDisplayTotal(), 1e-9);
+    }
+
+    @Test
+    public void setExpensesReplacesTheRowsAndTotals() {
+        model.setExpenses(Arrays.asList(expense(1, 100), expense(2, 200)));
+        events.clear();
+
+        model.setExpenses(Arrays.asList(expense(7, 700)));
+        assertEquals(Arrays.asList("removed 0-1", "added 0-0"), events);
+        assertEquals(700, model.getTotalCents());
+        assertEquals(14.0, model.getDisplayTotal(), 1e-9);
+        assertEquals(14.0, model.getDisplayAmount(model.getElementAt(0)), 1e-9);
+    }
+}
@@ -0,0 +1,94 @@
+package investify.service;
+
+import investify.model.Transaction;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Measures {@link CostBasisEngine} on histories of one million trades.
+ * <p>
+ * Run with {@code java investify.service.CostBasisEngineBenchmark [trades] [symbols]}
+ * from the test classpath. Each cost method first replays the history a few times
+ * to warm up the JIT, then reports the mean time of the measured replays, the cost
+ * per trade and the mean time of single trades applied on top of the history.
+ * It is a plain timing loop rather than a JMH benchmark, so it runs with the
+ * dependencies the project already has.
+ */
+public class CostBasisEngineBenchmark {
+
+    private static final int WARMUP_RUNS = 5; // Replays before measuring
+    private static final int MEASURED_RUNS = 10; // Replays averaged in the result
+    private static final int INCREMENTAL_TRADES = 10_000; // Trades applied after the replay
+
+    public static void main(String[] args) {
+        int trades = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int symbols = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        Transaction[] history = randomHistory(trades, symbols, new Random(1));
+        Transaction[] newTrades = randomHistory(INCREMENTAL_TRADES, symbols, new Random(2));
+        System.out.printf("%,d trades over %d symbols%n", trades, symbols);
+
+        for (CostBasisEngine.Method method : CostBasisEngine.Method.values()) {
+            CostBasisEngine engine = new CostBasisEngine(method);
+            double checksum = 0.0;
+            for (int run = 0; run < WARMUP_RUNS; run++) {
+                engine.clear();
+                engine.applyAll(history);
+                checksum += engine.getTotalRealizedPnl();
+            }
+
+            long total = 0;
+            for (int run = 0; run < MEASURED_RUNS; run++) {
+                engine.clear();
+                long start = System.nanoTime();
+                engine.applyAll(history);
+                total += System.nanoTime() - start;
+                checksum += engine.getTotalRealizedPnl();
+            }
+            double millis = total / 1e6 / MEASURED_RUNS;
+
+            // Trades applied one by one on top of the full history, as when the user trades
+            long start = System.nanoTime();
+            for (Transaction trade : newTrades) {
+                engine.apply(trade);
+            }
+            double incremental = (System.nanoTime() - start) / (double) newTrades.length;
+
+            System.out.printf("%-7s full replay %8.1f ms, %6.1f ns/trade, incremental %6.1f ns/trade (checksum %.0f)%n",
+                    method, millis, millis * 1e6 / trades, incremental, checksum + engine.getTotalRealizedPnl());
+        }
+    }
+
+    /**
+     * Generates a random history of buys and sells that never sells more than is held.
+     *
+     * @param trades  The number of trades
+     * @param symbols The number of distinct symbols
+     * @param random  The source of randomness
+     * @return The trades in order
+     */
+    static Transaction[] randomHistory(int trades, int symbols, Random random) {
+        String[] names = new String[symbols];
+        for (int i = 0; i < symbols; i++) {
+            names[i] = "SYM" + i;
+        }
+        int[] held = new int[symbols];
+        LocalDate day = LocalDate.of(2000, 1, 3);
+        Transaction[] history = new Transaction[trades];
+        for (int i = 0; i < trades; i++) {
+            int symbol = random.nextInt(symbols);
+            double price = 10 + random.nextInt(40_000) / 100.0;
+            if (held[symbol] > 0 && random.nextInt(5) < 2) {
+                int quantity = 1 + random.nextInt(held[symbol]);
+                held[symbol] -= quantity;
+                history[i] = new Transaction("Sell", names[symbol], quantity, price, day);
+            } else {
+                int quantity = 1 + random.nextInt(100);
+                held[symbol] += quantity;
+                history[i] = new Transaction("Buy", names[symbol], quantity, price, day);
+            }
+            if (i % 100 == 99) day = day.plusDays(1);
+        }
+        return history;
+    }
+}
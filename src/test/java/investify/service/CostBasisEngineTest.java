@@ -0,0 +1,137 @@
+package investify.service;
+
+import investify.model.Transaction;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the lot tracking in {@link CostBasisEngine}.
+ */
+public class CostBasisEngineTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 14); // Trade date of every test trade
+
+    @Test
+    public void fifoSellsTheOldestLotsFirst() {
+        CostBasisEngine engine = new CostBasisEngine(CostBasisEngine.Method.FIFO);
+        engine.apply(buy("AAPL", 10, 100.0));
+        engine.apply(buy("AAPL", 10, 150.0));
+        engine.apply(sell("AAPL", 15, 200.0));
+
+        assertEquals(5, engine.getQuantity("AAPL"));
+        assertEquals(10 * 100.0 + 5 * 50.0, engine.getRealizedPnl("AAPL"), 0.0);
+        assertEquals(5 * 150.0, engine.getCostBasis("AAPL"), 0.0);
+        assertEquals(5 * (160.0 - 150.0), engine.getUnrealizedPnl("AAPL", 160.0), 0.0);
+    }
+
+    @Test
+    public void averageSellsAtTheRunningAverageCost() {
+        CostBasisEngine engine = new CostBasisEngine(CostBasisEngine.Method.AVERAGE);
+        engine.apply(buy("AAPL", 10, 100.0));
+        engine.apply(buy("AAPL", 10, 150.0));
+        engine.apply(sell("AAPL", 15, 200.0));
+
+        assertEquals(5, engine.getQuantity("AAPL"));
+        assertEquals(15 * (200.0 - 125.0), engine.getRealizedPnl("AAPL"), 0.0);
+        assertEquals(125.0, engine.getAverageCost("AAPL"), 0.0);
+    }
+
+    @Test
+    public void profitableSellKeepsTheRemainingPosition() {
+        CostBasisEngine engine = new CostBasisEngine();
+        engine.apply(buy("MSFT", 4, 10.0));
+        engine.apply(sell("MSFT", 3, 1000.0)); // Proceeds far above the cost
+
+        assertEquals(1, engine.getQuantity("MSFT"));
+        assertEquals(10.0, engine.getCostBasis("MSFT"), 0.0);
+        assertEquals(3 * 990.0, engine.getTotalRealizedPnl(), 0.0);
+    }
+
+    @Test
+    public void oversellClosesThePosition() {
+        CostBasisEngine engine = new CostBasisEngine();
+        engine.apply(buy("IBM", 5, 20.0));
+        engine.apply(sell("IBM", 8, 30.0));
+
+        assertEquals(0, engine.getQuantity("IBM"));
+        assertEquals(0.0, engine.getCostBasis("IBM"), 0.0);
+        assertEquals(5 * 10.0, engine.getRealizedPnl("IBM"), 0.0);
+        assertTrue(engine.getOpenSymbols().isEmpty());
+        assertEquals(2, engine.getAppliedTrades());
+    }
+
+    @Test
+    public void averageSellOfAnEmptyPositionBooksNothing() {
+        CostBasisEngine engine = new CostBasisEngine(CostBasisEngine.Method.AVERAGE);
+        engine.apply(sell("TSLA", 3, 250.0)); // Nothing held yet
+        engine.apply(buy("TSLA", 2, 100.0));
+        engine.apply(sell("TSLA", 2, 150.0));
+        engine.apply(sell("TSLA", 1, 150.0)); // Closed again
+
+        assertEquals(0, engine.getQuantity("TSLA"));
+        assertEquals(2 * 50.0, engine.getRealizedPnl("TSLA"), 0.0);
+        assertEquals(2 * 50.0, engine.getTotalRealizedPnl(), 0.0);
+        assertEquals(0.0, engine.getAverageCost("TSLA"), 0.0);
+    }
+
+    @Test
+    public void fifoMatchesReferenceLotsOverAMillionTrades() {
+        Transaction[] history = CostBasisEngineBenchmark.randomHistory(1_000_000, 20, new Random(42));
+        CostBasisEngine engine = new CostBasisEngine(CostBasisEngine.Method.FIFO);
+        engine.applyAll(history);
+
+        // Plain object lots per symbol as the reference
+        Map<String, Deque<double[]>> lots = new HashMap<>();
+        Map<String, Double> realized = new HashMap<>();
+        for (Transaction trade : history) {
+            Deque<double[]> queue = lots.computeIfAbsent(trade.getSymbol(), s -> new ArrayDeque<>());
+            if (trade.getAction().equals("Buy")) {
+                queue.addLast(new double[]{trade.getQuantity(), trade.getPrice()});
+                continue;
+            }
+            double remaining = trade.getQuantity();
+            double profit = 0.0;
+            while (remaining > 0 && !queue.isEmpty()) {
+                double[] lot = queue.peekFirst();
+                double taken = Math.min(remaining, lot[0]);
+                profit += taken * (trade.getPrice() - lot[1]);
+                lot[0] -= taken;
+                remaining -= taken;
+                if (lot[0] == 0) queue.pollFirst();
+            }
+            realized.merge(trade.getSymbol(), profit, Double::sum);
+        }
+
+        for (Map.Entry<String, Deque<double[]>> entry : lots.entrySet()) {
+            String symbol = entry.getKey();
+            long shares = 0;
+            double cost = 0.0;
+            for (double[] lot : entry.getValue()) {
+                shares += (long) lot[0];
+                cost += lot[0] * lot[1];
+            }
+            assertEquals(symbol, shares, engine.getQuantity(symbol));
+            assertEquals(symbol, cost, engine.getCostBasis(symbol), 1e-6 * Math.max(1.0, Math.abs(cost)));
+            double expected = realized.getOrDefault(symbol, 0.0);
+            assertEquals(symbol, expected, engine.getRealizedPnl(symbol), 1e-6 * Math.max(1.0, Math.abs(expected)));
+        }
+        assertEquals(history.length, engine.getAppliedTrades());
+    }
+
+    private static Transaction buy(String symbol, int quantity, double price) {
+        return new Transaction("Buy", symbol, quantity, price, DAY);
+    }
+
+    private static Transaction sell(String symbol, int quantity, double price) {
+        return new Transaction("Sell", symbol, quantity, price, DAY);
+    }
+}
@@ -0,0 +1,85 @@
+package investify.service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares {@code String.format} with {@link CurrencyFormatter} on a list of holdings.
+ * <p>
+ * Run with {@code java investify.service.CurrencyFormatterBenchmark [amounts]} from the
+ * test classpath. Each variant formats the same amounts, first to warm up the JIT and
+ * then measured, and reports the mean time and the bytes allocated per amount, the
+ * figure the portfolio screen shows in allocation profiles. It is a plain timing loop
+ * rather than a JMH benchmark, so it runs with the dependencies the project already has.
+ */
+public class CurrencyFormatterBenchmark {
+
+    private static final int WARMUP_RUNS = 20; // Passes before measuring
+    private static final int MEASURED_RUNS = 20; // Passes averaged in the result
+
+    /** One way of turning amounts into text */
+    private interface Variant {
+        int run(double[] amounts); // Returns the total length, so no work is optimized away
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        double[] amounts = new double[count];
+        Random random = new Random(3);
+        for (int i = 0; i < count; i++) {
+            amounts[i] = random.nextInt(100_000_000) / 100.0; // Holding values up to a million
+        }
+        CurrencyFormatter formatter = new CurrencyFormatter("$", Locale.getDefault(Locale.Category.FORMAT));
+        StringBuilder row = new StringBuilder(64);
+
+        measure("String.format", amounts, values -> {
+            int length = 0;
+            for (double value : values) {
+                length += String.format("%.2f $", value).length();
+            }
+            return length;
+        });
+        measure("CurrencyFormatter.format", amounts, values -> {
+            int length = 0;
+            for (double value : values) {
+                length += formatter.format(value).length();
+            }
+            return length;
+        });
+        measure("CurrencyFormatter.appendTo", amounts, values -> {
+            int length = 0;
+            for (double value : values) {
+                row.setLength(0);
+                length += formatter.appendTo(row, value).length(); // Reused builder, as a row renderer would
+            }
+            return length;
+        });
+    }
+
+    /**
+     * Warms up and measures one variant, then prints its results.
+     */
+    private static void measure(String name, double[] amounts, Variant variant) {
+        long check = 0;
+        for (int run = 0; run < WARMUP_RUNS; run++) {
+            check += variant.run(amounts);
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocations = threads instanceof com.sun.management.ThreadMXBean
+                ? (com.sun.management.ThreadMXBean) threads : null;
+        long allocatedBefore = allocations == null ? 0 : allocations.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int run = 0; run < MEASURED_RUNS; run++) {
+            check += variant.run(amounts);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocations == null ? -1 : allocations.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        double calls = (double) MEASURED_RUNS * amounts.length;
+        System.out.printf("%-27s %7.1f ns/amount, %6.1f bytes/amount (check %d)%n",
+                name, elapsed / calls, allocated < 0 ? Double.NaN : allocated / calls, check);
+    }
+}
@@ -0,0 +1,71 @@
+package investify.service;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests that {@link CurrencyFormatter} writes the same text as {@code String.format("%.2f")}.
+ */
+public class CurrencyFormatterTest {
+
+    @Test
+    public void formatsLikeStringFormat() {
+        CurrencyFormatter formatter = new CurrencyFormatter("$", Locale.US);
+        double[] amounts = {0.0, -0.0, 0.004, 0.005, 0.015, 1.005, 2.675, -2.675, 9.995, 99.999,
+                1234.5, -0.001, 123456789.125, 999999999999.995};
+        for (double amount : amounts) {
+            assertEquals(String.valueOf(amount), expected(Locale.US, amount, "$"), formatter.format(amount));
+        }
+    }
+
+    @Test
+    public void roundsHalfCentsLikeStringFormat() {
+        CurrencyFormatter formatter = new CurrencyFormatter("Fr.", Locale.US);
+        for (int thousandths = -200_000; thousandths <= 200_000; thousandths++) {
+            double amount = thousandths / 1000.0; // Every third digit, ties included
+            assertEquals(String.valueOf(amount), expected(Locale.US, amount, "Fr."), formatter.format(amount));
+        }
+    }
+
+    @Test
+    public void formatsRandomAmountsLikeStringFormat() {
+        CurrencyFormatter formatter = new CurrencyFormatter("$", Locale.US);
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            double amount = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(13));
+            assertEquals(String.valueOf(amount), expected(Locale.US, amount, "$"), formatter.format(amount));
+        }
+    }
+
+    @Test
+    public void usesTheDecimalSeparatorOfTheLocale() {
+        CurrencyFormatter formatter = new CurrencyFormatter("Fr.", Locale.GERMANY);
+        assertEquals(expected(Locale.GERMANY, 1234.56, "Fr."), formatter.format(1234.56));
+        assertEquals("1234,56 Fr.", formatter.format(1234.56));
+    }
+
+    @Test
+    public void keepsNonFiniteAndHugeAmounts() {
+        CurrencyFormatter formatter = new CurrencyFormatter("$", Locale.getDefault(Locale.Category.FORMAT));
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        for (double amount : new double[]{Double.NaN, Double.POSITIVE_INFINITY, -1e18, 5e15}) {
+            assertEquals(expected(locale, amount, "$"), formatter.format(amount));
+        }
+    }
+
+    @Test
+    public void appendsToAnExistingBuilder() {
+        CurrencyFormatter formatter = new CurrencyFormatter("$", Locale.US);
+        StringBuilder builder = new StringBuilder("Total: ");
+        formatter.appendTo(builder, 42.5).append(" today");
+        assertEquals("Total: 42.50 $ today", builder.toString());
+    }
+
+    private static String expected(Locale locale, double amount, String symbol) {
+        return String.format(locale, "%.2f", amount) + " " + symbol;
+    }
+}
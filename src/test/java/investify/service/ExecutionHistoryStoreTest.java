@@ -0,0 +1,196 @@
+package investify.service;
+
+import investify.model.ExecutionReport;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of {@link ExecutionHistoryStore}: the file header, record checksums, torn last
+ * records, migration of the serialized history and keys longer than a record holds.
+ */
+public class ExecutionHistoryStoreTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 3);
+
+    private Path file; // Record file
+    private Path legacyFile; // Serialized history of earlier versions
+
+    @Before
+    public void setUp() throws IOException {
+        Path directory = Files.createTempDirectory("history");
+        file = directory.resolve("investifyExecutionHistory.bin");
+        legacyFile = directory.resolve("investifyExecutionHistory.dat");
+    }
+
+    private ExecutionHistoryStore open() throws IOException {
+        return new ExecutionHistoryStore(file, legacyFile);
+    }
+
+    /** Creates a store with three records and returns the size of one record */
+    private long writeThreeRecords() throws IOException {
+        ExecutionHistoryStore store = open();
+        long header = Files.size(file);
+        store.append("AAPL|Apple", DAY, ExecutionReport.Status.EXECUTED, 2, 180.5);
+        store.append("AAPL|Apple", DAY.plusDays(7), ExecutionReport.Status.FAILED, 0, 0);
+        store.append("MSFT|Microsoft", DAY, ExecutionReport.Status.SKIPPED, 0, 400.0);
+        return (Files.size(file) - header) / 3;
+    }
+
+    /** Overwrites one byte of the record file */
+    private void corrupt(long position) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[(int) position] ^= 0x5A;
+        Files.write(file, bytes);
+    }
+
+    private void assertDamaged() {
+        try {
+            open();
+            fail("Damaged history was opened");
+        } catch (IOException expected) {
+            // Reported, never read as an empty history
+        }
+    }
+
+    @Test
+    public void recordsSurviveAReopen() throws IOException {
+        writeThreeRecords();
+
+        ExecutionHistoryStore reopened = open();
+        assertEquals(DAY, reopened.getLastExecuted("AAPL|Apple")); // The failed later occurrence does not count
+        assertTrue(reopened.isExecuted("AAPL|Apple", DAY));
+        assertFalse(reopened.isExecuted("AAPL|Apple", DAY.plusDays(7)));
+        assertEquals(DAY, reopened.getFirstRecorded("AAPL|Apple"));
+        assertEquals(DAY, reopened.getLastExecuted("MSFT|Microsoft")); // Skips count as executed
+        assertNull(reopened.getLastExecuted("TSLA|Tesla"));
+
+        List<ExecutionHistoryStore.Record> records = reopened.readRecords();
+        assertEquals(3, records.size());
+        ExecutionHistoryStore.Record first = records.get(0);
+        assertEquals("AAPL|Apple", first.getKey());
+        assertEquals(DAY, first.getOccurrence());
+        assertEquals(ExecutionReport.Status.EXECUTED, first.getStatus());
+        assertEquals(2, first.getQuantity());
+        assertEquals(180.5, first.getPrice(), 0.0);
+        assertEquals(ExecutionReport.Status.FAILED, records.get(1).getStatus());
+    }
+
+    @Test
+    public void foreignOrNewerFilesAreRejected() throws IOException {
+        open();
+        corrupt(0); // Magic number
+        assertDamaged();
+
+        Files.delete(file);
+        open();
+        corrupt(5); // Format version
+        assertDamaged();
+
+        Files.delete(file);
+        Files.write(file, new byte[3]); // Shorter than the header
+        assertDamaged();
+    }
+
+    @Test
+    public void aDamagedRecordBeforeTheLastIsAnError() throws IOException {
+        long recordSize = writeThreeRecords();
+        long header = Files.size(file) - 3 * recordSize;
+        corrupt(header + recordSize + 20); // Inside the second record
+        long size = Files.size(file);
+
+        assertDamaged();
+        assertEquals(size, Files.size(file)); // Left untouched for inspection
+    }
+
+    @Test
+    public void aTornLastRecordIsDropped() throws IOException {
+        long recordSize = writeThreeRecords();
+        long complete = Files.size(file);
+
+        // A write cut short, then a last record with a wrong checksum
+        Files.write(file, new byte[(int) recordSize / 2], StandardOpenOption.APPEND);
+        ExecutionHistoryStore store = open();
+        assertEquals(3, store.readRecords().size());
+        assertEquals(complete, Files.size(file));
+
+        corrupt(complete - 1);
+        store = open();
+        assertEquals(2, store.readRecords().size());
+        assertEquals(complete - recordSize, Files.size(file));
+        assertNull(store.getLastExecuted("MSFT|Microsoft"));
+
+        store.append("MSFT|Microsoft", DAY, ExecutionReport.Status.EXECUTED, 1, 400.0); // Appends after the valid part
+        assertEquals(DAY, open().getLastExecuted("MSFT|Microsoft"));
+    }
+
+    @Test
+    public void legacyHistoryIsMigratedOnce() throws IOException {
+        Map<String, LocalDate> legacy = new HashMap<>();
+        legacy.put("AAPL|Apple", DAY);
+        legacy.put("VT|World", DAY.minusMonths(1));
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(legacyFile))) {
+            out.writeObject(legacy);
+        }
+
+        ExecutionHistoryStore store = open();
+        assertEquals(DAY, store.getLastExecuted("AAPL|Apple"));
+        assertEquals(DAY.minusMonths(1), store.getLastExecuted("VT|World"));
+        for (ExecutionHistoryStore.Record record : store.readRecords()) {
+            assertNull(record.getStatus()); // Migrated entries carry no outcome
+        }
+
+        // Later changes of the legacy file are ignored
+        legacy.put("MSFT|Microsoft", DAY);
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(legacyFile))) {
+            out.writeObject(legacy);
+        }
+        assertEquals(2, open().readRecords().size());
+    }
+
+    @Test
+    public void anUnreadableLegacyHistoryIsAnError() throws IOException {
+        Files.write(legacyFile, new byte[]{1, 2, 3});
+        assertDamaged();
+        assertFalse(Files.exists(file)); // Retried on the next start
+    }
+
+    @Test
+    public void longKeysAreShortenedWithTheirHash() throws IOException {
+        String prefix = "VWRL|Vanguard FTSE All-World UCITS ETF (USD) Distributing, monthly plan ";
+        String first = prefix + "one";
+        String second = prefix + "two";
+        String umlauts = "ÄÖÜ|" + "ä".repeat(60); // Multi-byte characters are never split
+
+        ExecutionHistoryStore store = open();
+        store.append(first, DAY, ExecutionReport.Status.EXECUTED, 1, 100.0);
+        store.append(second, DAY.plusDays(1), ExecutionReport.Status.EXECUTED, 1, 100.0);
+        store.append(umlauts, DAY.plusDays(2), ExecutionReport.Status.EXECUTED, 1, 100.0);
+
+        ExecutionHistoryStore reopened = open();
+        assertEquals(DAY, reopened.getLastExecuted(first));
+        assertEquals(DAY.plusDays(1), reopened.getLastExecuted(second));
+        assertEquals(DAY.plusDays(2), reopened.getLastExecuted(umlauts));
+
+        List<ExecutionHistoryStore.Record> records = reopened.readRecords();
+        assertFalse(records.get(0).getKey().equals(records.get(1).getKey()));
+        assertTrue(records.get(0).getKey().startsWith("VWRL|Vanguard"));
+        assertTrue(records.get(2).getKey().startsWith("ÄÖÜ|ää"));
+        assertFalse(records.get(2).getKey().contains("\uFFFD"));
+    }
+}
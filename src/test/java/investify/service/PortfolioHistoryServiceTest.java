@@ -0,0 +1,169 @@
+package investify.service;
+
+import com.google.gson.Gson;
+import investify.model.Transaction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import shared.FxRateProvider;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests of {@link PortfolioHistoryService}: the replayed values against the stored closes,
+ * incremental updates against a rebuild, and the downsampled chart points.
+ */
+public class PortfolioHistoryServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1); // A Monday
+
+    private String userHome; // Restored after each test
+    private Path home; // Temporary home holding the transaction file
+    private AlphaVantageScheduler scheduler;
+    private PriceHistoryStore store;
+    private PortfolioValuationEngine engine;
+
+    @Before
+    public void setUp() throws IOException {
+        userHome = System.getProperty("user.home");
+        home = Files.createTempDirectory("home");
+        System.setProperty("user.home", home.toString());
+        scheduler = new AlphaVantageScheduler(1, 1, TimeUnit.HOURS);
+        store = new PriceHistoryStore(home.resolve("prices"), scheduler);
+        engine = new PortfolioValuationEngine(store, new CurrencyService(new FxRateProvider(home.resolve("fxRates.json"))));
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+        System.setProperty("user.home", userHome);
+    }
+
+    /** Stores closes of day + offset for every day of a range, inclusive */
+    private void storeCloses(String symbol, LocalDate from, LocalDate to, double offset) throws IOException {
+        List<PriceHistoryStore.DailyBar> bars = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            int epochDay = (int) day.toEpochDay();
+            bars.add(new PriceHistoryStore.DailyBar(epochDay, 0, 0, 0, close(day, offset), 0));
+        }
+        store.ingest(symbol, bars);
+    }
+
+    private static double close(LocalDate day, double offset) {
+        return day.getDayOfMonth() + offset;
+    }
+
+    /** Replaces the transaction file and reloads the engine */
+    private void writeTrades(Transaction... trades) throws IOException {
+        Files.writeString(home.resolve("investifyData.json"), new Gson().toJson(trades));
+        engine.reloadHoldings();
+    }
+
+    private static boolean isWeekday(LocalDate day) {
+        return day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY;
+    }
+
+    @Test
+    public void valuesEachWeekdayWithTheSharesHeldThatDay() throws IOException {
+        storeCloses("AAPL", START, START.plusDays(30), 100.0);
+        storeCloses("MSFT", START, START.plusDays(20), 300.0);
+        writeTrades(new Transaction("Buy", "AAPL", 10, 90.0, START.plusDays(2)),
+                new Transaction("Buy", "MSFT", 2, 280.0, START.plusDays(4)),
+                new Transaction("Sell", "AAPL", 4, 110.0, START.plusDays(9)));
+
+        PortfolioHistoryService service = new PortfolioHistoryService(engine, store);
+        service.update();
+
+        // From the first trade to the last day priced for both symbols
+        List<PortfolioHistoryService.Point> points = service.getChartPoints(1000);
+        List<LocalDate> expectedDays = new ArrayList<>();
+        for (LocalDate day = START.plusDays(2); !day.isAfter(START.plusDays(20)); day = day.plusDays(1)) {
+            if (isWeekday(day)) expectedDays.add(day);
+        }
+        assertEquals(expectedDays.size(), service.size());
+        for (int i = 0; i < points.size(); i++) {
+            LocalDate day = points.get(i).getDate();
+            assertEquals(expectedDays.get(i), day);
+            int apple = day.isBefore(START.plusDays(9)) ? 10 : 6;
+            int microsoft = day.isBefore(START.plusDays(4)) ? 0 : 2;
+            assertEquals(day.toString(), apple * close(day, 100.0) + microsoft * close(day, 300.0),
+                    points.get(i).getValue(), 1e-9);
+        }
+    }
+
+    @Test
+    public void symbolsWithoutStoredPricesAreValuedAtTheirTradePrice() throws IOException {
+        storeCloses("AAPL", START, START.plusDays(4), 100.0);
+        writeTrades(new Transaction("Buy", "AAPL", 1, 90.0, START),
+                new Transaction("Buy", "XYZ", 3, 7.5, START));
+
+        PortfolioHistoryService service = new PortfolioHistoryService(engine, store);
+        service.update();
+        List<PortfolioHistoryService.Point> points = service.getChartPoints(1000);
+        assertEquals(5, points.size());
+        for (PortfolioHistoryService.Point point : points) {
+            assertEquals(close(point.getDate(), 100.0) + 3 * 7.5, point.getValue(), 1e-9);
+        }
+    }
+
+    @Test
+    public void incrementalUpdatesMatchARebuild() throws IOException {
+        storeCloses("AAPL", START, START.plusDays(14), 100.0);
+        List<Transaction> trades = new ArrayList<>(Arrays.asList(
+                new Transaction("Buy", "AAPL", 5, 90.0, START.plusDays(1))));
+        writeTrades(trades.toArray(new Transaction[0]));
+        PortfolioHistoryService service = new PortfolioHistoryService(engine, store);
+        service.update();
+
+        // New days, then a trade after the computed range, then one inside it
+        storeCloses("AAPL", START.plusDays(15), START.plusDays(40), 100.0);
+        service.update();
+        trades.add(new Transaction("Buy", "AAPL", 3, 95.0, START.plusDays(45)));
+        writeTrades(trades.toArray(new Transaction[0]));
+        storeCloses("AAPL", START.plusDays(41), START.plusDays(60), 100.0);
+        service.update();
+        assertSameSeries(service);
+
+        trades.add(new Transaction("Sell", "AAPL", 2, 99.0, START.plusDays(10)));
+        writeTrades(trades.toArray(new Transaction[0]));
+        service.update();
+        assertSameSeries(service);
+    }
+
+    /** Compares a service's series with one computed from scratch */
+    private void assertSameSeries(PortfolioHistoryService service) {
+        PortfolioHistoryService rebuilt = new PortfolioHistoryService(engine, store);
+        rebuilt.update();
+        List<PortfolioHistoryService.Point> expected = rebuilt.getChartPoints(Integer.MAX_VALUE);
+        List<PortfolioHistoryService.Point> actual = service.getChartPoints(Integer.MAX_VALUE);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getDate(), actual.get(i).getDate());
+            assertEquals(expected.get(i).getDate().toString(), expected.get(i).getValue(), actual.get(i).getValue(), 1e-9);
+        }
+    }
+
+    @Test
+    public void chartPointsKeepTheFirstAndLastDay() throws IOException {
+        storeCloses("AAPL", START, START.plusDays(400), 100.0);
+        writeTrades(new Transaction("Buy", "AAPL", 1, 90.0, START));
+        PortfolioHistoryService service = new PortfolioHistoryService(engine, store);
+        service.update();
+
+        List<PortfolioHistoryService.Point> points = service.getChartPoints(50);
+        assertEquals(50, points.size());
+        assertEquals(START, points.get(0).getDate());
+        assertEquals(START.plusDays(400), points.get(49).getDate()); // A weekday
+        assertEquals(service.size(), service.getChartPoints(service.size()).size());
+    }
+}
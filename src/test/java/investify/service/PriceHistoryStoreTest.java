@@ -0,0 +1,134 @@
+package investify.service;
+
+import investify.model.PriceSeries;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the memory-mapped price files of {@link PriceHistoryStore}.
+ */
+public class PriceHistoryStoreTest {
+
+    private Path directory;
+    private AlphaVantageScheduler scheduler; // Counts the downloads a refresh would make
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("prices");
+        scheduler = new AlphaVantageScheduler(1, 1, TimeUnit.HOURS);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    /** Days from one day to another, inclusive, with prices derived from the day */
+    private static List<PriceHistoryStore.DailyBar> bars(LocalDate from, LocalDate to) {
+        List<PriceHistoryStore.DailyBar> bars = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            int epochDay = (int) day.toEpochDay();
+            bars.add(new PriceHistoryStore.DailyBar(epochDay, epochDay + 0.25, epochDay + 1.0,
+                    epochDay - 1.0, epochDay + 0.5, epochDay * 10L));
+        }
+        return bars;
+    }
+
+    /** Checks that a series holds exactly the days of a range, in order */
+    private static void assertDays(PriceSeries series, LocalDate from, LocalDate to) {
+        assertEquals(to.toEpochDay() - from.toEpochDay() + 1, series.size());
+        for (int i = 0; i < series.size(); i++) {
+            int epochDay = (int) from.plusDays(i).toEpochDay();
+            assertEquals(epochDay, series.getEpochDay(i));
+            assertEquals(epochDay + 0.25, series.getOpen(i), 0.0);
+            assertEquals(epochDay + 1.0, series.getHigh(i), 0.0);
+            assertEquals(epochDay - 1.0, series.getLow(i), 0.0);
+            assertEquals(epochDay + 0.5, series.getClose(i), 0.0);
+            assertEquals(epochDay * 10L, series.getVolume(i));
+        }
+    }
+
+    @Test
+    public void storedDaysSurviveARestart() throws IOException {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 3, 31);
+        List<PriceHistoryStore.DailyBar> shuffled = bars(from, to);
+        Collections.reverse(shuffled); // Responses list the newest day first
+
+        PriceHistoryStore store = new PriceHistoryStore(directory, scheduler);
+        assertEquals(91, store.ingest("aapl ", shuffled));
+        assertDays(store.getSeries("AAPL"), from, to);
+
+        assertDays(new PriceHistoryStore(directory, scheduler).getSeries("aapl"), from, to);
+        assertTrue(new PriceHistoryStore(directory, scheduler).getSeries("MSFT").isEmpty());
+    }
+
+    @Test
+    public void newerDaysAreAppendedAndKnownDaysIgnored() throws IOException {
+        PriceHistoryStore store = new PriceHistoryStore(directory, scheduler);
+        store.ingest("AAPL", bars(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)));
+
+        assertEquals(0, store.ingest("AAPL", bars(LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 20))));
+        assertEquals(29, store.ingest("AAPL", bars(LocalDate.of(2024, 1, 15), LocalDate.of(2024, 2, 29))));
+
+        assertDays(store.getSeries("AAPL"), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 29));
+        assertDays(new PriceHistoryStore(directory, scheduler).getSeries("AAPL"),
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 29));
+    }
+
+    @Test
+    public void olderDaysRewriteTheFileWithoutDisturbingReaders() throws IOException {
+        PriceHistoryStore store = new PriceHistoryStore(directory, scheduler);
+        store.ingest("AAPL", bars(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31)));
+        PriceSeries before = store.getSeries("AAPL");
+
+        // A backfill brings older days and one newer day in the same response
+        assertEquals(61, store.ingest("AAPL", bars(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 4, 1))));
+
+        assertDays(before, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31)); // Former mapping still valid
+        assertDays(store.getSeries("AAPL"), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 4, 1));
+        assertDays(new PriceHistoryStore(directory, scheduler).getSeries("AAPL"),
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 4, 1));
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.count()); // No temporary file left behind
+        }
+    }
+
+    @Test
+    public void completeHistoryIsNeverBackfilledAfterARestart() throws IOException {
+        LocalDate today = LocalDate.now();
+        PriceHistoryStore store = new PriceHistoryStore(directory, scheduler);
+        store.ingest("AAPL", bars(today.minusDays(30), today));
+        assertFalse(store.getSeries("AAPL").isComplete());
+        store.markComplete("AAPL");
+
+        PriceHistoryStore restarted = new PriceHistoryStore(directory, scheduler);
+        assertTrue(restarted.getSeries("AAPL").isComplete());
+        PriceSeries refreshed = restarted.refreshAsync("AAPL", today.minusYears(5),
+                AlphaVantageScheduler.Priority.BACKGROUND).join();
+        assertSame(restarted.getSeries("AAPL"), refreshed);
+        assertEquals(0, scheduler.getSubmittedRequests());
+
+        // The flag survives a rewrite, and an incomplete history does ask for older days
+        restarted.ingest("AAPL", bars(today.minusDays(40), today.minusDays(31)));
+        assertTrue(restarted.getSeries("AAPL").isComplete());
+        restarted.ingest("MSFT", bars(today.minusDays(30), today));
+        restarted.refreshAsync("MSFT", today.minusYears(5), AlphaVantageScheduler.Priority.BACKGROUND);
+        assertEquals(1, scheduler.getSubmittedRequests());
+    }
+}
@@ -0,0 +1,56 @@
+package investify.service;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the symbol suggestions and syntax check of {@link SymbolIndex}.
+ */
+public class SymbolIndexTest {
+
+    @Test
+    public void syntaxCheckAcceptsTickersTheIndexMayNotList() {
+        for (String symbol : Arrays.asList("A", "aapl", "BRK.B", "RDS-A", " 7203 ", "ABCDEFGHIJ")) {
+            assertTrue(symbol, SymbolIndex.isValidSymbol(symbol));
+        }
+        for (String text : Arrays.asList("", "   ", "?? $", "AAPL MSFT", "ABCDEFGHIJK", "ÄPL", "AAPL;")) {
+            assertFalse(text, SymbolIndex.isValidSymbol(text));
+        }
+    }
+
+    @Test
+    public void suggestsSymbolPrefixesBeforeNameWords() {
+        SymbolIndex index = new SymbolIndex(Arrays.asList(
+                new SymbolIndex.Listing("AAPL", "Apple Inc", "NASDAQ"),
+                new SymbolIndex.Listing("APP", "AppLovin Corp", "NASDAQ"),
+                new SymbolIndex.Listing("MSFT", "Microsoft Corp", "NASDAQ"),
+                new SymbolIndex.Listing("AP", "Ampco-Pittsburgh Corp", "NYSE")));
+
+        assertEquals(Arrays.asList("AP", "APP", "AAPL"), symbols(index.suggest("ap", 10)));
+        assertEquals(Arrays.asList("AP"), symbols(index.suggest("AP", 1)));
+        assertEquals(Arrays.asList("MSFT"), symbols(index.suggest(" micro", 10)));
+        assertTrue(index.suggest("  ", 10).isEmpty());
+    }
+
+    @Test
+    public void bundledListingIsLoaded() {
+        SymbolIndex index = SymbolIndex.loadBundled();
+        assertFalse(index.isEmpty());
+        assertEquals("AAPL", index.suggest("AAPL", 1).get(0).getSymbol());
+    }
+
+    private static List<String> symbols(List<SymbolIndex.Listing> listings) {
+        List<String> symbols = new ArrayList<>();
+        for (SymbolIndex.Listing listing : listings) {
+            symbols.add(listing.getSymbol());
+        }
+        return symbols;
+    }
+}
@@ -0,0 +1,98 @@
+package shared;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link FxRateProvider} against a local stub of the Frankfurter API.
+ */
+public class FxRateProviderTest {
+
+    static final String LATEST = "{\"amount\":1.0,\"base\":\"EUR\",\"date\":\"2025-03-14\","
+            + "\"rates\":{\"CHF\":0.96,\"USD\":1.2,\"GBP\":0.84}}";
+
+    private StubHttpServer server;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubHttpServer();
+        server.respond(request -> request.startsWith("/latest") ? LATEST : null);
+        file = Files.createTempDirectory("fx").resolve("fxRates.json");
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void derivesCrossRatesFromOneDownload() {
+        FxRateProvider provider = new FxRateProvider(server.getUrl(), file);
+        provider.refreshAsync().join();
+
+        assertEquals(0.8, provider.getRate("USD", "CHF"), 1e-12);
+        assertEquals(1.25, provider.getRate("CHF", "USD"), 1e-12);
+        assertEquals(1.0, provider.getRate("EUR", "EUR"), 0.0);
+        assertEquals(LocalDate.of(2025, 3, 14), provider.getRateDate());
+        assertTrue(provider.supports("GBP"));
+        for (int i = 0; i < 1000; i++) {
+            provider.getRate("GBP", "USD"); // Answered from memory
+        }
+        assertEquals(1, server.getRequests().size());
+    }
+
+    @Test
+    public void reloadsTheLastKnownGoodRatesOffline() {
+        new FxRateProvider(server.getUrl(), file).refreshAsync().join();
+        server.close();
+
+        FxRateProvider restarted = new FxRateProvider(server.getUrl(), file);
+        assertEquals(0.8, restarted.getRate("USD", "CHF"), 1e-12);
+        assertEquals(LocalDate.of(2025, 3, 14), restarted.getRateDate());
+    }
+
+    @Test
+    public void failedDownloadKeepsTheCurrentRates() {
+        FxRateProvider provider = new FxRateProvider(server.getUrl(), file);
+        provider.refreshAsync().join();
+        server.setStatus(500);
+        provider.refreshAsync().join();
+
+        assertEquals(0.8, provider.getRate("USD", "CHF"), 1e-12);
+        assertEquals(2, server.getRequests().size());
+    }
+
+    @Test
+    public void usesTheBuiltInTableBeforeTheFirstDownload() {
+        FxRateProvider provider = new FxRateProvider(server.getUrl(), file);
+        assertEquals(0.83, provider.getRate("USD", "CHF"), 1e-9);
+        assertFalse(provider.supports("GBP"));
+        assertNull(provider.getRateDate());
+    }
+
+    @Test(timeout = 5000)
+    public void lookupsNeverWaitForARunningDownload() {
+        FxRateProvider provider = new FxRateProvider(server.getUrl(), file);
+        server.hold();
+        provider.refreshAsync(); // Blocked in the server until released
+        long start = System.nanoTime();
+        double rate = provider.getRate("USD", "CHF");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        server.release();
+
+        assertEquals(0.83, rate, 1e-9); // Still the built-in table
+        assertTrue("Lookup took " + elapsedMillis + " ms", elapsedMillis < 1000);
+    }
+}
@@ -0,0 +1,146 @@
+package shared;
+
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link Recurrence}: the index invariants over decades of days, month-end
+ * clamping and every business day rule.
+ */
+public class RecurrenceTest {
+
+    /** Starts covering month ends, a leap day and both weekend days */
+    private static final LocalDate[] STARTS = {
+            LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 29), LocalDate.of(2023, 4, 30),
+            LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 2), LocalDate.of(2025, 5, 31),
+            LocalDate.of(2025, 3, 7), LocalDate.of(1999, 12, 31)
+    };
+
+    @Test
+    public void indexAfterBracketsEveryDay() {
+        for (Recurrence.Frequency frequency : Recurrence.Frequency.values()) {
+            int years = frequency == Recurrence.Frequency.DAILY ? 3 : 30;
+            for (Recurrence.BusinessDayRule rule : Recurrence.BusinessDayRule.values()) {
+                for (LocalDate start : STARTS) {
+                    Recurrence recurrence = new Recurrence(start, frequency, rule);
+                    LocalDate end = start.plusYears(years);
+                    for (LocalDate day = start.minusDays(10); day.isBefore(end); day = day.plusDays(1)) {
+                        long index = recurrence.indexAfter(day);
+                        String context = frequency + " " + rule + " from " + start + " on " + day;
+                        assertTrue(context, recurrence.occurrence(index).isAfter(day));
+                        if (index > 0) {
+                            assertFalse(context, recurrence.occurrence(index - 1).isAfter(day));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void occurrencesIncreaseAndAvoidWeekends() {
+        for (Recurrence.Frequency frequency : Recurrence.Frequency.values()) {
+            for (Recurrence.BusinessDayRule rule : Recurrence.BusinessDayRule.values()) {
+                for (LocalDate start : STARTS) {
+                    Recurrence recurrence = new Recurrence(start, frequency, rule);
+                    LocalDate previous = null;
+                    for (long index = 0; index < 400; index++) {
+                        LocalDate occurrence = recurrence.occurrence(index);
+                        String context = frequency + " " + rule + " from " + start + " #" + index;
+                        if (previous != null) assertTrue(context, occurrence.isAfter(previous));
+                        if (rule != Recurrence.BusinessDayRule.NONE) assertFalse(context, isWeekend(occurrence));
+                        previous = occurrence;
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void monthlyClampsToShorterMonths() {
+        Recurrence recurrence = new Recurrence(LocalDate.of(2024, 1, 31), Recurrence.Frequency.MONTHLY,
+                Recurrence.BusinessDayRule.NONE);
+        assertEquals(Arrays.asList(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 29),
+                        LocalDate.of(2024, 3, 31), LocalDate.of(2024, 4, 30), LocalDate.of(2024, 5, 31)),
+                recurrence.next(LocalDate.of(2024, 1, 30), 5));
+        assertEquals(LocalDate.of(2025, 2, 28), recurrence.occurrence(13)); // Anchored to the 31st, not to the 29th
+        assertEquals(LocalDate.of(2025, 3, 31), recurrence.occurrence(14));
+    }
+
+    @Test
+    public void yearlyClampsLeapDay() {
+        Recurrence recurrence = new Recurrence(LocalDate.of(2024, 2, 29), Recurrence.Frequency.YEARLY,
+                Recurrence.BusinessDayRule.NONE);
+        assertEquals(LocalDate.of(2025, 2, 28), recurrence.occurrence(1));
+        assertEquals(LocalDate.of(2028, 2, 29), recurrence.occurrence(4));
+    }
+
+    @Test
+    public void followingMovesWeekendsToMonday() {
+        Recurrence recurrence = new Recurrence(LocalDate.of(2025, 3, 1), Recurrence.Frequency.MONTHLY,
+                Recurrence.BusinessDayRule.FOLLOWING); // Saturday
+        assertEquals(LocalDate.of(2025, 3, 3), recurrence.occurrence(0));
+        assertEquals(LocalDate.of(2025, 4, 1), recurrence.occurrence(1)); // Tuesday, unchanged
+        assertEquals(LocalDate.of(2025, 6, 2), recurrence.occurrence(3)); // Sunday June 1st
+    }
+
+    @Test
+    public void precedingMovesWeekendsToFriday() {
+        Recurrence recurrence = new Recurrence(LocalDate.of(2025, 3, 1), Recurrence.Frequency.MONTHLY,
+                Recurrence.BusinessDayRule.PRECEDING);
+        assertEquals(LocalDate.of(2025, 2, 28), recurrence.occurrence(0));
+        assertEquals(LocalDate.of(2025, 5, 30), recurrence.occurrence(3));
+    }
+
+    @Test
+    public void modifiedFollowingStaysInTheMonth() {
+        Recurrence recurrence = new Recurrence(LocalDate.of(2025, 5, 31), Recurrence.Frequency.MONTHLY,
+                Recurrence.BusinessDayRule.MODIFIED_FOLLOWING); // Saturday, Monday is in June
+        assertEquals(LocalDate.of(2025, 5, 30), recurrence.occurrence(0));
+        assertEquals(LocalDate.of(2025, 6, 30), recurrence.occurrence(1)); // Monday, unchanged
+
+        Recurrence early = new Recurrence(LocalDate.of(2025, 3, 1), Recurrence.Frequency.MONTHLY,
+                Recurrence.BusinessDayRule.MODIFIED_FOLLOWING);
+        assertEquals(LocalDate.of(2025, 3, 3), early.occurrence(0)); // Monday is in the same month
+    }
+
+    @Test
+    public void noneKeepsWeekends() {
+        Recurrence recurrence = new Recurrence(LocalDate.of(2025, 3, 1), Recurrence.Frequency.WEEKLY,
+                Recurrence.BusinessDayRule.NONE);
+        assertEquals(LocalDate.of(2025, 3, 8), recurrence.occurrence(1));
+    }
+
+    @Test
+    public void dailyWithARuleSkipsWeekends() {
+        Recurrence recurrence = new Recurrence(LocalDate.of(2025, 3, 7), Recurrence.Frequency.DAILY,
+                Recurrence.BusinessDayRule.FOLLOWING); // Friday
+        assertEquals(Arrays.asList(LocalDate.of(2025, 3, 7), LocalDate.of(2025, 3, 10), LocalDate.of(2025, 3, 11)),
+                recurrence.next(LocalDate.of(2025, 3, 6), 3));
+
+        Recurrence weekendStart = new Recurrence(LocalDate.of(2025, 3, 8), Recurrence.Frequency.DAILY,
+                Recurrence.BusinessDayRule.PRECEDING); // Saturday
+        assertEquals(LocalDate.of(2025, 3, 10), weekendStart.occurrence(0)); // Skipped, never moved back
+    }
+
+    @Test
+    public void betweenKeepsTheLatestOccurrences() {
+        Recurrence recurrence = new Recurrence(LocalDate.of(2024, 1, 15), Recurrence.Frequency.MONTHLY,
+                Recurrence.BusinessDayRule.NONE);
+        List<LocalDate> due = recurrence.between(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), 3);
+        assertEquals(Arrays.asList(LocalDate.of(2024, 10, 15), LocalDate.of(2024, 11, 15), LocalDate.of(2024, 12, 15)), due);
+        assertTrue(recurrence.between(LocalDate.of(2024, 12, 15), LocalDate.of(2025, 1, 14), 12).isEmpty());
+    }
+
+    private static boolean isWeekend(LocalDate date) {
+        return date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+    }
+}
@@ -0,0 +1,102 @@
+package shared;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link SeriesDownsampler}: kept end points, short series and the peaks of a
+ * known shape.
+ */
+public class SeriesDownsamplerTest {
+
+    /** X values 0, 1, 2, ... */
+    private static double[] indices(int size) {
+        double[] x = new double[size];
+        for (int i = 0; i < size; i++) x[i] = i;
+        return x;
+    }
+
+    @Test
+    public void keepsTheEndsAndAscendingIndices() {
+        double[] x = indices(1000);
+        double[] y = new double[1000];
+        for (int i = 0; i < y.length; i++) y[i] = Math.sin(i / 37.0) * 100 + i % 7;
+
+        for (int threshold : new int[]{3, 4, 10, 333, 999}) {
+            int[] kept = SeriesDownsampler.largestTriangleThreeBuckets(x, y, 1000, threshold);
+            assertEquals(threshold, kept.length);
+            assertEquals(0, kept[0]);
+            assertEquals(999, kept[threshold - 1]);
+            for (int i = 1; i < kept.length; i++) {
+                assertTrue("threshold " + threshold, kept[i] > kept[i - 1]);
+            }
+        }
+    }
+
+    @Test
+    public void shortSeriesAreReturnedWhole() {
+        double[] x = indices(10);
+        double[] y = indices(10);
+        int[] all = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+
+        assertArrayEquals(all, SeriesDownsampler.largestTriangleThreeBuckets(x, y, 10, 10));
+        assertArrayEquals(all, SeriesDownsampler.largestTriangleThreeBuckets(x, y, 10, 500));
+        assertArrayEquals(all, SeriesDownsampler.largestTriangleThreeBuckets(x, y, 10, 2)); // Too few to downsample
+        assertArrayEquals(new int[]{0, 1, 2, 3}, SeriesDownsampler.largestTriangleThreeBuckets(x, y, 4, 4));
+        assertEquals(0, SeriesDownsampler.largestTriangleThreeBuckets(x, y, 0, 100).length);
+    }
+
+    @Test
+    public void onlyTheGivenSizeIsConsidered() {
+        double[] x = indices(100);
+        double[] y = new double[100];
+        y[80] = 1000; // Beyond the considered size
+        int[] kept = SeriesDownsampler.largestTriangleThreeBuckets(x, y, 50, 5);
+        assertEquals(49, kept[kept.length - 1]);
+    }
+
+    @Test
+    public void peaksAndTroughsOfAFlatSeriesSurvive() {
+        double[] x = indices(2000);
+        double[] y = new double[2000];
+        Arrays.fill(y, 50.0);
+        int[] spikes = {137, 604, 1221, 1873};
+        y[137] = 400.0;
+        y[604] = -300.0;
+        y[1221] = 120.0;
+        y[1873] = -20.0;
+
+        int[] kept = SeriesDownsampler.largestTriangleThreeBuckets(x, y, 2000, 20);
+        for (int spike : spikes) {
+            assertTrue("spike at " + spike, Arrays.stream(kept).anyMatch(index -> index == spike));
+        }
+    }
+
+    @Test
+    public void squareWaveKeepsBothLevels() {
+        double[] x = indices(1200);
+        double[] y = new double[1200];
+        for (int i = 0; i < y.length; i++) y[i] = (i / 100) % 2 == 0 ? 0.0 : 10.0; // Six periods
+
+        int[] kept = SeriesDownsampler.largestTriangleThreeBuckets(x, y, 1200, 60);
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (int index : kept) {
+            min = Math.min(min, y[index]);
+            max = Math.max(max, y[index]);
+        }
+        assertEquals(0.0, min, 0.0);
+        assertEquals(10.0, max, 0.0);
+
+        // Every level of the wave keeps at least one point, so no period is flattened away
+        for (int level = 0; level < 12; level++) {
+            int from = level * 100;
+            assertTrue("level " + level, Arrays.stream(kept).anyMatch(index -> index >= from && index < from + 100));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package shared;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Local HTTP server standing in for a JSON API in tests.
+ * <p>
+ * It listens on a free loopback port and answers every request with the body the
+ * responder returns for its path and query, or 404 if it returns null. Requests are
+ * recorded, and can be held until released to test callers while a request is in
+ * flight.
+ */
+public class StubHttpServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final List<String> requests = new CopyOnWriteArrayList<>(); // Path and query of every request
+    private volatile Function<String, String> responder = request -> null; // Body for each request
+    private volatile int status = 200; // Status of answered requests
+    private volatile CountDownLatch gate = new CountDownLatch(0); // Open unless requests are held
+
+    /**
+     * Starts a server on a free loopback port.
+     *
+     * @throws IOException If the server cannot be started
+     */
+    public StubHttpServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stub-http");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+    }
+
+    /** @return The root URL of the server, without a trailing slash */
+    public String getUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * Sets the bodies returned by the server.
+     *
+     * @param responder Gives the body for a path and query, or null for 404
+     */
+    public void respond(Function<String, String> responder) {
+        this.responder = responder;
+    }
+
+    /**
+     * Sets the status of answered requests, e.g. 500 to simulate an outage.
+     *
+     * @param status The HTTP status code
+     */
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    /** Holds every following request until {@link #release()} */
+    public void hold() {
+        gate = new CountDownLatch(1);
+    }
+
+    /** Answers the held requests */
+    public void release() {
+        gate.countDown();
+    }
+
+    /** @return The path and query of every request so far */
+    public List<String> getRequests() {
+        return requests;
+    }
+
+    @Override
+    public void close() {
+        release();
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String request = exchange.getRequestURI().getRawPath()
+                + (exchange.getRequestURI().getRawQuery() == null ? "" : "?" + exchange.getRequestURI().getRawQuery());
+        requests.add(request);
+        try {
+            gate.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        String body = responder.apply(request);
+        byte[] bytes = (body == null ? "{}" : body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(body == null ? 404 : status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}